@@ -38,6 +38,9 @@ module org.joda.money {
 
     // all packages are exported
     exports org.joda.money;
+    exports org.joda.money.concurrent;
     exports org.joda.money.format;
+    exports org.joda.money.fx;
+    exports org.joda.money.stats;
 
 }
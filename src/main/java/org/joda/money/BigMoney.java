@@ -22,7 +22,9 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.math.RoundingMode;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
 import java.util.regex.Pattern;
 
 import org.joda.convert.FromString;
@@ -210,6 +212,9 @@ public final class BigMoney implements BigMoneyProvider, Comparable<BigMoneyProv
      * For example, if constructing US Dollars, the input to this method represents cents.
      * Note that when a currency has zero decimal places, the major and minor units are the same.
      * For example, {@code ofMinor(USD, 2595)} creates the instance {@code USD 25.95}.
+     * <p>
+     * Small amounts, from zero up to 1023 minor units, are cached for each currency,
+     * thus the same instance may be returned for the same input.
      *
      * @param currency  the currency, not null
      * @param amountMinor  the amount of money in the minor division of the currency
@@ -217,6 +222,9 @@ public final class BigMoney implements BigMoneyProvider, Comparable<BigMoneyProv
      */
     public static BigMoney ofMinor(CurrencyUnit currency, long amountMinor) {
         MoneyUtils.checkNotNull(currency, "CurrencyUnit must not be null");
+        if (amountMinor >= 0 && amountMinor < Money.CACHE_SIZE) {
+            return Money.cached(currency, (int) amountMinor).toBigMoney();
+        }
         return BigMoney.of(currency, BigDecimal.valueOf(amountMinor, currency.getDecimalPlaces()));
     }
 
@@ -226,12 +234,14 @@ public final class BigMoney implements BigMoneyProvider, Comparable<BigMoneyProv
      * <p>
      * The scale of the money will be zero.
      * For example, {@code zero(USD)} creates the instance {@code USD 0}.
+     * The instance is cached for each currency.
      *
      * @param currency  the currency, not null
      * @return the instance representing zero, never null
      */
     public static BigMoney zero(CurrencyUnit currency) {
-        return BigMoney.of(currency, BigDecimal.ZERO);
+        MoneyUtils.checkNotNull(currency, "Currency must not be null");
+        return currency.zeroScaleZero();
     }
 
     /**
@@ -245,6 +255,9 @@ public final class BigMoney implements BigMoneyProvider, Comparable<BigMoneyProv
      * @throws IllegalArgumentException if the scale is negative
      */
     public static BigMoney zero(CurrencyUnit currency, int scale) {
+        if (currency != null && scale == currency.getDecimalPlaces()) {
+            return Money.cached(currency, 0).toBigMoney();
+        }
         return BigMoney.of(currency, BigDecimal.valueOf(0, scale));
     }
 
@@ -352,6 +365,44 @@ public final class BigMoney implements BigMoneyProvider, Comparable<BigMoneyProv
         return BigMoney.zero(currency).plus(monies);
     }
 
+    /**
+     * Obtains an instance of {@code BigMoney} as the total value of
+     * a possibly empty collection, using the common fork-join pool.
+     * <p>
+     * The result is the same as {@link #total(CurrencyUnit, Iterable)},
+     * including the scale of the result.
+     * The collection is split using its spliterator, with each part totalled
+     * in parallel and the results combined exactly.
+     * This is only faster than the sequential total for large collections.
+     *
+     * @param currency  the currency to total in, not null
+     * @param monies  the monetary values to total, no null elements, not null
+     * @return the total, never null
+     * @throws CurrencyMismatchException if the currencies differ
+     */
+    public static BigMoney totalParallel(CurrencyUnit currency, Collection<? extends BigMoneyProvider> monies) {
+        return totalParallel(currency, monies, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Obtains an instance of {@code BigMoney} as the total value of
+     * a possibly empty collection, using the specified fork-join pool.
+     * <p>
+     * The result is the same as {@link #total(CurrencyUnit, Iterable)},
+     * including the scale of the result.
+     * The collection is split using its spliterator, with each part totalled
+     * in parallel and the results combined exactly.
+     *
+     * @param currency  the currency to total in, not null
+     * @param monies  the monetary values to total, no null elements, not null
+     * @param pool  the pool to perform the calculation in, not null
+     * @return the total, never null
+     * @throws CurrencyMismatchException if the currencies differ
+     */
+    public static BigMoney totalParallel(CurrencyUnit currency, Collection<? extends BigMoneyProvider> monies, ForkJoinPool pool) {
+        return ParallelTotal.total(currency, monies, pool, false);
+    }
+
     //-----------------------------------------------------------------------
     /**
      * Parses an instance of {@code BigMoney} from a string.
@@ -1259,6 +1310,30 @@ public final class BigMoney implements BigMoneyProvider, Comparable<BigMoneyProv
         return BigMoney.of(currency, newAmount);
     }
 
+    /**
+     * Returns a copy of this monetary value multiplied by the specified value
+     * with the size of the result bounded by the specified context.
+     * <p>
+     * The result is calculated as per {@link #multipliedBy(BigDecimal)} and then
+     * rounded if it exceeds the maximum scale or precision of the context.
+     * For example, 'USD 1.13' multiplied by '1.0025' gives 'USD 1.132825',
+     * which is 'USD 1.1328' with a maximum scale of 4 and rounding half even.
+     * Using a context keeps the cost of each operation in a long chain predictable.
+     * <p>
+     * This instance is immutable and unaffected by this method.
+     *
+     * @param valueToMultiplyBy  the scalar value to multiply by, not null
+     * @param context  the context bounding the result, not null
+     * @return the new multiplied instance, never null
+     * @throws ArithmeticException if the rounding fails
+     */
+    public BigMoney multipliedBy(BigDecimal valueToMultiplyBy, MoneyMathContext context) {
+        MoneyUtils.checkNotNull(valueToMultiplyBy, "Multiplier must not be null");
+        MoneyUtils.checkNotNull(context, "MoneyMathContext must not be null");
+        var newAmount = context.round(amount.multiply(valueToMultiplyBy));
+        return newAmount == amount ? this : BigMoney.of(currency, newAmount);
+    }
+
     /**
      * Returns a copy of this monetary value multiplied by the specified value.
      * <p>
@@ -1384,6 +1459,31 @@ public final class BigMoney implements BigMoneyProvider, Comparable<BigMoneyProv
         return BigMoney.of(currency, newAmount);
     }
 
+    /**
+     * Returns a copy of this monetary value divided by the specified value
+     * with the size of the result bounded by the specified context.
+     * <p>
+     * The quotient is calculated to the maximum scale or precision of the context,
+     * rounding as necessary. An exact quotient has no more decimal places than it needs,
+     * but never fewer than this instance unless limited by the maximum scale.
+     * For example, 'USD 1.13' divided by '3' gives 'USD 0.3767' with a maximum scale
+     * of 4 and rounding half even, whereas divided by '2' it gives 'USD 0.565'.
+     * <p>
+     * This instance is immutable and unaffected by this method.
+     *
+     * @param valueToDivideBy  the scalar value to divide by, not null
+     * @param context  the context bounding the result, not null
+     * @return the new divided instance, never null
+     * @throws ArithmeticException if dividing by zero
+     * @throws ArithmeticException if the rounding fails
+     */
+    public BigMoney dividedBy(BigDecimal valueToDivideBy, MoneyMathContext context) {
+        MoneyUtils.checkNotNull(valueToDivideBy, "Divisor must not be null");
+        MoneyUtils.checkNotNull(context, "MoneyMathContext must not be null");
+        var newAmount = context.divide(amount, valueToDivideBy);
+        return newAmount.equals(amount) ? this : BigMoney.of(currency, newAmount);
+    }
+
     /**
      * Returns a copy of this monetary value divided by the specified value
      * using the specified rounding mode to adjust the scale.
@@ -1529,6 +1629,31 @@ public final class BigMoney implements BigMoneyProvider, Comparable<BigMoneyProv
         return BigMoney.of(currency, newAmount);
     }
 
+    /**
+     * Returns a copy of this monetary value converted into another currency
+     * using the specified conversion rate, with the size of the result bounded
+     * by the specified context.
+     * <p>
+     * The result is calculated as per {@link #convertedTo(CurrencyUnit, BigDecimal)} and then
+     * rounded if it exceeds the maximum scale or precision of the context.
+     * <p>
+     * This instance is immutable and unaffected by this method.
+     *
+     * @param currency  the new currency, not null
+     * @param conversionMultipler  the conversion factor between the currencies, not null
+     * @param context  the context bounding the result, not null
+     * @return the new multiplied instance, never null
+     * @throws IllegalArgumentException if the currency is the same as this currency and the
+     *  conversion is not one; or if the conversion multiplier is negative
+     * @throws ArithmeticException if the rounding fails
+     */
+    public BigMoney convertedTo(CurrencyUnit currency, BigDecimal conversionMultipler, MoneyMathContext context) {
+        MoneyUtils.checkNotNull(context, "MoneyMathContext must not be null");
+        var converted = convertedTo(currency, conversionMultipler);
+        var newAmount = context.round(converted.amount);
+        return newAmount == converted.amount ? converted : BigMoney.of(currency, newAmount);
+    }
+
     /**
      * Returns a copy of this monetary value converted into another currency
      * using the specified conversion rate, with a rounding mode used to adjust
@@ -1585,6 +1710,17 @@ public final class BigMoney implements BigMoneyProvider, Comparable<BigMoneyProv
         return Money.of(this, roundingMode);
     }
 
+    /**
+     * Starts an expression with this amount as the initial amount.
+     * <p>
+     * The expression records operations, evaluating them exactly with a single rounding.
+     *
+     * @return the expression, never null
+     */
+    public MoneyExpression toExpression() {
+        return MoneyExpression.of(this);
+    }
+
     //-----------------------------------------------------------------------
     /**
      * Checks if this instance and the specified instance have the same currency.
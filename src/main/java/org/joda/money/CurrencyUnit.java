@@ -18,6 +18,7 @@ package org.joda.money;
 import java.io.InvalidObjectException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Currency;
@@ -29,6 +30,7 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.regex.Pattern;
 
 import org.joda.convert.FromString;
@@ -65,6 +67,14 @@ public final class CurrencyUnit implements Comparable<CurrencyUnit>, Serializabl
      * Map of registered currencies by numeric code.
      */
     private static final ConcurrentMap<Integer, CurrencyUnit> currenciesByNumericCode = new ConcurrentHashMap<>();
+    /**
+     * Array of registered currencies by numeric code, matching the map, for lookup without boxing.
+     */
+    private static final AtomicReferenceArray<CurrencyUnit> currenciesByNumericCodeArray = new AtomicReferenceArray<>(1000);
+    /**
+     * Array of registered currencies by code, matching the map, for lookup without a string.
+     */
+    private static final AtomicReferenceArray<CurrencyUnit> currenciesByCodeArray = new AtomicReferenceArray<>(26 * 26 * 26);
     /**
      * Map of registered currencies by country.
      */
@@ -135,6 +145,14 @@ public final class CurrencyUnit implements Comparable<CurrencyUnit>, Serializabl
      * The number of decimal places.
      */
     private final short decimalPlaces;
+    /**
+     * The cache of small amounts of {@code Money}, created on first use.
+     */
+    private transient volatile Money[] moneyCache;
+    /**
+     * The cached {@code BigMoney} of zero at scale zero, created on first use.
+     */
+    private transient volatile BigMoney zeroScaleZero;
 
     //-----------------------------------------------------------------------
     /**
@@ -221,7 +239,9 @@ public final class CurrencyUnit implements Comparable<CurrencyUnit>, Serializabl
         var currency = new CurrencyUnit(currencyCode, (short) numericCurrencyCode, (short) decimalPlaces);
         if (force) {
             currenciesByCode.remove(currencyCode);
-            currenciesByNumericCode.remove(numericCurrencyCode);
+            if (currenciesByNumericCode.remove(numericCurrencyCode) != null) {
+                currenciesByNumericCodeArray.set(numericCurrencyCode, null);
+            }
             for (String countryCode : countryCodes) {
                 currenciesByCountry.remove(countryCode);
             }
@@ -236,8 +256,12 @@ public final class CurrencyUnit implements Comparable<CurrencyUnit>, Serializabl
             }
         }
         currenciesByCode.putIfAbsent(currencyCode, currency);
+        currenciesByCodeArray.set(
+                codeIndex(currencyCode.charAt(0), currencyCode.charAt(1), currencyCode.charAt(2)),
+                currenciesByCode.get(currencyCode));
         if (numericCurrencyCode >= 0) {
             currenciesByNumericCode.putIfAbsent(numericCurrencyCode, currency);
+            currenciesByNumericCodeArray.compareAndSet(numericCurrencyCode, null, currency);
         }
         for (String countryCode : countryCodes) {
             registerCountry(countryCode, currency);
@@ -396,13 +420,49 @@ public final class CurrencyUnit implements Comparable<CurrencyUnit>, Serializabl
      * @throws IllegalCurrencyException if the currency is unknown
      */
     public static CurrencyUnit ofNumericCode(int numericCurrencyCode) {
-        var currency = currenciesByNumericCode.get(numericCurrencyCode);
+        var currency = findByNumericCode(numericCurrencyCode);
         if (currency == null) {
             throw new IllegalCurrencyException("Unknown currency '" + numericCurrencyCode + '\'');
         }
         return currency;
     }
 
+    /**
+     * Finds the currency for the specified three letter currency code.
+     * <p>
+     * This lookup does not allocate.
+     *
+     * @param ch1  the first character of the code
+     * @param ch2  the second character of the code
+     * @param ch3  the third character of the code
+     * @return the singleton instance, null if unknown
+     */
+    static CurrencyUnit findByCode(char ch1, char ch2, char ch3) {
+        if (ch1 < 'A' || ch1 > 'Z' || ch2 < 'A' || ch2 > 'Z' || ch3 < 'A' || ch3 > 'Z') {
+            return null;
+        }
+        return currenciesByCodeArray.get(codeIndex(ch1, ch2, ch3));
+    }
+
+    private static int codeIndex(char ch1, char ch2, char ch3) {
+        return ((ch1 - 'A') * 26 + (ch2 - 'A')) * 26 + (ch3 - 'A');
+    }
+
+    /**
+     * Finds the currency for the specified ISO-4217 numeric currency code.
+     * <p>
+     * This lookup does not allocate.
+     *
+     * @param numericCurrencyCode  the numeric currency code
+     * @return the singleton instance, null if unknown
+     */
+    static CurrencyUnit findByNumericCode(int numericCurrencyCode) {
+        if (numericCurrencyCode < 0 || numericCurrencyCode >= currenciesByNumericCodeArray.length()) {
+            return null;
+        }
+        return currenciesByNumericCodeArray.get(numericCurrencyCode);
+    }
+
     /**
      * Obtains an instance of {@code CurrencyUnit} for the specified locale.
      * <p>
@@ -561,6 +621,37 @@ public final class CurrencyUnit implements Comparable<CurrencyUnit>, Serializabl
         return decimalPlaces < 0;
     }
 
+    /**
+     * Gets the cache of small amounts of {@code Money} in this currency, indexed by the amount in minor units.
+     * <p>
+     * The cache is filled on demand by {@link Money#ofMinor(CurrencyUnit, long)}.
+     * Entries are published without locking, which is safe as {@code Money} is immutable.
+     *
+     * @return the cache, never null
+     */
+    Money[] moneyCache() {
+        var cache = moneyCache;
+        if (cache == null) {
+            cache = new Money[Money.CACHE_SIZE];
+            moneyCache = cache;
+        }
+        return cache;
+    }
+
+    /**
+     * Gets the {@code BigMoney} of zero at scale zero in this currency.
+     *
+     * @return the cached instance, never null
+     */
+    BigMoney zeroScaleZero() {
+        var zero = zeroScaleZero;
+        if (zero == null) {
+            zero = new BigMoney(this, BigDecimal.ZERO);
+            zeroScaleZero = zero;
+        }
+        return zero;
+    }
+
     //-----------------------------------------------------------------------
     /**
      * Gets the symbol for this locale from the JDK.
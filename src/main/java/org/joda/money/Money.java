@@ -19,8 +19,12 @@ import java.io.InvalidObjectException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.math.RoundingMode;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import org.joda.convert.FromString;
 import org.joda.convert.ToString;
@@ -48,6 +52,10 @@ public final class Money implements BigMoneyProvider, Comparable<BigMoneyProvide
      * The serialisation version.
      */
     private static final long serialVersionUID = 1L;
+    /**
+     * The number of small amounts in minor units, from zero, cached for each currency.
+     */
+    static final int CACHE_SIZE = 1024;
 
     /**
      * The money, not null.
@@ -170,28 +178,52 @@ public final class Money implements BigMoneyProvider, Comparable<BigMoneyProvide
      * For example, if constructing US Dollars, the input to this method represents cents.
      * Note that when a currency has zero decimal places, the major and minor units are the same.
      * For example, {@code ofMinor(USD, 2595)} creates the instance {@code USD 25.95}.
+     * <p>
+     * Small amounts, from zero up to 1023 minor units, are cached for each currency,
+     * thus the same instance may be returned for the same input.
      *
      * @param currency  the currency, not null
      * @param amountMinor  the amount of money in the minor division of the currency
      * @return the new instance, never null
      */
     public static Money ofMinor(CurrencyUnit currency, long amountMinor) {
+        if (amountMinor >= 0 && amountMinor < CACHE_SIZE) {
+            MoneyUtils.checkNotNull(currency, "CurrencyUnit must not be null");
+            return cached(currency, (int) amountMinor);
+        }
         return new Money(BigMoney.ofMinor(currency, amountMinor));
     }
 
+    /**
+     * Obtains a cached instance of a small amount in minor units.
+     *
+     * @param currency  the currency, not null
+     * @param amountMinor  the amount in minor units, from zero to less than the cache size
+     * @return the cached instance, never null
+     */
+    static Money cached(CurrencyUnit currency, int amountMinor) {
+        var cache = currency.moneyCache();
+        var money = cache[amountMinor];
+        if (money == null) {
+            money = new Money(new BigMoney(currency, BigDecimal.valueOf(amountMinor, currency.getDecimalPlaces())));
+            cache[amountMinor] = money;
+        }
+        return money;
+    }
+
     //-----------------------------------------------------------------------
     /**
      * Obtains an instance of {@code Money} representing zero.
      * <p>
      * For example, {@code zero(USD)} creates the instance {@code USD 0.00}.
+     * The instance is cached for each currency.
      *
      * @param currency  the currency, not null
      * @return the instance representing zero, never null
      */
     public static Money zero(CurrencyUnit currency) {
         MoneyUtils.checkNotNull(currency, "Currency must not be null");
-        var bd = BigDecimal.valueOf(0, currency.getDecimalPlaces());
-        return new Money(BigMoney.of(currency, bd));
+        return cached(currency, 0);
     }
 
     //-----------------------------------------------------------------------
@@ -315,6 +347,44 @@ public final class Money implements BigMoneyProvider, Comparable<BigMoneyProvide
         return Money.zero(currency).plus(monies);
     }
 
+    /**
+     * Obtains an instance of {@code Money} as the total value of
+     * a possibly empty collection, using the common fork-join pool.
+     * <p>
+     * The result is the same as {@link #total(CurrencyUnit, Iterable)}.
+     * The collection is split using its spliterator, with each part totalled
+     * in parallel and the results combined exactly.
+     * This is only faster than the sequential total for large collections.
+     *
+     * @param currency  the currency to total in, not null
+     * @param monies  the monetary values to total, no null elements, not null
+     * @return the total, never null
+     * @throws CurrencyMismatchException if the currencies differ
+     * @throws ArithmeticException if the total exceeds the capacity of {@code Money}
+     */
+    public static Money totalParallel(CurrencyUnit currency, Collection<Money> monies) {
+        return totalParallel(currency, monies, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Obtains an instance of {@code Money} as the total value of
+     * a possibly empty collection, using the specified fork-join pool.
+     * <p>
+     * The result is the same as {@link #total(CurrencyUnit, Iterable)}.
+     * The collection is split using its spliterator, with each part totalled
+     * in parallel and the results combined exactly.
+     *
+     * @param currency  the currency to total in, not null
+     * @param monies  the monetary values to total, no null elements, not null
+     * @param pool  the pool to perform the calculation in, not null
+     * @return the total, never null
+     * @throws CurrencyMismatchException if the currencies differ
+     * @throws ArithmeticException if the total exceeds the capacity of {@code Money}
+     */
+    public static Money totalParallel(CurrencyUnit currency, Collection<Money> monies, ForkJoinPool pool) {
+        return Money.of(ParallelTotal.total(currency, monies, pool, false));
+    }
+
     //-----------------------------------------------------------------------
     /**
      * Parses an instance of {@code Money} from a string.
@@ -1055,6 +1125,68 @@ public final class Money implements BigMoneyProvider, Comparable<BigMoneyProvide
         return with(money.multipliedBy(valueToMultiplyBy));
     }
 
+    /**
+     * Returns a copy of this monetary value multiplied by a fraction.
+     * <p>
+     * This takes this amount, multiplies it by the numerator and divides it by the denominator,
+     * rounding the result once as specified.
+     * For example, 'USD 100.00' multiplied by 1/3 and rounding half even gives 'USD 33.33'.
+     * <p>
+     * The calculation is performed exactly on the amount in minor units using a 128-bit intermediate,
+     * thus it is faster than {@link #multipliedBy(BigDecimal, RoundingMode)} and never loses
+     * precision when the fraction has no exact decimal form.
+     * {@code BigDecimal} is only used if the amount or result does not fit in a {@code long} of minor units.
+     * <p>
+     * This instance is immutable and unaffected by this method.
+     *
+     * @param numerator  the numerator of the fraction
+     * @param denominator  the denominator of the fraction, not zero
+     * @param roundingMode  the rounding mode to use, not null
+     * @return the new multiplied instance, never null
+     * @throws ArithmeticException if the denominator is zero
+     * @throws ArithmeticException if the rounding fails
+     */
+    public Money multipliedByFraction(long numerator, long denominator, RoundingMode roundingMode) {
+        MoneyUtils.checkNotNull(roundingMode, "RoundingMode must not be null");
+        if (denominator == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        if (numerator == denominator) {
+            return this;
+        }
+        var unscaled = money.getAmount().unscaledValue();
+        if (unscaled.bitLength() < 64) {
+            try {
+                return Money.ofMinor(getCurrencyUnit(),
+                        MoneyColumns.multipliedByFraction(unscaled.longValue(), numerator, denominator, roundingMode));
+            } catch (ArithmeticException ex) {
+                // too large for a long, or rounding failed, which is reported below
+            }
+        }
+        var newAmount = money.getAmount()
+                .multiply(BigDecimal.valueOf(numerator))
+                .divide(BigDecimal.valueOf(denominator), getScale(), roundingMode);
+        return with(BigMoney.of(getCurrencyUnit(), newAmount));
+    }
+
+    /**
+     * Returns a copy of this monetary value multiplied by a rate in basis points.
+     * <p>
+     * A basis point is one hundredth of one percent, thus 10,000 basis points is 100%.
+     * For example, 'USD 1234.56' multiplied by 25 basis points and rounding half even gives 'USD 3.09'.
+     * The result is calculated as per {@link #multipliedByFraction(long, long, RoundingMode)}.
+     * <p>
+     * This instance is immutable and unaffected by this method.
+     *
+     * @param basisPoints  the rate in basis points
+     * @param roundingMode  the rounding mode to use, not null
+     * @return the new multiplied instance, never null
+     * @throws ArithmeticException if the rounding fails
+     */
+    public Money multipliedByBasisPoints(long basisPoints, RoundingMode roundingMode) {
+        return multipliedByFraction(basisPoints, 10_000, roundingMode);
+    }
+
     //-----------------------------------------------------------------------
     /**
      * Returns a copy of this monetary value divided by the specified value.
@@ -1116,6 +1248,99 @@ public final class Money implements BigMoneyProvider, Comparable<BigMoneyProvide
         return with(money.dividedBy(valueToDivideBy, roundingMode));
     }
 
+    //-----------------------------------------------------------------------
+    /**
+     * Allocates this amount into parts in proportion to a set of ratios.
+     * <p>
+     * This is typically used to split an invoice, fee or dividend.
+     * The parts always add up to this amount exactly, with any minor units left over
+     * after rounding towards zero given to the parts with the largest remainders.
+     * For example, allocating 'USD 1.00' in the ratios 1:1:1 results in
+     * 'USD 0.34', 'USD 0.33' and 'USD 0.33'.
+     * See {@link MoneyColumns#allocate(long, long[], long[])} for the full algorithm,
+     * which is used directly when the amount fits in a {@code long} of minor units.
+     * <p>
+     * This instance is immutable and unaffected by this method.
+     *
+     * @param ratios  the ratios, zero or positive, not all zero, not null
+     * @return the parts, in the order of the ratios, never null
+     * @throws IllegalArgumentException if the ratios are empty, negative or all zero
+     */
+    public List<Money> allocate(long... ratios) {
+        MoneyUtils.checkNotNull(ratios, "Ratios must not be null");
+        var unscaled = money.getAmount().unscaledValue();
+        if (unscaled.bitLength() < 64) {
+            var parts = new long[ratios.length];
+            MoneyColumns.allocate(unscaled.longValue(), ratios, parts);
+            var result = new Money[parts.length];
+            for (var i = 0; i < parts.length; i++) {
+                result[i] = Money.ofMinor(getCurrencyUnit(), parts[i]);
+            }
+            return List.of(result);
+        }
+        var ratiosBig = new BigInteger[ratios.length];
+        for (var i = 0; i < ratios.length; i++) {
+            ratiosBig[i] = BigInteger.valueOf(ratios[i]);
+        }
+        return allocate(unscaled, ratiosBig);
+    }
+
+    /**
+     * Allocates this amount into parts in proportion to a set of weights.
+     * <p>
+     * This is the same as {@link #allocate(long...)}, but with weights such as 0.25 or 1.5.
+     * The weights are converted to whole ratios by scaling them to the largest scale of the weights.
+     * <p>
+     * This instance is immutable and unaffected by this method.
+     *
+     * @param weights  the weights, zero or positive, not all zero, no null elements, not null
+     * @return the parts, in the order of the weights, never null
+     * @throws IllegalArgumentException if the weights are empty, negative or all zero
+     */
+    public List<Money> allocate(BigDecimal... weights) {
+        MoneyUtils.checkNotNull(weights, "Weights must not be null");
+        var scale = 0;
+        for (var weight : weights) {
+            MoneyUtils.checkNotNull(weight, "Weight must not be null");
+            scale = Math.max(scale, weight.scale());
+        }
+        var ratios = new long[weights.length];
+        var ratiosBig = new BigInteger[weights.length];
+        var fitsLong = true;
+        for (var i = 0; i < weights.length; i++) {
+            ratiosBig[i] = weights[i].setScale(scale).unscaledValue();
+            fitsLong &= ratiosBig[i].bitLength() < 64;
+            ratios[i] = ratiosBig[i].longValue();
+        }
+        if (fitsLong) {
+            return allocate(ratios);
+        }
+        return allocate(money.getAmount().unscaledValue(), ratiosBig);
+    }
+
+    // allocates using the slow path
+    private List<Money> allocate(BigInteger amountMinor, BigInteger[] ratios) {
+        var total = BigInteger.ZERO;
+        for (var ratio : ratios) {
+            if (ratio.signum() < 0) {
+                throw new IllegalArgumentException("Ratios must not be negative");
+            }
+            total = total.add(ratio);
+        }
+        if (ratios.length == 0) {
+            throw new IllegalArgumentException("Ratios must not be empty");
+        }
+        if (total.signum() == 0) {
+            throw new IllegalArgumentException("Ratios must not all be zero");
+        }
+        var parts = MoneyColumns.allocate(amountMinor, ratios);
+        var result = new Money[parts.length];
+        for (var i = 0; i < parts.length; i++) {
+            result[i] = Money.of(getCurrencyUnit(), new BigDecimal(parts[i], getScale()));
+        }
+        return List.of(result);
+    }
+
     //-----------------------------------------------------------------------
     /**
      * Returns a copy of this monetary value with the amount negated.
@@ -1197,6 +1422,17 @@ public final class Money implements BigMoneyProvider, Comparable<BigMoneyProvide
         return money;
     }
 
+    /**
+     * Starts an expression with this amount as the initial amount.
+     * <p>
+     * The expression records operations, evaluating them exactly with a single rounding.
+     *
+     * @return the expression, never null
+     */
+    public MoneyExpression toExpression() {
+        return MoneyExpression.of(money);
+    }
+
     //-----------------------------------------------------------------------
     /**
      * Checks if this instance and the specified instance have the same currency.
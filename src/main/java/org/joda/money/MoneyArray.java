@@ -0,0 +1,456 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A growable array of monetary amounts stored in columns of primitives.
+ * <p>
+ * Each element is held as an amount in the minor units of its currency in a {@code long[]}
+ * and a currency identifier in a {@code short[]}. The scale of each element is thus the
+ * number of decimal places of its currency, as for {@link Money}.
+ * The identifiers index a small table of the currencies held by this array.
+ * <p>
+ * The bulk operations, such as {@link #total()}, {@link #plus(MoneyArray)} and
+ * {@link #filter(CurrencyUnit)}, operate directly on the primitive columns without
+ * creating an object per element. Only {@link #get(int)} creates a {@code Money}.
+ * <p>
+ * Amounts are limited to the range of a {@code long} in minor units.
+ * Any operation that would exceed this range throws {@code ArithmeticException}.
+ * <p>
+ * This class is mutable and intended for use by a single thread.
+ */
+public final class MoneyArray {
+
+    /** The default initial capacity. */
+    private static final int DEFAULT_CAPACITY = 16;
+    /** An empty currency table. */
+    private static final CurrencyUnit[] NO_CURRENCIES = new CurrencyUnit[0];
+
+    /** The amounts in minor units. */
+    private long[] amounts;
+    /** The currency identifiers, indexing the currency table. */
+    private short[] currencyIds;
+    /** The number of elements. */
+    private int size;
+    /** The currency table. */
+    private CurrencyUnit[] currencies = NO_CURRENCIES;
+
+    //-----------------------------------------------------------------------
+    /**
+     * Obtains an instance containing the specified monetary values.
+     *
+     * @param monies  the monetary values, no null elements, not null
+     * @return the new array, never null
+     * @throws ArithmeticException if an amount exceeds the capacity of a {@code long} in minor units
+     */
+    public static MoneyArray of(Money... monies) {
+        MoneyUtils.checkNotNull(monies, "Money array must not be null");
+        var array = new MoneyArray(monies.length);
+        for (Money money : monies) {
+            array.add(money);
+        }
+        return array;
+    }
+
+    /**
+     * Obtains an instance containing the specified monetary values.
+     *
+     * @param monies  the monetary values, no null elements, not null
+     * @return the new array, never null
+     * @throws ArithmeticException if an amount exceeds the capacity of a {@code long} in minor units
+     */
+    public static MoneyArray of(Iterable<Money> monies) {
+        MoneyUtils.checkNotNull(monies, "Money iterator must not be null");
+        var array = new MoneyArray();
+        for (Money money : monies) {
+            array.add(money);
+        }
+        return array;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Creates an empty array.
+     */
+    public MoneyArray() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty array with the specified initial capacity.
+     *
+     * @param initialCapacity  the initial capacity, zero or greater
+     * @throws IllegalArgumentException if the capacity is negative
+     */
+    public MoneyArray(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Initial capacity must not be negative");
+        }
+        this.amounts = new long[initialCapacity];
+        this.currencyIds = new short[initialCapacity];
+    }
+
+    /**
+     * Creates an array from columns.
+     *
+     * @param amounts  the amounts, not null
+     * @param currencyIds  the currency identifiers, not null
+     * @param size  the size
+     * @param currencies  the currency table, not null
+     */
+    private MoneyArray(long[] amounts, short[] currencyIds, int size, CurrencyUnit[] currencies) {
+        this.amounts = amounts;
+        this.currencyIds = currencyIds;
+        this.size = size;
+        this.currencies = currencies;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the number of elements.
+     *
+     * @return the size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if the array is empty.
+     *
+     * @return true if there are no elements
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Gets the monetary value at the specified index.
+     *
+     * @param index  the index
+     * @return the monetary value, never null
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    public Money get(int index) {
+        checkIndex(index);
+        return Money.ofMinor(currencies[currencyIds[index]], amounts[index]);
+    }
+
+    /**
+     * Gets the currency at the specified index.
+     *
+     * @param index  the index
+     * @return the currency, never null
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    public CurrencyUnit getCurrencyUnit(int index) {
+        checkIndex(index);
+        return currencies[currencyIds[index]];
+    }
+
+    /**
+     * Gets the amount in minor units at the specified index.
+     *
+     * @param index  the index
+     * @return the amount in minor units
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    public long getAmountMinor(int index) {
+        checkIndex(index);
+        return amounts[index];
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Adds a monetary value to the end of the array.
+     *
+     * @param money  the monetary value, not null
+     * @return this, for chaining, never null
+     * @throws ArithmeticException if the amount exceeds the capacity of a {@code long} in minor units
+     */
+    public MoneyArray add(Money money) {
+        MoneyUtils.checkNotNull(money, "Money must not be null");
+        return addMinor(money.getCurrencyUnit(), money.getAmountMinorLong());
+    }
+
+    /**
+     * Adds an amount in minor units to the end of the array.
+     *
+     * @param currency  the currency, not null
+     * @param amountMinor  the amount in minor units
+     * @return this, for chaining, never null
+     */
+    public MoneyArray addMinor(CurrencyUnit currency, long amountMinor) {
+        MoneyUtils.checkNotNull(currency, "CurrencyUnit must not be null");
+        var id = currencyId(currency);
+        if (size == amounts.length) {
+            var capacity = Math.max(DEFAULT_CAPACITY, size + (size >> 1));
+            amounts = Arrays.copyOf(amounts, capacity);
+            currencyIds = Arrays.copyOf(currencyIds, capacity);
+        }
+        amounts[size] = amountMinor;
+        currencyIds[size] = id;
+        size++;
+        return this;
+    }
+
+    /**
+     * Replaces the monetary value at the specified index.
+     *
+     * @param index  the index
+     * @param money  the monetary value, not null
+     * @throws IndexOutOfBoundsException if the index is invalid
+     * @throws ArithmeticException if the amount exceeds the capacity of a {@code long} in minor units
+     */
+    public void set(int index, Money money) {
+        checkIndex(index);
+        MoneyUtils.checkNotNull(money, "Money must not be null");
+        var amountMinor = money.getAmountMinorLong();
+        currencyIds[index] = currencyId(money.getCurrencyUnit());
+        amounts[index] = amountMinor;
+    }
+
+    // finds or adds the currency to the table
+    private short currencyId(CurrencyUnit currency) {
+        var id = findCurrencyId(currency);
+        if (id >= 0) {
+            return (short) id;
+        }
+        if (currencies.length == Short.MAX_VALUE) {
+            throw new IllegalStateException("MoneyArray cannot hold more than " + Short.MAX_VALUE + " currencies");
+        }
+        currencies = Arrays.copyOf(currencies, currencies.length + 1);
+        currencies[currencies.length - 1] = currency;
+        return (short) (currencies.length - 1);
+    }
+
+    private int findCurrencyId(CurrencyUnit currency) {
+        for (var i = 0; i < currencies.length; i++) {
+            if (currencies[i].equals(currency)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Calculates the total of all the elements, which must be in the same currency.
+     *
+     * @return the total, never null
+     * @throws NoSuchElementException if the array is empty
+     * @throws CurrencyMismatchException if the currencies differ
+     * @throws ArithmeticException if the total exceeds the capacity of a {@code long} in minor units
+     */
+    public Money total() {
+        var id = singleCurrencyId();
+        return Money.ofMinor(currencies[id], MoneyColumns.sum(amounts, 0, size));
+    }
+
+    /**
+     * Calculates the total of the elements in the specified currency.
+     * <p>
+     * Elements in other currencies are ignored.
+     *
+     * @param currency  the currency to total, not null
+     * @return the total, zero if there are no elements in the currency, never null
+     * @throws ArithmeticException if the total exceeds the capacity of a {@code long} in minor units
+     */
+    public Money total(CurrencyUnit currency) {
+        MoneyUtils.checkNotNull(currency, "CurrencyUnit must not be null");
+        var id = findCurrencyId(currency);
+        var total = 0L;
+        for (var i = 0; i < size; i++) {
+            if (currencyIds[i] == id) {
+                total = Math.addExact(total, amounts[i]);
+            }
+        }
+        return Money.ofMinor(currency, total);
+    }
+
+    /**
+     * Finds the minimum of the elements, which must be in the same currency.
+     *
+     * @return the minimum, never null
+     * @throws NoSuchElementException if the array is empty
+     * @throws CurrencyMismatchException if the currencies differ
+     */
+    public Money min() {
+        var id = singleCurrencyId();
+        var min = Long.MAX_VALUE;
+        for (var i = 0; i < size; i++) {
+            min = Math.min(min, amounts[i]);
+        }
+        return Money.ofMinor(currencies[id], min);
+    }
+
+    /**
+     * Finds the maximum of the elements, which must be in the same currency.
+     *
+     * @return the maximum, never null
+     * @throws NoSuchElementException if the array is empty
+     * @throws CurrencyMismatchException if the currencies differ
+     */
+    public Money max() {
+        var id = singleCurrencyId();
+        var max = Long.MIN_VALUE;
+        for (var i = 0; i < size; i++) {
+            max = Math.max(max, amounts[i]);
+        }
+        return Money.ofMinor(currencies[id], max);
+    }
+
+    // checks that all elements have the same currency, returning the identifier
+    private int singleCurrencyId() {
+        if (size == 0) {
+            throw new NoSuchElementException("MoneyArray is empty");
+        }
+        var id = currencyIds[0];
+        for (var i = 1; i < size; i++) {
+            if (currencyIds[i] != id) {
+                throw new CurrencyMismatchException(currencies[id], currencies[currencyIds[i]]);
+            }
+        }
+        return id;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Returns a new array where each element is the sum of the elements at the same
+     * index in this array and the other array.
+     * <p>
+     * This array is unaffected by this method.
+     *
+     * @param other  the array to add, the same size as this array, not null
+     * @return the new array, never null
+     * @throws IllegalArgumentException if the arrays differ in size
+     * @throws CurrencyMismatchException if the currencies differ at any index
+     * @throws ArithmeticException if any amount exceeds the capacity of a {@code long} in minor units
+     */
+    public MoneyArray plus(MoneyArray other) {
+        var otherIds = translateIds(other);
+        var result = new long[size];
+        for (var i = 0; i < size; i++) {
+            if (otherIds[other.currencyIds[i]] != currencyIds[i]) {
+                throw new CurrencyMismatchException(currencies[currencyIds[i]], other.currencies[other.currencyIds[i]]);
+            }
+            result[i] = Math.addExact(amounts[i], other.amounts[i]);
+        }
+        return new MoneyArray(result, Arrays.copyOf(currencyIds, size), size, currencies.clone());
+    }
+
+    /**
+     * Returns a new array where each element is the element in this array minus the
+     * element at the same index in the other array.
+     * <p>
+     * This array is unaffected by this method.
+     *
+     * @param other  the array to subtract, the same size as this array, not null
+     * @return the new array, never null
+     * @throws IllegalArgumentException if the arrays differ in size
+     * @throws CurrencyMismatchException if the currencies differ at any index
+     * @throws ArithmeticException if any amount exceeds the capacity of a {@code long} in minor units
+     */
+    public MoneyArray minus(MoneyArray other) {
+        var otherIds = translateIds(other);
+        var result = new long[size];
+        for (var i = 0; i < size; i++) {
+            if (otherIds[other.currencyIds[i]] != currencyIds[i]) {
+                throw new CurrencyMismatchException(currencies[currencyIds[i]], other.currencies[other.currencyIds[i]]);
+            }
+            result[i] = Math.subtractExact(amounts[i], other.amounts[i]);
+        }
+        return new MoneyArray(result, Arrays.copyOf(currencyIds, size), size, currencies.clone());
+    }
+
+    // maps the currency identifiers of the other array to those of this array, -1 if not present
+    private int[] translateIds(MoneyArray other) {
+        MoneyUtils.checkNotNull(other, "MoneyArray must not be null");
+        if (other.size != size) {
+            throw new IllegalArgumentException("MoneyArray sizes differ: " + size + "/" + other.size);
+        }
+        var result = new int[other.currencies.length];
+        for (var i = 0; i < result.length; i++) {
+            result[i] = findCurrencyId(other.currencies[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new array where each element is multiplied by the specified value.
+     * <p>
+     * This array is unaffected by this method.
+     *
+     * @param valueToMultiplyBy  the scalar value to multiply by
+     * @return the new array, never null
+     * @throws ArithmeticException if any amount exceeds the capacity of a {@code long} in minor units
+     */
+    public MoneyArray multipliedBy(long valueToMultiplyBy) {
+        var result = new long[size];
+        MoneyColumns.multipliedBy(amounts, size, valueToMultiplyBy, result);
+        return new MoneyArray(result, Arrays.copyOf(currencyIds, size), size, currencies.clone());
+    }
+
+    /**
+     * Returns a new array containing only the elements in the specified currency.
+     * <p>
+     * The order of the elements is retained.
+     * This array is unaffected by this method.
+     *
+     * @param currency  the currency to retain, not null
+     * @return the new array, never null
+     */
+    public MoneyArray filter(CurrencyUnit currency) {
+        MoneyUtils.checkNotNull(currency, "CurrencyUnit must not be null");
+        var id = findCurrencyId(currency);
+        var result = new long[size];
+        var count = 0;
+        for (var i = 0; i < size; i++) {
+            if (currencyIds[i] == id) {
+                result[count++] = amounts[i];
+            }
+        }
+        return new MoneyArray(result, new short[result.length], count, new CurrencyUnit[] {currency});
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the array as a string.
+     *
+     * @return the string form of the elements, never null
+     */
+    @Override
+    public String toString() {
+        var buf = new StringBuilder("[");
+        for (var i = 0; i < size; i++) {
+            if (i > 0) {
+                buf.append(", ");
+            }
+            buf.append(get(i));
+        }
+        return buf.append(']').toString();
+    }
+
+}
@@ -0,0 +1,325 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * An immutable collection of monetary amounts in multiple currencies, holding one amount per currency.
+ * <p>
+ * This is typically used for portfolios or shopping carts that contain amounts in several currencies.
+ * Adding an amount in a currency that is already present adds to the existing amount.
+ * <p>
+ * The amounts are held in an array sorted by currency.
+ * Adding to a currency that is already present copies the array of amounts once,
+ * sharing the array of currencies with the original bag.
+ * Amounts are held as {@code BigMoney}, retaining the scale of the amounts added.
+ * A currency remains in the bag once added, even if its amount becomes zero.
+ * <p>
+ * This class is immutable and thread-safe.
+ */
+public final class MoneyBag implements Iterable<BigMoney> {
+
+    /** The empty bag. */
+    private static final MoneyBag EMPTY = new MoneyBag(new CurrencyUnit[0], new BigMoney[0]);
+
+    /** The currencies, sorted. */
+    private final CurrencyUnit[] currencies;
+    /** The amounts, in the same order as the currencies. */
+    private final BigMoney[] amounts;
+
+    //-----------------------------------------------------------------------
+    /**
+     * Obtains an empty bag.
+     *
+     * @return the empty bag, never null
+     */
+    public static MoneyBag empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Obtains a bag containing the specified amounts.
+     * <p>
+     * Amounts in the same currency are added together.
+     *
+     * @param monies  the amounts to add, no null elements, not null
+     * @return the bag, never null
+     */
+    public static MoneyBag of(BigMoneyProvider... monies) {
+        MoneyUtils.checkNotNull(monies, "Money array must not be null");
+        return of(Arrays.asList(monies));
+    }
+
+    /**
+     * Obtains a bag containing the specified amounts.
+     * <p>
+     * Amounts in the same currency are added together.
+     *
+     * @param monies  the amounts to add, no null elements, not null
+     * @return the bag, never null
+     */
+    public static MoneyBag of(Iterable<? extends BigMoneyProvider> monies) {
+        MoneyUtils.checkNotNull(monies, "Money iterable must not be null");
+        var bag = EMPTY;
+        for (var money : monies) {
+            bag = bag.plus(money);
+        }
+        return bag;
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param currencies  the currencies, sorted, not null
+     * @param amounts  the amounts, matching the currencies, not null
+     */
+    private MoneyBag(CurrencyUnit[] currencies, BigMoney[] amounts) {
+        this.currencies = currencies;
+        this.amounts = amounts;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the number of currencies in the bag.
+     *
+     * @return the number of currencies
+     */
+    public int size() {
+        return currencies.length;
+    }
+
+    /**
+     * Checks if the bag is empty.
+     *
+     * @return true if the bag contains no currencies
+     */
+    public boolean isEmpty() {
+        return currencies.length == 0;
+    }
+
+    /**
+     * Gets the currencies in the bag, sorted.
+     *
+     * @return the unmodifiable list of currencies, never null
+     */
+    public List<CurrencyUnit> getCurrencyUnits() {
+        return Collections.unmodifiableList(Arrays.asList(currencies));
+    }
+
+    /**
+     * Checks if the bag contains an amount in the specified currency.
+     *
+     * @param currency  the currency to check, not null
+     * @return true if the bag contains the currency
+     */
+    public boolean contains(CurrencyUnit currency) {
+        MoneyUtils.checkNotNull(currency, "CurrencyUnit must not be null");
+        return Arrays.binarySearch(currencies, currency) >= 0;
+    }
+
+    /**
+     * Gets the amount in the specified currency.
+     * <p>
+     * If the bag does not contain the currency, zero is returned.
+     *
+     * @param currency  the currency to get, not null
+     * @return the amount, never null
+     */
+    public BigMoney get(CurrencyUnit currency) {
+        MoneyUtils.checkNotNull(currency, "CurrencyUnit must not be null");
+        var index = Arrays.binarySearch(currencies, currency);
+        return index >= 0 ? amounts[index] : BigMoney.zero(currency);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Returns a copy of this bag with the specified amount added.
+     *
+     * @param moneyToAdd  the amount to add, not null
+     * @return the new bag, never null
+     */
+    public MoneyBag plus(BigMoneyProvider moneyToAdd) {
+        var money = BigMoney.of(moneyToAdd);
+        var index = Arrays.binarySearch(currencies, money.getCurrencyUnit());
+        if (index >= 0) {
+            var newAmounts = amounts.clone();
+            newAmounts[index] = amounts[index].plus(money);
+            return new MoneyBag(currencies, newAmounts);
+        }
+        var insert = -index - 1;
+        var newCurrencies = new CurrencyUnit[currencies.length + 1];
+        var newAmounts = new BigMoney[amounts.length + 1];
+        System.arraycopy(currencies, 0, newCurrencies, 0, insert);
+        System.arraycopy(amounts, 0, newAmounts, 0, insert);
+        newCurrencies[insert] = money.getCurrencyUnit();
+        newAmounts[insert] = money;
+        System.arraycopy(currencies, insert, newCurrencies, insert + 1, currencies.length - insert);
+        System.arraycopy(amounts, insert, newAmounts, insert + 1, amounts.length - insert);
+        return new MoneyBag(newCurrencies, newAmounts);
+    }
+
+    /**
+     * Returns a copy of this bag with the specified amount subtracted.
+     *
+     * @param moneyToSubtract  the amount to subtract, not null
+     * @return the new bag, never null
+     */
+    public MoneyBag minus(BigMoneyProvider moneyToSubtract) {
+        return plus(BigMoney.of(moneyToSubtract).negated());
+    }
+
+    /**
+     * Returns a copy of this bag with the amounts of the specified bag added.
+     *
+     * @param bagToAdd  the bag to add, not null
+     * @return the new bag, never null
+     */
+    public MoneyBag plus(MoneyBag bagToAdd) {
+        MoneyUtils.checkNotNull(bagToAdd, "MoneyBag must not be null");
+        return merge(bagToAdd, false);
+    }
+
+    /**
+     * Returns a copy of this bag with the amounts of the specified bag subtracted.
+     *
+     * @param bagToSubtract  the bag to subtract, not null
+     * @return the new bag, never null
+     */
+    public MoneyBag minus(MoneyBag bagToSubtract) {
+        MoneyUtils.checkNotNull(bagToSubtract, "MoneyBag must not be null");
+        return merge(bagToSubtract, true);
+    }
+
+    // merges the two sorted arrays
+    private MoneyBag merge(MoneyBag other, boolean subtract) {
+        if (other.isEmpty()) {
+            return this;
+        }
+        var newCurrencies = new CurrencyUnit[currencies.length + other.currencies.length];
+        var newAmounts = new BigMoney[newCurrencies.length];
+        var i = 0;
+        var j = 0;
+        var size = 0;
+        while (i < currencies.length || j < other.currencies.length) {
+            var cmp = i == currencies.length ? 1 : j == other.currencies.length ? -1 : currencies[i].compareTo(other.currencies[j]);
+            if (cmp < 0) {
+                newCurrencies[size] = currencies[i];
+                newAmounts[size++] = amounts[i++];
+            } else {
+                var otherAmount = subtract ? other.amounts[j].negated() : other.amounts[j];
+                newCurrencies[size] = other.currencies[j];
+                newAmounts[size++] = cmp == 0 ? amounts[i++].plus(otherAmount) : otherAmount;
+                j++;
+            }
+        }
+        if (size == currencies.length) {
+            // no new currencies, so share the currencies array
+            return new MoneyBag(currencies, Arrays.copyOf(newAmounts, size));
+        }
+        return new MoneyBag(Arrays.copyOf(newCurrencies, size), Arrays.copyOf(newAmounts, size));
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Calculates the total of the bag in a target currency.
+     * <p>
+     * Each amount is converted to the target currency using the rate supplied by the function,
+     * as per {@link BigMoney#convertedTo(CurrencyUnit, BigDecimal)}, and the results added.
+     * The function is not called for the target currency itself.
+     * For example, the function might be {@code rateMap::get} where the map holds the rate
+     * to convert one unit of each currency to the target currency.
+     *
+     * @param targetCurrency  the currency to total in, not null
+     * @param rates  the function to obtain the rate to convert from a currency to the target currency, not null
+     * @return the total, never null
+     * @throws IllegalArgumentException if the function returns null or a negative rate
+     */
+    public BigMoney total(CurrencyUnit targetCurrency, Function<? super CurrencyUnit, BigDecimal> rates) {
+        MoneyUtils.checkNotNull(targetCurrency, "CurrencyUnit must not be null");
+        MoneyUtils.checkNotNull(rates, "Rates function must not be null");
+        var total = BigMoney.zero(targetCurrency);
+        for (var amount : amounts) {
+            if (amount.getCurrencyUnit().equals(targetCurrency)) {
+                total = total.plus(amount);
+            } else {
+                var rate = rates.apply(amount.getCurrencyUnit());
+                if (rate == null) {
+                    throw new IllegalArgumentException("No rate available to convert " + amount.getCurrencyUnit() + " to " + targetCurrency);
+                }
+                total = total.plus(amount.convertedTo(targetCurrency, rate));
+            }
+        }
+        return total;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Returns an iterator over the amounts, sorted by currency.
+     *
+     * @return the unmodifiable iterator, never null
+     */
+    @Override
+    public Iterator<BigMoney> iterator() {
+        return Collections.unmodifiableList(Arrays.asList(amounts)).iterator();
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Checks if this bag equals another bag.
+     * <p>
+     * The comparison checks the currencies and amounts, including the scale of the amounts.
+     *
+     * @param other  the other bag, null returns false
+     * @return true if this instance equals the other instance
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (other instanceof MoneyBag otherBag) {
+            return Arrays.equals(amounts, otherBag.amounts);
+        }
+        return false;
+    }
+
+    /**
+     * Returns a hash code for this bag.
+     *
+     * @return a suitable hash code
+     */
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(amounts);
+    }
+
+    /**
+     * Gets the bag as a string, such as '[GBP 1.23, USD 3.00]'.
+     *
+     * @return the string, never null
+     */
+    @Override
+    public String toString() {
+        return Arrays.toString(amounts);
+    }
+
+}
@@ -0,0 +1,483 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+
+/**
+ * Compact binary encoding of monetary values.
+ * <p>
+ * This codec writes a monetary value in a small number of bytes, intended for
+ * storing large numbers of amounts, such as in an event store.
+ * Typical amounts encode in four to six bytes.
+ * <p>
+ * The encoding consists of:
+ * <ul>
+ * <li>the currency, as an unsigned varint of the ISO-4217 numeric code plus one,
+ *  or zero followed by the three ASCII characters of the code if the currency
+ *  does not have a numeric code
+ * <li>a header byte, where the low seven bits are the scale and the high bit
+ *  indicates that the amount is stored as bytes - if the scale is 127 or more,
+ *  the low seven bits are all set and the scale follows as an unsigned varint
+ * <li>the unscaled amount, as a zigzag varint if it fits in a {@code long},
+ *  otherwise as an unsigned varint length followed by the two's-complement bytes
+ * </ul>
+ * A varint stores seven bits per byte, least significant group first, with the
+ * high bit of each byte set if more bytes follow.
+ * <p>
+ * The encoding relies on the numeric codes of the currencies being the same when
+ * decoding as when encoding.
+ * <p>
+ * This class is immutable and thread-safe.
+ */
+public final class MoneyBinaryCodec {
+
+    /** The currency value indicating that the code follows. */
+    private static final int CURRENCY_ESCAPE = 0;
+    /** The header bit indicating that the amount is stored as bytes. */
+    private static final int HEADER_BYTES = 0x80;
+    /** The header value indicating that the scale follows. */
+    private static final int HEADER_SCALE_ESCAPE = 0x7F;
+    /** The maximum number of bytes in a varint. */
+    private static final int MAX_VARINT_BYTES = 10;
+
+    /**
+     * Restricted constructor.
+     */
+    private MoneyBinaryCodec() {
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Calculates the number of bytes needed to encode the monetary value.
+     *
+     * @param money  the monetary value, not null
+     * @return the encoded length in bytes
+     */
+    public static int encodedLength(BigMoneyProvider money) {
+        var bigMoney = BigMoney.of(money);
+        var amount = bigMoney.getAmount();
+        var unscaled = amount.unscaledValue();
+        var length = currencyLength(bigMoney.getCurrencyUnit()) + headerLength(amount.scale());
+        if (unscaled.bitLength() < Long.SIZE) {
+            return length + varintLength(zigzag(unscaled.longValue()));
+        }
+        var byteLength = unscaled.bitLength() / 8 + 1;
+        return length + varintLength(byteLength) + byteLength;
+    }
+
+    /**
+     * Encodes the monetary value to the buffer.
+     * <p>
+     * The position of the buffer is advanced by the number of bytes written.
+     *
+     * @param money  the monetary value, not null
+     * @param buffer  the buffer to write to, not null
+     * @throws java.nio.BufferOverflowException if the buffer does not have enough space
+     */
+    public static void encode(BigMoneyProvider money, ByteBuffer buffer) {
+        MoneyUtils.checkNotNull(buffer, "ByteBuffer must not be null");
+        var bigMoney = BigMoney.of(money);
+        var currency = bigMoney.getCurrencyUnit();
+        var numericCode = currency.getNumericCode();
+        if (numericCode >= 0) {
+            putVarint(buffer, numericCode + 1);
+        } else {
+            buffer.put((byte) CURRENCY_ESCAPE);
+            var code = currency.getCode();
+            for (var i = 0; i < 3; i++) {
+                buffer.put((byte) code.charAt(i));
+            }
+        }
+        var amount = bigMoney.getAmount();
+        var unscaled = amount.unscaledValue();
+        var bytes = unscaled.bitLength() >= Long.SIZE;
+        var scale = amount.scale();
+        if (scale < HEADER_SCALE_ESCAPE) {
+            buffer.put((byte) (scale | (bytes ? HEADER_BYTES : 0)));
+        } else {
+            buffer.put((byte) (HEADER_SCALE_ESCAPE | (bytes ? HEADER_BYTES : 0)));
+            putVarint(buffer, scale);
+        }
+        if (bytes) {
+            var array = unscaled.toByteArray();
+            putVarint(buffer, array.length);
+            buffer.put(array);
+        } else {
+            putVarint(buffer, zigzag(unscaled.longValue()));
+        }
+    }
+
+    /**
+     * Encodes the monetary value to the output.
+     *
+     * @param money  the monetary value, not null
+     * @param output  the output to write to, not null
+     * @throws IOException if an IO error occurs
+     */
+    public static void encode(BigMoneyProvider money, DataOutput output) throws IOException {
+        MoneyUtils.checkNotNull(output, "DataOutput must not be null");
+        var bytes = new byte[encodedLength(money)];
+        encode(money, ByteBuffer.wrap(bytes));
+        output.write(bytes);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Decodes a monetary value from the buffer into the holder.
+     * <p>
+     * The position of the buffer is advanced by the number of bytes read.
+     * No objects are allocated unless the currency does not have a numeric code
+     * or the unscaled amount does not fit in a {@code long}.
+     *
+     * @param buffer  the buffer to read from, not null
+     * @param holder  the holder to decode into, not null
+     * @throws java.nio.BufferUnderflowException if the buffer does not contain enough data
+     * @throws IllegalArgumentException if the data is invalid
+     * @throws IllegalCurrencyException if the currency is unknown
+     */
+    public static void decode(ByteBuffer buffer, Holder holder) {
+        MoneyUtils.checkNotNull(buffer, "ByteBuffer must not be null");
+        MoneyUtils.checkNotNull(holder, "Holder must not be null");
+        var currencyValue = getVarint(buffer);
+        if (currencyValue == CURRENCY_ESCAPE) {
+            var chars = new char[3];
+            for (var i = 0; i < 3; i++) {
+                chars[i] = (char) (buffer.get() & 0xFF);
+            }
+            holder.currency = CurrencyUnit.of(new String(chars));
+        } else {
+            holder.currency = lookupCurrency(currencyValue - 1);
+        }
+        var header = buffer.get() & 0xFF;
+        var scale = header & HEADER_SCALE_ESCAPE;
+        if (scale == HEADER_SCALE_ESCAPE) {
+            var value = getVarint(buffer);
+            if (value > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Invalid binary money data: scale too large");
+            }
+            scale = (int) value;
+        }
+        holder.scale = scale;
+        if ((header & HEADER_BYTES) != 0) {
+            var length = getVarint(buffer);
+            if (length == 0 || length > buffer.remaining()) {
+                throw new IllegalArgumentException("Invalid binary money data: invalid amount length");
+            }
+            var array = new byte[(int) length];
+            buffer.get(array);
+            holder.unscaledBig = new BigInteger(array);
+            holder.unscaled = 0;
+        } else {
+            holder.unscaledBig = null;
+            holder.unscaled = unzigzag(getVarint(buffer));
+        }
+    }
+
+    /**
+     * Decodes a monetary value from the buffer.
+     * <p>
+     * The position of the buffer is advanced by the number of bytes read.
+     *
+     * @param buffer  the buffer to read from, not null
+     * @return the decoded value, never null
+     * @throws java.nio.BufferUnderflowException if the buffer does not contain enough data
+     * @throws IllegalArgumentException if the data is invalid
+     * @throws IllegalCurrencyException if the currency is unknown
+     */
+    public static BigMoney decodeBigMoney(ByteBuffer buffer) {
+        var holder = new Holder();
+        decode(buffer, holder);
+        return holder.toBigMoney();
+    }
+
+    /**
+     * Decodes a monetary value from the buffer as a {@code Money}.
+     * <p>
+     * The position of the buffer is advanced by the number of bytes read.
+     *
+     * @param buffer  the buffer to read from, not null
+     * @return the decoded value, never null
+     * @throws java.nio.BufferUnderflowException if the buffer does not contain enough data
+     * @throws IllegalArgumentException if the data is invalid
+     * @throws IllegalCurrencyException if the currency is unknown
+     * @throws ArithmeticException if the scale exceeds that of the currency
+     */
+    public static Money decodeMoney(ByteBuffer buffer) {
+        var holder = new Holder();
+        decode(buffer, holder);
+        return holder.toMoney();
+    }
+
+    /**
+     * Decodes a monetary value from the input into the holder.
+     * <p>
+     * No objects are allocated unless the currency does not have a numeric code
+     * or the unscaled amount does not fit in a {@code long}.
+     *
+     * @param input  the input to read from, not null
+     * @param holder  the holder to decode into, not null
+     * @throws IOException if an IO error occurs
+     * @throws IllegalArgumentException if the data is invalid
+     * @throws IllegalCurrencyException if the currency is unknown
+     */
+    public static void decode(DataInput input, Holder holder) throws IOException {
+        MoneyUtils.checkNotNull(input, "DataInput must not be null");
+        MoneyUtils.checkNotNull(holder, "Holder must not be null");
+        var currencyValue = readVarint(input);
+        if (currencyValue == CURRENCY_ESCAPE) {
+            var chars = new char[3];
+            for (var i = 0; i < 3; i++) {
+                chars[i] = (char) input.readUnsignedByte();
+            }
+            holder.currency = CurrencyUnit.of(new String(chars));
+        } else {
+            holder.currency = lookupCurrency(currencyValue - 1);
+        }
+        var header = input.readUnsignedByte();
+        var scale = header & HEADER_SCALE_ESCAPE;
+        if (scale == HEADER_SCALE_ESCAPE) {
+            var value = readVarint(input);
+            if (value > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Invalid binary money data: scale too large");
+            }
+            scale = (int) value;
+        }
+        holder.scale = scale;
+        if ((header & HEADER_BYTES) != 0) {
+            var length = readVarint(input);
+            if (length == 0 || length > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Invalid binary money data: invalid amount length");
+            }
+            var array = new byte[(int) length];
+            input.readFully(array);
+            holder.unscaledBig = new BigInteger(array);
+            holder.unscaled = 0;
+        } else {
+            holder.unscaledBig = null;
+            holder.unscaled = unzigzag(readVarint(input));
+        }
+    }
+
+    /**
+     * Decodes a monetary value from the input.
+     *
+     * @param input  the input to read from, not null
+     * @return the decoded value, never null
+     * @throws IOException if an IO error occurs
+     * @throws IllegalArgumentException if the data is invalid
+     * @throws IllegalCurrencyException if the currency is unknown
+     */
+    public static BigMoney decodeBigMoney(DataInput input) throws IOException {
+        var holder = new Holder();
+        decode(input, holder);
+        return holder.toBigMoney();
+    }
+
+    /**
+     * Decodes a monetary value from the input as a {@code Money}.
+     *
+     * @param input  the input to read from, not null
+     * @return the decoded value, never null
+     * @throws IOException if an IO error occurs
+     * @throws IllegalArgumentException if the data is invalid
+     * @throws IllegalCurrencyException if the currency is unknown
+     * @throws ArithmeticException if the scale exceeds that of the currency
+     */
+    public static Money decodeMoney(DataInput input) throws IOException {
+        var holder = new Holder();
+        decode(input, holder);
+        return holder.toMoney();
+    }
+
+    //-----------------------------------------------------------------------
+    private static CurrencyUnit lookupCurrency(long numericCode) {
+        var currency = numericCode <= Integer.MAX_VALUE ? CurrencyUnit.findByNumericCode((int) numericCode) : null;
+        if (currency == null) {
+            throw new IllegalCurrencyException("Unknown currency numeric code '" + numericCode + "'");
+        }
+        return currency;
+    }
+
+    private static int currencyLength(CurrencyUnit currency) {
+        var numericCode = currency.getNumericCode();
+        return numericCode >= 0 ? varintLength(numericCode + 1) : 4;
+    }
+
+    private static int headerLength(int scale) {
+        return scale < HEADER_SCALE_ESCAPE ? 1 : 1 + varintLength(scale);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static int varintLength(long value) {
+        var bits = Long.SIZE - Long.numberOfLeadingZeros(value | 1);
+        return (bits + 6) / 7;
+    }
+
+    private static void putVarint(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static long getVarint(ByteBuffer buffer) {
+        var result = 0L;
+        for (var i = 0; i < MAX_VARINT_BYTES; i++) {
+            var b = buffer.get();
+            result |= (long) (b & 0x7F) << (7 * i);
+            if (b >= 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Invalid binary money data: varint too long");
+    }
+
+    private static long readVarint(DataInput input) throws IOException {
+        var result = 0L;
+        for (var i = 0; i < MAX_VARINT_BYTES; i++) {
+            var b = input.readByte();
+            result |= (long) (b & 0x7F) << (7 * i);
+            if (b >= 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Invalid binary money data: varint too long");
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * A mutable holder for a decoded monetary value.
+     * <p>
+     * A single holder can be reused to decode many values without allocation.
+     * <p>
+     * This class is mutable and intended for use by a single thread.
+     */
+    public static final class Holder {
+
+        /** The currency. */
+        private CurrencyUnit currency;
+        /** The unscaled amount, if it fits in a long. */
+        private long unscaled;
+        /** The unscaled amount, if it does not fit in a long. */
+        private BigInteger unscaledBig;
+        /** The scale. */
+        private int scale;
+
+        /**
+         * Creates an empty holder.
+         */
+        public Holder() {
+        }
+
+        /**
+         * Gets the decoded currency.
+         *
+         * @return the currency, null if nothing decoded
+         */
+        public CurrencyUnit getCurrencyUnit() {
+            return currency;
+        }
+
+        /**
+         * Checks if the unscaled amount fits in a {@code long}.
+         *
+         * @return true if {@link #getUnscaledAmount()} can be called
+         */
+        public boolean isUnscaledAmountLong() {
+            return unscaledBig == null;
+        }
+
+        /**
+         * Gets the decoded unscaled amount.
+         *
+         * @return the unscaled amount
+         * @throws ArithmeticException if the unscaled amount does not fit in a {@code long}
+         */
+        public long getUnscaledAmount() {
+            if (unscaledBig != null) {
+                throw new ArithmeticException("Unscaled amount does not fit in a long");
+            }
+            return unscaled;
+        }
+
+        /**
+         * Gets the decoded scale.
+         *
+         * @return the scale
+         */
+        public int getScale() {
+            return scale;
+        }
+
+        /**
+         * Gets the decoded amount.
+         *
+         * @return the amount, never null
+         */
+        public BigDecimal getAmount() {
+            return unscaledBig != null ? new BigDecimal(unscaledBig, scale) : BigDecimal.valueOf(unscaled, scale);
+        }
+
+        /**
+         * Converts the decoded value to a {@code BigMoney}.
+         *
+         * @return the monetary value, never null
+         * @throws IllegalStateException if nothing has been decoded
+         */
+        public BigMoney toBigMoney() {
+            if (currency == null) {
+                throw new IllegalStateException("Holder does not contain a decoded value");
+            }
+            return BigMoney.of(currency, getAmount());
+        }
+
+        /**
+         * Converts the decoded value to a {@code Money}.
+         *
+         * @return the monetary value, never null
+         * @throws IllegalStateException if nothing has been decoded
+         * @throws ArithmeticException if the scale exceeds that of the currency
+         */
+        public Money toMoney() {
+            return Money.of(toBigMoney());
+        }
+
+        /**
+         * Gets the decoded value as a string.
+         *
+         * @return the string form, never null
+         */
+        @Override
+        public String toString() {
+            return currency == null ? "Holder[]" : toBigMoney().toString();
+        }
+    }
+
+}
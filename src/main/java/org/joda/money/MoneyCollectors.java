@@ -0,0 +1,190 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collector;
+import java.util.stream.Collector.Characteristics;
+
+/**
+ * Collectors for streams of monetary values.
+ * <p>
+ * These collectors accumulate amounts in minor units using mutable primitive state,
+ * rather than creating a new {@code Money} for each element as {@code reduce(Money::plus)} does.
+ * The results are exact, falling back to {@code BigDecimal} if the capacity of a {@code long} is exceeded.
+ * <p>
+ * This utility class contains thread-safe static methods.
+ */
+public final class MoneyCollectors {
+
+    /**
+     * Restricted constructor.
+     */
+    private MoneyCollectors() {
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Obtains a collector that sums amounts in a single currency.
+     * <p>
+     * The result is the same as {@link Money#total(CurrencyUnit, Iterable)}.
+     * If the stream is empty, the result is zero.
+     *
+     * @param currency  the currency to sum in, not null
+     * @return the collector, never null
+     * @throws CurrencyMismatchException if an element is in a different currency, when collecting
+     */
+    public static Collector<Money, ?, Money> summing(CurrencyUnit currency) {
+        MoneyUtils.checkNotNull(currency, "CurrencyUnit must not be null");
+        return Collector.of(
+                () -> new ParallelTotal(currency, false),
+                ParallelTotal::accept,
+                (total1, total2) -> {
+                    total1.merge(total2);
+                    return total1;
+                },
+                total -> Money.of(total.toBigMoney()),
+                Characteristics.UNORDERED);
+    }
+
+    /**
+     * Obtains a collector that sums amounts grouped by currency.
+     * <p>
+     * The result is a map from each currency in the stream to the sum of the amounts in that currency,
+     * sorted by currency.
+     * <p>
+     * This collector is {@linkplain Characteristics#CONCURRENT concurrent}, thus a parallel stream
+     * accumulates into a single result container without merging maps.
+     * The sum for each currency is updated without locking, except when it exceeds the capacity of a {@code long}.
+     *
+     * @return the collector, never null
+     */
+    public static Collector<Money, ?, Map<CurrencyUnit, Money>> summingByCurrency() {
+        return Collector.<Money, ConcurrentHashMap<CurrencyUnit, ConcurrentTotal>, Map<CurrencyUnit, Money>>of(
+                ConcurrentHashMap::new,
+                (map, money) -> map.computeIfAbsent(money.getCurrencyUnit(), ConcurrentTotal::new).accept(money),
+                (map1, map2) -> {
+                    map2.forEach((currency, total) -> map1.merge(currency, total, ConcurrentTotal::merge));
+                    return map1;
+                },
+                map -> {
+                    var result = new TreeMap<CurrencyUnit, Money>();
+                    map.forEach((currency, total) -> result.put(currency, total.toMoney()));
+                    return result;
+                },
+                Characteristics.CONCURRENT,
+                Characteristics.UNORDERED);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Obtains a collector that produces statistics of amounts in a single currency.
+     *
+     * @param currency  the currency of the amounts, not null
+     * @return the collector, never null
+     * @throws CurrencyMismatchException if an element is in a different currency, when collecting
+     */
+    public static Collector<Money, ?, MoneyStatistics> summarizing(CurrencyUnit currency) {
+        MoneyUtils.checkNotNull(currency, "CurrencyUnit must not be null");
+        return Collector.of(
+                () -> new MoneyStatistics(currency),
+                MoneyStatistics::accept,
+                MoneyStatistics::combine,
+                Characteristics.UNORDERED,
+                Characteristics.IDENTITY_FINISH);
+    }
+
+    /**
+     * Obtains a collector that produces statistics of amounts grouped by currency.
+     * <p>
+     * The result is a map from each currency in the stream to the statistics of the amounts in that currency.
+     * A parallel stream accumulates into a map for each thread, merging them at the end.
+     *
+     * @return the collector, never null
+     */
+    public static Collector<Money, ?, Map<CurrencyUnit, MoneyStatistics>> summarizingByCurrency() {
+        return Collector.<Money, Map<CurrencyUnit, MoneyStatistics>>of(
+                HashMap::new,
+                (map, money) -> map.computeIfAbsent(money.getCurrencyUnit(), MoneyStatistics::new).accept(money),
+                (map1, map2) -> {
+                    map2.forEach((currency, stats) -> map1.merge(currency, stats, MoneyStatistics::combine));
+                    return map1;
+                },
+                Characteristics.UNORDERED,
+                Characteristics.IDENTITY_FINISH);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Total of amounts in a single currency that can be updated by multiple threads.
+     */
+    private static final class ConcurrentTotal {
+        /** The currency. */
+        private final CurrencyUnit currency;
+        /** The total in minor units. */
+        private final AtomicLong totalMinor = new AtomicLong();
+        /** The part of the total that did not fit in the minor units, guarded by this. */
+        private BigDecimal totalOther = BigDecimal.ZERO;
+
+        ConcurrentTotal(CurrencyUnit currency) {
+            this.currency = currency;
+        }
+
+        void accept(Money money) {
+            var amount = money.getAmount();
+            var unscaled = amount.unscaledValue();
+            if (unscaled.bitLength() < 64) {
+                var amountMinor = unscaled.longValue();
+                var current = totalMinor.get();
+                while (true) {
+                    var result = current + amountMinor;
+                    if (((current ^ result) & (amountMinor ^ result)) < 0) {
+                        break;
+                    }
+                    var witness = totalMinor.compareAndExchange(current, result);
+                    if (witness == current) {
+                        return;
+                    }
+                    current = witness;
+                }
+            }
+            addOther(amount);
+        }
+
+        synchronized void addOther(BigDecimal amount) {
+            totalOther = totalOther.add(amount);
+        }
+
+        ConcurrentTotal merge(ConcurrentTotal other) {
+            addOther(other.toMoney().getAmount());
+            return this;
+        }
+
+        synchronized Money toMoney() {
+            var minor = totalMinor.get();
+            if (totalOther.signum() == 0) {
+                return Money.ofMinor(currency, minor);
+            }
+            return Money.of(currency, BigDecimal.valueOf(minor, currency.getDecimalPlaces()).add(totalOther));
+        }
+    }
+
+}
@@ -0,0 +1,513 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money;
+
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+/**
+ * Bulk operations on columns of amounts in minor units.
+ * <p>
+ * Each method operates on {@code long[]} arrays of amounts in the minor units of a single currency,
+ * such as cents for USD. The loops are free of branches and method calls per element,
+ * allowing the JIT compiler to unroll and vectorize them.
+ * Overflow is tracked alongside the calculation and checked once at the end,
+ * rather than using {@code Math.addExact} or similar for each element.
+ * <p>
+ * Where an operation writes to a result array, the result may be the same array as an input.
+ * If an {@code ArithmeticException} is thrown, the contents of the result array are undefined.
+ * <p>
+ * This class is immutable and thread-safe.
+ */
+public final class MoneyColumns {
+
+    /**
+     * Restricted constructor.
+     */
+    private MoneyColumns() {
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Calculates the total of a column of amounts.
+     *
+     * @param currency  the currency of the amounts, not null
+     * @param amountsMinor  the amounts in minor units, not null
+     * @return the total, never null
+     * @throws ArithmeticException if the total exceeds the capacity of a {@code long}
+     */
+    public static Money total(CurrencyUnit currency, long[] amountsMinor) {
+        MoneyUtils.checkNotNull(currency, "CurrencyUnit must not be null");
+        MoneyUtils.checkNotNull(amountsMinor, "Amounts must not be null");
+        return Money.ofMinor(currency, sum(amountsMinor, 0, amountsMinor.length));
+    }
+
+    /**
+     * Adds two columns of amounts element by element.
+     *
+     * @param amountsMinor  the amounts in minor units, not null
+     * @param amountsMinorToAdd  the amounts to add, the same length, not null
+     * @param result  the array to store the result in, the same length, not null
+     * @throws IllegalArgumentException if the arrays differ in length
+     * @throws ArithmeticException if any result exceeds the capacity of a {@code long}
+     */
+    public static void plus(long[] amountsMinor, long[] amountsMinorToAdd, long[] result) {
+        checkLengths(amountsMinor, amountsMinorToAdd, result);
+        var overflow = 0L;
+        for (var i = 0; i < amountsMinor.length; i++) {
+            var a = amountsMinor[i];
+            var b = amountsMinorToAdd[i];
+            var r = a + b;
+            overflow |= (a ^ r) & (b ^ r);
+            result[i] = r;
+        }
+        if (overflow < 0) {
+            throw new ArithmeticException("Amount exceeds capacity of long");
+        }
+    }
+
+    /**
+     * Subtracts one column of amounts from another element by element.
+     *
+     * @param amountsMinor  the amounts in minor units, not null
+     * @param amountsMinorToSubtract  the amounts to subtract, the same length, not null
+     * @param result  the array to store the result in, the same length, not null
+     * @throws IllegalArgumentException if the arrays differ in length
+     * @throws ArithmeticException if any result exceeds the capacity of a {@code long}
+     */
+    public static void minus(long[] amountsMinor, long[] amountsMinorToSubtract, long[] result) {
+        checkLengths(amountsMinor, amountsMinorToSubtract, result);
+        var overflow = 0L;
+        for (var i = 0; i < amountsMinor.length; i++) {
+            var a = amountsMinor[i];
+            var b = amountsMinorToSubtract[i];
+            var r = a - b;
+            overflow |= (a ^ b) & (a ^ r);
+            result[i] = r;
+        }
+        if (overflow < 0) {
+            throw new ArithmeticException("Amount exceeds capacity of long");
+        }
+    }
+
+    /**
+     * Multiplies a column of amounts by a factor.
+     *
+     * @param amountsMinor  the amounts in minor units, not null
+     * @param factor  the factor to multiply by
+     * @param result  the array to store the result in, the same length, not null
+     * @throws IllegalArgumentException if the arrays differ in length
+     * @throws ArithmeticException if any result exceeds the capacity of a {@code long}
+     */
+    public static void multipliedBy(long[] amountsMinor, long factor, long[] result) {
+        checkLengths(amountsMinor, result, result);
+        multipliedBy(amountsMinor, amountsMinor.length, factor, result);
+    }
+
+    /**
+     * Multiplies an amount by a fraction, rounding once.
+     * <p>
+     * The product of the amount and numerator is held exactly in 128 bits,
+     * then divided by the denominator, thus the result is exact before rounding.
+     * No objects are created, so this is suitable for use in a loop over a column.
+     *
+     * @param amountMinor  the amount in minor units
+     * @param numerator  the numerator of the fraction
+     * @param denominator  the denominator of the fraction, not zero
+     * @param roundingMode  the rounding mode to use, not null
+     * @return the result in minor units
+     * @throws ArithmeticException if the denominator is zero, if the result exceeds the capacity
+     *  of a {@code long}, or if the rounding mode is {@code UNNECESSARY} and rounding is necessary
+     */
+    public static long multipliedByFraction(long amountMinor, long numerator, long denominator, RoundingMode roundingMode) {
+        MoneyUtils.checkNotNull(roundingMode, "RoundingMode must not be null");
+        if (denominator == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        var negative = (amountMinor ^ numerator ^ denominator) < 0;
+        // the magnitudes are unsigned, so Long.MIN_VALUE is handled correctly
+        var magnitude = Math.abs(amountMinor);
+        var multiplier = Math.abs(numerator);
+        var divisor = Math.abs(denominator);
+        var high = Math.unsignedMultiplyHigh(magnitude, multiplier);
+        var low = magnitude * multiplier;
+        if (Long.compareUnsigned(high, divisor) >= 0) {
+            throw new ArithmeticException("Amount exceeds capacity of long");
+        }
+        var quotient = divideUnsigned(high, low, divisor);
+        var remainder = low - quotient * divisor;
+        if (Long.compareUnsigned(quotient, Long.MIN_VALUE) > 0) {
+            throw new ArithmeticException("Amount exceeds capacity of long");
+        }
+        if (remainder != 0) {
+            // compare the remainder to half the divisor without overflow
+            var half = Long.compareUnsigned(remainder, divisor - remainder);
+            var away = switch (roundingMode) {
+                case UP -> true;
+                case DOWN -> false;
+                case CEILING -> !negative;
+                case FLOOR -> negative;
+                case HALF_UP -> half >= 0;
+                case HALF_DOWN -> half > 0;
+                case HALF_EVEN -> half > 0 || (half == 0 && (quotient & 1) != 0);
+                case UNNECESSARY -> throw new ArithmeticException("Rounding necessary");
+            };
+            quotient += away ? 1 : 0;
+        }
+        // a magnitude of 2^63 is only valid for a negative result
+        if (quotient < 0 && !(negative && quotient == Long.MIN_VALUE)) {
+            throw new ArithmeticException("Amount exceeds capacity of long");
+        }
+        return negative ? -quotient : quotient;
+    }
+
+    /**
+     * Compares a column of amounts to a threshold, setting a mask of those that are greater.
+     *
+     * @param currency  the currency of the amounts, not null
+     * @param amountsMinor  the amounts in minor units, not null
+     * @param threshold  the threshold, in the same currency, not null
+     * @param mask  the array to store the mask in, true where the amount is greater, the same length, not null
+     * @return the number of amounts that are greater than the threshold
+     * @throws IllegalArgumentException if the arrays differ in length
+     * @throws CurrencyMismatchException if the threshold is in a different currency
+     * @throws ArithmeticException if the threshold exceeds the capacity of a {@code long} in minor units
+     */
+    public static int isGreaterThan(CurrencyUnit currency, long[] amountsMinor, Money threshold, boolean[] mask) {
+        var limit = thresholdMinor(currency, amountsMinor, threshold, mask);
+        var count = 0;
+        for (var i = 0; i < amountsMinor.length; i++) {
+            var greater = amountsMinor[i] > limit;
+            mask[i] = greater;
+            count += greater ? 1 : 0;
+        }
+        return count;
+    }
+
+    /**
+     * Compares a column of amounts to a threshold, setting a mask of those that are less.
+     *
+     * @param currency  the currency of the amounts, not null
+     * @param amountsMinor  the amounts in minor units, not null
+     * @param threshold  the threshold, in the same currency, not null
+     * @param mask  the array to store the mask in, true where the amount is less, the same length, not null
+     * @return the number of amounts that are less than the threshold
+     * @throws IllegalArgumentException if the arrays differ in length
+     * @throws CurrencyMismatchException if the threshold is in a different currency
+     * @throws ArithmeticException if the threshold exceeds the capacity of a {@code long} in minor units
+     */
+    public static int isLessThan(CurrencyUnit currency, long[] amountsMinor, Money threshold, boolean[] mask) {
+        var limit = thresholdMinor(currency, amountsMinor, threshold, mask);
+        var count = 0;
+        for (var i = 0; i < amountsMinor.length; i++) {
+            var less = amountsMinor[i] < limit;
+            mask[i] = less;
+            count += less ? 1 : 0;
+        }
+        return count;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Allocates an amount into parts in proportion to a set of ratios.
+     * <p>
+     * Each part is the amount multiplied by its ratio divided by the total of the ratios,
+     * rounded towards zero. Any minor units left over are then given one at a time
+     * to the parts with the largest remainders, with the earlier part winning a tie.
+     * The parts thus always add up to the amount exactly, and the result is the same
+     * regardless of the order of the calculation.
+     * <p>
+     * For example, allocating 100 in the ratios 1:1:1 results in 34, 33 and 33.
+     * A negative amount is allocated as though it were positive and the parts negated.
+     * A part with a ratio of zero is always zero.
+     *
+     * @param amountMinor  the amount in minor units to allocate
+     * @param ratios  the ratios, zero or positive, not all zero, not null
+     * @param result  the array to store the parts in, the same length as the ratios, not null
+     * @throws IllegalArgumentException if the arrays differ in length, are empty, or the ratios are invalid
+     */
+    public static void allocate(long amountMinor, long[] ratios, long[] result) {
+        MoneyUtils.checkNotNull(ratios, "Ratios must not be null");
+        MoneyUtils.checkNotNull(result, "Result must not be null");
+        if (ratios.length != result.length) {
+            throw new IllegalArgumentException("Array lengths differ");
+        }
+        if (ratios.length == 0) {
+            throw new IllegalArgumentException("Ratios must not be empty");
+        }
+        var total = 0L;
+        var overflow = 0L;
+        for (var ratio : ratios) {
+            if (ratio < 0) {
+                throw new IllegalArgumentException("Ratios must not be negative");
+            }
+            var r = total + ratio;
+            overflow |= r;
+            total = r;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("Ratios must not all be zero");
+        }
+        var magnitude = Math.abs(amountMinor);
+        if (overflow < 0 || magnitude < 0 || Math.multiplyHigh(magnitude, total) != 0 || magnitude * total < 0) {
+            // the amount multiplied by a ratio might not fit in a long
+            var ratiosBig = new BigInteger[ratios.length];
+            for (var i = 0; i < ratios.length; i++) {
+                ratiosBig[i] = BigInteger.valueOf(ratios[i]);
+            }
+            var parts = allocate(BigInteger.valueOf(amountMinor), ratiosBig);
+            for (var i = 0; i < parts.length; i++) {
+                result[i] = parts[i].longValueExact();
+            }
+            return;
+        }
+        var remainders = new long[ratios.length];
+        var allocated = 0L;
+        for (var i = 0; i < ratios.length; i++) {
+            var product = magnitude * ratios[i];
+            result[i] = product / total;
+            remainders[i] = product % total;
+            allocated += result[i];
+        }
+        var leftover = (int) (magnitude - allocated);
+        if (leftover > 0) {
+            var sorted = remainders.clone();
+            Arrays.sort(sorted);
+            var threshold = sorted[sorted.length - leftover];
+            var ties = leftover;
+            for (var remainder : remainders) {
+                ties -= remainder > threshold ? 1 : 0;
+            }
+            for (var i = 0; i < ratios.length; i++) {
+                if (remainders[i] > threshold || (remainders[i] == threshold && ties-- > 0)) {
+                    result[i]++;
+                }
+            }
+        }
+        if (amountMinor < 0) {
+            for (var i = 0; i < result.length; i++) {
+                result[i] = -result[i];
+            }
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Sums part of a column of amounts exactly.
+     * <p>
+     * Four independent accumulators are used, with overflow of any accumulator recorded.
+     * If an accumulator overflowed, the total is recalculated exactly, as a different order
+     * of addition may not overflow.
+     *
+     * @param amountsMinor  the amounts in minor units, not null
+     * @param fromIndex  the first index, inclusive
+     * @param toIndex  the last index, exclusive
+     * @return the total
+     * @throws ArithmeticException if the total exceeds the capacity of a {@code long}
+     */
+    static long sum(long[] amountsMinor, int fromIndex, int toIndex) {
+        var s0 = 0L;
+        var s1 = 0L;
+        var s2 = 0L;
+        var s3 = 0L;
+        var overflow = 0L;
+        var i = fromIndex;
+        for (; i + 3 < toIndex; i += 4) {
+            var a0 = amountsMinor[i];
+            var a1 = amountsMinor[i + 1];
+            var a2 = amountsMinor[i + 2];
+            var a3 = amountsMinor[i + 3];
+            var r0 = s0 + a0;
+            var r1 = s1 + a1;
+            var r2 = s2 + a2;
+            var r3 = s3 + a3;
+            overflow |= ((s0 ^ r0) & (a0 ^ r0)) | ((s1 ^ r1) & (a1 ^ r1)) | ((s2 ^ r2) & (a2 ^ r2)) | ((s3 ^ r3) & (a3 ^ r3));
+            s0 = r0;
+            s1 = r1;
+            s2 = r2;
+            s3 = r3;
+        }
+        for (; i < toIndex; i++) {
+            var a = amountsMinor[i];
+            var r = s0 + a;
+            overflow |= (s0 ^ r) & (a ^ r);
+            s0 = r;
+        }
+        var r01 = s0 + s1;
+        var r23 = s2 + s3;
+        var total = r01 + r23;
+        overflow |= ((s0 ^ r01) & (s1 ^ r01)) | ((s2 ^ r23) & (s3 ^ r23)) | ((r01 ^ total) & (r23 ^ total));
+        if (overflow < 0) {
+            return sumExact(amountsMinor, fromIndex, toIndex);
+        }
+        return total;
+    }
+
+    // slow path, only throwing if the true total does not fit
+    private static long sumExact(long[] amountsMinor, int fromIndex, int toIndex) {
+        var total = BigInteger.ZERO;
+        for (var i = fromIndex; i < toIndex; i++) {
+            total = total.add(BigInteger.valueOf(amountsMinor[i]));
+        }
+        return total.longValueExact();
+    }
+
+    /**
+     * Multiplies part of a column of amounts by a factor.
+     *
+     * @param amountsMinor  the amounts in minor units, not null
+     * @param length  the number of amounts to multiply
+     * @param factor  the factor to multiply by
+     * @param result  the array to store the result in, at least the length, not null
+     * @throws ArithmeticException if any result exceeds the capacity of a {@code long}
+     */
+    static void multipliedBy(long[] amountsMinor, int length, long factor, long[] result) {
+        var overflow = 0L;
+        for (var i = 0; i < length; i++) {
+            var a = amountsMinor[i];
+            var r = a * factor;
+            overflow |= Math.multiplyHigh(a, factor) ^ (r >> 63);
+            result[i] = r;
+        }
+        if (overflow != 0) {
+            throw new ArithmeticException("Amount exceeds capacity of long");
+        }
+    }
+
+    /**
+     * Divides an unsigned 128-bit value by an unsigned 64-bit divisor.
+     * <p>
+     * This is the long division algorithm from Hacker's Delight, using 32-bit digits.
+     * The high part must be less than the divisor, thus the quotient fits in 64 bits.
+     *
+     * @param high  the high 64 bits of the dividend
+     * @param low  the low 64 bits of the dividend
+     * @param divisor  the divisor, non-zero
+     * @return the unsigned quotient
+     */
+    static long divideUnsigned(long high, long low, long divisor) {
+        if (high == 0) {
+            return Long.divideUnsigned(low, divisor);
+        }
+        var base = 1L << 32;
+        var mask = base - 1;
+        // normalize so that the top bit of the divisor is set
+        var shift = Long.numberOfLeadingZeros(divisor);
+        var d = divisor << shift;
+        var d1 = d >>> 32;
+        var d0 = d & mask;
+        var n32 = shift == 0 ? high : (high << shift) | (low >>> (64 - shift));
+        var n10 = low << shift;
+        var n1 = n10 >>> 32;
+        var n0 = n10 & mask;
+        // first digit of the quotient
+        var q1 = Long.divideUnsigned(n32, d1);
+        var rhat = n32 - q1 * d1;
+        while (Long.compareUnsigned(q1, base) >= 0 || Long.compareUnsigned(q1 * d0, (rhat << 32) | n1) > 0) {
+            q1--;
+            rhat += d1;
+            if (Long.compareUnsigned(rhat, base) >= 0) {
+                break;
+            }
+        }
+        var n21 = (n32 << 32) + n1 - q1 * d;
+        // second digit of the quotient
+        var q0 = Long.divideUnsigned(n21, d1);
+        rhat = n21 - q0 * d1;
+        while (Long.compareUnsigned(q0, base) >= 0 || Long.compareUnsigned(q0 * d0, (rhat << 32) | n0) > 0) {
+            q0--;
+            rhat += d1;
+            if (Long.compareUnsigned(rhat, base) >= 0) {
+                break;
+            }
+        }
+        return (q1 << 32) | q0;
+    }
+
+    /**
+     * Allocates an amount into parts in proportion to a set of ratios, without limit on size.
+     * <p>
+     * This is the slow path of {@link #allocate(long, long[], long[])}, with the same results.
+     * The ratios must have been validated.
+     *
+     * @param amountMinor  the amount in minor units to allocate, not null
+     * @param ratios  the ratios, zero or positive, not all zero, not null
+     * @return the parts, never null
+     */
+    static BigInteger[] allocate(BigInteger amountMinor, BigInteger[] ratios) {
+        var total = BigInteger.ZERO;
+        for (var ratio : ratios) {
+            total = total.add(ratio);
+        }
+        var magnitude = amountMinor.abs();
+        var parts = new BigInteger[ratios.length];
+        var remainders = new BigInteger[ratios.length];
+        var allocated = BigInteger.ZERO;
+        for (var i = 0; i < ratios.length; i++) {
+            var divRem = magnitude.multiply(ratios[i]).divideAndRemainder(total);
+            parts[i] = divRem[0];
+            remainders[i] = divRem[1];
+            allocated = allocated.add(parts[i]);
+        }
+        var leftover = magnitude.subtract(allocated).intValueExact();
+        if (leftover > 0) {
+            var sorted = remainders.clone();
+            Arrays.sort(sorted);
+            var threshold = sorted[sorted.length - leftover];
+            var ties = leftover;
+            for (var remainder : remainders) {
+                ties -= remainder.compareTo(threshold) > 0 ? 1 : 0;
+            }
+            for (var i = 0; i < ratios.length; i++) {
+                var cmp = remainders[i].compareTo(threshold);
+                if (cmp > 0 || (cmp == 0 && ties-- > 0)) {
+                    parts[i] = parts[i].add(BigInteger.ONE);
+                }
+            }
+        }
+        if (amountMinor.signum() < 0) {
+            for (var i = 0; i < parts.length; i++) {
+                parts[i] = parts[i].negate();
+            }
+        }
+        return parts;
+    }
+
+    private static void checkLengths(long[] array1, long[] array2, long[] result) {
+        MoneyUtils.checkNotNull(array1, "Amounts must not be null");
+        MoneyUtils.checkNotNull(array2, "Amounts must not be null");
+        MoneyUtils.checkNotNull(result, "Result must not be null");
+        if (array1.length != array2.length || array1.length != result.length) {
+            throw new IllegalArgumentException("Array lengths differ");
+        }
+    }
+
+    private static long thresholdMinor(CurrencyUnit currency, long[] amountsMinor, Money threshold, boolean[] mask) {
+        MoneyUtils.checkNotNull(currency, "CurrencyUnit must not be null");
+        MoneyUtils.checkNotNull(amountsMinor, "Amounts must not be null");
+        MoneyUtils.checkNotNull(threshold, "Threshold must not be null");
+        MoneyUtils.checkNotNull(mask, "Mask must not be null");
+        if (!currency.equals(threshold.getCurrencyUnit())) {
+            throw new CurrencyMismatchException(currency, threshold.getCurrencyUnit());
+        }
+        if (amountsMinor.length != mask.length) {
+            throw new IllegalArgumentException("Array lengths differ");
+        }
+        return threshold.getAmountMinorLong();
+    }
+
+}
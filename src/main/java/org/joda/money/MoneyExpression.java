@@ -0,0 +1,440 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A calculation on a monetary amount, recorded so that it can be evaluated exactly with a single rounding.
+ * <p>
+ * A chain of calls such as {@code price.multipliedBy(quantity).multipliedBy(discount, HALF_EVEN).plus(fee)}
+ * creates an object and rounds at each step. An expression instead records the operations:
+ * <pre>
+ *  MoneyExpression expr = MoneyExpression.start()
+ *      .multipliedBy(quantity)
+ *      .multipliedBy(discount)
+ *      .plus(fee)
+ *      .multipliedBy(taxRate);
+ *  Money total = expr.evaluate(price, RoundingMode.HALF_EVEN);
+ * </pre>
+ * <p>
+ * The operations are compiled into a plan as they are added.
+ * Adjacent multiplications and divisions are fused into a single step, as are adjacent additions.
+ * During evaluation the value is held as an exact fraction, thus even division is exact,
+ * and the only rounding is the final one, plus any explicit rounding points added using
+ * {@link #rounded(RoundingMode)} or {@link #rounded(int, RoundingMode)}.
+ * An expression can be evaluated against any number of inputs, reusing the plan.
+ * <p>
+ * An expression may be bound to an initial amount, see {@link #of(BigMoneyProvider)},
+ * {@link Money#toExpression()} and {@link BigMoney#toExpression()}.
+ * <p>
+ * This class is immutable and thread-safe.
+ */
+public final class MoneyExpression {
+
+    /** The empty expression. */
+    private static final MoneyExpression START = new MoneyExpression(null, new Step[0]);
+
+    /** The initial amount, null if not bound. */
+    private final BigMoney initial;
+    /** The compiled steps. */
+    private final Step[] steps;
+
+    //-----------------------------------------------------------------------
+    /**
+     * Obtains an expression that is not bound to an initial amount.
+     * <p>
+     * The amount is specified when the expression is evaluated.
+     *
+     * @return the empty expression, never null
+     */
+    public static MoneyExpression start() {
+        return START;
+    }
+
+    /**
+     * Obtains an expression bound to an initial amount.
+     *
+     * @param initial  the initial amount, not null
+     * @return the expression, never null
+     */
+    public static MoneyExpression of(BigMoneyProvider initial) {
+        return new MoneyExpression(BigMoney.of(initial), START.steps);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param initial  the initial amount, may be null
+     * @param steps  the steps, not null
+     */
+    private MoneyExpression(BigMoney initial, Step[] steps) {
+        this.initial = initial;
+        this.steps = steps;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Returns an expression with a multiplication added.
+     *
+     * @param valueToMultiplyBy  the value to multiply by, not null
+     * @return the new expression, never null
+     */
+    public MoneyExpression multipliedBy(BigDecimal valueToMultiplyBy) {
+        MoneyUtils.checkNotNull(valueToMultiplyBy, "Multiplier must not be null");
+        return scaled(valueToMultiplyBy, BigDecimal.ONE);
+    }
+
+    /**
+     * Returns an expression with a multiplication added.
+     *
+     * @param valueToMultiplyBy  the value to multiply by
+     * @return the new expression, never null
+     */
+    public MoneyExpression multipliedBy(long valueToMultiplyBy) {
+        return scaled(BigDecimal.valueOf(valueToMultiplyBy), BigDecimal.ONE);
+    }
+
+    /**
+     * Returns an expression with an exact division added.
+     *
+     * @param valueToDivideBy  the value to divide by, not zero, not null
+     * @return the new expression, never null
+     * @throws ArithmeticException if the value is zero
+     */
+    public MoneyExpression dividedBy(BigDecimal valueToDivideBy) {
+        MoneyUtils.checkNotNull(valueToDivideBy, "Divisor must not be null");
+        if (valueToDivideBy.signum() == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        return scaled(BigDecimal.ONE, valueToDivideBy);
+    }
+
+    /**
+     * Returns an expression with an exact division added.
+     *
+     * @param valueToDivideBy  the value to divide by, not zero
+     * @return the new expression, never null
+     * @throws ArithmeticException if the value is zero
+     */
+    public MoneyExpression dividedBy(long valueToDivideBy) {
+        return dividedBy(BigDecimal.valueOf(valueToDivideBy));
+    }
+
+    /**
+     * Returns an expression with a negation added.
+     *
+     * @return the new expression, never null
+     */
+    public MoneyExpression negated() {
+        return scaled(BigDecimal.ONE.negate(), BigDecimal.ONE);
+    }
+
+    /**
+     * Returns an expression with the addition of a monetary amount.
+     * <p>
+     * The amount must be in the same currency as the amount the expression is evaluated against.
+     *
+     * @param moneyToAdd  the amount to add, not null
+     * @return the new expression, never null
+     */
+    public MoneyExpression plus(BigMoneyProvider moneyToAdd) {
+        var money = BigMoney.of(moneyToAdd);
+        return added(money.getCurrencyUnit(), money.getAmount());
+    }
+
+    /**
+     * Returns an expression with the subtraction of a monetary amount.
+     * <p>
+     * The amount must be in the same currency as the amount the expression is evaluated against.
+     *
+     * @param moneyToSubtract  the amount to subtract, not null
+     * @return the new expression, never null
+     */
+    public MoneyExpression minus(BigMoneyProvider moneyToSubtract) {
+        var money = BigMoney.of(moneyToSubtract);
+        return added(money.getCurrencyUnit(), money.getAmount().negate());
+    }
+
+    /**
+     * Returns an expression with the addition of an amount in the currency of the evaluation.
+     *
+     * @param amountToAdd  the amount to add, not null
+     * @return the new expression, never null
+     */
+    public MoneyExpression plus(BigDecimal amountToAdd) {
+        MoneyUtils.checkNotNull(amountToAdd, "Amount must not be null");
+        return added(null, amountToAdd);
+    }
+
+    /**
+     * Returns an expression with the subtraction of an amount in the currency of the evaluation.
+     *
+     * @param amountToSubtract  the amount to subtract, not null
+     * @return the new expression, never null
+     */
+    public MoneyExpression minus(BigDecimal amountToSubtract) {
+        MoneyUtils.checkNotNull(amountToSubtract, "Amount must not be null");
+        return added(null, amountToSubtract.negate());
+    }
+
+    /**
+     * Returns an expression with a rounding point added, rounding to the decimal places of the currency.
+     *
+     * @param roundingMode  the rounding mode to use, not null
+     * @return the new expression, never null
+     */
+    public MoneyExpression rounded(RoundingMode roundingMode) {
+        MoneyUtils.checkNotNull(roundingMode, "RoundingMode must not be null");
+        return withStep(new Step(Step.ROUND, null, null, null, -1, roundingMode));
+    }
+
+    /**
+     * Returns an expression with a rounding point added.
+     *
+     * @param scale  the scale to round to, zero or positive
+     * @param roundingMode  the rounding mode to use, not null
+     * @return the new expression, never null
+     */
+    public MoneyExpression rounded(int scale, RoundingMode roundingMode) {
+        MoneyUtils.checkNotNull(roundingMode, "RoundingMode must not be null");
+        if (scale < 0) {
+            throw new IllegalArgumentException("Scale must be zero or positive");
+        }
+        return withStep(new Step(Step.ROUND, null, null, null, scale, roundingMode));
+    }
+
+    // adds a multiplication and division, fusing with a previous one
+    private MoneyExpression scaled(BigDecimal multiplier, BigDecimal divisor) {
+        var last = steps.length > 0 ? steps[steps.length - 1] : null;
+        if (last != null && last.kind == Step.SCALE) {
+            var fused = new Step(Step.SCALE, null, last.first.multiply(multiplier), last.second.multiply(divisor), 0, null);
+            return replaceLast(fused);
+        }
+        return withStep(new Step(Step.SCALE, null, multiplier, divisor, 0, null));
+    }
+
+    // adds an addition, fusing with a previous one in the same currency
+    private MoneyExpression added(CurrencyUnit currency, BigDecimal amount) {
+        var last = steps.length > 0 ? steps[steps.length - 1] : null;
+        if (last != null && last.kind == Step.ADD && (currency == null ? last.currency == null : currency.equals(last.currency))) {
+            return replaceLast(new Step(Step.ADD, currency, last.first.add(amount), null, 0, null));
+        }
+        return withStep(new Step(Step.ADD, currency, amount, null, 0, null));
+    }
+
+    private MoneyExpression withStep(Step step) {
+        var newSteps = Arrays.copyOf(steps, steps.length + 1);
+        newSteps[steps.length] = step;
+        return new MoneyExpression(initial, newSteps);
+    }
+
+    private MoneyExpression replaceLast(Step step) {
+        var newSteps = steps.clone();
+        newSteps[steps.length - 1] = step;
+        return new MoneyExpression(initial, newSteps);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Evaluates the expression against the initial amount, rounding to the decimal places of the currency.
+     *
+     * @param roundingMode  the rounding mode of the final rounding, not null
+     * @return the result, never null
+     * @throws IllegalStateException if the expression is not bound to an initial amount
+     * @throws CurrencyMismatchException if an amount added is in a different currency
+     * @throws ArithmeticException if a rounding fails
+     */
+    public Money evaluate(RoundingMode roundingMode) {
+        if (initial == null) {
+            throw new IllegalStateException("Expression has no initial amount");
+        }
+        return evaluate(initial, roundingMode);
+    }
+
+    /**
+     * Evaluates the expression against an amount, rounding to the decimal places of the currency.
+     * <p>
+     * Any initial amount is ignored.
+     *
+     * @param input  the amount to evaluate against, not null
+     * @param roundingMode  the rounding mode of the final rounding, not null
+     * @return the result, never null
+     * @throws CurrencyMismatchException if an amount added is in a different currency
+     * @throws ArithmeticException if a rounding fails
+     */
+    public Money evaluate(BigMoneyProvider input, RoundingMode roundingMode) {
+        var money = BigMoney.of(input);
+        MoneyUtils.checkNotNull(roundingMode, "RoundingMode must not be null");
+        var currency = money.getCurrencyUnit();
+        return Money.of(currency, calculate(money, currency.getDecimalPlaces(), roundingMode));
+    }
+
+    /**
+     * Evaluates the expression against an amount, rounding to the specified scale.
+     * <p>
+     * Any initial amount is ignored.
+     *
+     * @param input  the amount to evaluate against, not null
+     * @param scale  the scale of the result, zero or positive
+     * @param roundingMode  the rounding mode of the final rounding, not null
+     * @return the result, never null
+     * @throws CurrencyMismatchException if an amount added is in a different currency
+     * @throws ArithmeticException if a rounding fails
+     */
+    public BigMoney evaluate(BigMoneyProvider input, int scale, RoundingMode roundingMode) {
+        var money = BigMoney.of(input);
+        MoneyUtils.checkNotNull(roundingMode, "RoundingMode must not be null");
+        if (scale < 0) {
+            throw new IllegalArgumentException("Scale must be zero or positive");
+        }
+        return BigMoney.of(money.getCurrencyUnit(), calculate(money, scale, roundingMode));
+    }
+
+    /**
+     * Evaluates the expression against each of a number of amounts, rounding to the decimal places of the currency.
+     * <p>
+     * Any initial amount is ignored.
+     *
+     * @param inputs  the amounts to evaluate against, no null elements, not null
+     * @param roundingMode  the rounding mode of the final rounding, not null
+     * @return the results, in the same order as the inputs, never null
+     * @throws CurrencyMismatchException if an amount added is in a different currency
+     * @throws ArithmeticException if a rounding fails
+     */
+    public List<Money> evaluateAll(Iterable<? extends BigMoneyProvider> inputs, RoundingMode roundingMode) {
+        MoneyUtils.checkNotNull(inputs, "Inputs must not be null");
+        MoneyUtils.checkNotNull(roundingMode, "RoundingMode must not be null");
+        var results = new ArrayList<Money>();
+        for (var input : inputs) {
+            results.add(evaluate(input, roundingMode));
+        }
+        return Collections.unmodifiableList(results);
+    }
+
+    // evaluates the steps, holding the value as an exact fraction
+    private BigDecimal calculate(BigMoney input, int scale, RoundingMode roundingMode) {
+        var currency = input.getCurrencyUnit();
+        var numerator = input.getAmount();
+        var denominator = BigDecimal.ONE;
+        for (var step : steps) {
+            switch (step.kind) {
+                case Step.SCALE -> {
+                    numerator = numerator.multiply(step.first);
+                    if (step.second.compareTo(BigDecimal.ONE) != 0) {
+                        denominator = denominator.multiply(step.second);
+                    }
+                }
+                case Step.ADD -> {
+                    if (step.currency != null && !step.currency.equals(currency)) {
+                        throw new CurrencyMismatchException(currency, step.currency);
+                    }
+                    numerator = numerator.add(denominator == BigDecimal.ONE ? step.first : step.first.multiply(denominator));
+                }
+                default -> {
+                    var stepScale = step.scale < 0 ? currency.getDecimalPlaces() : step.scale;
+                    numerator = round(numerator, denominator, stepScale, step.roundingMode);
+                    denominator = BigDecimal.ONE;
+                }
+            }
+        }
+        return round(numerator, denominator, scale, roundingMode);
+    }
+
+    private static BigDecimal round(BigDecimal numerator, BigDecimal denominator, int scale, RoundingMode roundingMode) {
+        if (denominator == BigDecimal.ONE) {
+            return numerator.setScale(scale, roundingMode);
+        }
+        return numerator.divide(denominator, scale, roundingMode);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the number of steps in the compiled plan.
+     * <p>
+     * This is less than the number of operations when adjacent operations have been fused.
+     *
+     * @return the number of steps
+     */
+    public int getStepCount() {
+        return steps.length;
+    }
+
+    /**
+     * Gets the expression as a string, such as 'MoneyExpression[input * 3 + GBP 1.00 round(HALF_EVEN)]'.
+     *
+     * @return the string, never null
+     */
+    @Override
+    public String toString() {
+        var buf = new StringBuilder("MoneyExpression[");
+        buf.append(initial != null ? initial : "input");
+        for (var step : steps) {
+            buf.append(' ').append(step);
+        }
+        return buf.append(']').toString();
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * A step in the compiled plan.
+     */
+    private static final class Step {
+        /** Kind of step multiplying by the first value and dividing by the second. */
+        static final int SCALE = 0;
+        /** Kind of step adding the first value. */
+        static final int ADD = 1;
+        /** Kind of step rounding. */
+        static final int ROUND = 2;
+
+        /** The kind of step. */
+        private final int kind;
+        /** The currency of the value to add, null if the currency of the evaluation. */
+        private final CurrencyUnit currency;
+        /** The multiplier or value to add. */
+        private final BigDecimal first;
+        /** The divisor. */
+        private final BigDecimal second;
+        /** The scale to round to, negative for the currency scale. */
+        private final int scale;
+        /** The rounding mode. */
+        private final RoundingMode roundingMode;
+
+        Step(int kind, CurrencyUnit currency, BigDecimal first, BigDecimal second, int scale, RoundingMode roundingMode) {
+            this.kind = kind;
+            this.currency = currency;
+            this.first = first;
+            this.second = second;
+            this.scale = scale;
+            this.roundingMode = roundingMode;
+        }
+
+        @Override
+        public String toString() {
+            return switch (kind) {
+                case SCALE -> "* " + first + (second.compareTo(BigDecimal.ONE) != 0 ? " / " + second : "");
+                case ADD -> "+ " + (currency != null ? currency + " " : "") + first;
+                default -> "round(" + (scale >= 0 ? scale + ", " : "") + roundingMode + ")";
+            };
+        }
+    }
+
+}
@@ -0,0 +1,136 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Interner of monetary values, returning a canonical instance for equal values.
+ * <p>
+ * A large cache of prices often holds many copies of the same values, each with its own
+ * {@code Money}, {@code BigMoney} and {@code BigDecimal} objects.
+ * Passing each value through an interner as it is stored allows the copies to be garbage collected,
+ * leaving a single shared instance of each distinct value.
+ * <p>
+ * The interner has a fixed capacity, so its memory use is bounded whatever the number of distinct values.
+ * Values are held in buckets of four, selected by hash code.
+ * When a bucket is full, a random value in the bucket is replaced.
+ * As such, an equal instance is returned while the value remains in the interner,
+ * but a rarely used value may be displaced and a later equal value become the canonical instance.
+ * The capacity should therefore be comfortably larger than the number of distinct values.
+ * <p>
+ * Equality is as defined by {@link Money#equals(Object)} and {@link BigMoney#equals(Object)},
+ * thus 'USD 1.0' and 'USD 1.00' are different {@code BigMoney} values.
+ * <p>
+ * This class is mutable and thread-safe.
+ * The table is read and written without locking, which is safe as the values are immutable.
+ */
+public final class MoneyInterner {
+
+    /** The maximum capacity. */
+    private static final int MAX_CAPACITY = 1 << 30;
+    /** The number of values in each bucket. */
+    private static final int BUCKET_SIZE = 4;
+
+    /** The table of values, in buckets. */
+    private final Object[] table;
+
+    /**
+     * Creates an interner.
+     * <p>
+     * The capacity is rounded up to a power of two, with a minimum of four.
+     *
+     * @param capacity  the maximum number of values to hold, positive
+     * @throws IllegalArgumentException if the capacity is not positive or exceeds 2^30
+     */
+    public MoneyInterner(int capacity) {
+        if (capacity <= 0 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Capacity must be from 1 to 2^30");
+        }
+        var size = Math.max(BUCKET_SIZE, Integer.highestOneBit(capacity - 1) << 1);
+        this.table = new Object[size];
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the maximum number of values that can be held.
+     *
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return table.length;
+    }
+
+    /**
+     * Interns a {@code Money}.
+     *
+     * @param money  the value to intern, not null
+     * @return the canonical instance equal to the value, never null
+     */
+    public Money intern(Money money) {
+        MoneyUtils.checkNotNull(money, "Money must not be null");
+        return (Money) internValue(money);
+    }
+
+    /**
+     * Interns a {@code BigMoney}.
+     *
+     * @param money  the value to intern, not null
+     * @return the canonical instance equal to the value, never null
+     */
+    public BigMoney intern(BigMoney money) {
+        MoneyUtils.checkNotNull(money, "BigMoney must not be null");
+        return (BigMoney) internValue(money);
+    }
+
+    // finds an equal value in the bucket, adding the value if not found
+    private Object internValue(Object value) {
+        var hash = value.hashCode();
+        hash ^= hash >>> 16;
+        var bucket = (hash * BUCKET_SIZE) & (table.length - 1);
+        var empty = -1;
+        for (var i = bucket; i < bucket + BUCKET_SIZE; i++) {
+            var existing = table[i];
+            if (existing == null) {
+                empty = empty < 0 ? i : empty;
+            } else if (value.equals(existing)) {
+                return existing;
+            }
+        }
+        table[empty >= 0 ? empty : bucket + ThreadLocalRandom.current().nextInt(BUCKET_SIZE)] = value;
+        return value;
+    }
+
+    /**
+     * Removes all values from the interner.
+     */
+    public void clear() {
+        Arrays.fill(table, null);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the interner as a string.
+     *
+     * @return the string, never null
+     */
+    @Override
+    public String toString() {
+        return "MoneyInterner[capacity=" + table.length + "]";
+    }
+
+}
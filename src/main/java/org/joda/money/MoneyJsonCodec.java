@@ -0,0 +1,621 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.text.ParsePosition;
+
+/**
+ * Writes and reads monetary values as JSON.
+ * <p>
+ * The JSON form is an object with two fields, such as
+ * {@code {"currency":"USD","amount":"12.34"}}.
+ * The amount is written as a string by default, which is safe for readers that parse
+ * JSON numbers as floating point. Use {@link #withAmountAsNumber(boolean)} to write
+ * the amount as a JSON number instead, such as {@code {"currency":"USD","amount":12.34}}.
+ * <p>
+ * This codec writes directly to the target and reads directly from the source,
+ * without a JSON library, an intermediate tree or an intermediate string for each value.
+ * When reading, the fields may be in either order, surrounded by whitespace, and the amount
+ * may be a string or number in either configuration. Other fields and escape sequences
+ * are not supported.
+ * <p>
+ * This class is immutable and thread-safe.
+ */
+public final class MoneyJsonCodec {
+
+    /** Codec writing the amount as a string. */
+    private static final MoneyJsonCodec AMOUNT_AS_STRING = new MoneyJsonCodec(false);
+    /** Codec writing the amount as a number. */
+    private static final MoneyJsonCodec AMOUNT_AS_NUMBER = new MoneyJsonCodec(true);
+    /** The currency field name. */
+    private static final String CURRENCY_FIELD = "currency";
+    /** The amount field name. */
+    private static final String AMOUNT_FIELD = "amount";
+    /** The JSON before the currency code. */
+    private static final String PREFIX = "{\"currency\":\"";
+    /** The JSON between the currency code and a string amount. */
+    private static final String INFIX_STRING = "\",\"amount\":\"";
+    /** The JSON between the currency code and a number amount. */
+    private static final String INFIX_NUMBER = "\",\"amount\":";
+    /** The JSON after a string amount. */
+    private static final String SUFFIX_STRING = "\"}";
+    /** The JSON after a number amount. */
+    private static final String SUFFIX_NUMBER = "}";
+    /** The maximum scale formatted without calling {@code BigDecimal.toPlainString()}. */
+    private static final int MAX_FAST_SCALE = 40;
+    /** The size of the buffer used to format the amount. */
+    private static final int AMOUNT_BUFFER_SIZE = 64;
+    /** The maximum magnitude of an exponent when reading. */
+    private static final int MAX_EXPONENT = 1000;
+
+    /** Whether to write the amount as a number. */
+    private final boolean amountAsNumber;
+
+    //-----------------------------------------------------------------------
+    /**
+     * Obtains the codec, which writes the amount as a string.
+     *
+     * @return the codec, never null
+     */
+    public static MoneyJsonCodec of() {
+        return AMOUNT_AS_STRING;
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param amountAsNumber  whether to write the amount as a number
+     */
+    private MoneyJsonCodec(boolean amountAsNumber) {
+        this.amountAsNumber = amountAsNumber;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Checks whether the amount is written as a JSON number rather than a string.
+     *
+     * @return true if the amount is written as a number
+     */
+    public boolean isAmountAsNumber() {
+        return amountAsNumber;
+    }
+
+    /**
+     * Returns a copy of this codec that writes the amount as a number or string.
+     * <p>
+     * This setting does not affect reading, which accepts both.
+     *
+     * @param amountAsNumber  true to write the amount as a number, false for a string
+     * @return the codec, never null
+     */
+    public MoneyJsonCodec withAmountAsNumber(boolean amountAsNumber) {
+        return amountAsNumber ? AMOUNT_AS_NUMBER : AMOUNT_AS_STRING;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Writes the monetary value as JSON to a string.
+     *
+     * @param money  the money to write, not null
+     * @return the JSON, never null
+     */
+    public String toJson(BigMoneyProvider money) {
+        var buf = new StringBuilder(48);
+        try {
+            write(money, buf);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return buf.toString();
+    }
+
+    /**
+     * Writes the monetary value as JSON to an {@code Appendable}.
+     * <p>
+     * A {@code StringBuilder} or {@code Writer} is written to in bulk.
+     *
+     * @param money  the money to write, not null
+     * @param appendable  the appendable to write to, not null
+     * @throws IOException if an IO error occurs
+     */
+    public void write(BigMoneyProvider money, Appendable appendable) throws IOException {
+        MoneyUtils.checkNotNull(appendable, "Appendable must not be null");
+        var bigMoney = BigMoney.of(money);
+        appendable.append(PREFIX).append(bigMoney.getCurrencyUnit().getCode());
+        appendable.append(amountAsNumber ? INFIX_NUMBER : INFIX_STRING);
+        var buf = new char[AMOUNT_BUFFER_SIZE];
+        var start = formatAmount(bigMoney.getAmount(), buf);
+        if (start < 0) {
+            appendable.append(bigMoney.getAmount().toPlainString());
+        } else if (appendable instanceof StringBuilder sb) {
+            sb.append(buf, start, buf.length - start);
+        } else if (appendable instanceof Writer writer) {
+            writer.write(buf, start, buf.length - start);
+        } else {
+            for (var i = start; i < buf.length; i++) {
+                appendable.append(buf[i]);
+            }
+        }
+        appendable.append(amountAsNumber ? SUFFIX_NUMBER : SUFFIX_STRING);
+    }
+
+    /**
+     * Writes the monetary value as JSON to a byte buffer.
+     * <p>
+     * The JSON is written as ASCII, which is also valid UTF-8.
+     * The position of the buffer is advanced by the number of bytes written.
+     *
+     * @param money  the money to write, not null
+     * @param buffer  the buffer to write to, not null
+     * @throws java.nio.BufferOverflowException if the buffer does not have enough space
+     */
+    public void write(BigMoneyProvider money, ByteBuffer buffer) {
+        MoneyUtils.checkNotNull(buffer, "ByteBuffer must not be null");
+        var bigMoney = BigMoney.of(money);
+        putAscii(buffer, PREFIX);
+        putAscii(buffer, bigMoney.getCurrencyUnit().getCode());
+        putAscii(buffer, amountAsNumber ? INFIX_NUMBER : INFIX_STRING);
+        var buf = new char[AMOUNT_BUFFER_SIZE];
+        var start = formatAmount(bigMoney.getAmount(), buf);
+        if (start < 0) {
+            putAscii(buffer, bigMoney.getAmount().toPlainString());
+        } else {
+            for (var i = start; i < buf.length; i++) {
+                buffer.put((byte) buf[i]);
+            }
+        }
+        putAscii(buffer, amountAsNumber ? SUFFIX_NUMBER : SUFFIX_STRING);
+    }
+
+    private static void putAscii(ByteBuffer buffer, String str) {
+        for (var i = 0; i < str.length(); i++) {
+            buffer.put((byte) str.charAt(i));
+        }
+    }
+
+    // formats the amount into the end of the buffer, returning the start index, or -1 if too large
+    private static int formatAmount(BigDecimal amount, char[] buf) {
+        var scale = amount.scale();
+        if (scale > MAX_FAST_SCALE || amount.precision() > 18) {
+            return -1;
+        }
+        var unscaled = amount.unscaledValue().longValue();
+        var negative = unscaled < 0;
+        var pos = buf.length;
+        for (var i = 0; unscaled != 0 || i <= scale; i++) {
+            if (i == scale && scale > 0) {
+                buf[--pos] = '.';
+            }
+            buf[--pos] = (char) ('0' + Math.abs(unscaled % 10));
+            unscaled /= 10;
+        }
+        if (negative) {
+            buf[--pos] = '-';
+        }
+        return pos;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Reads a {@code BigMoney} from JSON text.
+     * <p>
+     * The text must contain a single JSON object, optionally surrounded by whitespace.
+     *
+     * @param text  the JSON text, not null
+     * @return the money, never null
+     * @throws IllegalArgumentException if the JSON cannot be read
+     * @throws IllegalCurrencyException if the currency is unknown
+     */
+    public BigMoney readBigMoney(CharSequence text) {
+        MoneyUtils.checkNotNull(text, "Text must not be null");
+        var input = new CharSequenceInput(text, 0);
+        var result = read(input);
+        input.skipWhitespace();
+        if (input.peek() >= 0) {
+            throw input.error("unexpected text after object");
+        }
+        return result;
+    }
+
+    /**
+     * Reads a {@code BigMoney} from JSON text at a position.
+     * <p>
+     * Leading whitespace is skipped, then a single JSON object is read.
+     * On success, the index of the position is updated to the character after the object.
+     * On failure, the error index of the position is set.
+     *
+     * @param text  the JSON text, not null
+     * @param position  the position to read from, updated on success, not null
+     * @return the money, never null
+     * @throws IllegalArgumentException if the JSON cannot be read
+     * @throws IllegalCurrencyException if the currency is unknown
+     */
+    public BigMoney readBigMoney(CharSequence text, ParsePosition position) {
+        MoneyUtils.checkNotNull(text, "Text must not be null");
+        MoneyUtils.checkNotNull(position, "ParsePosition must not be null");
+        var input = new CharSequenceInput(text, position.getIndex());
+        try {
+            var result = read(input);
+            position.setIndex(input.index());
+            return result;
+        } catch (RuntimeException ex) {
+            position.setErrorIndex(input.index());
+            throw ex;
+        }
+    }
+
+    /**
+     * Reads a {@code BigMoney} from a reader of JSON.
+     * <p>
+     * Leading whitespace is skipped, then a single JSON object is read.
+     * No characters are read from the reader after the end of the object,
+     * allowing a sequence of objects to be read from the same reader.
+     * Characters are read one at a time, thus a buffered reader should be used.
+     *
+     * @param reader  the reader, not null
+     * @return the money, never null
+     * @throws IOException if an IO error occurs
+     * @throws IllegalArgumentException if the JSON cannot be read
+     * @throws IllegalCurrencyException if the currency is unknown
+     */
+    public BigMoney readBigMoney(Reader reader) throws IOException {
+        MoneyUtils.checkNotNull(reader, "Reader must not be null");
+        var input = new ReaderInput(reader);
+        try {
+            return read(input);
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    /**
+     * Reads a {@code BigMoney} from a byte buffer of JSON.
+     * <p>
+     * Leading whitespace is skipped, then a single JSON object is read.
+     * The JSON must be ASCII or UTF-8.
+     * On success, the position of the buffer is advanced to the byte after the object.
+     *
+     * @param buffer  the buffer, not null
+     * @return the money, never null
+     * @throws IllegalArgumentException if the JSON cannot be read
+     * @throws IllegalCurrencyException if the currency is unknown
+     */
+    public BigMoney readBigMoney(ByteBuffer buffer) {
+        MoneyUtils.checkNotNull(buffer, "ByteBuffer must not be null");
+        var input = new ByteBufferInput(buffer);
+        var result = read(input);
+        buffer.position(input.index());
+        return result;
+    }
+
+    /**
+     * Reads a {@code Money} from JSON text.
+     * <p>
+     * The text must contain a single JSON object, optionally surrounded by whitespace.
+     *
+     * @param text  the JSON text, not null
+     * @return the money, never null
+     * @throws IllegalArgumentException if the JSON cannot be read
+     * @throws IllegalCurrencyException if the currency is unknown
+     * @throws ArithmeticException if the scale of the amount exceeds that of the currency
+     */
+    public Money readMoney(CharSequence text) {
+        return Money.of(readBigMoney(text));
+    }
+
+    /**
+     * Reads a {@code Money} from a reader of JSON.
+     * <p>
+     * See {@link #readBigMoney(Reader)} for details.
+     *
+     * @param reader  the reader, not null
+     * @return the money, never null
+     * @throws IOException if an IO error occurs
+     * @throws IllegalArgumentException if the JSON cannot be read
+     * @throws IllegalCurrencyException if the currency is unknown
+     * @throws ArithmeticException if the scale of the amount exceeds that of the currency
+     */
+    public Money readMoney(Reader reader) throws IOException {
+        return Money.of(readBigMoney(reader));
+    }
+
+    /**
+     * Reads a {@code Money} from a byte buffer of JSON.
+     * <p>
+     * See {@link #readBigMoney(ByteBuffer)} for details.
+     *
+     * @param buffer  the buffer, not null
+     * @return the money, never null
+     * @throws IllegalArgumentException if the JSON cannot be read
+     * @throws IllegalCurrencyException if the currency is unknown
+     * @throws ArithmeticException if the scale of the amount exceeds that of the currency
+     */
+    public Money readMoney(ByteBuffer buffer) {
+        return Money.of(readBigMoney(buffer));
+    }
+
+    //-----------------------------------------------------------------------
+    private static BigMoney read(Input input) {
+        input.skipWhitespace();
+        input.expect('{');
+        CurrencyUnit currency = null;
+        BigDecimal amount = null;
+        while (true) {
+            input.skipWhitespace();
+            input.expect('"');
+            var isCurrency = readFieldName(input);
+            input.skipWhitespace();
+            input.expect(':');
+            input.skipWhitespace();
+            if (isCurrency) {
+                if (currency != null) {
+                    throw input.error("duplicate currency");
+                }
+                currency = readCurrency(input);
+            } else {
+                if (amount != null) {
+                    throw input.error("duplicate amount");
+                }
+                if (input.peek() == '"') {
+                    input.read();
+                    amount = readNumber(input);
+                    input.expect('"');
+                } else {
+                    amount = readNumber(input);
+                }
+            }
+            input.skipWhitespace();
+            var ch = input.read();
+            if (ch == '}') {
+                break;
+            }
+            if (ch != ',') {
+                throw input.error("expected ',' or '}'");
+            }
+        }
+        if (currency == null || amount == null) {
+            throw input.error("object must contain currency and amount");
+        }
+        return new BigMoney(currency, amount);
+    }
+
+    // reads the field name after the opening quote, returning true for currency and false for amount
+    private static boolean readFieldName(Input input) {
+        var matchCurrency = true;
+        var matchAmount = true;
+        var length = 0;
+        for (var ch = input.read(); ch != '"'; ch = input.read()) {
+            if (ch < 0 || ch == '\\') {
+                throw input.error("invalid field name");
+            }
+            matchCurrency &= length < CURRENCY_FIELD.length() && CURRENCY_FIELD.charAt(length) == ch;
+            matchAmount &= length < AMOUNT_FIELD.length() && AMOUNT_FIELD.charAt(length) == ch;
+            length++;
+        }
+        if (matchCurrency && length == CURRENCY_FIELD.length()) {
+            return true;
+        }
+        if (matchAmount && length == AMOUNT_FIELD.length()) {
+            return false;
+        }
+        throw input.error("unexpected field");
+    }
+
+    private static CurrencyUnit readCurrency(Input input) {
+        input.expect('"');
+        var ch1 = (char) input.read();
+        var ch2 = (char) input.read();
+        var ch3 = (char) input.read();
+        input.expect('"');
+        var currency = CurrencyUnit.findByCode(ch1, ch2, ch3);
+        if (currency == null) {
+            // throws a suitable exception
+            return CurrencyUnit.of(String.valueOf(new char[] {ch1, ch2, ch3}));
+        }
+        return currency;
+    }
+
+    private static BigDecimal readNumber(Input input) {
+        var negative = input.peek() == '-';
+        if (negative) {
+            input.read();
+        }
+        var unscaled = 0L;
+        StringBuilder overflow = null;
+        var digits = 0;
+        var scale = 0;
+        var fraction = false;
+        for (var ch = input.peek(); (ch >= '0' && ch <= '9') || (ch == '.' && !fraction); ch = input.peek()) {
+            input.read();
+            if (ch == '.') {
+                fraction = true;
+                continue;
+            }
+            var digit = ch - '0';
+            if (overflow == null && unscaled > (Long.MAX_VALUE - digit) / 10) {
+                overflow = new StringBuilder().append(unscaled);
+            }
+            if (overflow != null) {
+                overflow.append((char) ch);
+            } else {
+                unscaled = unscaled * 10 + digit;
+            }
+            digits++;
+            if (fraction) {
+                scale++;
+            }
+        }
+        if (digits == 0 || (fraction && scale == 0)) {
+            throw input.error("invalid amount");
+        }
+        var ch = input.peek();
+        if (ch == 'e' || ch == 'E') {
+            input.read();
+            scale -= readExponent(input);
+        }
+        if (overflow != null) {
+            var value = new BigInteger(overflow.toString());
+            return new BigDecimal(negative ? value.negate() : value, scale);
+        }
+        return BigDecimal.valueOf(negative ? -unscaled : unscaled, scale);
+    }
+
+    private static int readExponent(Input input) {
+        var negative = false;
+        var ch = input.peek();
+        if (ch == '+' || ch == '-') {
+            negative = ch == '-';
+            input.read();
+        }
+        var exponent = 0;
+        var digits = 0;
+        for (ch = input.peek(); ch >= '0' && ch <= '9'; ch = input.peek()) {
+            input.read();
+            exponent = exponent * 10 + (ch - '0');
+            if (exponent > MAX_EXPONENT) {
+                throw input.error("amount exponent too large");
+            }
+            digits++;
+        }
+        if (digits == 0) {
+            throw input.error("invalid amount");
+        }
+        return negative ? -exponent : exponent;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * The input being read.
+     */
+    private abstract static class Input {
+        /** The number of characters read. */
+        private int index;
+
+        Input(int index) {
+            this.index = index;
+        }
+
+        // gets the character at the index, -1 if at the end, only called with the current index
+        abstract int charAt(int index);
+
+        int index() {
+            return index;
+        }
+
+        int peek() {
+            return charAt(index);
+        }
+
+        int read() {
+            var ch = charAt(index);
+            if (ch >= 0) {
+                index++;
+            }
+            return ch;
+        }
+
+        void expect(char expected) {
+            if (read() != expected) {
+                throw error("expected '" + expected + "'");
+            }
+        }
+
+        void skipWhitespace() {
+            for (var ch = peek(); ch == ' ' || ch == '\t' || ch == '\n' || ch == '\r'; ch = peek()) {
+                read();
+            }
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("Unable to read money JSON at index " + index + ": " + message);
+        }
+    }
+
+    /**
+     * Input from a {@code CharSequence}.
+     */
+    private static final class CharSequenceInput extends Input {
+        /** The text. */
+        private final CharSequence text;
+
+        CharSequenceInput(CharSequence text, int index) {
+            super(index);
+            this.text = text;
+        }
+
+        @Override
+        int charAt(int index) {
+            return index < text.length() ? text.charAt(index) : -1;
+        }
+    }
+
+    /**
+     * Input from a {@code ByteBuffer}.
+     */
+    private static final class ByteBufferInput extends Input {
+        /** The buffer. */
+        private final ByteBuffer buffer;
+
+        ByteBufferInput(ByteBuffer buffer) {
+            super(buffer.position());
+            this.buffer = buffer;
+        }
+
+        @Override
+        int charAt(int index) {
+            return index < buffer.limit() ? buffer.get(index) & 0xFF : -1;
+        }
+    }
+
+    /**
+     * Input from a {@code Reader}, with one character of lookahead.
+     * The lookahead is only used within the object, thus no characters are consumed after it.
+     */
+    private static final class ReaderInput extends Input {
+        /** The reader. */
+        private final Reader reader;
+        /** The index of the lookahead character. */
+        private int nextIndex = -1;
+        /** The lookahead character. */
+        private int next;
+
+        ReaderInput(Reader reader) {
+            super(0);
+            this.reader = reader;
+        }
+
+        @Override
+        int charAt(int index) {
+            if (index != nextIndex) {
+                try {
+                    next = reader.read();
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+                nextIndex = index;
+            }
+            return next;
+        }
+    }
+
+}
@@ -0,0 +1,224 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+/**
+ * Limits on the size of the amount produced by {@code BigMoney} arithmetic.
+ * <p>
+ * Multiplying a {@code BigMoney} by a {@code BigDecimal} produces a result with a scale
+ * equal to the sum of the two scales. In a long chain of operations, such as an interest
+ * accrual loop, the scale and the underlying {@code BigInteger} grow without limit,
+ * making each successive operation slower.
+ * A context bounds the result of each operation, either to a maximum scale or to a
+ * maximum number of significant digits, rounding using the specified mode when the limit is exceeded.
+ * Results within the limit are returned unaltered, thus no precision is lost until the limit is reached.
+ * <p>
+ * A context is passed to {@link BigMoney#multipliedBy(BigDecimal, MoneyMathContext)},
+ * {@link BigMoney#dividedBy(BigDecimal, MoneyMathContext)} and
+ * {@link BigMoney#convertedTo(CurrencyUnit, BigDecimal, MoneyMathContext)},
+ * in the same way that a {@link MathContext} is passed to {@code BigDecimal}.
+ * <p>
+ * This class is immutable and thread-safe.
+ */
+public final class MoneyMathContext {
+
+    /** The maximum scale, negative if limited by precision. */
+    private final int maxScale;
+    /** The precision limit, null if limited by scale. */
+    private final MathContext mathContext;
+    /** The rounding mode. */
+    private final RoundingMode roundingMode;
+
+    //-----------------------------------------------------------------------
+    /**
+     * Obtains a context limiting the scale of the result.
+     * <p>
+     * For example, a maximum scale of 6 ensures that no result has more than 6 decimal places.
+     *
+     * @param maxScale  the maximum scale, zero or greater
+     * @param roundingMode  the rounding mode to use when the scale is exceeded, not null
+     * @return the context, never null
+     * @throws IllegalArgumentException if the scale is negative
+     */
+    public static MoneyMathContext ofScale(int maxScale, RoundingMode roundingMode) {
+        MoneyUtils.checkNotNull(roundingMode, "RoundingMode must not be null");
+        if (maxScale < 0) {
+            throw new IllegalArgumentException("Maximum scale must be zero or greater");
+        }
+        return new MoneyMathContext(maxScale, null, roundingMode);
+    }
+
+    /**
+     * Obtains a context limiting the precision of the result.
+     * <p>
+     * For example, a maximum precision of 20 ensures that no result has more than 20 significant digits,
+     * unless more digits are needed to the left of the decimal point.
+     *
+     * @param maxPrecision  the maximum number of significant digits, one or greater
+     * @param roundingMode  the rounding mode to use when the precision is exceeded, not null
+     * @return the context, never null
+     * @throws IllegalArgumentException if the precision is less than one
+     */
+    public static MoneyMathContext ofPrecision(int maxPrecision, RoundingMode roundingMode) {
+        MoneyUtils.checkNotNull(roundingMode, "RoundingMode must not be null");
+        if (maxPrecision < 1) {
+            throw new IllegalArgumentException("Maximum precision must be one or greater");
+        }
+        return new MoneyMathContext(-1, new MathContext(maxPrecision, roundingMode), roundingMode);
+    }
+
+    /**
+     * Restricted constructor.
+     */
+    private MoneyMathContext(int maxScale, MathContext mathContext, RoundingMode roundingMode) {
+        this.maxScale = maxScale;
+        this.mathContext = mathContext;
+        this.roundingMode = roundingMode;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Checks if this context limits the scale rather than the precision.
+     *
+     * @return true if limited by scale, false if limited by precision
+     */
+    public boolean isScaleLimited() {
+        return mathContext == null;
+    }
+
+    /**
+     * Gets the maximum scale.
+     *
+     * @return the maximum scale, -1 if limited by precision
+     */
+    public int getMaxScale() {
+        return maxScale;
+    }
+
+    /**
+     * Gets the maximum precision.
+     *
+     * @return the maximum precision, 0 if limited by scale
+     */
+    public int getMaxPrecision() {
+        return mathContext == null ? 0 : mathContext.getPrecision();
+    }
+
+    /**
+     * Gets the rounding mode.
+     *
+     * @return the rounding mode, never null
+     */
+    public RoundingMode getRoundingMode() {
+        return roundingMode;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Bounds an amount to this context, rounding if necessary.
+     * <p>
+     * The scale of the result is never negative.
+     *
+     * @param amount  the amount to bound, not null
+     * @return the bounded amount, never null
+     * @throws ArithmeticException if the rounding fails
+     */
+    BigDecimal round(BigDecimal amount) {
+        if (mathContext == null) {
+            return amount.scale() > maxScale ? amount.setScale(maxScale, roundingMode) : amount;
+        }
+        if (amount.precision() <= mathContext.getPrecision()) {
+            return amount;
+        }
+        // round the fraction only, never into the integer part
+        var integerDigits = amount.precision() - amount.scale();
+        return amount.setScale(Math.max(0, mathContext.getPrecision() - integerDigits), roundingMode);
+    }
+
+    /**
+     * Divides an amount within this context.
+     * <p>
+     * The quotient is computed directly to the limit of this context.
+     * An exact quotient retains no more decimal places than it needs,
+     * but never fewer than the dividend, or the maximum scale if that is smaller.
+     *
+     * @param amount  the amount to divide, not null
+     * @param divisor  the divisor, not null
+     * @return the quotient, never null
+     * @throws ArithmeticException if dividing by zero or the rounding fails
+     */
+    BigDecimal divide(BigDecimal amount, BigDecimal divisor) {
+        if (mathContext == null) {
+            var quotient = amount.divide(divisor, maxScale, roundingMode);
+            var minScale = Math.min(amount.scale(), maxScale);
+            if (quotient.scale() > minScale) {
+                var stripped = quotient.stripTrailingZeros();
+                quotient = stripped.scale() < minScale ? quotient.setScale(minScale) : stripped;
+            }
+            return quotient;
+        }
+        var quotient = amount.divide(divisor, mathContext);
+        if (quotient.precision() - quotient.scale() > mathContext.getPrecision()) {
+            // more digits are needed to the left of the decimal point, so round the fraction only
+            return amount.divide(divisor, 0, roundingMode);
+        }
+        return quotient.scale() < 0 ? quotient.setScale(0) : quotient;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Checks if this context equals another.
+     *
+     * @param other  the other object, null returns false
+     * @return true if equal
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        return other instanceof MoneyMathContext otherContext &&
+                maxScale == otherContext.maxScale &&
+                getMaxPrecision() == otherContext.getMaxPrecision() &&
+                roundingMode == otherContext.roundingMode;
+    }
+
+    /**
+     * Returns a suitable hash code.
+     *
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        return (maxScale * 31 + getMaxPrecision()) * 31 + roundingMode.hashCode();
+    }
+
+    /**
+     * Gets the context as a string, such as 'MoneyMathContext[scale=6, HALF_EVEN]'.
+     *
+     * @return the string, never null
+     */
+    @Override
+    public String toString() {
+        return "MoneyMathContext[" + (mathContext == null ? "scale=" + maxScale : "precision=" + getMaxPrecision()) +
+                ", " + roundingMode + "]";
+    }
+
+}
@@ -0,0 +1,284 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * Statistics of monetary amounts in a single currency, such as count, sum, min and max.
+ * <p>
+ * This is the monetary equivalent of {@link java.util.LongSummaryStatistics}.
+ * Amounts are accumulated in minor units using primitive fields, without creating objects.
+ * Amounts already held in minor units can be recorded using {@link #acceptMinor(long)}.
+ * If an amount or the sum exceeds the capacity of a {@code long}, the excess is
+ * accumulated in a {@code BigDecimal}, so the results are always exact.
+ * <p>
+ * An instance can be used as the target of a stream:
+ * <pre>
+ *  MoneyStatistics stats = monies.stream()
+ *      .collect(MoneyCollectors.summarizing(CurrencyUnit.USD));
+ * </pre>
+ * <p>
+ * This class is mutable and intended for use by a single thread.
+ */
+public final class MoneyStatistics implements Consumer<Money> {
+
+    /** The currency. */
+    private final CurrencyUnit currency;
+    /** The scale of the currency. */
+    private final int currencyScale;
+    /** The number of amounts. */
+    private long count;
+    /** The number of amounts that did not fit in a {@code long} in minor units. */
+    private long countOther;
+    /** The sum in minor units. */
+    private long sumMinor;
+    /** The part of the sum that did not fit in the minor units. */
+    private BigDecimal sumOther = BigDecimal.ZERO;
+    /** The minimum of the amounts that fit in a {@code long} in minor units. */
+    private long minMinor = Long.MAX_VALUE;
+    /** The maximum of the amounts that fit in a {@code long} in minor units. */
+    private long maxMinor = Long.MIN_VALUE;
+    /** The minimum of the amounts that did not fit in a {@code long}, null if none. */
+    private BigDecimal minOther;
+    /** The maximum of the amounts that did not fit in a {@code long}, null if none. */
+    private BigDecimal maxOther;
+
+    /**
+     * Creates an empty instance for the specified currency.
+     *
+     * @param currency  the currency of the amounts, not null
+     */
+    public MoneyStatistics(CurrencyUnit currency) {
+        MoneyUtils.checkNotNull(currency, "CurrencyUnit must not be null");
+        this.currency = currency;
+        this.currencyScale = currency.getDecimalPlaces();
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Records an amount.
+     *
+     * @param money  the amount to record, in the currency of the statistics, not null
+     * @throws CurrencyMismatchException if the currency differs
+     */
+    @Override
+    public void accept(Money money) {
+        MoneyUtils.checkNotNull(money, "Money must not be null");
+        if (!currency.equals(money.getCurrencyUnit())) {
+            throw new CurrencyMismatchException(currency, money.getCurrencyUnit());
+        }
+        var amount = money.getAmount();
+        var unscaled = amount.unscaledValue();
+        if (unscaled.bitLength() < 64) {
+            acceptMinor(unscaled.longValue());
+        } else {
+            count++;
+            countOther++;
+            sumOther = sumOther.add(amount);
+            minOther = minOther == null || amount.compareTo(minOther) < 0 ? amount : minOther;
+            maxOther = maxOther == null || amount.compareTo(maxOther) > 0 ? amount : maxOther;
+        }
+    }
+
+    /**
+     * Records an amount in minor units.
+     * <p>
+     * This is equivalent to {@code accept(Money.ofMinor(currency, amountMinor))}
+     * without creating the {@code Money}.
+     *
+     * @param amountMinor  the amount to record in the minor units of the currency
+     */
+    public void acceptMinor(long amountMinor) {
+        count++;
+        addToSum(amountMinor);
+        minMinor = Math.min(minMinor, amountMinor);
+        maxMinor = Math.max(maxMinor, amountMinor);
+    }
+
+    // adds to the sum, moving the sum to the BigDecimal if it would overflow
+    private void addToSum(long amountMinor) {
+        var result = sumMinor + amountMinor;
+        if (((sumMinor ^ result) & (amountMinor ^ result)) < 0) {
+            sumOther = sumOther.add(BigDecimal.valueOf(sumMinor, currencyScale));
+            result = amountMinor;
+        }
+        sumMinor = result;
+    }
+
+    /**
+     * Combines the state of another instance into this one.
+     * <p>
+     * This is used to merge the results of a parallel calculation.
+     *
+     * @param other  the other statistics, in the same currency, not null
+     * @return this instance, for chaining, never null
+     * @throws CurrencyMismatchException if the currency differs
+     */
+    public MoneyStatistics combine(MoneyStatistics other) {
+        MoneyUtils.checkNotNull(other, "MoneyStatistics must not be null");
+        if (!currency.equals(other.currency)) {
+            throw new CurrencyMismatchException(currency, other.currency);
+        }
+        count += other.count;
+        countOther += other.countOther;
+        addToSum(other.sumMinor);
+        sumOther = sumOther.add(other.sumOther);
+        minMinor = Math.min(minMinor, other.minMinor);
+        maxMinor = Math.max(maxMinor, other.maxMinor);
+        if (other.minOther != null) {
+            minOther = minOther == null || other.minOther.compareTo(minOther) < 0 ? other.minOther : minOther;
+            maxOther = maxOther == null || other.maxOther.compareTo(maxOther) > 0 ? other.maxOther : maxOther;
+        }
+        return this;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the currency of the amounts.
+     *
+     * @return the currency, never null
+     */
+    public CurrencyUnit getCurrencyUnit() {
+        return currency;
+    }
+
+    /**
+     * Gets the number of amounts recorded.
+     *
+     * @return the count
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the sum of the amounts recorded.
+     * <p>
+     * If no amounts have been recorded, zero is returned.
+     *
+     * @return the sum, never null
+     */
+    public Money getSum() {
+        if (sumOther.signum() == 0) {
+            return Money.ofMinor(currency, sumMinor);
+        }
+        return Money.of(currency, sumAmount());
+    }
+
+    /**
+     * Gets the sum of the amounts recorded as a {@code BigMoney}.
+     * <p>
+     * The scale of the result is the scale of the currency.
+     * If no amounts have been recorded, zero is returned.
+     *
+     * @return the sum, never null
+     */
+    public BigMoney getSumBigMoney() {
+        return BigMoney.of(currency, sumAmount());
+    }
+
+    /**
+     * Gets the arithmetic mean of the amounts recorded.
+     * <p>
+     * The mean is rounded to the scale of the currency using the specified rounding mode.
+     *
+     * @param roundingMode  the rounding mode to use, not null
+     * @return the mean, never null
+     * @throws NoSuchElementException if no amounts have been recorded
+     * @throws ArithmeticException if the rounding mode is {@code UNNECESSARY} and rounding is required
+     */
+    public Money getAverage(RoundingMode roundingMode) {
+        return Money.of(getAverageBigMoney(currencyScale, roundingMode));
+    }
+
+    /**
+     * Gets the arithmetic mean of the amounts recorded as a {@code BigMoney}.
+     * <p>
+     * The mean is rounded to the specified scale using the specified rounding mode.
+     * This allows the mean to be obtained with more precision than the currency.
+     *
+     * @param scale  the scale of the result, may be negative
+     * @param roundingMode  the rounding mode to use, not null
+     * @return the mean, never null
+     * @throws NoSuchElementException if no amounts have been recorded
+     * @throws ArithmeticException if the rounding mode is {@code UNNECESSARY} and rounding is required
+     */
+    public BigMoney getAverageBigMoney(int scale, RoundingMode roundingMode) {
+        MoneyUtils.checkNotNull(roundingMode, "RoundingMode must not be null");
+        checkNotEmpty();
+        return BigMoney.of(currency, sumAmount().divide(BigDecimal.valueOf(count), scale, roundingMode));
+    }
+
+    // the exact sum
+    private BigDecimal sumAmount() {
+        return BigDecimal.valueOf(sumMinor, currencyScale).add(sumOther);
+    }
+
+    /**
+     * Gets the minimum amount recorded.
+     *
+     * @return the minimum, never null
+     * @throws NoSuchElementException if no amounts have been recorded
+     */
+    public Money getMin() {
+        checkNotEmpty();
+        // amounts that do not fit in a long are beyond all those that do
+        if (minOther != null && (minOther.signum() < 0 || count == countOther)) {
+            return Money.of(currency, minOther);
+        }
+        return Money.ofMinor(currency, minMinor);
+    }
+
+    /**
+     * Gets the maximum amount recorded.
+     *
+     * @return the maximum, never null
+     * @throws NoSuchElementException if no amounts have been recorded
+     */
+    public Money getMax() {
+        checkNotEmpty();
+        // amounts that do not fit in a long are beyond all those that do
+        if (maxOther != null && (maxOther.signum() > 0 || count == countOther)) {
+            return Money.of(currency, maxOther);
+        }
+        return Money.ofMinor(currency, maxMinor);
+    }
+
+    private void checkNotEmpty() {
+        if (count == 0) {
+            throw new NoSuchElementException("No amounts have been recorded");
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the statistics as a string.
+     *
+     * @return the string, never null
+     */
+    @Override
+    public String toString() {
+        if (count == 0) {
+            return "MoneyStatistics[" + currency + ", count=0]";
+        }
+        return "MoneyStatistics[" + currency + ", count=" + count + ", sum=" + getSum() + ", min=" + getMin() + ", max=" + getMax() + ", average=" + getAverage(RoundingMode.HALF_EVEN) + "]";
+    }
+
+}
@@ -0,0 +1,413 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * A schedule of tiers, such as fee bands or thresholds, selected by a monetary amount.
+ * <p>
+ * Each tier starts at a lower bound and extends up to, but excluding, the lower bound of the next tier.
+ * The highest tier has no upper bound, and amounts below the lowest bound have no tier.
+ * Each currency has its own set of tiers.
+ * <p>
+ * The lower bounds are held as a sorted {@code long[]} of minor units per currency,
+ * and the tier is found by binary search. The methods taking an amount in minor units
+ * do not create any objects, making them suitable for use on every transaction.
+ * <p>
+ * A tier may have a marginal rate in basis points, where one basis point is one hundredth of one percent.
+ * The marginal fee charges each tier's rate on the part of the amount that falls within that tier,
+ * as used for tiered commission and progressive charges.
+ * For example, with tiers of 1% from 0 and 0.5% from 1000, the fee on 1500 is 10 + 2.50 = 12.50.
+ * The fee is calculated exactly in a single pass over the tiers and rounded once.
+ * <p>
+ * This class is immutable and thread-safe if the tier objects are immutable and thread-safe.
+ *
+ * @param <T>  the type of the tier
+ */
+public final class MoneyTierSchedule<T> {
+
+    /** The tiers, keyed by currency. */
+    private final Map<CurrencyUnit, Tiers> tiersByCurrency;
+
+    //-----------------------------------------------------------------------
+    /**
+     * Creates a builder for a schedule.
+     *
+     * @param <T>  the type of the tier
+     * @return the builder, never null
+     */
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Restricted constructor.
+     */
+    private MoneyTierSchedule(Map<CurrencyUnit, Tiers> tiersByCurrency) {
+        this.tiersByCurrency = tiersByCurrency;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the currencies that have tiers.
+     *
+     * @return the currencies, unmodifiable, never null
+     */
+    public Set<CurrencyUnit> getCurrencyUnits() {
+        return tiersByCurrency.keySet();
+    }
+
+    /**
+     * Gets the number of tiers for a currency.
+     *
+     * @param currency  the currency, not null
+     * @return the number of tiers, zero if the currency has no tiers
+     */
+    public int getTierCount(CurrencyUnit currency) {
+        MoneyUtils.checkNotNull(currency, "CurrencyUnit must not be null");
+        var tiers = tiersByCurrency.get(currency);
+        return tiers == null ? 0 : tiers.bounds.length;
+    }
+
+    /**
+     * Gets the lower bound of a tier.
+     *
+     * @param currency  the currency, not null
+     * @param index  the index of the tier, from zero in order of lower bound
+     * @return the lower bound, never null
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    public Money getLowerBound(CurrencyUnit currency, int index) {
+        return Money.ofMinor(currency, tiersFor(currency).bounds[index]);
+    }
+
+    /**
+     * Gets a tier.
+     *
+     * @param currency  the currency, not null
+     * @param index  the index of the tier, from zero in order of lower bound
+     * @return the tier, never null
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    @SuppressWarnings("unchecked")
+    public T getTier(CurrencyUnit currency, int index) {
+        return (T) tiersFor(currency).tiers[index];
+    }
+
+    private Tiers tiersFor(CurrencyUnit currency) {
+        MoneyUtils.checkNotNull(currency, "CurrencyUnit must not be null");
+        var tiers = tiersByCurrency.get(currency);
+        if (tiers == null) {
+            throw new IndexOutOfBoundsException("No tiers for currency: " + currency);
+        }
+        return tiers;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Finds the index of the tier containing an amount in minor units.
+     * <p>
+     * This method does not create any objects.
+     *
+     * @param currency  the currency, not null
+     * @param amountMinor  the amount in the minor units of the currency
+     * @return the index of the tier, -1 if the amount is below the lowest bound or the currency has no tiers
+     */
+    public int findTierIndex(CurrencyUnit currency, long amountMinor) {
+        MoneyUtils.checkNotNull(currency, "CurrencyUnit must not be null");
+        var tiers = tiersByCurrency.get(currency);
+        return tiers == null ? -1 : tiers.indexOf(amountMinor);
+    }
+
+    /**
+     * Finds the tier containing an amount in minor units.
+     * <p>
+     * This method does not create any objects.
+     *
+     * @param currency  the currency, not null
+     * @param amountMinor  the amount in the minor units of the currency
+     * @return the tier, null if the amount is below the lowest bound or the currency has no tiers
+     */
+    @SuppressWarnings("unchecked")
+    public T findTier(CurrencyUnit currency, long amountMinor) {
+        MoneyUtils.checkNotNull(currency, "CurrencyUnit must not be null");
+        var tiers = tiersByCurrency.get(currency);
+        if (tiers == null) {
+            return null;
+        }
+        var index = tiers.indexOf(amountMinor);
+        return index < 0 ? null : (T) tiers.tiers[index];
+    }
+
+    /**
+     * Finds the tier containing an amount.
+     *
+     * @param amount  the amount, not null
+     * @return the tier, null if the amount is below the lowest bound or the currency has no tiers
+     */
+    @SuppressWarnings("unchecked")
+    public T findTier(Money amount) {
+        MoneyUtils.checkNotNull(amount, "Amount must not be null");
+        var tiers = tiersByCurrency.get(amount.getCurrencyUnit());
+        if (tiers == null) {
+            return null;
+        }
+        var unscaled = amount.getAmount().unscaledValue();
+        int index;
+        if (unscaled.bitLength() < 64) {
+            index = tiers.indexOf(unscaled.longValue());
+        } else {
+            index = unscaled.signum() < 0 ? -1 : tiers.bounds.length - 1;
+        }
+        return index < 0 ? null : (T) tiers.tiers[index];
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Calculates the marginal fee on an amount in minor units.
+     * <p>
+     * The rate of each tier is charged on the part of the amount within that tier.
+     * The sum is exact, and rounded once to the minor units of the currency.
+     * This method does not create any objects unless an intermediate exceeds the capacity of a {@code long}.
+     *
+     * @param currency  the currency, not null
+     * @param amountMinor  the amount in the minor units of the currency
+     * @param roundingMode  the rounding mode to use, not null
+     * @return the fee in minor units, zero if the amount is below the lowest bound or the currency has no tiers
+     * @throws ArithmeticException if the fee exceeds the capacity of a {@code long}, or if the rounding fails
+     */
+    public long calculateMarginalFeeMinor(CurrencyUnit currency, long amountMinor, RoundingMode roundingMode) {
+        MoneyUtils.checkNotNull(currency, "CurrencyUnit must not be null");
+        MoneyUtils.checkNotNull(roundingMode, "RoundingMode must not be null");
+        var tiers = tiersByCurrency.get(currency);
+        if (tiers == null) {
+            return 0;
+        }
+        var feeBasisPoints = tiers.marginalFee(amountMinor);
+        if (feeBasisPoints != Long.MIN_VALUE) {
+            return MoneyColumns.multipliedByFraction(feeBasisPoints, 1, 10_000, roundingMode);
+        }
+        return roundBasisPoints(tiers.marginalFee(BigInteger.valueOf(amountMinor)), roundingMode).longValueExact();
+    }
+
+    /**
+     * Calculates the marginal fee on an amount.
+     * <p>
+     * The rate of each tier is charged on the part of the amount within that tier.
+     * The sum is exact, and rounded once to the scale of the currency.
+     *
+     * @param amount  the amount, not null
+     * @param roundingMode  the rounding mode to use, not null
+     * @return the fee, zero if the amount is below the lowest bound or the currency has no tiers, never null
+     * @throws ArithmeticException if the rounding fails
+     */
+    public Money calculateMarginalFee(Money amount, RoundingMode roundingMode) {
+        MoneyUtils.checkNotNull(amount, "Amount must not be null");
+        MoneyUtils.checkNotNull(roundingMode, "RoundingMode must not be null");
+        var currency = amount.getCurrencyUnit();
+        var tiers = tiersByCurrency.get(currency);
+        if (tiers == null) {
+            return Money.zero(currency);
+        }
+        var unscaled = amount.getAmount().unscaledValue();
+        if (unscaled.bitLength() < 64) {
+            var feeBasisPoints = tiers.marginalFee(unscaled.longValue());
+            if (feeBasisPoints != Long.MIN_VALUE) {
+                return Money.ofMinor(currency, MoneyColumns.multipliedByFraction(feeBasisPoints, 1, 10_000, roundingMode));
+            }
+        }
+        var fee = roundBasisPoints(tiers.marginalFee(unscaled), roundingMode);
+        return Money.of(currency, new BigDecimal(fee, currency.getDecimalPlaces()));
+    }
+
+    // converts basis points of minor units to minor units
+    private static BigInteger roundBasisPoints(BigInteger feeBasisPoints, RoundingMode roundingMode) {
+        return new BigDecimal(feeBasisPoints).divide(BigDecimal.valueOf(10_000), 0, roundingMode).toBigIntegerExact();
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the schedule as a string.
+     *
+     * @return the string, never null
+     */
+    @Override
+    public String toString() {
+        var buf = new StringBuilder("MoneyTierSchedule[");
+        var first = true;
+        for (var entry : new TreeMap<>(tiersByCurrency).entrySet()) {
+            if (!first) {
+                buf.append(", ");
+            }
+            first = false;
+            var currency = entry.getKey();
+            var bounds = entry.getValue().bounds;
+            buf.append(currency.getCode()).append(':');
+            for (var bound : bounds) {
+                buf.append(' ').append(BigDecimal.valueOf(bound, currency.getDecimalPlaces()).toPlainString());
+            }
+        }
+        return buf.append(']').toString();
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * The tiers of a single currency.
+     */
+    private static final class Tiers {
+        /** The lower bounds in minor units, sorted and distinct. */
+        private final long[] bounds;
+        /** The tiers, in the same order as the bounds. */
+        private final Object[] tiers;
+        /** The marginal rates in basis points, in the same order as the bounds. */
+        private final long[] basisPoints;
+
+        Tiers(long[] bounds, Object[] tiers, long[] basisPoints) {
+            this.bounds = bounds;
+            this.tiers = tiers;
+            this.basisPoints = basisPoints;
+        }
+
+        // finds the last bound less than or equal to the amount
+        int indexOf(long amountMinor) {
+            var index = Arrays.binarySearch(bounds, amountMinor);
+            return index >= 0 ? index : -index - 2;
+        }
+
+        // calculates the fee in basis points of minor units, Long.MIN_VALUE if it overflows
+        long marginalFee(long amountMinor) {
+            var total = 0L;
+            var overflow = 0L;
+            var overflowMultiply = 0L;
+            var last = indexOf(amountMinor);
+            for (var i = 0; i <= last; i++) {
+                var upper = i == last ? amountMinor : bounds[i + 1];
+                var lower = bounds[i];
+                var portion = upper - lower;
+                overflow |= (upper ^ lower) & (upper ^ portion);
+                var rate = basisPoints[i];
+                var fee = portion * rate;
+                overflowMultiply |= Math.multiplyHigh(portion, rate) ^ (fee >> 63);
+                var sum = total + fee;
+                overflow |= (total ^ sum) & (fee ^ sum);
+                total = sum;
+            }
+            return overflow < 0 || overflowMultiply != 0 ? Long.MIN_VALUE : total;
+        }
+
+        // calculates the fee in basis points of minor units without limit on size
+        BigInteger marginalFee(BigInteger amountMinor) {
+            var total = BigInteger.ZERO;
+            for (var i = 0; i < bounds.length; i++) {
+                var lower = BigInteger.valueOf(bounds[i]);
+                if (amountMinor.compareTo(lower) <= 0) {
+                    break;
+                }
+                var upper = i + 1 < bounds.length ? amountMinor.min(BigInteger.valueOf(bounds[i + 1])) : amountMinor;
+                total = total.add(upper.subtract(lower).multiply(BigInteger.valueOf(basisPoints[i])));
+            }
+            return total;
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Builder for {@code MoneyTierSchedule}.
+     * <p>
+     * This class is mutable and intended for use by a single thread.
+     *
+     * @param <T>  the type of the tier
+     */
+    public static final class Builder<T> {
+
+        /** The tiers and rates, keyed by currency then lower bound in minor units. */
+        private final Map<CurrencyUnit, TreeMap<Long, Map.Entry<T, Long>>> tiers = new HashMap<>();
+
+        /**
+         * Restricted constructor.
+         */
+        private Builder() {
+        }
+
+        /**
+         * Adds a tier with no marginal rate.
+         *
+         * @param lowerBound  the lower bound of the tier, inclusive, not null
+         * @param tier  the tier, not null
+         * @return this, for chaining, never null
+         * @throws IllegalArgumentException if a tier has already been added with the same lower bound
+         * @throws ArithmeticException if the lower bound exceeds the capacity of a {@code long} in minor units
+         */
+        public Builder<T> addTier(Money lowerBound, T tier) {
+            return addTier(lowerBound, tier, 0);
+        }
+
+        /**
+         * Adds a tier with a marginal rate.
+         *
+         * @param lowerBound  the lower bound of the tier, inclusive, not null
+         * @param tier  the tier, not null
+         * @param basisPoints  the marginal rate of the tier in basis points, such as 50 for 0.5%
+         * @return this, for chaining, never null
+         * @throws IllegalArgumentException if a tier has already been added with the same lower bound
+         * @throws ArithmeticException if the lower bound exceeds the capacity of a {@code long} in minor units
+         */
+        public Builder<T> addTier(Money lowerBound, T tier, long basisPoints) {
+            MoneyUtils.checkNotNull(lowerBound, "Lower bound must not be null");
+            MoneyUtils.checkNotNull(tier, "Tier must not be null");
+            var boundMinor = lowerBound.getAmountMinorLong();
+            var byBound = tiers.computeIfAbsent(lowerBound.getCurrencyUnit(), currency -> new TreeMap<>());
+            if (byBound.putIfAbsent(boundMinor, Map.entry(tier, basisPoints)) != null) {
+                throw new IllegalArgumentException("Duplicate lower bound: " + lowerBound);
+            }
+            return this;
+        }
+
+        /**
+         * Builds the schedule.
+         *
+         * @return the schedule, never null
+         */
+        public MoneyTierSchedule<T> build() {
+            var built = new HashMap<CurrencyUnit, Tiers>();
+            for (var entry : tiers.entrySet()) {
+                var byBound = entry.getValue();
+                var size = byBound.size();
+                var bounds = new long[size];
+                var tierArray = new Object[size];
+                var basisPoints = new long[size];
+                var i = 0;
+                for (var tier : byBound.entrySet()) {
+                    bounds[i] = tier.getKey();
+                    tierArray[i] = tier.getValue().getKey();
+                    basisPoints[i] = tier.getValue().getValue();
+                    i++;
+                }
+                built.put(entry.getKey(), new Tiers(bounds, tierArray, basisPoints));
+            }
+            return new MoneyTierSchedule<>(Map.copyOf(built));
+        }
+    }
+
+}
@@ -15,6 +15,9 @@
  */
 package org.joda.money;
 
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * Utilities for working with monetary values that handle null.
  * <p>
@@ -276,4 +279,40 @@ public final class MoneyUtils {
         return money1.minus(money2);
     }
 
+    //-----------------------------------------------------------------------
+    /**
+     * Totals a collection of monetary values in parallel, handling null.
+     * <p>
+     * This returns the total of the collection where null elements are ignored.
+     * The collection is split using its spliterator, with each part totalled
+     * in the common fork-join pool and the results combined exactly.
+     * The scale of the result is the largest scale of the elements.
+     *
+     * @param currency  the currency to total in, not null
+     * @param monies  the monetary values to total, null elements ignored, not null
+     * @return the total, where null is ignored, never null
+     * @throws CurrencyMismatchException if the currencies differ
+     */
+    public static BigMoney parallelTotal(CurrencyUnit currency, Collection<? extends BigMoneyProvider> monies) {
+        return parallelTotal(currency, monies, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Totals a collection of monetary values in parallel using the specified pool, handling null.
+     * <p>
+     * This returns the total of the collection where null elements are ignored.
+     * The collection is split using its spliterator, with each part totalled
+     * in the specified fork-join pool and the results combined exactly.
+     * The scale of the result is the largest scale of the elements.
+     *
+     * @param currency  the currency to total in, not null
+     * @param monies  the monetary values to total, null elements ignored, not null
+     * @param pool  the pool to perform the calculation in, not null
+     * @return the total, where null is ignored, never null
+     * @throws CurrencyMismatchException if the currencies differ
+     */
+    public static BigMoney parallelTotal(CurrencyUnit currency, Collection<? extends BigMoneyProvider> monies, ForkJoinPool pool) {
+        return ParallelTotal.total(currency, monies, pool, true);
+    }
+
 }
@@ -0,0 +1,168 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+
+/**
+ * Accumulates the total of monetary values, used to total collections and streams in parallel.
+ * <p>
+ * Amounts at the scale of the currency are accumulated in a {@code long} of minor units.
+ * Other amounts, and the running total when the {@code long} would overflow,
+ * are accumulated in a {@code BigDecimal}. The result is thus always exact.
+ * <p>
+ * This class is mutable and intended for use by a single thread.
+ */
+final class ParallelTotal implements Consumer<BigMoneyProvider> {
+
+    /** The number of elements below which the input is not split. */
+    private static final int LEAF_SIZE = 4096;
+
+    /** The currency. */
+    private final CurrencyUnit currency;
+    /** The scale of the currency. */
+    private final int currencyScale;
+    /** Whether to ignore null elements. */
+    private final boolean ignoreNulls;
+    /** The total in minor units. */
+    private long totalMinor;
+    /** The total of the amounts not included in the minor units. */
+    private BigDecimal totalOther = BigDecimal.ZERO;
+    /** The maximum scale seen. */
+    private int maxScale;
+
+    /**
+     * Totals the monetary values in parallel.
+     * <p>
+     * The result has the scale of the element with the largest scale, as for
+     * {@link BigMoney#total(CurrencyUnit, Iterable)}.
+     *
+     * @param currency  the currency to total in, not null
+     * @param monies  the monetary values to total, not null
+     * @param pool  the pool to execute in, not null
+     * @param ignoreNulls  whether to ignore null elements, rather than throwing an exception
+     * @return the total, never null
+     * @throws CurrencyMismatchException if the currencies differ
+     */
+    static BigMoney total(
+            CurrencyUnit currency,
+            Collection<? extends BigMoneyProvider> monies,
+            ForkJoinPool pool,
+            boolean ignoreNulls) {
+
+        MoneyUtils.checkNotNull(currency, "CurrencyUnit must not be null");
+        MoneyUtils.checkNotNull(monies, "Money collection must not be null");
+        MoneyUtils.checkNotNull(pool, "ForkJoinPool must not be null");
+        var result = pool.invoke(new TotalTask(currency, ignoreNulls, monies.spliterator()));
+        return result.toBigMoney();
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param currency  the currency, not null
+     * @param ignoreNulls  whether to ignore null elements
+     */
+    ParallelTotal(CurrencyUnit currency, boolean ignoreNulls) {
+        this.currency = currency;
+        this.currencyScale = currency.getDecimalPlaces();
+        this.ignoreNulls = ignoreNulls;
+    }
+
+    //-----------------------------------------------------------------------
+    @Override
+    public void accept(BigMoneyProvider moneyProvider) {
+        if (moneyProvider == null && ignoreNulls) {
+            return;
+        }
+        var money = BigMoney.of(moneyProvider);
+        if (!currency.equals(money.getCurrencyUnit())) {
+            throw new CurrencyMismatchException(currency, money.getCurrencyUnit());
+        }
+        var amount = money.getAmount();
+        maxScale = Math.max(maxScale, amount.scale());
+        if (amount.scale() == currencyScale && amount.precision() < 19) {
+            addMinor(amount.unscaledValue().longValue());
+        } else {
+            totalOther = totalOther.add(amount);
+        }
+    }
+
+    private void addMinor(long amountMinor) {
+        var result = totalMinor + amountMinor;
+        if (((totalMinor ^ result) & (amountMinor ^ result)) < 0) {
+            totalOther = totalOther.add(BigDecimal.valueOf(totalMinor, currencyScale));
+            result = amountMinor;
+        }
+        totalMinor = result;
+    }
+
+    void merge(ParallelTotal other) {
+        addMinor(other.totalMinor);
+        totalOther = totalOther.add(other.totalOther);
+        maxScale = Math.max(maxScale, other.maxScale);
+    }
+
+    BigMoney toBigMoney() {
+        // every element has a scale no greater than the maximum, so the total does too
+        var total = BigDecimal.valueOf(totalMinor, currencyScale).add(totalOther).setScale(maxScale);
+        return BigMoney.of(currency, total);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Task that splits the input, totalling each part.
+     */
+    @SuppressWarnings("serial")
+    private static final class TotalTask extends RecursiveTask<ParallelTotal> {
+        /** Serialization version. */
+        private static final long serialVersionUID = 1L;
+        /** The currency. */
+        private final CurrencyUnit currency;
+        /** Whether to ignore null elements. */
+        private final boolean ignoreNulls;
+        /** The input. */
+        private final Spliterator<? extends BigMoneyProvider> spliterator;
+
+        TotalTask(CurrencyUnit currency, boolean ignoreNulls, Spliterator<? extends BigMoneyProvider> spliterator) {
+            this.currency = currency;
+            this.ignoreNulls = ignoreNulls;
+            this.spliterator = spliterator;
+        }
+
+        @Override
+        protected ParallelTotal compute() {
+            var split = spliterator.estimateSize() > LEAF_SIZE ? spliterator.trySplit() : null;
+            if (split == null) {
+                var total = new ParallelTotal(currency, ignoreNulls);
+                spliterator.forEachRemaining(total);
+                return total;
+            }
+            var left = new TotalTask(currency, ignoreNulls, split);
+            left.fork();
+            var right = new TotalTask(currency, ignoreNulls, spliterator).compute();
+            var total = left.join();
+            total.merge(right);
+            return total;
+        }
+    }
+
+}
@@ -28,21 +28,53 @@ import java.math.BigInteger;
 /**
  * A package scoped class used to manage serialization efficiently.
  * <p>
+ * The original format is written by default, as it can be read by all versions.
+ * The compact format is written when the system property
+ * {@code org.joda.money.serialization.compact} is {@code true}, which should only be set
+ * once every reader of the stream is able to read it, such as after a rolling upgrade.
+ * In the compact format, the currency is written as an object, thus serialization sends
+ * each currency once per stream and refers back to it thereafter.
+ * Unscaled amounts that fit are written as a {@code long}.
+ * Both formats can always be read.
+ * <p>
  * This class is mutable and intended for use by a single thread.
  */
 final class Ser implements Externalizable {
 
+    /** Serialization version, matching the value computed for earlier versions. */
+    private static final long serialVersionUID = 8203304640493492124L;
     /** Type for BigMoney. */
     static final byte BIG_MONEY = 'B';
     /** Type for Money. */
     static final byte MONEY = 'M';
     /** Type for CurrencyUnit. */
     static final byte CURRENCY_UNIT = 'C';  // not in use yet
+    /** Type for BigMoney in the compact format. */
+    static final byte BIG_MONEY_COMPACT = 'b';
+    /** Type for Money in the compact format. */
+    static final byte MONEY_COMPACT = 'm';
+    /** Compact amount stored as a long. */
+    private static final byte AMOUNT_LONG = 0;
+    /** Compact amount stored as bytes. */
+    private static final byte AMOUNT_BYTES = 1;
+    /** Whether to write the compact format, off unless enabled by system property. */
+    private static final boolean COMPACT;
+    static {
+        var compact = false;
+        try {
+            compact = "true".equalsIgnoreCase(System.getProperty("org.joda.money.serialization.compact"));
+        } catch (SecurityException ex) {
+            // use original format
+        }
+        COMPACT = compact;
+    }
 
     /** The type. */
     private byte type;
     /** The data object. */
     private Object object;
+    /** Whether to write the compact format. */
+    private boolean compact;
 
     /**
      * Constructor for serialization.
@@ -57,8 +89,20 @@ final class Ser implements Externalizable {
      * @param object  the object
      */
     Ser(byte type, Object object) {
+        this(type, object, COMPACT);
+    }
+
+    /**
+     * Constructor for package, choosing the format.
+     *
+     * @param type  the type
+     * @param object  the object
+     * @param compact  whether to write the compact format
+     */
+    Ser(byte type, Object object, boolean compact) {
         this.type = type;
         this.object = object;
+        this.compact = compact;
     }
 
     //-----------------------------------------------------------------------
@@ -71,17 +115,33 @@ final class Ser implements Externalizable {
      */
     @Override
     public void writeExternal(ObjectOutput out) throws IOException {
-        out.writeByte(type);
         switch (type) {
             case BIG_MONEY -> {
                 var obj = (BigMoney) object;
-                writeBigMoney(out, obj);
+                if (compact) {
+                    out.writeByte(BIG_MONEY_COMPACT);
+                    out.writeObject(obj.getCurrencyUnit());
+                    out.writeInt(obj.getScale());
+                    writeAmountCompact(out, obj.getAmount());
+                } else {
+                    out.writeByte(type);
+                    writeBigMoney(out, obj);
+                }
             }
             case MONEY -> {
                 var obj = (Money) object;
-                writeBigMoney(out, obj.toBigMoney());
+                if (compact) {
+                    // the scale is implied by the currency
+                    out.writeByte(MONEY_COMPACT);
+                    out.writeObject(obj.getCurrencyUnit());
+                    writeAmountCompact(out, obj.getAmount());
+                } else {
+                    out.writeByte(type);
+                    writeBigMoney(out, obj.toBigMoney());
+                }
             }
             case CURRENCY_UNIT -> {
+                out.writeByte(type);
                 var obj = (CurrencyUnit) object;
                 writeCurrency(out, obj);
             }
@@ -103,6 +163,19 @@ final class Ser implements Externalizable {
         out.writeShort(obj.getDecimalPlaces());
     }
 
+    private void writeAmountCompact(ObjectOutput out, BigDecimal amount) throws IOException {
+        var unscaled = amount.unscaledValue();
+        if (unscaled.bitLength() < Long.SIZE) {
+            out.writeByte(AMOUNT_LONG);
+            out.writeLong(unscaled.longValue());
+        } else {
+            out.writeByte(AMOUNT_BYTES);
+            var bytes = unscaled.toByteArray();
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
     /**
      * Outputs the data.
      *
@@ -119,6 +192,15 @@ final class Ser implements Externalizable {
             case MONEY -> {
                 object = new Money(readBigMoney(in));
             }
+            case BIG_MONEY_COMPACT -> {
+                var currency = readCurrencyCompact(in);
+                var scale = in.readInt();
+                object = new BigMoney(currency, readAmountCompact(in, scale));
+            }
+            case MONEY_COMPACT -> {
+                var currency = readCurrencyCompact(in);
+                object = new Money(new BigMoney(currency, readAmountCompact(in, currency.getDecimalPlaces())));
+            }
             case CURRENCY_UNIT -> {
                 object = readCurrency(in);
             }
@@ -147,6 +229,28 @@ final class Ser implements Externalizable {
         return singletonCurrency;
     }
 
+    private CurrencyUnit readCurrencyCompact(ObjectInput in) throws IOException, ClassNotFoundException {
+        if (in.readObject() instanceof CurrencyUnit currency) {
+            return currency;
+        }
+        throw new StreamCorruptedException("Serialization input has invalid currency");
+    }
+
+    private BigDecimal readAmountCompact(ObjectInput in, int scale) throws IOException {
+        var amountType = in.readByte();
+        switch (amountType) {
+            case AMOUNT_LONG -> {
+                return BigDecimal.valueOf(in.readLong(), scale);
+            }
+            case AMOUNT_BYTES -> {
+                var bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                return new BigDecimal(new BigInteger(bytes), scale);
+            }
+            default -> throw new StreamCorruptedException("Serialization input has invalid amount type");
+        }
+    }
+
     /**
      * Returns the object that will replace this one.
      *
@@ -0,0 +1,289 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money.concurrent;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+import org.joda.money.CurrencyMismatchException;
+import org.joda.money.CurrencyUnit;
+import org.joda.money.Money;
+
+/**
+ * A monetary amount in a single currency that is updated atomically.
+ * <p>
+ * This is the monetary equivalent of {@link java.util.concurrent.atomic.AtomicLong}.
+ * The amount is held in minor units in a {@code long}, updated using compare-and-set
+ * without locks. Methods with a {@code Minor} suffix operate directly in minor units
+ * and do not create objects. Methods taking or returning {@code Money} convert as necessary.
+ * <p>
+ * Conditional updates are supported, such as {@link #tryDebit(Money, Money)},
+ * which only debits the amount if the result stays at or above a floor.
+ * <p>
+ * The amount is limited to the capacity of a {@code long} in minor units.
+ * Any update that would exceed this throws {@code ArithmeticException} and leaves the amount unchanged.
+ * <p>
+ * This class is mutable and thread-safe.
+ */
+public final class AtomicMoney {
+
+    /** Access to the value. */
+    private static final VarHandle VALUE;
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(AtomicMoney.class, "value", long.class);
+        } catch (ReflectiveOperationException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
+    /** The currency. */
+    private final CurrencyUnit currency;
+    /** The amount in minor units. */
+    private volatile long value;
+
+    //-----------------------------------------------------------------------
+    /**
+     * Creates an instance with an amount of zero.
+     *
+     * @param currency  the currency of the amount, not null
+     */
+    public AtomicMoney(CurrencyUnit currency) {
+        ConcurrentUtils.checkNotNull(currency, "CurrencyUnit must not be null");
+        this.currency = currency;
+    }
+
+    /**
+     * Creates an instance with the specified initial amount.
+     *
+     * @param initialValue  the initial amount, not null
+     * @throws ArithmeticException if the amount exceeds the capacity of a {@code long} in minor units
+     */
+    public AtomicMoney(Money initialValue) {
+        ConcurrentUtils.checkNotNull(initialValue, "Money must not be null");
+        this.currency = initialValue.getCurrencyUnit();
+        this.value = toMinor(initialValue);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the currency of the amount.
+     *
+     * @return the currency, never null
+     */
+    public CurrencyUnit getCurrencyUnit() {
+        return currency;
+    }
+
+    /**
+     * Gets a snapshot of the current amount.
+     *
+     * @return the amount, never null
+     */
+    public Money get() {
+        return Money.ofMinor(currency, value);
+    }
+
+    /**
+     * Gets the current amount in minor units.
+     *
+     * @return the amount in minor units
+     */
+    public long getMinor() {
+        return value;
+    }
+
+    /**
+     * Sets the amount.
+     *
+     * @param newValue  the new amount, in the currency of this instance, not null
+     * @throws CurrencyMismatchException if the currency differs
+     * @throws ArithmeticException if the amount exceeds the capacity of a {@code long} in minor units
+     */
+    public void set(Money newValue) {
+        value = toMinor(newValue);
+    }
+
+    /**
+     * Sets the amount in minor units.
+     *
+     * @param newValueMinor  the new amount in minor units
+     */
+    public void setMinor(long newValueMinor) {
+        value = newValueMinor;
+    }
+
+    /**
+     * Sets the amount, returning the previous amount.
+     *
+     * @param newValue  the new amount, in the currency of this instance, not null
+     * @return the previous amount, never null
+     * @throws CurrencyMismatchException if the currency differs
+     * @throws ArithmeticException if the amount exceeds the capacity of a {@code long} in minor units
+     */
+    public Money getAndSet(Money newValue) {
+        return Money.ofMinor(currency, (long) VALUE.getAndSet(this, toMinor(newValue)));
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Atomically adds an amount, returning the previous amount.
+     *
+     * @param amountToAdd  the amount to add, in the currency of this instance, not null
+     * @return the previous amount, never null
+     * @throws CurrencyMismatchException if the currency differs
+     * @throws ArithmeticException if the result exceeds the capacity of a {@code long} in minor units
+     */
+    public Money getAndAdd(Money amountToAdd) {
+        return Money.ofMinor(currency, getAndAddMinor(toMinor(amountToAdd)));
+    }
+
+    /**
+     * Atomically adds an amount, returning the updated amount.
+     *
+     * @param amountToAdd  the amount to add, in the currency of this instance, not null
+     * @return the updated amount, never null
+     * @throws CurrencyMismatchException if the currency differs
+     * @throws ArithmeticException if the result exceeds the capacity of a {@code long} in minor units
+     */
+    public Money addAndGet(Money amountToAdd) {
+        return Money.ofMinor(currency, addAndGetMinor(toMinor(amountToAdd)));
+    }
+
+    /**
+     * Atomically adds an amount in minor units, returning the previous amount.
+     *
+     * @param amountToAddMinor  the amount to add in minor units
+     * @return the previous amount in minor units
+     * @throws ArithmeticException if the result exceeds the capacity of a {@code long}
+     */
+    public long getAndAddMinor(long amountToAddMinor) {
+        var current = value;
+        while (true) {
+            var witness = (long) VALUE.compareAndExchange(this, current, Math.addExact(current, amountToAddMinor));
+            if (witness == current) {
+                return current;
+            }
+            current = witness;
+        }
+    }
+
+    /**
+     * Atomically adds an amount in minor units, returning the updated amount.
+     *
+     * @param amountToAddMinor  the amount to add in minor units
+     * @return the updated amount in minor units
+     * @throws ArithmeticException if the result exceeds the capacity of a {@code long}
+     */
+    public long addAndGetMinor(long amountToAddMinor) {
+        return getAndAddMinor(amountToAddMinor) + amountToAddMinor;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Atomically sets the amount if the current amount equals the expected amount.
+     *
+     * @param expectedValue  the expected amount, in the currency of this instance, not null
+     * @param newValue  the new amount, in the currency of this instance, not null
+     * @return true if successful, false if the current amount was not equal to the expected amount
+     * @throws CurrencyMismatchException if the currency differs
+     * @throws ArithmeticException if an amount exceeds the capacity of a {@code long} in minor units
+     */
+    public boolean compareAndSet(Money expectedValue, Money newValue) {
+        return VALUE.compareAndSet(this, toMinor(expectedValue), toMinor(newValue));
+    }
+
+    /**
+     * Atomically sets the amount in minor units if the current amount equals the expected amount.
+     *
+     * @param expectedValueMinor  the expected amount in minor units
+     * @param newValueMinor  the new amount in minor units
+     * @return true if successful, false if the current amount was not equal to the expected amount
+     */
+    public boolean compareAndSetMinor(long expectedValueMinor, long newValueMinor) {
+        return VALUE.compareAndSet(this, expectedValueMinor, newValueMinor);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Atomically subtracts an amount if the result would be at or above a floor.
+     * <p>
+     * For example, {@code tryDebit(payment, Money.zero(currency))} subtracts the payment
+     * only if the amount does not become negative.
+     *
+     * @param amountToDebit  the amount to subtract, positive or zero, in the currency of this instance, not null
+     * @param floor  the minimum allowed result, in the currency of this instance, not null
+     * @return true if the amount was subtracted, false if the result would be below the floor
+     * @throws CurrencyMismatchException if the currency differs
+     * @throws IllegalArgumentException if the amount to subtract is negative
+     * @throws ArithmeticException if an amount exceeds the capacity of a {@code long} in minor units
+     */
+    public boolean tryDebit(Money amountToDebit, Money floor) {
+        return tryDebitMinor(toMinor(amountToDebit), toMinor(floor));
+    }
+
+    /**
+     * Atomically subtracts an amount in minor units if the result would be at or above a floor.
+     *
+     * @param amountToDebitMinor  the amount to subtract in minor units, positive or zero
+     * @param floorMinor  the minimum allowed result in minor units
+     * @return true if the amount was subtracted, false if the result would be below the floor
+     * @throws IllegalArgumentException if the amount to subtract is negative
+     */
+    public boolean tryDebitMinor(long amountToDebitMinor, long floorMinor) {
+        if (amountToDebitMinor < 0) {
+            throw new IllegalArgumentException("Amount to debit must not be negative");
+        }
+        var current = value;
+        while (true) {
+            var result = current - amountToDebitMinor;
+            // the amount is not negative, so overflow is below Long.MIN_VALUE and thus below any floor
+            if (result > current || result < floorMinor) {
+                return false;
+            }
+            var witness = (long) VALUE.compareAndExchange(this, current, result);
+            if (witness == current) {
+                return true;
+            }
+            current = witness;
+        }
+    }
+
+    // converts to minor units
+    private long toMinor(Money money) {
+        ConcurrentUtils.checkNotNull(money, "Money must not be null");
+        if (!currency.equals(money.getCurrencyUnit())) {
+            throw new CurrencyMismatchException(currency, money.getCurrencyUnit());
+        }
+        var unscaled = money.getAmount().unscaledValue();
+        if (unscaled.bitLength() >= 64) {
+            throw new ArithmeticException("Amount exceeds capacity of long in minor units: " + money);
+        }
+        return unscaled.longValue();
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the current amount as a string.
+     *
+     * @return the string, never null
+     */
+    @Override
+    public String toString() {
+        return get().toString();
+    }
+
+}
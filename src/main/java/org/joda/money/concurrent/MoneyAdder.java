@@ -0,0 +1,293 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money.concurrent;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigDecimal;
+
+import org.joda.money.CurrencyMismatchException;
+import org.joda.money.CurrencyUnit;
+import org.joda.money.Money;
+
+/**
+ * A running total of monetary amounts in a single currency that is updated by many threads.
+ * <p>
+ * This is the monetary equivalent of {@link java.util.concurrent.atomic.LongAdder}.
+ * The total is held in minor units in a base {@code long}. When threads contend to update
+ * the base, the updates are spread over a set of cells, each on its own cache line,
+ * so that threads rarely contend with each other. No locks are used and no objects are created
+ * when adding, unless the total exceeds the capacity of a {@code long}.
+ * <p>
+ * The total is obtained by {@link #sum()}, which adds the base and cells.
+ * This is not an atomic snapshot - updates made concurrently with the sum may or may not be included.
+ * As such, this class is intended for statistics such as running totals, not for balances
+ * that require conditional updates, for which {@link AtomicMoney} is more suitable.
+ * <p>
+ * The total is exact. If the base or a cell would overflow, the amount is instead
+ * added to a {@code BigDecimal} guarded by a lock.
+ * <p>
+ * This class is mutable and thread-safe.
+ */
+public final class MoneyAdder {
+
+    /** The number of {@code long} elements per cell, spacing cells 128 bytes apart. */
+    private static final int PAD = 16;
+    /** The maximum number of cells. */
+    private static final int MAX_CELLS = Math.max(2, Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1));
+    /** Access to the base. */
+    private static final VarHandle BASE;
+    /** Access to the cells. */
+    private static final VarHandle CELLS;
+    /** The probe of each thread, selecting its cell, which is changed when the cell is contended. */
+    private static final ThreadLocal<int[]> PROBE = ThreadLocal.withInitial(() -> new int[] {initialProbe()});
+    static {
+        try {
+            BASE = MethodHandles.lookup().findVarHandle(MoneyAdder.class, "base", long.class);
+            CELLS = MethodHandles.arrayElementVarHandle(long[].class);
+        } catch (ReflectiveOperationException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
+    /** The currency. */
+    private final CurrencyUnit currency;
+    /** The base value in minor units, used when there is no contention. */
+    private volatile long base;
+    /** The cells in minor units, each at a multiple of the padding, null until there is contention. */
+    private volatile long[] cells;
+    /** The part of the total that did not fit in the minor units, guarded by this. */
+    private BigDecimal other = BigDecimal.ZERO;
+
+    //-----------------------------------------------------------------------
+    /**
+     * Creates an instance with a total of zero.
+     *
+     * @param currency  the currency of the total, not null
+     */
+    public MoneyAdder(CurrencyUnit currency) {
+        ConcurrentUtils.checkNotNull(currency, "CurrencyUnit must not be null");
+        this.currency = currency;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the currency of the total.
+     *
+     * @return the currency, never null
+     */
+    public CurrencyUnit getCurrencyUnit() {
+        return currency;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Adds an amount to the total.
+     *
+     * @param money  the amount to add, in the currency of the total, not null
+     * @throws CurrencyMismatchException if the currency differs
+     */
+    public void add(Money money) {
+        ConcurrentUtils.checkNotNull(money, "Money must not be null");
+        if (!currency.equals(money.getCurrencyUnit())) {
+            throw new CurrencyMismatchException(currency, money.getCurrencyUnit());
+        }
+        var unscaled = money.getAmount().unscaledValue();
+        if (unscaled.bitLength() < 64) {
+            addMinor(unscaled.longValue());
+        } else {
+            addOther(money.getAmount());
+        }
+    }
+
+    /**
+     * Adds an amount in minor units to the total.
+     *
+     * @param amountMinor  the amount to add in the minor units of the currency
+     */
+    public void addMinor(long amountMinor) {
+        var cs = cells;
+        if (cs == null) {
+            var current = (long) BASE.getVolatile(this);
+            var result = current + amountMinor;
+            if (((current ^ result) & (amountMinor ^ result)) < 0) {
+                addOther(BigDecimal.valueOf(amountMinor, currency.getDecimalPlaces()));
+                return;
+            }
+            if (BASE.compareAndSet(this, current, result)) {
+                return;
+            }
+            cs = initCells();
+        }
+        var mask = cs.length / PAD - 1;
+        var probe = PROBE.get();
+        var index = probe[0];
+        while (true) {
+            var offset = (index & mask) * PAD;
+            var current = (long) CELLS.getVolatile(cs, offset);
+            var result = current + amountMinor;
+            if (((current ^ result) & (amountMinor ^ result)) < 0) {
+                addOther(BigDecimal.valueOf(amountMinor, currency.getDecimalPlaces()));
+                return;
+            }
+            if (CELLS.compareAndSet(cs, offset, current, result)) {
+                return;
+            }
+            // contended, so move this thread to another cell, for this and later updates
+            index = advanceProbe(index);
+            probe[0] = index;
+        }
+    }
+
+    /**
+     * Adds the amount of {@code Money.ofMinor(currency, 1)}.
+     */
+    public void increment() {
+        addMinor(1);
+    }
+
+    /**
+     * Adds the amount of {@code Money.ofMinor(currency, -1)}.
+     */
+    public void decrement() {
+        addMinor(-1);
+    }
+
+    private synchronized void addOther(BigDecimal amount) {
+        other = other.add(amount);
+    }
+
+    private synchronized long[] initCells() {
+        var cs = cells;
+        if (cs == null) {
+            cs = new long[MAX_CELLS * PAD];
+            cells = cs;
+        }
+        return cs;
+    }
+
+    // spreads threads over the cells, never zero
+    private static int initialProbe() {
+        var id = Thread.currentThread().threadId();
+        var hash = (int) ((id * 0x9E3779B97F4A7C15L) >>> 32);
+        return hash == 0 ? 1 : hash;
+    }
+
+    // moves to a pseudo-random probe using xorshift, as used by LongAdder
+    private static int advanceProbe(int probe) {
+        probe ^= probe << 13;
+        probe ^= probe >>> 17;
+        probe ^= probe << 5;
+        return probe;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the current total.
+     * <p>
+     * Updates made concurrently with this method may or may not be included.
+     *
+     * @return the total, never null
+     */
+    public Money sum() {
+        var total = (long) BASE.getVolatile(this);
+        var overflow = false;
+        var cs = cells;
+        if (cs != null) {
+            for (var i = 0; i < cs.length; i += PAD) {
+                var value = (long) CELLS.getVolatile(cs, i);
+                var result = total + value;
+                overflow |= ((total ^ result) & (value ^ result)) < 0;
+                total = result;
+            }
+        }
+        BigDecimal otherTotal;
+        synchronized (this) {
+            otherTotal = other;
+        }
+        if (overflow) {
+            return Money.of(currency, sumExact(cs).add(otherTotal));
+        }
+        if (otherTotal.signum() == 0) {
+            return Money.ofMinor(currency, total);
+        }
+        return Money.of(currency, BigDecimal.valueOf(total, currency.getDecimalPlaces()).add(otherTotal));
+    }
+
+    // slow path when the sum of the cells overflows
+    private BigDecimal sumExact(long[] cs) {
+        var scale = currency.getDecimalPlaces();
+        var total = BigDecimal.valueOf((long) BASE.getVolatile(this), scale);
+        for (var i = 0; i < cs.length; i += PAD) {
+            total = total.add(BigDecimal.valueOf((long) CELLS.getVolatile(cs, i), scale));
+        }
+        return total;
+    }
+
+    /**
+     * Resets the total to zero.
+     * <p>
+     * This is only effective if there are no concurrent updates.
+     */
+    public void reset() {
+        BASE.setVolatile(this, 0L);
+        var cs = cells;
+        if (cs != null) {
+            for (var i = 0; i < cs.length; i += PAD) {
+                CELLS.setVolatile(cs, i, 0L);
+            }
+        }
+        synchronized (this) {
+            other = BigDecimal.ZERO;
+        }
+    }
+
+    /**
+     * Gets the current total, then resets the total to zero.
+     * <p>
+     * Each part of the total is atomically read and reset, thus every update is
+     * included either in the result or in the total after the reset.
+     *
+     * @return the total before the reset, never null
+     */
+    public Money sumThenReset() {
+        var scale = currency.getDecimalPlaces();
+        var total = BigDecimal.valueOf((long) BASE.getAndSet(this, 0L), scale);
+        var cs = cells;
+        if (cs != null) {
+            for (var i = 0; i < cs.length; i += PAD) {
+                total = total.add(BigDecimal.valueOf((long) CELLS.getAndSet(cs, i, 0L), scale));
+            }
+        }
+        synchronized (this) {
+            total = total.add(other);
+            other = BigDecimal.ZERO;
+        }
+        return Money.of(currency, total);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the current total as a string.
+     *
+     * @return the string, never null
+     */
+    @Override
+    public String toString() {
+        return sum().toString();
+    }
+
+}
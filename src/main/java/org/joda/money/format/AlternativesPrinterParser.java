@@ -0,0 +1,188 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money.format;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import org.joda.money.BigMoney;
+
+/**
+ * Prints and parses using a set of alternative formatters.
+ * <p>
+ * When parsing, only those alternatives that can accept the next character are tried.
+ * The leading characters of each alternative are analyzed when this instance is
+ * created and stored in a dispatch table indexed by character.
+ * <p>
+ * This class is immutable and thread-safe.
+ */
+final class AlternativesPrinterParser implements MoneyPrinter, MoneyParser, Serializable {
+
+    /** Serialization version. */
+    private static final long serialVersionUID = 1L;
+    /** The size of the directly indexed part of the dispatch table. */
+    private static final int ASCII_SIZE = 128;
+    /** An empty set of candidates. */
+    private static final int[] NO_CANDIDATES = new int[0];
+
+    /** The formatters, in priority order. */
+    private final MoneyFormatter[] formatters;
+    /** The candidate formatters for each ASCII character. */
+    private final int[][] asciiCandidates;
+    /** The candidate formatters for non-ASCII characters. */
+    private final int[] otherCandidates;
+    /** The candidate formatters at the end of the text. */
+    private final int[] endCandidates;
+
+    /**
+     * Constructor.
+     * @param formatters  the formatters, not null, not empty, all able to parse
+     */
+    AlternativesPrinterParser(MoneyFormatter[] formatters) {
+        this.formatters = formatters;
+        var leading = new BitSet[formatters.length];
+        for (var i = 0; i < formatters.length; i++) {
+            leading[i] = formatters[i].getPrinterParser().leadingChars();
+        }
+        this.asciiCandidates = new int[ASCII_SIZE][];
+        for (var ch = 0; ch < ASCII_SIZE; ch++) {
+            List<Integer> list = new ArrayList<>();
+            for (var i = 0; i < formatters.length; i++) {
+                if (leading[i] == null || leading[i].get(ch)) {
+                    list.add(i);
+                }
+            }
+            asciiCandidates[ch] = toArray(list);
+        }
+        List<Integer> other = new ArrayList<>();
+        List<Integer> end = new ArrayList<>();
+        for (var i = 0; i < formatters.length; i++) {
+            if (leading[i] == null) {
+                other.add(i);
+                end.add(i);
+            } else if (leading[i].nextSetBit(ASCII_SIZE) >= 0) {
+                other.add(i);
+            }
+        }
+        this.otherCandidates = toArray(other);
+        this.endCandidates = toArray(end);
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        if (list.isEmpty()) {
+            return NO_CANDIDATES;
+        }
+        return list.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Determines the set of characters that the specified parser can start with.
+     * <p>
+     * A null result means that the parser might start with any character,
+     * or might match without consuming any text.
+     *
+     * @param parser  the parser to analyze, may be null
+     * @return the set of leading characters, null if unknown
+     */
+    static BitSet leadingChars(MoneyParser parser) {
+        return switch (parser) {
+            case MultiPrinterParser pp -> pp.leadingChars();
+            case LiteralPrinterParser pp -> pp.leadingChars();
+            case AmountPrinterParser pp -> pp.leadingChars();
+            case SignedPrinterParser pp -> pp.leadingChars();
+            case AlternativesPrinterParser pp -> pp.leadingChars();
+            case MoneyFormatterBuilder.Singletons pp -> pp.leadingChars();
+            case null, default -> null;
+        };
+    }
+
+    /**
+     * Determines the union of the sets of characters that the specified formatters can start with.
+     *
+     * @param formatters  the formatters to analyze, not null
+     * @return the set of leading characters, null if unknown
+     */
+    static BitSet leadingChars(MoneyFormatter... formatters) {
+        var result = new BitSet();
+        for (MoneyFormatter formatter : formatters) {
+            var chars = formatter.getPrinterParser().leadingChars();
+            if (chars == null) {
+                return null;
+            }
+            result.or(chars);
+        }
+        return result;
+    }
+
+    /**
+     * Determines the set of characters that this parser can start with.
+     *
+     * @return the set of leading characters, null if unknown
+     */
+    BitSet leadingChars() {
+        return leadingChars(formatters);
+    }
+
+    //-----------------------------------------------------------------------
+    @Override
+    public void print(MoneyPrintContext context, Appendable appendable, BigMoney money) throws IOException {
+        formatters[0].getPrinterParser().print(context, appendable, money);
+    }
+
+    @Override
+    public void parse(MoneyParseContext context) {
+        var candidates = candidates(context);
+        var best = (MoneyParseContext) null;
+        for (var index : candidates) {
+            var child = context.createChild();
+            formatters[index].getPrinterParser().parse(child);
+            if (!child.isError() && (best == null || child.getIndex() > best.getIndex())) {
+                best = child;
+            }
+        }
+        if (best == null) {
+            context.setError();
+        } else {
+            context.mergeChild(best);
+        }
+    }
+
+    private int[] candidates(MoneyParseContext context) {
+        var index = context.getIndex();
+        if (index >= context.getTextLength()) {
+            return endCandidates;
+        }
+        var ch = context.getText().charAt(index);
+        return ch < ASCII_SIZE ? asciiCandidates[ch] : otherCandidates;
+    }
+
+    @Override
+    public String toString() {
+        var buf = new StringBuilder("Alternatives(");
+        for (var i = 0; i < formatters.length; i++) {
+            if (i > 0) {
+                buf.append(',');
+            }
+            buf.append(formatters[i]);
+        }
+        return buf.append(')').toString();
+    }
+
+}
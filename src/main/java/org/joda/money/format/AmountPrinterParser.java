@@ -18,6 +18,8 @@ package org.joda.money.format;
 import java.io.IOException;
 import java.io.Serializable;
 import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.BitSet;
 
 import org.joda.money.BigMoney;
 
@@ -43,6 +45,22 @@ final class AmountPrinterParser implements MoneyPrinter, MoneyParser, Serializab
     }
 
     //-----------------------------------------------------------------------
+    BitSet leadingChars() {
+        var zeroChar = style.getZeroCharacter();
+        var positiveChar = style.getPositiveSignCharacter();
+        var negativeChar = style.getNegativeSignCharacter();
+        var decimalPointChar = style.getDecimalPointCharacter();
+        if (zeroChar == null || positiveChar == null || negativeChar == null || decimalPointChar == null) {
+            return null;  // localized, so the characters depend on the locale of the parse
+        }
+        var chars = new BitSet();
+        chars.set(zeroChar, zeroChar + 10);
+        chars.set(positiveChar);
+        chars.set(negativeChar);
+        chars.set(decimalPointChar);
+        return chars;
+    }
+
     @Override
     public void print(MoneyPrintContext context, Appendable appendable, BigMoney money) throws IOException {
         var activeStyle = style.localize(context.getLocale());
@@ -130,7 +148,8 @@ final class AmountPrinterParser implements MoneyPrinter, MoneyParser, Serializab
     public void parse(MoneyParseContext context) {
         var len = context.getTextLength();
         var activeStyle = style.localize(context.getLocale());
-        var buf = new char[len - context.getIndex()];
+        // the buffer grows with the amount, rather than being sized to the rest of the text
+        var buf = new char[Math.min(len - context.getIndex(), 32)];
         var bufPos = 0;
         var dpSeen = false;
         var pos = context.getIndex();
@@ -153,6 +172,9 @@ final class AmountPrinterParser implements MoneyPrinter, MoneyParser, Serializab
         var lastWasGroup = false;
         for (; pos < len; pos++) {
             var ch = context.getText().charAt(pos);
+            if (bufPos == buf.length) {
+                buf = Arrays.copyOf(buf, bufPos * 2);
+            }
             if (ch >= activeStyle.getZeroCharacter() && ch < activeStyle.getZeroCharacter() + 10) {
                 buf[bufPos++] = (char) ('0' + ch - activeStyle.getZeroCharacter());
                 lastWasGroup = false;
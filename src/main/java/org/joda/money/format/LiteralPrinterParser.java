@@ -17,6 +17,8 @@ package org.joda.money.format;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.BitSet;
+import java.util.List;
 
 import org.joda.money.BigMoney;
 
@@ -42,6 +44,20 @@ final class LiteralPrinterParser implements MoneyPrinter, MoneyParser, Serializa
     }
 
     //-----------------------------------------------------------------------
+    BitSet leadingChars() {
+        var chars = new BitSet();
+        chars.set(literal.charAt(0));
+        return chars;
+    }
+
+    void addClasses(List<BitSet> classes) {
+        for (var i = 0; i < literal.length(); i++) {
+            var chars = new BitSet();
+            chars.set(literal.charAt(i));
+            classes.add(chars);
+        }
+    }
+
     @Override
     public void print(MoneyPrintContext context, Appendable appendable, BigMoney money) throws IOException {
         appendable.append(literal);
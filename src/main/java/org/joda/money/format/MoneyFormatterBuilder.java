@@ -17,6 +17,7 @@ package org.joda.money.format;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Locale;
 
@@ -248,6 +249,47 @@ public final class MoneyFormatterBuilder {
         return appendInternal(pp, pp);
     }
 
+    //-----------------------------------------------------------------------
+    /**
+     * Appends the specified formatters as alternatives, where the first is used
+     * to print and any may be used to parse.
+     * <p>
+     * When printing, the first formatter is used.
+     * <p>
+     * When parsing, each formatter that could match the next character is tried,
+     * with the longest successful match, or the first match if multiple are successful.
+     * The characters that each formatter can start with are analyzed once, when this
+     * method is called, so that parsing does not need to try every alternative.
+     * Formatters that start with an amount using a localized style, or with a custom
+     * parser, are tried against every character.
+     * <p>
+     * A typical use case for this would be to parse text from multiple sources,
+     * such as '{@code GBP 12.34}', '{@code 12.34 GBP}' and '{@code (GBP 12.34)}',
+     * where each source uses a different layout.
+     * <p>
+     * If the first formatter cannot print, then the output of this builder will be
+     * unable to print. If any formatter cannot parse, then the output of this
+     * builder will be unable to parse.
+     *
+     * @param formatters  the formatters to use, in priority order, not empty, not null
+     * @return this for chaining, never null
+     * @throws IllegalArgumentException if no formatters are specified
+     */
+    public MoneyFormatterBuilder appendAlternatives(MoneyFormatter... formatters) {
+        MoneyFormatter.checkNotNull(formatters, "MoneyFormatter array must not be null");
+        if (formatters.length == 0) {
+            throw new IllegalArgumentException("MoneyFormatter array must not be empty");
+        }
+        var parse = true;
+        for (MoneyFormatter formatter : formatters) {
+            MoneyFormatter.checkNotNull(formatter, "MoneyFormatter array must not contain null entries");
+            parse &= formatter.isParser();
+        }
+        var copy = formatters.clone();
+        var pp = new AlternativesPrinterParser(copy);
+        return appendInternal(copy[0].isPrinter() ? pp : null, parse ? pp : null);
+    }
+
     //-----------------------------------------------------------------------
     /**
      * Appends the specified printer and parser to this builder.
@@ -306,7 +348,7 @@ public final class MoneyFormatterBuilder {
     /**
      * Handles the singleton outputs.
      */
-    private static enum Singletons implements MoneyPrinter, MoneyParser {
+    static enum Singletons implements MoneyPrinter, MoneyParser {
         CODE("${code}") {
             @Override
             public void print(MoneyPrintContext context, Appendable appendable, BigMoney money) throws IOException {
@@ -383,6 +425,16 @@ public final class MoneyFormatterBuilder {
             this.toString = toString;
         }
 
+        BitSet leadingChars() {
+            var chars = new BitSet();
+            if (this == CODE) {
+                chars.set('A', 'Z' + 1);
+            } else {
+                chars.set('0', '9' + 1);
+            }
+            return chars;
+        }
+
         @Override
         public String toString() {
             return toString;
@@ -0,0 +1,446 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money.format;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.BitSet;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.joda.money.BigMoney;
+
+/**
+ * Scans free text for monetary amounts.
+ * <p>
+ * A scanner is created from one or more parsing formatters.
+ * The text is scanned from start to end, and every position where one of the
+ * formatters can parse a currency and amount is returned as a {@link Match}.
+ * Matches do not overlap, so scanning continues from the end of each match.
+ * Where more than one formatter matches at a position, the longest match is
+ * used, or the first formatter if the matches are the same length.
+ * <p>
+ * The leading literals, currency codes and amount characters of each formatter
+ * are analyzed when the scanner is created. Positions that cannot start a match
+ * are rejected using this analysis without running any of the formatters.
+ * <p>
+ * Where every formatter that can start with a digit starts with the amount, a match
+ * that fails at a digit would also fail at each later digit of the same run, as the amount
+ * would end at the same place. In that case, the rest of the run of digits is skipped,
+ * keeping the scan linear in the length of the text. A formatter starting with a fixed
+ * width numeric element, such as a numeric currency code, can match part way through
+ * a run of digits, so the digits are not skipped.
+ * <p>
+ * The locale of the first formatter is used for parsing.
+ * <p>
+ * This class is immutable and thread-safe.
+ */
+public final class MoneyScanner {
+
+    /**
+     * The number of characters of lookahead retained when scanning a {@code Reader}.
+     */
+    private static final int READER_LOOKAHEAD = 4096;
+
+    /**
+     * The combined formatter.
+     */
+    private final MoneyFormatter formatter;
+    /**
+     * The union of the characters that a match can start with, null if any.
+     */
+    private final BitSet startChars;
+    /**
+     * The character classes that each formatter must start with.
+     */
+    private final BitSet[][] prefixes;
+    /**
+     * Whether the rest of a run of digits can be skipped after a failed match.
+     */
+    private final boolean skipDigits;
+
+    //-----------------------------------------------------------------------
+    /**
+     * Obtains a scanner for the specified formatters.
+     * <p>
+     * The formatters are in priority order, which is used when two formatters
+     * produce a match of the same length at the same position.
+     *
+     * @param formatters  the formatters to scan for, not empty, not null
+     * @return the scanner, never null
+     * @throws IllegalArgumentException if no formatters are specified
+     * @throws UnsupportedOperationException if any formatter cannot parse
+     */
+    public static MoneyScanner of(MoneyFormatter... formatters) {
+        MoneyFormatter.checkNotNull(formatters, "MoneyFormatter array must not be null");
+        if (formatters.length == 0) {
+            throw new IllegalArgumentException("MoneyFormatter array must not be empty");
+        }
+        for (MoneyFormatter formatter : formatters) {
+            MoneyFormatter.checkNotNull(formatter, "MoneyFormatter array must not contain null entries");
+            if (!formatter.isParser()) {
+                throw new UnsupportedOperationException("MoneyFomatter has not been configured to be able to parse");
+            }
+        }
+        return new MoneyScanner(formatters.clone());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param formatters  the formatters, validated, not null
+     */
+    private MoneyScanner(MoneyFormatter[] formatters) {
+        this.formatter = new MoneyFormatterBuilder()
+            .appendAlternatives(formatters)
+            .toFormatter(formatters[0].getLocale());
+        this.prefixes = new BitSet[formatters.length][];
+        var start = new BitSet();
+        var skip = true;
+        for (var i = 0; i < formatters.length; i++) {
+            var printerParser = formatters[i].getPrinterParser();
+            prefixes[i] = printerParser.leadingClasses().toArray(new BitSet[0]);
+            skip &= printerParser.isAmountFirst() || (prefixes[i].length > 0 && !containsDigit(prefixes[i][0]));
+            if (start != null) {
+                if (prefixes[i].length == 0) {
+                    start = null;
+                } else {
+                    start.or(prefixes[i][0]);
+                }
+            }
+        }
+        this.startChars = start;
+        this.skipDigits = skip;
+    }
+
+    // checks if any of the characters is a digit
+    private static boolean containsDigit(BitSet chars) {
+        for (var ch = chars.nextSetBit(0); ch >= 0; ch = chars.nextSetBit(ch + 1)) {
+            if (Character.isDigit(ch)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Finds the first match in the text at or after the start index.
+     *
+     * @param text  the text to scan, not null
+     * @param startIndex  the index to start scanning from
+     * @return the first match, null if none
+     * @throws IndexOutOfBoundsException if the start index is invalid
+     */
+    public Match find(CharSequence text, int startIndex) {
+        MoneyFormatter.checkNotNull(text, "Text must not be null");
+        if (startIndex < 0 || startIndex > text.length()) {
+            throw new StringIndexOutOfBoundsException("Invalid start index: " + startIndex);
+        }
+        var len = text.length();
+        var pos = startIndex;
+        while (pos < len) {
+            var match = matchAt(text, pos, 0);
+            if (match != null) {
+                return match;
+            }
+            pos = nextPosition(text, pos);
+        }
+        return null;
+    }
+
+    /**
+     * Scans the text returning a stream of all the non-overlapping matches.
+     * <p>
+     * The stream is lazy, scanning only as far as necessary to find the next match.
+     *
+     * @param text  the text to scan, not null
+     * @return the stream of matches, in order of position, never null
+     */
+    public Stream<Match> scan(CharSequence text) {
+        MoneyFormatter.checkNotNull(text, "Text must not be null");
+        return Stream.iterate(
+                find(text, 0),
+                Objects::nonNull,
+                match -> find(text, (int) match.getEndIndex()));
+    }
+
+    /**
+     * Scans the text read from the reader returning a stream of all the non-overlapping matches.
+     * <p>
+     * The stream is lazy, reading only as far as necessary to find the next match.
+     * Text that has been scanned is discarded, with a lookahead of 4096 characters
+     * retained beyond the current position. As such, a single match cannot be longer
+     * than 4096 characters.
+     * The reader is not closed by this method.
+     * Any {@code IOException} is thrown as an {@code UncheckedIOException}.
+     *
+     * @param reader  the reader to scan, not null
+     * @return the stream of matches, in order of position, never null
+     */
+    public Stream<Match> scan(Reader reader) {
+        MoneyFormatter.checkNotNull(reader, "Reader must not be null");
+        return StreamSupport.stream(new ReaderSpliterator(reader), false);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Attempts to match at the specified position.
+     *
+     * @param text  the text, not null
+     * @param pos  the position to match at
+     * @param offset  the offset to add to the indices of the result
+     * @return the match, null if none
+     */
+    private Match matchAt(CharSequence text, int pos, long offset) {
+        if (startChars != null && !startChars.get(text.charAt(pos))) {
+            return null;
+        }
+        if (!isPossibleMatch(text, pos)) {
+            return null;
+        }
+        var context = formatter.parse(text, pos);
+        if (context.isError() || !context.isComplete() || context.getIndex() <= pos) {
+            return null;
+        }
+        return new Match(offset + pos, offset + context.getIndex(), context.toBigMoney());
+    }
+
+    /**
+     * Gets the position to try after a failed match.
+     * <p>
+     * If the failed position is a digit, and no formatter can match part way
+     * through a run of digits, the rest of the run is skipped.
+     *
+     * @param text  the text, not null
+     * @param pos  the position that failed to match
+     * @return the next position to try
+     */
+    private int nextPosition(CharSequence text, int pos) {
+        var next = pos + 1;
+        if (skipDigits && Character.isDigit(text.charAt(pos))) {
+            var len = text.length();
+            while (next < len && Character.isDigit(text.charAt(next))) {
+                next++;
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Checks whether the leading characters of any formatter match at the position.
+     *
+     * @param text  the text, not null
+     * @param pos  the position to match at
+     * @return true if a match may be possible
+     */
+    private boolean isPossibleMatch(CharSequence text, int pos) {
+        var available = text.length() - pos;
+        for (BitSet[] prefix : prefixes) {
+            if (prefix.length > available) {
+                continue;
+            }
+            var matched = true;
+            for (var i = 0; i < prefix.length && matched; i++) {
+                matched = prefix[i].get(text.charAt(pos + i));
+            }
+            if (matched) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets a string summary of the scanner.
+     *
+     * @return a string summarising the scanner, never null
+     */
+    @Override
+    public String toString() {
+        return "MoneyScanner[" + formatter + "]";
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Spliterator that scans a reader, retaining a window of text.
+     */
+    private final class ReaderSpliterator extends Spliterators.AbstractSpliterator<Match> {
+        /** The reader. */
+        private final Reader reader;
+        /** The buffered window of text. */
+        private final StringBuilder buf = new StringBuilder();
+        /** The read buffer. */
+        private final char[] chunk = new char[READER_LOOKAHEAD];
+        /** The index in the whole text of the start of the window. */
+        private long offset;
+        /** The position within the window. */
+        private int pos;
+        /** Whether the end of the reader has been reached. */
+        private boolean eof;
+
+        ReaderSpliterator(Reader reader) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Match> action) {
+            while (true) {
+                fill();
+                if (pos >= buf.length()) {
+                    return false;
+                }
+                var match = matchAt(buf, pos, offset);
+                if (match != null) {
+                    pos = (int) (match.getEndIndex() - offset);
+                    action.accept(match);
+                    return true;
+                }
+                pos = nextPosition(buf, pos);
+            }
+        }
+
+        private void fill() {
+            if (pos >= READER_LOOKAHEAD) {
+                buf.delete(0, pos);
+                offset += pos;
+                pos = 0;
+            }
+            try {
+                while (!eof && buf.length() - pos < READER_LOOKAHEAD) {
+                    var read = reader.read(chunk);
+                    if (read < 0) {
+                        eof = true;
+                    } else {
+                        buf.append(chunk, 0, read);
+                    }
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * A monetary amount found by a scanner.
+     * <p>
+     * This class is immutable and thread-safe.
+     */
+    public static final class Match {
+
+        /**
+         * The start index, inclusive.
+         */
+        private final long startIndex;
+        /**
+         * The end index, exclusive.
+         */
+        private final long endIndex;
+        /**
+         * The money, not null.
+         */
+        private final BigMoney money;
+
+        /**
+         * Constructor.
+         *
+         * @param startIndex  the start index, inclusive
+         * @param endIndex  the end index, exclusive
+         * @param money  the money, not null
+         */
+        Match(long startIndex, long endIndex, BigMoney money) {
+            this.startIndex = startIndex;
+            this.endIndex = endIndex;
+            this.money = money;
+        }
+
+        /**
+         * Gets the index of the first character of the match.
+         *
+         * @return the start index, inclusive
+         */
+        public long getStartIndex() {
+            return startIndex;
+        }
+
+        /**
+         * Gets the index after the last character of the match.
+         *
+         * @return the end index, exclusive
+         */
+        public long getEndIndex() {
+            return endIndex;
+        }
+
+        /**
+         * Gets the monetary value that was matched.
+         *
+         * @return the money, never null
+         */
+        public BigMoney getMoney() {
+            return money;
+        }
+
+        //-----------------------------------------------------------------------
+        /**
+         * Checks if this match equals another.
+         *
+         * @param other  the other object, null returns false
+         * @return true if this instance equals the other instance
+         */
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (other instanceof Match otherMatch) {
+                return startIndex == otherMatch.startIndex &&
+                        endIndex == otherMatch.endIndex &&
+                        money.equals(otherMatch.money);
+            }
+            return false;
+        }
+
+        /**
+         * Returns a hash code for this match.
+         *
+         * @return a suitable hash code
+         */
+        @Override
+        public int hashCode() {
+            return Long.hashCode(startIndex) ^ Long.hashCode(endIndex) * 31 ^ money.hashCode();
+        }
+
+        /**
+         * Gets the match as a string.
+         *
+         * @return the string representation of this match, never null
+         */
+        @Override
+        public String toString() {
+            return money + "@[" + startIndex + "," + endIndex + ")";
+        }
+    }
+
+}
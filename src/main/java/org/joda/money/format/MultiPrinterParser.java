@@ -17,7 +17,10 @@ package org.joda.money.format;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
 
 import org.joda.money.BigMoney;
 
@@ -64,6 +67,51 @@ final class MultiPrinterParser implements MoneyPrinter, MoneyParser, Serializabl
         }
     }
 
+    BitSet leadingChars() {
+        return parsers.length == 0 ? null : AlternativesPrinterParser.leadingChars(parsers[0]);
+    }
+
+    /**
+     * Checks if the first parser is the amount.
+     *
+     * @return true if the amount is parsed first
+     */
+    boolean isAmountFirst() {
+        return parsers.length > 0 && parsers[0] instanceof AmountPrinterParser;
+    }
+
+    /**
+     * Gets the character classes that any text matched by this parser must start with.
+     * <p>
+     * Each element of the list is the set of characters permitted at that offset.
+     * Fixed length elements, such as literals and currency codes, contribute one element
+     * per character. The first variable length element contributes its leading characters
+     * if known, and ends the list.
+     *
+     * @return the character classes, empty if unknown, never null
+     */
+    List<BitSet> leadingClasses() {
+        var classes = new ArrayList<BitSet>();
+        for (MoneyParser parser : parsers) {
+            if (parser instanceof LiteralPrinterParser pp) {
+                pp.addClasses(classes);
+            } else if (parser == MoneyFormatterBuilder.Singletons.CODE ||
+                    parser == MoneyFormatterBuilder.Singletons.NUMERIC_3_CODE) {
+                var chars = ((MoneyFormatterBuilder.Singletons) parser).leadingChars();
+                classes.add(chars);
+                classes.add(chars);
+                classes.add(chars);
+            } else {
+                var chars = AlternativesPrinterParser.leadingChars(parser);
+                if (chars != null) {
+                    classes.add(chars);
+                }
+                break;
+            }
+        }
+        return classes;
+    }
+
     //-----------------------------------------------------------------------
     @Override
     public void print(MoneyPrintContext context, Appendable appendable, BigMoney money) throws IOException {
@@ -18,6 +18,7 @@ package org.joda.money.format;
 import java.io.IOException;
 import java.io.Serializable;
 import java.math.BigDecimal;
+import java.util.BitSet;
 
 import org.joda.money.BigMoney;
 
@@ -51,6 +52,10 @@ final class SignedPrinterParser implements MoneyPrinter, MoneyParser, Serializab
     }
 
     //-----------------------------------------------------------------------
+    BitSet leadingChars() {
+        return AlternativesPrinterParser.leadingChars(whenPositive, whenZero, whenNegative);
+    }
+
     @Override
     public void print(MoneyPrintContext context, Appendable appendable, BigMoney money) throws IOException {
         var fmt = (money.isZero() ? whenZero : money.isPositive() ? whenPositive : whenNegative);
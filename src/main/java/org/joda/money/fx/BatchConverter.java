@@ -0,0 +1,379 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money.fx;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+import org.joda.money.CurrencyUnit;
+import org.joda.money.Money;
+import org.joda.money.MoneyColumns;
+
+/**
+ * Converts large numbers of amounts into a single target currency, such as for reporting.
+ * <p>
+ * Amounts are passed as minor units in a {@code long[]} with a parallel array of currencies,
+ * and the results are returned as minor units of the target currency.
+ * When the converter is created, the rate from each currency of the {@link ExchangeRateTable}
+ * is adjusted for the decimal places of the two currencies and held as a fixed-point {@code long}.
+ * Each conversion is then a 128-bit multiplication and division, with a single rounding,
+ * without creating any objects.
+ * <p>
+ * Each rate is held with up to 18 decimal places, limited to 18 significant digits.
+ * Rates that can be held exactly, such as any quoted rate of reasonable precision,
+ * produce exactly the result of {@link ExchangeRateTable#convert(org.joda.money.BigMoneyProvider, CurrencyUnit, RoundingMode)}.
+ * <p>
+ * The bulk methods split the arrays and use a {@code ForkJoinPool} to convert in parallel.
+ * A result or total that exceeds the capacity of a {@code long} in minor units throws {@code ArithmeticException}.
+ * <p>
+ * This class is immutable and thread-safe.
+ */
+public final class BatchConverter {
+
+    /** The number of elements below which the input is not split. */
+    private static final int LEAF_SIZE = 4096;
+    /** The maximum number of decimal places of a fixed-point rate. */
+    private static final int MAX_RATE_SCALE = 18;
+
+    /** The target currency. */
+    private final CurrencyUnit targetCurrency;
+    /** The rounding mode. */
+    private final RoundingMode roundingMode;
+    /** The source currencies, sorted. */
+    private final CurrencyUnit[] sources;
+    /** The fixed-point multiplier for each source currency, negative if there is no rate. */
+    private final long[] multipliers;
+    /** The power of ten that each multiplier is divided by. */
+    private final long[] divisors;
+
+    //-----------------------------------------------------------------------
+    /**
+     * Obtains a converter to the target currency using the rates in the table.
+     *
+     * @param table  the table of rates, not null
+     * @param targetCurrency  the currency to convert to, not null
+     * @param roundingMode  the rounding mode to apply to each conversion, not null
+     * @return the converter, never null
+     * @throws IllegalArgumentException if a rate is too large to be held in fixed-point
+     */
+    public static BatchConverter of(ExchangeRateTable table, CurrencyUnit targetCurrency, RoundingMode roundingMode) {
+        FxUtils.checkNotNull(table, "ExchangeRateTable must not be null");
+        FxUtils.checkNotNull(targetCurrency, "Target currency must not be null");
+        FxUtils.checkNotNull(roundingMode, "RoundingMode must not be null");
+        var sources = table.getCurrencyUnits().toArray(new CurrencyUnit[0]);
+        var multipliers = new long[sources.length];
+        var divisors = new long[sources.length];
+        for (var i = 0; i < sources.length; i++) {
+            if (!table.isConvertible(sources[i], targetCurrency)) {
+                multipliers[i] = -1;
+                continue;
+            }
+            // the multiplier from source minor units to target minor units
+            var multiplier = table.getRate(sources[i], targetCurrency)
+                .movePointRight(targetCurrency.getDecimalPlaces() - sources[i].getDecimalPlaces());
+            var integerDigits = multiplier.precision() - multiplier.scale();
+            if (integerDigits > MAX_RATE_SCALE) {
+                throw new IllegalArgumentException("Rate too large for fixed-point: " + sources[i] + " to " + targetCurrency);
+            }
+            var scale = Math.min(MAX_RATE_SCALE - Math.max(integerDigits, 0), Math.max(multiplier.stripTrailingZeros().scale(), 0));
+            multipliers[i] = multiplier.setScale(scale, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+            divisors[i] = BigDecimal.ONE.movePointRight(scale).longValueExact();
+        }
+        return new BatchConverter(targetCurrency, roundingMode, sources, multipliers, divisors);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param targetCurrency  the target currency, not null
+     * @param roundingMode  the rounding mode, not null
+     * @param sources  the source currencies, sorted, not null
+     * @param multipliers  the multipliers, not null
+     * @param divisors  the divisors, not null
+     */
+    private BatchConverter(
+            CurrencyUnit targetCurrency,
+            RoundingMode roundingMode,
+            CurrencyUnit[] sources,
+            long[] multipliers,
+            long[] divisors) {
+
+        this.targetCurrency = targetCurrency;
+        this.roundingMode = roundingMode;
+        this.sources = sources;
+        this.multipliers = multipliers;
+        this.divisors = divisors;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the target currency.
+     *
+     * @return the target currency, never null
+     */
+    public CurrencyUnit getTargetCurrency() {
+        return targetCurrency;
+    }
+
+    /**
+     * Gets the rounding mode applied to each conversion.
+     *
+     * @return the rounding mode, never null
+     */
+    public RoundingMode getRoundingMode() {
+        return roundingMode;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Converts a single amount in minor units.
+     *
+     * @param currency  the currency of the amount, not null
+     * @param amountMinor  the amount in minor units of the currency
+     * @return the converted amount in minor units of the target currency
+     * @throws IllegalArgumentException if no rate is available
+     * @throws ArithmeticException if the result exceeds the capacity of a {@code long}, or if the rounding fails
+     */
+    public long convertMinor(CurrencyUnit currency, long amountMinor) {
+        FxUtils.checkNotNull(currency, "CurrencyUnit must not be null");
+        var index = index(currency);
+        return MoneyColumns.multipliedByFraction(amountMinor, multipliers[index], divisors[index], roundingMode);
+    }
+
+    /**
+     * Converts an array of amounts in minor units, in parallel using the common pool.
+     *
+     * @param currencies  the currency of each amount, no null elements, not null
+     * @param amountsMinor  the amounts in minor units, the same length as the currencies, not null
+     * @return the converted amounts in minor units of the target currency, never null
+     * @throws IllegalArgumentException if no rate is available
+     * @throws ArithmeticException if a result exceeds the capacity of a {@code long}, or if the rounding fails
+     */
+    public long[] convertMinor(CurrencyUnit[] currencies, long[] amountsMinor) {
+        return convertMinor(currencies, amountsMinor, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Converts an array of amounts in minor units, in parallel using the specified pool.
+     *
+     * @param currencies  the currency of each amount, no null elements, not null
+     * @param amountsMinor  the amounts in minor units, the same length as the currencies, not null
+     * @param pool  the pool to execute in, not null
+     * @return the converted amounts in minor units of the target currency, never null
+     * @throws IllegalArgumentException if no rate is available
+     * @throws ArithmeticException if a result exceeds the capacity of a {@code long}, or if the rounding fails
+     */
+    public long[] convertMinor(CurrencyUnit[] currencies, long[] amountsMinor, ForkJoinPool pool) {
+        checkArrays(currencies, amountsMinor);
+        FxUtils.checkNotNull(pool, "ForkJoinPool must not be null");
+        var results = new long[amountsMinor.length];
+        pool.invoke(new ConvertTask(currencies, amountsMinor, results, 0, amountsMinor.length));
+        return results;
+    }
+
+    /**
+     * Totals an array of amounts in minor units, in parallel using the common pool.
+     * <p>
+     * Each amount is converted and rounded before being added to the total.
+     *
+     * @param currencies  the currency of each amount, no null elements, not null
+     * @param amountsMinor  the amounts in minor units, the same length as the currencies, not null
+     * @return the total in the target currency, never null
+     * @throws IllegalArgumentException if no rate is available
+     * @throws ArithmeticException if the total exceeds the capacity of a {@code long}, or if the rounding fails
+     */
+    public Money total(CurrencyUnit[] currencies, long[] amountsMinor) {
+        return total(currencies, amountsMinor, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Totals an array of amounts in minor units, in parallel using the specified pool.
+     * <p>
+     * Each amount is converted and rounded before being added to the total.
+     *
+     * @param currencies  the currency of each amount, no null elements, not null
+     * @param amountsMinor  the amounts in minor units, the same length as the currencies, not null
+     * @param pool  the pool to execute in, not null
+     * @return the total in the target currency, never null
+     * @throws IllegalArgumentException if no rate is available
+     * @throws ArithmeticException if the total exceeds the capacity of a {@code long}, or if the rounding fails
+     */
+    public Money total(CurrencyUnit[] currencies, long[] amountsMinor, ForkJoinPool pool) {
+        checkArrays(currencies, amountsMinor);
+        FxUtils.checkNotNull(pool, "ForkJoinPool must not be null");
+        var total = pool.invoke(new TotalTask(currencies, amountsMinor, 0, amountsMinor.length));
+        return Money.ofMinor(targetCurrency, total);
+    }
+
+    /**
+     * Totals a collection of amounts, in parallel using the common pool.
+     * <p>
+     * Each amount is converted and rounded before being added to the total.
+     *
+     * @param monies  the amounts to total, no null elements, not null
+     * @return the total in the target currency, never null
+     * @throws IllegalArgumentException if no rate is available
+     * @throws ArithmeticException if an amount or the total exceeds the capacity of a {@code long}, or if the rounding fails
+     */
+    public Money total(Collection<Money> monies) {
+        FxUtils.checkNotNull(monies, "Money collection must not be null");
+        var currencies = new CurrencyUnit[monies.size()];
+        var amountsMinor = new long[currencies.length];
+        var i = 0;
+        for (var money : monies) {
+            FxUtils.checkNotNull(money, "Money must not be null");
+            currencies[i] = money.getCurrencyUnit();
+            amountsMinor[i++] = money.getAmountMinorLong();
+        }
+        return total(currencies, amountsMinor);
+    }
+
+    private static void checkArrays(CurrencyUnit[] currencies, long[] amountsMinor) {
+        FxUtils.checkNotNull(currencies, "Currency array must not be null");
+        FxUtils.checkNotNull(amountsMinor, "Amount array must not be null");
+        if (currencies.length != amountsMinor.length) {
+            throw new IllegalArgumentException("Currency and amount arrays must have the same length");
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    // finds the index of the currency, which must have a rate
+    private int index(CurrencyUnit currency) {
+        var index = Arrays.binarySearch(sources, currency);
+        if (index < 0 || multipliers[index] < 0) {
+            throw new IllegalArgumentException("No rate available to convert " + currency + " to " + targetCurrency);
+        }
+        return index;
+    }
+
+    // converts the range, returning the total if requested
+    private long convertRange(CurrencyUnit[] currencies, long[] amountsMinor, long[] results, int start, int end) {
+        CurrencyUnit previous = null;
+        var multiplier = 0L;
+        var divisor = 1L;
+        var total = 0L;
+        for (var i = start; i < end; i++) {
+            var currency = currencies[i];
+            if (currency != previous) {
+                FxUtils.checkNotNull(currency, "CurrencyUnit must not be null");
+                var index = index(currency);
+                multiplier = multipliers[index];
+                divisor = divisors[index];
+                previous = currency;
+            }
+            var converted = MoneyColumns.multipliedByFraction(amountsMinor[i], multiplier, divisor, roundingMode);
+            if (results != null) {
+                results[i] = converted;
+            } else {
+                total = Math.addExact(total, converted);
+            }
+        }
+        return total;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the converter as a string.
+     *
+     * @return the string, never null
+     */
+    @Override
+    public String toString() {
+        return "BatchConverter[" + targetCurrency + ", " + roundingMode + "]";
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Task that splits the arrays, converting each part.
+     */
+    @SuppressWarnings("serial")
+    private final class ConvertTask extends RecursiveAction {
+        /** Serialization version. */
+        private static final long serialVersionUID = 1L;
+        /** The currencies. */
+        private final CurrencyUnit[] currencies;
+        /** The amounts. */
+        private final long[] amountsMinor;
+        /** The results. */
+        private final long[] results;
+        /** The start index, inclusive. */
+        private final int start;
+        /** The end index, exclusive. */
+        private final int end;
+
+        ConvertTask(CurrencyUnit[] currencies, long[] amountsMinor, long[] results, int start, int end) {
+            this.currencies = currencies;
+            this.amountsMinor = amountsMinor;
+            this.results = results;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= LEAF_SIZE) {
+                convertRange(currencies, amountsMinor, results, start, end);
+                return;
+            }
+            var middle = (start + end) >>> 1;
+            invokeAll(
+                new ConvertTask(currencies, amountsMinor, results, start, middle),
+                new ConvertTask(currencies, amountsMinor, results, middle, end));
+        }
+    }
+
+    /**
+     * Task that splits the arrays, totalling each part.
+     */
+    @SuppressWarnings("serial")
+    private final class TotalTask extends RecursiveTask<Long> {
+        /** Serialization version. */
+        private static final long serialVersionUID = 1L;
+        /** The currencies. */
+        private final CurrencyUnit[] currencies;
+        /** The amounts. */
+        private final long[] amountsMinor;
+        /** The start index, inclusive. */
+        private final int start;
+        /** The end index, exclusive. */
+        private final int end;
+
+        TotalTask(CurrencyUnit[] currencies, long[] amountsMinor, int start, int end) {
+            this.currencies = currencies;
+            this.amountsMinor = amountsMinor;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected Long compute() {
+            if (end - start <= LEAF_SIZE) {
+                return convertRange(currencies, amountsMinor, null, start, end);
+            }
+            var middle = (start + end) >>> 1;
+            var left = new TotalTask(currencies, amountsMinor, start, middle);
+            left.fork();
+            var right = new TotalTask(currencies, amountsMinor, middle, end).compute();
+            return Math.addExact(left.join(), right);
+        }
+    }
+
+}
@@ -0,0 +1,344 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money.fx;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.joda.money.BigMoneyProvider;
+import org.joda.money.CurrencyUnit;
+import org.joda.money.Money;
+
+/**
+ * Provider of exchange rates that caches the rates of another provider, refreshing them in the background.
+ * <p>
+ * The rates are held as an immutable snapshot published through an atomic reference,
+ * thus obtaining the rates never blocks once the first snapshot has been loaded.
+ * When the snapshot is older than the maximum age, the next request starts a refresh
+ * on a virtual thread and continues to return the stale snapshot until the refresh completes.
+ * Only one background refresh runs at a time.
+ * If a refresh fails, the stale snapshot remains in use, the failure is counted,
+ * and no background refresh is started until the retry delay has passed.
+ * <p>
+ * The first request loads the rates in the calling thread, as there is no snapshot to return.
+ * A refresh can also be performed in the calling thread using {@link #refresh()}.
+ * Each snapshot is timestamped with the time its refresh started, and is only published
+ * if it is newer than the current snapshot, thus a slow refresh never replaces the rates
+ * of a refresh that started after it.
+ * <p>
+ * The rates can be passed to {@link org.joda.money.BigMoney#convertedTo(CurrencyUnit, BigDecimal)}
+ * using {@link #getRate(CurrencyUnit, CurrencyUnit)}, or amounts converted directly.
+ * <p>
+ * This class is mutable and thread-safe.
+ */
+public final class CachingRateProvider implements ExchangeRateProvider {
+
+    /** The default delay before retrying a failed refresh. */
+    private static final Duration DEFAULT_RETRY_DELAY = Duration.ofSeconds(10);
+
+    /** The underlying provider. */
+    private final ExchangeRateProvider source;
+    /** The maximum age of the snapshot before it is refreshed. */
+    private final Duration maxAge;
+    /** The delay after a failed refresh before another is started. */
+    private final Duration retryDelay;
+    /** The clock. */
+    private final Clock clock;
+    /** The lock used to load the first snapshot. */
+    private final ReentrantLock loadLock = new ReentrantLock();
+    /** Whether a background refresh is running. */
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    /** The number of successful refreshes. */
+    private final AtomicLong refreshCount = new AtomicLong();
+    /** The number of failed refreshes. */
+    private final AtomicLong failureCount = new AtomicLong();
+    /** The current snapshot, null until loaded. */
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    /** The time before which no background refresh is started, null if none. */
+    private volatile Instant retryAfter;
+    /** The duration of the last refresh in nanoseconds. */
+    private volatile long lastLatencyNanos;
+    /** The exception of the last failed refresh, null if none. */
+    private volatile Exception lastFailure;
+
+    //-----------------------------------------------------------------------
+    /**
+     * Creates an instance using the system UTC clock and a retry delay of 10 seconds.
+     *
+     * @param source  the provider to cache, not null
+     * @param maxAge  the maximum age of the rates before they are refreshed, positive, not null
+     */
+    public CachingRateProvider(ExchangeRateProvider source, Duration maxAge) {
+        this(source, maxAge, DEFAULT_RETRY_DELAY, Clock.systemUTC());
+    }
+
+    /**
+     * Creates an instance with a retry delay of 10 seconds.
+     *
+     * @param source  the provider to cache, not null
+     * @param maxAge  the maximum age of the rates before they are refreshed, positive, not null
+     * @param clock  the clock used to determine the age of the rates, not null
+     */
+    public CachingRateProvider(ExchangeRateProvider source, Duration maxAge, Clock clock) {
+        this(source, maxAge, DEFAULT_RETRY_DELAY, clock);
+    }
+
+    /**
+     * Creates an instance.
+     *
+     * @param source  the provider to cache, not null
+     * @param maxAge  the maximum age of the rates before they are refreshed, positive, not null
+     * @param retryDelay  the delay after a failed refresh before a background refresh is started, not negative, not null
+     * @param clock  the clock used to determine the age of the rates, not null
+     */
+    public CachingRateProvider(ExchangeRateProvider source, Duration maxAge, Duration retryDelay, Clock clock) {
+        FxUtils.checkNotNull(source, "ExchangeRateProvider must not be null");
+        FxUtils.checkNotNull(maxAge, "Max age must not be null");
+        FxUtils.checkNotNull(retryDelay, "Retry delay must not be null");
+        FxUtils.checkNotNull(clock, "Clock must not be null");
+        if (maxAge.isNegative() || maxAge.isZero()) {
+            throw new IllegalArgumentException("Max age must be positive");
+        }
+        if (retryDelay.isNegative()) {
+            throw new IllegalArgumentException("Retry delay must not be negative");
+        }
+        this.source = source;
+        this.maxAge = maxAge;
+        this.retryDelay = retryDelay;
+        this.clock = clock;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Obtains the current rates.
+     * <p>
+     * If the rates are stale, a refresh is started in the background and the stale rates are returned.
+     * No refresh is started within the retry delay of a failed refresh.
+     *
+     * @return the rates, never null
+     * @throws IllegalStateException if this is the first request and the rates cannot be loaded
+     */
+    @Override
+    public ExchangeRateTable getRates() {
+        var current = snapshot.get();
+        if (current == null) {
+            return load();
+        }
+        if (isRefreshDue(current) && refreshing.compareAndSet(false, true)) {
+            Thread.ofVirtual().name("joda-money-rate-refresh").start(this::refreshInBackground);
+        }
+        return current.table;
+    }
+
+    /**
+     * Gets the rate to convert one unit of the source currency to the target currency.
+     *
+     * @param source  the currency to convert from, not null
+     * @param target  the currency to convert to, not null
+     * @return the rate, never null
+     * @throws IllegalArgumentException if no rate is available
+     * @throws IllegalStateException if this is the first request and the rates cannot be loaded
+     */
+    public BigDecimal getRate(CurrencyUnit source, CurrencyUnit target) {
+        return getRates().getRate(source, target);
+    }
+
+    /**
+     * Converts an amount to the target currency using the current rates.
+     *
+     * @param money  the amount to convert, not null
+     * @param target  the currency to convert to, not null
+     * @param roundingMode  the rounding mode to use, not null
+     * @return the converted amount, never null
+     * @throws IllegalArgumentException if no rate is available
+     * @throws IllegalStateException if this is the first request and the rates cannot be loaded
+     * @throws ArithmeticException if the rounding fails
+     */
+    public Money convert(BigMoneyProvider money, CurrencyUnit target, RoundingMode roundingMode) {
+        return getRates().convert(money, target, roundingMode);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Refreshes the rates in the calling thread.
+     * <p>
+     * This can be used to load the rates eagerly, or from a scheduler.
+     * This does not wait for, or prevent, a background refresh.
+     * If a refresh that started later has already completed, the rates are not replaced.
+     *
+     * @throws Exception if the rates cannot be obtained, in which case the previous rates remain in use
+     */
+    public void refresh() throws Exception {
+        var started = clock.instant();
+        var start = System.nanoTime();
+        try {
+            var table = source.getRates();
+            if (table == null) {
+                throw new IllegalStateException("ExchangeRateProvider returned null");
+            }
+            publish(new Snapshot(table, started));
+            lastLatencyNanos = System.nanoTime() - start;
+            refreshCount.incrementAndGet();
+        } catch (Exception ex) {
+            lastLatencyNanos = System.nanoTime() - start;
+            lastFailure = ex;
+            retryAfter = clock.instant().plus(retryDelay);
+            failureCount.incrementAndGet();
+            throw ex;
+        }
+    }
+
+    // publishes the snapshot unless the current snapshot was started later
+    private void publish(Snapshot fresh) {
+        var current = snapshot.get();
+        while (current == null || !fresh.timestamp.isBefore(current.timestamp)) {
+            if (snapshot.compareAndSet(current, fresh)) {
+                return;
+            }
+            current = snapshot.get();
+        }
+    }
+
+    // loads the first snapshot, blocking other threads until it is available
+    private ExchangeRateTable load() {
+        loadLock.lock();
+        try {
+            var current = snapshot.get();
+            if (current == null) {
+                refresh();
+                current = snapshot.get();
+            }
+            return current.table;
+        } catch (Exception ex) {
+            throw new IllegalStateException("Unable to load exchange rates", ex);
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    // refreshes, recording rather than throwing any failure
+    private void refreshInBackground() {
+        try {
+            refresh();
+        } catch (Exception ex) {
+            // recorded by refresh()
+        } finally {
+            refreshing.set(false);
+        }
+    }
+
+    // checks if the snapshot is stale and any retry delay has passed
+    private boolean isRefreshDue(Snapshot current) {
+        var now = clock.instant();
+        var retry = retryAfter;
+        return current.timestamp.plus(maxAge).compareTo(now) <= 0 && (retry == null || retry.compareTo(now) <= 0);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Checks if the rates have been loaded.
+     *
+     * @return true if a snapshot of the rates is available
+     */
+    public boolean isLoaded() {
+        return snapshot.get() != null;
+    }
+
+    /**
+     * Gets the age of the current rates.
+     *
+     * @return the age, never null
+     * @throws IllegalStateException if the rates have not been loaded
+     */
+    public Duration getAge() {
+        var current = snapshot.get();
+        if (current == null) {
+            throw new IllegalStateException("Exchange rates have not been loaded");
+        }
+        return Duration.between(current.timestamp, clock.instant());
+    }
+
+    /**
+     * Gets the duration of the last refresh, whether it succeeded or failed.
+     *
+     * @return the duration, zero if there has been no refresh, never null
+     */
+    public Duration getLastRefreshLatency() {
+        return Duration.ofNanos(lastLatencyNanos);
+    }
+
+    /**
+     * Gets the number of successful refreshes, including the first load.
+     *
+     * @return the number of successful refreshes
+     */
+    public long getRefreshCount() {
+        return refreshCount.get();
+    }
+
+    /**
+     * Gets the number of failed refreshes.
+     *
+     * @return the number of failed refreshes
+     */
+    public long getFailureCount() {
+        return failureCount.get();
+    }
+
+    /**
+     * Gets the exception of the last failed refresh.
+     *
+     * @return the exception, null if no refresh has failed
+     */
+    public Exception getLastFailure() {
+        return lastFailure;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the provider as a string.
+     *
+     * @return the string, never null
+     */
+    @Override
+    public String toString() {
+        return "CachingRateProvider[maxAge=" + maxAge + ", refreshes=" + refreshCount.get() + ", failures=" + failureCount.get() + "]";
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * The rates and the time they were obtained.
+     */
+    private static final class Snapshot {
+        /** The rates. */
+        private final ExchangeRateTable table;
+        /** The time the refresh that obtained the rates started. */
+        private final Instant timestamp;
+
+        Snapshot(ExchangeRateTable table, Instant timestamp) {
+            this.table = table;
+            this.timestamp = timestamp;
+        }
+    }
+
+}
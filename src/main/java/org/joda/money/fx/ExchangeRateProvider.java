@@ -0,0 +1,51 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money.fx;
+
+/**
+ * Provider of the current exchange rates.
+ * <p>
+ * This is the extension point for obtaining rates from a source, such as a file or a remote service.
+ * The rates are returned as an immutable {@link ExchangeRateTable}, a snapshot of the rates at a point in time.
+ * A provider may take time to obtain the rates, thus it is normally wrapped in a
+ * {@link CachingRateProvider} before being used to convert amounts.
+ * <p>
+ * Implementations must be thread-safe.
+ */
+@FunctionalInterface
+public interface ExchangeRateProvider {
+
+    /**
+     * Obtains a provider that always returns the specified table.
+     *
+     * @param table  the table of rates, not null
+     * @return the provider, never null
+     */
+    public static ExchangeRateProvider of(ExchangeRateTable table) {
+        FxUtils.checkNotNull(table, "ExchangeRateTable must not be null");
+        return () -> table;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Obtains the current rates.
+     *
+     * @return the rates, not null
+     * @throws Exception if the rates cannot be obtained
+     */
+    public abstract ExchangeRateTable getRates() throws Exception;
+
+}
@@ -0,0 +1,260 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money.fx;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.joda.money.BigMoney;
+import org.joda.money.BigMoneyProvider;
+import org.joda.money.CurrencyUnit;
+import org.joda.money.Money;
+
+/**
+ * A table of exchange rates between every pair of a set of currencies.
+ * <p>
+ * The table is built from direct quotes, such as 'one GBP buys 1.25 USD'.
+ * When the table is built, the rate between every pair of currencies is calculated,
+ * using the inverse of a quote and triangulating through other currencies as necessary.
+ * A direct quote is always used in preference to a derived rate, and triangulation
+ * uses the fewest quotes possible.
+ * Derived rates are calculated using {@link MathContext#DECIMAL128}.
+ * <p>
+ * The rates are held in a matrix indexed by currency, thus a conversion consists
+ * of looking up the two currencies and a single multiplication.
+ * <p>
+ * This class is immutable and thread-safe.
+ */
+public final class ExchangeRateTable {
+
+    /** The currencies, sorted. */
+    private final CurrencyUnit[] currencies;
+    /** The rates, indexed by source currency then target currency, null if there is no rate. */
+    private final BigDecimal[][] rates;
+
+    //-----------------------------------------------------------------------
+    /**
+     * Creates a builder for the table.
+     *
+     * @return the builder, never null
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param currencies  the currencies, sorted, not null
+     * @param rates  the rate matrix, not null
+     */
+    private ExchangeRateTable(CurrencyUnit[] currencies, BigDecimal[][] rates) {
+        this.currencies = currencies;
+        this.rates = rates;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the currencies in the table, sorted.
+     *
+     * @return the unmodifiable list of currencies, never null
+     */
+    public List<CurrencyUnit> getCurrencyUnits() {
+        return Collections.unmodifiableList(Arrays.asList(currencies));
+    }
+
+    /**
+     * Checks if the table can convert between the specified currencies.
+     * <p>
+     * A currency in the table can always be converted to itself.
+     *
+     * @param source  the currency to convert from, not null
+     * @param target  the currency to convert to, not null
+     * @return true if a rate is available
+     */
+    public boolean isConvertible(CurrencyUnit source, CurrencyUnit target) {
+        FxUtils.checkNotNull(source, "Source currency must not be null");
+        FxUtils.checkNotNull(target, "Target currency must not be null");
+        var sourceIndex = Arrays.binarySearch(currencies, source);
+        var targetIndex = Arrays.binarySearch(currencies, target);
+        return sourceIndex >= 0 && targetIndex >= 0 && rates[sourceIndex][targetIndex] != null;
+    }
+
+    /**
+     * Gets the rate to convert one unit of the source currency to the target currency.
+     *
+     * @param source  the currency to convert from, not null
+     * @param target  the currency to convert to, not null
+     * @return the rate, never null
+     * @throws IllegalArgumentException if no rate is available
+     */
+    public BigDecimal getRate(CurrencyUnit source, CurrencyUnit target) {
+        FxUtils.checkNotNull(source, "Source currency must not be null");
+        FxUtils.checkNotNull(target, "Target currency must not be null");
+        return rate(source, target);
+    }
+
+    // looks up the rate
+    private BigDecimal rate(CurrencyUnit source, CurrencyUnit target) {
+        var sourceIndex = Arrays.binarySearch(currencies, source);
+        var targetIndex = Arrays.binarySearch(currencies, target);
+        var rate = sourceIndex >= 0 && targetIndex >= 0 ? rates[sourceIndex][targetIndex] : null;
+        if (rate == null) {
+            throw new IllegalArgumentException("No rate available to convert " + source + " to " + target);
+        }
+        return rate;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Converts an amount to the target currency without rounding.
+     * <p>
+     * The scale of the result is the scale of the amount plus the scale of the rate.
+     * If the amount is already in the target currency it is returned unaltered.
+     *
+     * @param money  the amount to convert, not null
+     * @param target  the currency to convert to, not null
+     * @return the converted amount, never null
+     * @throws IllegalArgumentException if no rate is available
+     */
+    public BigMoney convert(BigMoneyProvider money, CurrencyUnit target) {
+        var base = BigMoney.of(money);
+        FxUtils.checkNotNull(target, "Target currency must not be null");
+        if (base.getCurrencyUnit().equals(target)) {
+            return base;
+        }
+        var rate = rate(base.getCurrencyUnit(), target);
+        return BigMoney.of(target, base.getAmount().multiply(rate));
+    }
+
+    /**
+     * Converts an amount to the target currency, rounding to the decimal places of the target currency.
+     *
+     * @param money  the amount to convert, not null
+     * @param target  the currency to convert to, not null
+     * @param roundingMode  the rounding mode to use, not null
+     * @return the converted amount, never null
+     * @throws IllegalArgumentException if no rate is available
+     * @throws ArithmeticException if the rounding fails
+     */
+    public Money convert(BigMoneyProvider money, CurrencyUnit target, RoundingMode roundingMode) {
+        FxUtils.checkNotNull(roundingMode, "RoundingMode must not be null");
+        return Money.of(convert(money, target), roundingMode);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the table as a string.
+     *
+     * @return the string, never null
+     */
+    @Override
+    public String toString() {
+        return "ExchangeRateTable" + Arrays.toString(currencies);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Builder for {@code ExchangeRateTable}.
+     * <p>
+     * This class is mutable and intended for use by a single thread.
+     */
+    public static final class Builder {
+
+        /** The direct quotes, keyed by base currency then counter currency. */
+        private final Map<CurrencyUnit, Map<CurrencyUnit, BigDecimal>> quotes = new TreeMap<>();
+
+        /**
+         * Restricted constructor.
+         */
+        private Builder() {
+        }
+
+        /**
+         * Adds a direct quote, replacing any previous quote for the same pair.
+         * <p>
+         * The rate is the amount of the counter currency bought by one unit of the base currency.
+         * For example, if one GBP buys 1.25 USD, then the base is GBP, the counter is USD and the rate is 1.25.
+         *
+         * @param base  the base currency, not null
+         * @param counter  the counter currency, not null
+         * @param rate  the rate, positive, not null
+         * @return this, for chaining, never null
+         * @throws IllegalArgumentException if the currencies are the same or the rate is not positive
+         */
+        public Builder addRate(CurrencyUnit base, CurrencyUnit counter, BigDecimal rate) {
+            FxUtils.checkNotNull(base, "Base currency must not be null");
+            FxUtils.checkNotNull(counter, "Counter currency must not be null");
+            FxUtils.checkNotNull(rate, "Rate must not be null");
+            if (base.equals(counter)) {
+                throw new IllegalArgumentException("Cannot add a rate for the same currency: " + base);
+            }
+            if (rate.signum() <= 0) {
+                throw new IllegalArgumentException("Rate must be positive: " + rate);
+            }
+            quotes.computeIfAbsent(base, k -> new TreeMap<>()).put(counter, rate);
+            quotes.computeIfAbsent(counter, k -> new TreeMap<>());
+            return this;
+        }
+
+        /**
+         * Builds the table, calculating the rate between every pair of currencies.
+         *
+         * @return the table, never null
+         */
+        public ExchangeRateTable build() {
+            var currencies = quotes.keySet().toArray(new CurrencyUnit[0]);
+            var size = currencies.length;
+            // the rate of each edge, using the quote in preference to the inverse of the opposite quote
+            var edges = new BigDecimal[size][size];
+            for (var i = 0; i < size; i++) {
+                for (var entry : quotes.get(currencies[i]).entrySet()) {
+                    var j = Arrays.binarySearch(currencies, entry.getKey());
+                    edges[i][j] = entry.getValue();
+                    if (edges[j][i] == null) {
+                        edges[j][i] = BigDecimal.ONE.divide(entry.getValue(), MathContext.DECIMAL128);
+                    }
+                }
+            }
+            // breadth-first search from each currency, so each rate uses the fewest quotes
+            var rates = new BigDecimal[size][size];
+            var queue = new ArrayDeque<Integer>();
+            for (var source = 0; source < size; source++) {
+                var row = rates[source];
+                row[source] = BigDecimal.ONE;
+                queue.add(source);
+                while (!queue.isEmpty()) {
+                    int from = queue.poll();
+                    for (var to = 0; to < size; to++) {
+                        if (edges[from][to] != null && row[to] == null) {
+                            row[to] = from == source ? edges[from][to] : row[from].multiply(edges[from][to], MathContext.DECIMAL128);
+                            queue.add(to);
+                        }
+                    }
+                }
+            }
+            return new ExchangeRateTable(currencies, rates);
+        }
+    }
+
+}
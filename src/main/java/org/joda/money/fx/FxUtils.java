@@ -0,0 +1,45 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money.fx;
+
+/**
+ * Utilities for the foreign exchange package.
+ * <p>
+ * This utility class contains thread-safe static methods.
+ */
+final class FxUtils {
+
+    /**
+     * Private constructor.
+     */
+    private FxUtils() {
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Validates that the object specified is not null.
+     *
+     * @param object  the object to check, null throws exception
+     * @param message  the message to use in the exception, not null
+     * @throws NullPointerException if the input value is null
+     */
+    static void checkNotNull(Object object, String message) {
+        if (object == null) {
+            throw new NullPointerException(message);
+        }
+    }
+
+}
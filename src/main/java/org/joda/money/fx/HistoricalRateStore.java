@@ -0,0 +1,482 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money.fx;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.joda.money.BigMoney;
+import org.joda.money.BigMoneyProvider;
+import org.joda.money.CurrencyUnit;
+import org.joda.money.Money;
+
+/**
+ * A store of historical exchange rates, providing the rate for a currency pair on a date.
+ * <p>
+ * The rates of each currency pair are held as a series ordered by date.
+ * Each series consists of the dates as epoch-days in an {@code int} buffer and the rates
+ * as fixed-point values in a {@code long} buffer, with a scale for the series.
+ * A lookup is a binary search of the dates, with a {@link RateFallback} defining
+ * the rate to use if there is no rate on the requested date.
+ * If a pair is not held, but the inverse pair is, then the inverse rate is used,
+ * calculated using {@link MathContext#DECIMAL128}.
+ * <p>
+ * Rates can be loaded from CSV and the store can be written to a file.
+ * Loading the file maps it into memory, with the buffers of each series being views of the file,
+ * thus a large history is available immediately without being read or copied.
+ * <p>
+ * This class is immutable and thread-safe.
+ */
+public final class HistoricalRateStore {
+
+    /** The identifier at the start of a file. */
+    private static final int MAGIC = 0x4A4D4852;
+    /** The version of the file format. */
+    private static final int VERSION = 1;
+    /** The size of the header of a series in a file. */
+    private static final int SERIES_HEADER_SIZE = 16;
+
+    /** The series, keyed by the base currency then the counter currency. */
+    private final Map<CurrencyUnit, Map<CurrencyUnit, Series>> series;
+    /** The number of currency pairs. */
+    private final int pairCount;
+
+    //-----------------------------------------------------------------------
+    /**
+     * Creates a builder for the store.
+     *
+     * @return the builder, never null
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Loads a store from a file previously written by {@link #writeTo(Path)}.
+     * <p>
+     * The file is mapped into memory rather than being read.
+     * The file must not be changed while the store is in use.
+     *
+     * @param file  the file to load, not null
+     * @return the store, never null
+     * @throws IOException if the file cannot be read or is invalid
+     */
+    public static HistoricalRateStore load(Path file) throws IOException {
+        FxUtils.checkNotNull(file, "File must not be null");
+        ByteBuffer buffer;
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("File is not a historical rate store: " + file);
+            }
+            var count = buffer.getInt();
+            var series = new HashMap<CurrencyUnit, Map<CurrencyUnit, Series>>();
+            var offset = buffer.position() + count * SERIES_HEADER_SIZE;
+            for (var i = 0; i < count; i++) {
+                var code = new byte[6];
+                buffer.get(code);
+                buffer.getShort();
+                var scale = buffer.getInt();
+                var size = buffer.getInt();
+                var days = buffer.slice(offset, size * Integer.BYTES).asIntBuffer();
+                offset += size * Integer.BYTES;
+                var rates = buffer.slice(offset, size * Long.BYTES).asLongBuffer();
+                offset += size * Long.BYTES;
+                var base = CurrencyUnit.of(new String(code, 0, 3, StandardCharsets.US_ASCII));
+                var counter = CurrencyUnit.of(new String(code, 3, 3, StandardCharsets.US_ASCII));
+                series.computeIfAbsent(base, k -> new HashMap<>()).put(counter, new Series(scale, days, rates));
+            }
+            return new HistoricalRateStore(series, count);
+        } catch (RuntimeException ex) {
+            throw new IOException("File is not a valid historical rate store: " + file, ex);
+        }
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param series  the series, not null
+     * @param pairCount  the number of currency pairs
+     */
+    private HistoricalRateStore(Map<CurrencyUnit, Map<CurrencyUnit, Series>> series, int pairCount) {
+        this.series = series;
+        this.pairCount = pairCount;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the number of currency pairs in the store.
+     *
+     * @return the number of pairs
+     */
+    public int getPairCount() {
+        return pairCount;
+    }
+
+    /**
+     * Gets the rate to convert one unit of the base currency to the counter currency on a date.
+     *
+     * @param base  the base currency, not null
+     * @param counter  the counter currency, not null
+     * @param date  the date of the rate, not null
+     * @param fallback  the rate to use if there is no rate on the date, not null
+     * @return the rate, never null
+     * @throws IllegalArgumentException if no rate is available
+     */
+    public BigDecimal getRate(CurrencyUnit base, CurrencyUnit counter, LocalDate date, RateFallback fallback) {
+        FxUtils.checkNotNull(base, "Base currency must not be null");
+        FxUtils.checkNotNull(counter, "Counter currency must not be null");
+        FxUtils.checkNotNull(date, "Date must not be null");
+        FxUtils.checkNotNull(fallback, "RateFallback must not be null");
+        var rate = findRate(base, counter, date, fallback);
+        if (rate == null) {
+            throw new IllegalArgumentException("No rate available to convert " + base + " to " + counter + " on " + date);
+        }
+        return rate;
+    }
+
+    // finds the rate, using the inverse pair if necessary, returning null if not found
+    private BigDecimal findRate(CurrencyUnit base, CurrencyUnit counter, LocalDate date, RateFallback fallback) {
+        if (base.equals(counter)) {
+            return BigDecimal.ONE;
+        }
+        var day = date.toEpochDay();
+        var direct = findSeries(base, counter);
+        if (direct != null) {
+            var rate = direct.find(day, fallback);
+            if (rate != null) {
+                return rate;
+            }
+        }
+        var inverse = findSeries(counter, base);
+        if (inverse != null) {
+            var rate = inverse.find(day, fallback);
+            if (rate != null) {
+                return BigDecimal.ONE.divide(rate, MathContext.DECIMAL128);
+            }
+        }
+        return null;
+    }
+
+    // finds the series of the pair, returning null if not found
+    private Series findSeries(CurrencyUnit base, CurrencyUnit counter) {
+        var counters = series.get(base);
+        return counters != null ? counters.get(counter) : null;
+    }
+
+    // sorts the series by base currency then counter currency
+    private TreeMap<CurrencyUnit, TreeMap<CurrencyUnit, Series>> sortedSeries() {
+        var sorted = new TreeMap<CurrencyUnit, TreeMap<CurrencyUnit, Series>>();
+        for (var entry : series.entrySet()) {
+            sorted.put(entry.getKey(), new TreeMap<>(entry.getValue()));
+        }
+        return sorted;
+    }
+
+    /**
+     * Converts an amount to the target currency using the rate on a date.
+     *
+     * @param money  the amount to convert, not null
+     * @param target  the currency to convert to, not null
+     * @param date  the date of the rate, not null
+     * @param fallback  the rate to use if there is no rate on the date, not null
+     * @param roundingMode  the rounding mode to use, not null
+     * @return the converted amount, never null
+     * @throws IllegalArgumentException if no rate is available
+     * @throws ArithmeticException if the rounding fails
+     */
+    public Money convert(BigMoneyProvider money, CurrencyUnit target, LocalDate date, RateFallback fallback, RoundingMode roundingMode) {
+        var base = BigMoney.of(money);
+        FxUtils.checkNotNull(roundingMode, "RoundingMode must not be null");
+        var rate = getRate(base.getCurrencyUnit(), target, date, fallback);
+        return Money.of(target, base.getAmount().multiply(rate), roundingMode);
+    }
+
+    /**
+     * Obtains a table of the rates on a date.
+     * <p>
+     * The table contains the rate of each pair that has a rate according to the fallback,
+     * from which the table derives the cross rates.
+     *
+     * @param date  the date of the rates, not null
+     * @param fallback  the rate to use if there is no rate on the date, not null
+     * @return the table, never null
+     */
+    public ExchangeRateTable toTable(LocalDate date, RateFallback fallback) {
+        FxUtils.checkNotNull(date, "Date must not be null");
+        FxUtils.checkNotNull(fallback, "RateFallback must not be null");
+        var builder = ExchangeRateTable.builder();
+        for (var baseEntry : sortedSeries().entrySet()) {
+            for (var entry : baseEntry.getValue().entrySet()) {
+                var rate = entry.getValue().find(date.toEpochDay(), fallback);
+                if (rate != null) {
+                    builder.addRate(baseEntry.getKey(), entry.getKey(), rate);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Writes the store to a file, which can be loaded using {@link #load(Path)}.
+     * <p>
+     * Any existing file is replaced.
+     *
+     * @param file  the file to write, not null
+     * @throws IOException if the file cannot be written
+     */
+    public void writeTo(Path file) throws IOException {
+        FxUtils.checkNotNull(file, "File must not be null");
+        var sorted = sortedSeries();
+        var size = 12L + pairCount * SERIES_HEADER_SIZE;
+        for (var counters : sorted.values()) {
+            for (var entry : counters.values()) {
+                size += entry.days.limit() * (long) (Integer.BYTES + Long.BYTES);
+            }
+        }
+        var buffer = ByteBuffer.allocate(Math.toIntExact(size));
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(pairCount);
+        for (var baseEntry : sorted.entrySet()) {
+            for (var entry : baseEntry.getValue().entrySet()) {
+                var code = baseEntry.getKey().getCode() + entry.getKey().getCode();
+                buffer.put(code.getBytes(StandardCharsets.US_ASCII)).putShort((short) 0);
+                buffer.putInt(entry.getValue().scale).putInt(entry.getValue().days.limit());
+            }
+        }
+        for (var counters : sorted.values()) {
+            for (var entry : counters.values()) {
+                buffer.asIntBuffer().put(entry.days.duplicate());
+                buffer.position(buffer.position() + entry.days.limit() * Integer.BYTES);
+                buffer.asLongBuffer().put(entry.rates.duplicate());
+                buffer.position(buffer.position() + entry.rates.limit() * Long.BYTES);
+            }
+        }
+        buffer.flip();
+        try (var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the store as a string.
+     *
+     * @return the string, never null
+     */
+    @Override
+    public String toString() {
+        return "HistoricalRateStore[" + pairCount + " pairs]";
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * The rates of a single currency pair.
+     */
+    private static final class Series {
+        /** The scale of the rates. */
+        private final int scale;
+        /** The dates as epoch-days, sorted. */
+        private final IntBuffer days;
+        /** The rates in fixed-point, in the same order as the dates. */
+        private final LongBuffer rates;
+
+        Series(int scale, IntBuffer days, LongBuffer rates) {
+            this.scale = scale;
+            this.days = days;
+            this.rates = rates;
+        }
+
+        // finds the rate, returning null if not found
+        BigDecimal find(long day, RateFallback fallback) {
+            var low = 0;
+            var high = days.limit() - 1;
+            while (low <= high) {
+                var mid = (low + high) >>> 1;
+                var midDay = days.get(mid);
+                if (midDay < day) {
+                    low = mid + 1;
+                } else if (midDay > day) {
+                    high = mid - 1;
+                } else {
+                    return rate(mid);
+                }
+            }
+            // low is the index of the first later date, high is the index of the last earlier date
+            var index = switch (fallback) {
+                case EXACT -> -1;
+                case PREVIOUS -> high;
+                case NEXT -> low < days.limit() ? low : -1;
+                case NEAREST -> {
+                    if (high < 0) {
+                        yield low < days.limit() ? low : -1;
+                    }
+                    yield low < days.limit() && days.get(low) - day < day - days.get(high) ? low : high;
+                }
+            };
+            return index >= 0 ? rate(index) : null;
+        }
+
+        private BigDecimal rate(int index) {
+            return BigDecimal.valueOf(rates.get(index), scale);
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Builder for {@code HistoricalRateStore}.
+     * <p>
+     * This class is mutable and intended for use by a single thread.
+     */
+    public static final class Builder {
+
+        /** The rates, keyed by the base currency, the counter currency, then the epoch-day. */
+        private final Map<CurrencyUnit, Map<CurrencyUnit, TreeMap<Integer, BigDecimal>>> rates = new HashMap<>();
+
+        /**
+         * Restricted constructor.
+         */
+        private Builder() {
+        }
+
+        /**
+         * Adds a rate, replacing any previous rate for the same pair and date.
+         * <p>
+         * The rate is the amount of the counter currency bought by one unit of the base currency.
+         *
+         * @param base  the base currency, not null
+         * @param counter  the counter currency, not null
+         * @param date  the date of the rate, not null
+         * @param rate  the rate, positive, not null
+         * @return this, for chaining, never null
+         * @throws IllegalArgumentException if the currencies are the same or the rate is not positive
+         */
+        public Builder addRate(CurrencyUnit base, CurrencyUnit counter, LocalDate date, BigDecimal rate) {
+            FxUtils.checkNotNull(base, "Base currency must not be null");
+            FxUtils.checkNotNull(counter, "Counter currency must not be null");
+            FxUtils.checkNotNull(date, "Date must not be null");
+            FxUtils.checkNotNull(rate, "Rate must not be null");
+            if (base.equals(counter)) {
+                throw new IllegalArgumentException("Cannot add a rate for the same currency: " + base);
+            }
+            if (rate.signum() <= 0) {
+                throw new IllegalArgumentException("Rate must be positive: " + rate);
+            }
+            rates.computeIfAbsent(base, k -> new HashMap<>())
+                .computeIfAbsent(counter, k -> new TreeMap<>())
+                .put(Math.toIntExact(date.toEpochDay()), rate.stripTrailingZeros());
+            return this;
+        }
+
+        /**
+         * Adds the rates from CSV.
+         * <p>
+         * Each line has the format 'date,base,counter,rate', such as '2024-06-03,GBP,USD,1.2763',
+         * with the date in ISO-8601 format. Blank lines are ignored, as is a first line starting with 'date'.
+         *
+         * @param reader  the reader of the CSV, not null
+         * @return this, for chaining, never null
+         * @throws IOException if the CSV cannot be read
+         * @throws IllegalArgumentException if the CSV is invalid
+         */
+        public Builder addCsv(Reader reader) throws IOException {
+            FxUtils.checkNotNull(reader, "Reader must not be null");
+            var buffered = new BufferedReader(reader);
+            var lineNumber = 0;
+            String line;
+            while ((line = buffered.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || (lineNumber == 1 && line.toLowerCase(Locale.ROOT).startsWith("date"))) {
+                    continue;
+                }
+                var fields = line.split(",", -1);
+                if (fields.length != 4) {
+                    throw new IllegalArgumentException("Invalid CSV, expected 4 fields at line " + lineNumber + ": " + line);
+                }
+                try {
+                    addRate(
+                        CurrencyUnit.of(fields[1].trim()),
+                        CurrencyUnit.of(fields[2].trim()),
+                        LocalDate.parse(fields[0].trim()),
+                        new BigDecimal(fields[3].trim()));
+                } catch (IllegalArgumentException | DateTimeParseException ex) {
+                    throw new IllegalArgumentException("Invalid CSV at line " + lineNumber + ": " + line, ex);
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Builds the store.
+         *
+         * @return the store, never null
+         * @throws IllegalArgumentException if the rates of a pair cannot be held in fixed-point
+         */
+        public HistoricalRateStore build() {
+            var series = new HashMap<CurrencyUnit, Map<CurrencyUnit, Series>>();
+            var pairCount = 0;
+            for (var baseEntry : rates.entrySet()) {
+                var counters = new HashMap<CurrencyUnit, Series>();
+                for (var entry : baseEntry.getValue().entrySet()) {
+                    counters.put(entry.getKey(), toSeries(baseEntry.getKey(), entry.getKey(), entry.getValue()));
+                    pairCount++;
+                }
+                series.put(baseEntry.getKey(), counters);
+            }
+            return new HistoricalRateStore(series, pairCount);
+        }
+
+        // converts the rates of a pair to fixed-point
+        private static Series toSeries(CurrencyUnit base, CurrencyUnit counter, TreeMap<Integer, BigDecimal> pairRates) {
+            var scale = pairRates.values().stream().mapToInt(rate -> Math.max(rate.scale(), 0)).max().getAsInt();
+            var days = new int[pairRates.size()];
+            var values = new long[pairRates.size()];
+            var i = 0;
+            for (var rate : pairRates.entrySet()) {
+                days[i] = rate.getKey();
+                var unscaled = rate.getValue().setScale(scale).unscaledValue();
+                if (unscaled.bitLength() >= 64) {
+                    throw new IllegalArgumentException("Rates cannot be held in fixed-point: " + base.getCode() + counter.getCode());
+                }
+                values[i++] = unscaled.longValue();
+            }
+            return new Series(scale, IntBuffer.wrap(days), LongBuffer.wrap(values));
+        }
+    }
+
+}
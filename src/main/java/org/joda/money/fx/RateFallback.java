@@ -0,0 +1,42 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money.fx;
+
+/**
+ * Defines which rate to use when there is no rate on the requested date.
+ * <p>
+ * This class is immutable and thread-safe.
+ */
+public enum RateFallback {
+
+    /**
+     * Only a rate on the requested date is used.
+     */
+    EXACT,
+    /**
+     * The latest rate on or before the requested date is used.
+     */
+    PREVIOUS,
+    /**
+     * The earliest rate on or after the requested date is used.
+     */
+    NEXT,
+    /**
+     * The rate closest to the requested date is used, preferring the earlier rate if two are equally close.
+     */
+    NEAREST;
+
+}
@@ -0,0 +1,551 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money.stats;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+
+import org.joda.money.BigMoney;
+import org.joda.money.BigMoneyProvider;
+import org.joda.money.CurrencyMismatchException;
+import org.joda.money.CurrencyUnit;
+import org.joda.money.Money;
+
+/**
+ * A mergeable sketch of the distribution of monetary amounts, used to estimate quantiles.
+ * <p>
+ * This is a DDSketch over amounts in minor units. Amounts are counted in bins whose
+ * boundaries grow geometrically, such that any quantile is estimated to within the
+ * relative accuracy of the sketch. For example, with a relative accuracy of 1%,
+ * the estimate of a quantile whose true value is USD 200.00 is between USD 198.00 and USD 202.00.
+ * <p>
+ * The memory used is bounded by the maximum number of bins.
+ * If the amounts span more bins than the maximum, the bins of the smallest magnitudes are combined,
+ * so that the accuracy of the high quantiles is retained.
+ * <p>
+ * Sketches in the same currency with the same relative accuracy can be merged,
+ * allowing sketches built by different threads or JVMs to be combined.
+ * The {@link #toByteArray()} and {@link #fromByteArray(byte[])} methods provide
+ * a compact binary form for transfer between JVMs.
+ * <p>
+ * This class is mutable and intended for use by a single thread.
+ */
+public final class MoneyQuantileSketch {
+
+    /** The default relative accuracy. */
+    private static final double DEFAULT_RELATIVE_ACCURACY = 0.01;
+    /** The default maximum number of bins. */
+    private static final int DEFAULT_MAX_BINS = 2048;
+    /** The version of the binary format. */
+    private static final int FORMAT_VERSION = 1;
+    /** Amounts of a smaller magnitude, in minor units, are counted as zero. */
+    private static final double MIN_MAGNITUDE = 0.5d;
+
+    /** The currency. */
+    private final CurrencyUnit currency;
+    /** The relative accuracy. */
+    private final double relativeAccuracy;
+    /** The maximum number of bins for each sign. */
+    private final int maxBins;
+    /** The ratio between the boundaries of adjacent bins. */
+    private final double gamma;
+    /** The natural logarithm of gamma. */
+    private final double logGamma;
+    /** The bins of positive amounts. */
+    private final Bins positive;
+    /** The bins of the magnitude of negative amounts. */
+    private final Bins negative;
+    /** The number of zero amounts. */
+    private long zeroCount;
+    /** The minimum amount in minor units. */
+    private double min = Double.POSITIVE_INFINITY;
+    /** The maximum amount in minor units. */
+    private double max = Double.NEGATIVE_INFINITY;
+
+    //-----------------------------------------------------------------------
+    /**
+     * Creates an empty sketch with a relative accuracy of 1% and a maximum of 2048 bins.
+     *
+     * @param currency  the currency of the amounts, not null
+     */
+    public MoneyQuantileSketch(CurrencyUnit currency) {
+        this(currency, DEFAULT_RELATIVE_ACCURACY, DEFAULT_MAX_BINS);
+    }
+
+    /**
+     * Creates an empty sketch.
+     * <p>
+     * The maximum number of bins applies separately to positive and negative amounts.
+     * With a relative accuracy of 1%, 2048 bins covers amounts over 17 orders of magnitude.
+     *
+     * @param currency  the currency of the amounts, not null
+     * @param relativeAccuracy  the relative accuracy of quantiles, greater than 0 and less than 1
+     * @param maxBins  the maximum number of bins, at least 16
+     * @throws IllegalArgumentException if the relative accuracy or maximum number of bins is invalid
+     */
+    public MoneyQuantileSketch(CurrencyUnit currency, double relativeAccuracy, int maxBins) {
+        StatsUtils.checkNotNull(currency, "CurrencyUnit must not be null");
+        if (!(relativeAccuracy > 0d && relativeAccuracy < 1d)) {
+            throw new IllegalArgumentException("Relative accuracy must be greater than 0 and less than 1");
+        }
+        if (maxBins < 16) {
+            throw new IllegalArgumentException("Maximum number of bins must be at least 16");
+        }
+        this.currency = currency;
+        this.relativeAccuracy = relativeAccuracy;
+        this.maxBins = maxBins;
+        this.gamma = (1d + relativeAccuracy) / (1d - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+        this.positive = new Bins(maxBins);
+        this.negative = new Bins(maxBins);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the currency of the amounts.
+     *
+     * @return the currency, never null
+     */
+    public CurrencyUnit getCurrencyUnit() {
+        return currency;
+    }
+
+    /**
+     * Gets the relative accuracy of quantiles.
+     *
+     * @return the relative accuracy
+     */
+    public double getRelativeAccuracy() {
+        return relativeAccuracy;
+    }
+
+    /**
+     * Gets the maximum number of bins.
+     *
+     * @return the maximum number of bins
+     */
+    public int getMaxBins() {
+        return maxBins;
+    }
+
+    /**
+     * Gets the number of amounts recorded.
+     *
+     * @return the count
+     */
+    public long getCount() {
+        return negative.total + zeroCount + positive.total;
+    }
+
+    /**
+     * Checks if no amounts have been recorded.
+     *
+     * @return true if empty
+     */
+    public boolean isEmpty() {
+        return getCount() == 0;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Records an amount.
+     *
+     * @param moneyProvider  the amount to record, in the currency of the sketch, not null
+     * @return this sketch, for chaining, never null
+     * @throws CurrencyMismatchException if the currency differs
+     */
+    public MoneyQuantileSketch add(BigMoneyProvider moneyProvider) {
+        var money = BigMoney.of(moneyProvider);
+        if (!currency.equals(money.getCurrencyUnit())) {
+            throw new CurrencyMismatchException(currency, money.getCurrencyUnit());
+        }
+        return addValue(money.getAmount().scaleByPowerOfTen(currency.getDecimalPlaces()).doubleValue());
+    }
+
+    /**
+     * Records an amount in minor units.
+     * <p>
+     * This is equivalent to {@code add(Money.ofMinor(currency, amountMinor))} without creating the {@code Money}.
+     *
+     * @param amountMinor  the amount to record in the minor units of the currency
+     * @return this sketch, for chaining, never null
+     */
+    public MoneyQuantileSketch addMinor(long amountMinor) {
+        return addValue(amountMinor);
+    }
+
+    // records an amount in minor units
+    private MoneyQuantileSketch addValue(double value) {
+        if (value >= MIN_MAGNITUDE) {
+            positive.add(index(value), 1);
+        } else if (value <= -MIN_MAGNITUDE) {
+            negative.add(index(-value), 1);
+        } else {
+            zeroCount++;
+        }
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        return this;
+    }
+
+    /**
+     * Merges another sketch into this one.
+     * <p>
+     * After merging, this sketch describes the amounts recorded by both sketches.
+     * The other sketch is not altered.
+     *
+     * @param other  the sketch to merge, in the same currency with the same relative accuracy, not null
+     * @return this sketch, for chaining, never null
+     * @throws CurrencyMismatchException if the currency differs
+     * @throws IllegalArgumentException if the relative accuracy differs
+     */
+    public MoneyQuantileSketch merge(MoneyQuantileSketch other) {
+        StatsUtils.checkNotNull(other, "MoneyQuantileSketch must not be null");
+        if (!currency.equals(other.currency)) {
+            throw new CurrencyMismatchException(currency, other.currency);
+        }
+        if (relativeAccuracy != other.relativeAccuracy) {
+            throw new IllegalArgumentException("Sketches with a different relative accuracy cannot be merged");
+        }
+        positive.merge(other.positive);
+        negative.merge(other.negative);
+        zeroCount += other.zeroCount;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        return this;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Estimates the amount at the specified quantile.
+     * <p>
+     * For example, a quantile of 0.95 estimates the 95th percentile.
+     * The estimate is rounded to the scale of the currency.
+     * A quantile of 0 or 1 returns the minimum or maximum amount recorded.
+     *
+     * @param quantile  the quantile, from 0 to 1 inclusive
+     * @return the estimated amount, never null
+     * @throws IllegalArgumentException if the quantile is invalid
+     * @throws NoSuchElementException if no amounts have been recorded
+     */
+    public Money getQuantile(double quantile) {
+        if (!(quantile >= 0d && quantile <= 1d)) {
+            throw new IllegalArgumentException("Quantile must be from 0 to 1");
+        }
+        var count = getCount();
+        if (count == 0) {
+            throw new NoSuchElementException("No amounts have been recorded");
+        }
+        var rank = quantile * (count - 1);
+        double value;
+        if (quantile == 0d) {
+            value = min;
+        } else if (quantile == 1d) {
+            value = max;
+        } else if (rank < negative.total) {
+            value = -value(negative.indexAtRank(negative.total - 1 - rank));
+        } else if (rank < negative.total + zeroCount) {
+            value = 0d;
+        } else {
+            value = value(positive.indexAtRank(rank - negative.total - zeroCount));
+        }
+        return toMoney(Math.max(min, Math.min(max, value)));
+    }
+
+    /**
+     * Gets the minimum amount recorded.
+     * <p>
+     * The amount is held as a {@code double} in minor units, thus is exact unless
+     * the amount has a greater scale than the currency or more than 15 significant digits.
+     *
+     * @return the minimum, never null
+     * @throws NoSuchElementException if no amounts have been recorded
+     */
+    public Money getMin() {
+        return getQuantile(0d);
+    }
+
+    /**
+     * Gets the maximum amount recorded.
+     * <p>
+     * The amount is held as a {@code double} in minor units, thus is exact unless
+     * the amount has a greater scale than the currency or more than 15 significant digits.
+     *
+     * @return the maximum, never null
+     * @throws NoSuchElementException if no amounts have been recorded
+     */
+    public Money getMax() {
+        return getQuantile(1d);
+    }
+
+    // the bin index of a positive value
+    private int index(double value) {
+        return (int) Math.ceil(Math.log(value) / logGamma);
+    }
+
+    // the value representing a bin, which is within the relative accuracy of all values in the bin
+    private double value(int index) {
+        return 2d * Math.exp(index * logGamma) / (1d + gamma);
+    }
+
+    // converts a value in minor units to money
+    private Money toMoney(double valueMinor) {
+        var amount = BigDecimal.valueOf(valueMinor).scaleByPowerOfTen(-currency.getDecimalPlaces());
+        return Money.of(currency, amount, RoundingMode.HALF_EVEN);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Converts this sketch to a compact binary form.
+     * <p>
+     * The result can be converted back using {@link #fromByteArray(byte[])}.
+     * The size depends on the number of bins in use, not the number of amounts recorded.
+     *
+     * @return the binary form, never null
+     */
+    public byte[] toByteArray() {
+        var out = new ByteArrayOutputStream(64 + positive.span() + negative.span());
+        out.write(FORMAT_VERSION);
+        out.writeBytes(currency.getCode().getBytes(StandardCharsets.US_ASCII));
+        writeLong(out, Double.doubleToLongBits(relativeAccuracy));
+        writeVarint(out, maxBins);
+        writeVarint(out, zeroCount);
+        writeLong(out, Double.doubleToLongBits(min));
+        writeLong(out, Double.doubleToLongBits(max));
+        positive.write(out);
+        negative.write(out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Obtains a sketch from the binary form.
+     *
+     * @param bytes  the binary form, as produced by {@link #toByteArray()}, not null
+     * @return the sketch, never null
+     * @throws IllegalArgumentException if the binary form is invalid
+     * @throws org.joda.money.IllegalCurrencyException if the currency is unknown
+     */
+    public static MoneyQuantileSketch fromByteArray(byte[] bytes) {
+        StatsUtils.checkNotNull(bytes, "Bytes must not be null");
+        var in = ByteBuffer.wrap(bytes);
+        try {
+            if (in.get() != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Invalid sketch data: Unknown format version");
+            }
+            var code = new byte[3];
+            in.get(code);
+            var currency = CurrencyUnit.of(new String(code, StandardCharsets.US_ASCII));
+            var relativeAccuracy = Double.longBitsToDouble(in.getLong());
+            var maxBins = readCount(in);
+            if (maxBins > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Invalid sketch data: Maximum number of bins too large");
+            }
+            var sketch = new MoneyQuantileSketch(currency, relativeAccuracy, (int) maxBins);
+            sketch.zeroCount = readCount(in);
+            sketch.min = Double.longBitsToDouble(in.getLong());
+            sketch.max = Double.longBitsToDouble(in.getLong());
+            sketch.positive.read(in);
+            sketch.negative.read(in);
+            if (in.hasRemaining() || (!sketch.isEmpty() && !(sketch.min <= sketch.max))) {
+                throw new IllegalArgumentException("Invalid sketch data: Inconsistent content");
+            }
+            return sketch;
+        } catch (BufferUnderflowException ex) {
+            throw new IllegalArgumentException("Invalid sketch data: Too short", ex);
+        }
+    }
+
+    private static void writeLong(ByteArrayOutputStream out, long value) {
+        for (var shift = 56; shift >= 0; shift -= 8) {
+            out.write((int) (value >>> shift));
+        }
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarint(ByteBuffer in) {
+        var result = 0L;
+        for (var shift = 0; shift < 64; shift += 7) {
+            var b = in.get();
+            result |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Invalid sketch data: Varint too long");
+    }
+
+    private static long readCount(ByteBuffer in) {
+        var count = readVarint(in);
+        if (count < 0) {
+            throw new IllegalArgumentException("Invalid sketch data: Negative count");
+        }
+        return count;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the sketch as a string.
+     *
+     * @return the string, never null
+     */
+    @Override
+    public String toString() {
+        return "MoneyQuantileSketch[" + currency + ", count=" + getCount() + ", relativeAccuracy=" + relativeAccuracy + "]";
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * The counts of a contiguous range of bins, collapsing the lowest bins when the range is too large.
+     */
+    private static final class Bins {
+        /** The maximum number of bins. */
+        private final int maxBins;
+        /** The counts, where the count of bin index {@code i} is at {@code i - offset}. */
+        private long[] counts = new long[0];
+        /** The bin index of the first element of the array. */
+        private int offset;
+        /** The lowest bin index in use. */
+        private int minIndex;
+        /** The highest bin index in use. */
+        private int maxIndex;
+        /** The total count. */
+        private long total;
+
+        Bins(int maxBins) {
+            this.maxBins = maxBins;
+        }
+
+        int span() {
+            return total == 0 ? 0 : maxIndex - minIndex + 1;
+        }
+
+        void add(int index, long count) {
+            if (total == 0) {
+                minIndex = index;
+                maxIndex = index;
+            } else if (index < minIndex) {
+                // collapse into the lowest bin that can be kept
+                index = Math.max(index, maxIndex - maxBins + 1);
+                minIndex = index;
+            } else if (index > maxIndex) {
+                var newMinIndex = Math.max(minIndex, index - maxBins + 1);
+                if (newMinIndex > minIndex) {
+                    var collapsed = 0L;
+                    var end = Math.min(newMinIndex - 1, maxIndex);
+                    for (var i = minIndex; i <= end; i++) {
+                        collapsed += counts[i - offset];
+                        counts[i - offset] = 0;
+                    }
+                    minIndex = newMinIndex;
+                    maxIndex = index;
+                    ensureCapacity();
+                    counts[newMinIndex - offset] += collapsed;
+                } else {
+                    maxIndex = index;
+                }
+            }
+            ensureCapacity();
+            counts[index - offset] += count;
+            total += count;
+        }
+
+        private void ensureCapacity() {
+            if (minIndex >= offset && maxIndex < offset + counts.length) {
+                return;
+            }
+            var span = maxIndex - minIndex + 1;
+            var length = Math.max(16, span + span / 2);
+            var newOffset = minIndex - (length - span) / 2;
+            var newCounts = new long[length];
+            var from = Math.max(offset, newOffset);
+            var to = Math.min(offset + counts.length, newOffset + length);
+            if (from < to) {
+                System.arraycopy(counts, from - offset, newCounts, from - newOffset, to - from);
+            }
+            counts = newCounts;
+            offset = newOffset;
+        }
+
+        void merge(Bins other) {
+            if (other.total == 0) {
+                return;
+            }
+            // add from the highest, so that the lowest are collapsed
+            for (var i = other.maxIndex; i >= other.minIndex; i--) {
+                var count = other.counts[i - other.offset];
+                if (count != 0) {
+                    add(i, count);
+                }
+            }
+        }
+
+        int indexAtRank(double rank) {
+            var cumulative = 0L;
+            for (var i = minIndex; i < maxIndex; i++) {
+                cumulative += counts[i - offset];
+                if (cumulative > rank) {
+                    return i;
+                }
+            }
+            return maxIndex;
+        }
+
+        void write(ByteArrayOutputStream out) {
+            var span = span();
+            writeVarint(out, span);
+            if (span > 0) {
+                writeVarint(out, (minIndex << 1) ^ (minIndex >> 31));
+                for (var i = minIndex; i <= maxIndex; i++) {
+                    writeVarint(out, counts[i - offset]);
+                }
+            }
+        }
+
+        void read(ByteBuffer in) {
+            var span = readCount(in);
+            if (span == 0) {
+                return;
+            }
+            if (span > maxBins || span > in.remaining()) {
+                throw new IllegalArgumentException("Invalid sketch data: Too many bins");
+            }
+            var zigzag = readVarint(in);
+            var first = (int) (zigzag >>> 1) ^ -(int) (zigzag & 1);
+            if ((zigzag >>> 32) != 0 || (long) first + span - 1 > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Invalid sketch data: Invalid bin index");
+            }
+            for (var i = 0; i < span; i++) {
+                var count = readCount(in);
+                if (count > 0) {
+                    add(first + i, count);
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,309 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money.stats;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.joda.money.CurrencyUnit;
+import org.joda.money.Money;
+
+/**
+ * Totals of monetary amounts per currency over a sliding window of time.
+ * <p>
+ * This answers questions such as "how much has been spent in each currency in the last 60 seconds".
+ * The window is divided into a fixed number of buckets of equal duration, held in a ring.
+ * Each bucket holds the sum of the amounts in minor units for each currency.
+ * A running total of the buckets in the window is maintained for each currency,
+ * thus the total for a currency is obtained in constant time.
+ * As time passes, the oldest bucket is removed from the running total and reused.
+ * <p>
+ * Amounts are normally added at the current time of the clock.
+ * Amounts can also be added with an earlier timestamp, such as when events arrive out of order.
+ * Such amounts are added to the bucket for their timestamp if it is within the late tolerance
+ * and the window, and are otherwise ignored. Amounts with a timestamp later than the clock
+ * are added to the current bucket.
+ * <p>
+ * The clock can be specified, allowing tests to control the passage of time.
+ * The precision of the window is the duration of a bucket, thus an amount is removed
+ * from the totals between {@code window - bucketDuration} and {@code window} after it was added.
+ * <p>
+ * Amounts are limited to the capacity of a {@code long} in minor units.
+ * <p>
+ * This class is mutable and intended for use by a single thread.
+ */
+public final class MoneySlidingWindow {
+
+    /** The clock. */
+    private final Clock clock;
+    /** The duration of the window. */
+    private final Duration window;
+    /** The number of buckets. */
+    private final int bucketCount;
+    /** The duration of each bucket in milliseconds. */
+    private final long bucketMillis;
+    /** The maximum lateness of an amount in milliseconds. */
+    private final long toleranceMillis;
+    /** The slot of each currency. */
+    private final Map<CurrencyUnit, Integer> slots = new HashMap<>();
+    /** The currency of each slot. */
+    private CurrencyUnit[] currencies = new CurrencyUnit[4];
+    /** The sums of each bucket in minor units, indexed by slot then ring position. */
+    private long[][] buckets = new long[4][];
+    /** The running total of the window in minor units, indexed by slot. */
+    private long[] totals = new long[4];
+    /** The number of slots in use. */
+    private int slotCount;
+    /** The bucket number of the current time, being the epoch millisecond divided by the bucket duration. */
+    private long currentBucket;
+
+    //-----------------------------------------------------------------------
+    /**
+     * Creates an instance using the system UTC clock, accepting late amounts anywhere in the window.
+     *
+     * @param window  the duration of the window, positive, not null
+     * @param bucketCount  the number of buckets, which must divide the window into whole milliseconds
+     * @throws IllegalArgumentException if the window or bucket count is invalid
+     */
+    public MoneySlidingWindow(Duration window, int bucketCount) {
+        this(window, bucketCount, window, Clock.systemUTC());
+    }
+
+    /**
+     * Creates an instance.
+     *
+     * @param window  the duration of the window, positive, not null
+     * @param bucketCount  the number of buckets, which must divide the window into whole milliseconds
+     * @param lateTolerance  the maximum lateness of an amount relative to the clock, zero or positive, not null
+     * @param clock  the clock to use, not null
+     * @throws IllegalArgumentException if the window, bucket count or tolerance is invalid
+     */
+    public MoneySlidingWindow(Duration window, int bucketCount, Duration lateTolerance, Clock clock) {
+        StatsUtils.checkNotNull(window, "Window must not be null");
+        StatsUtils.checkNotNull(lateTolerance, "Late tolerance must not be null");
+        StatsUtils.checkNotNull(clock, "Clock must not be null");
+        if (window.isNegative() || window.isZero()) {
+            throw new IllegalArgumentException("Window must be positive");
+        }
+        if (bucketCount < 1) {
+            throw new IllegalArgumentException("Bucket count must be at least one");
+        }
+        var windowMillis = window.toMillis();
+        if (windowMillis % bucketCount != 0 || !window.equals(Duration.ofMillis(windowMillis))) {
+            throw new IllegalArgumentException("Bucket count must divide the window into whole milliseconds");
+        }
+        if (lateTolerance.isNegative()) {
+            throw new IllegalArgumentException("Late tolerance must not be negative");
+        }
+        this.clock = clock;
+        this.window = window;
+        this.bucketCount = bucketCount;
+        this.bucketMillis = windowMillis / bucketCount;
+        this.toleranceMillis = lateTolerance.toMillis();
+        this.currentBucket = Math.floorDiv(clock.millis(), bucketMillis);
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the duration of the window.
+     *
+     * @return the window, never null
+     */
+    public Duration getWindow() {
+        return window;
+    }
+
+    /**
+     * Gets the number of buckets in the window.
+     *
+     * @return the number of buckets
+     */
+    public int getBucketCount() {
+        return bucketCount;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Adds an amount at the current time of the clock.
+     *
+     * @param money  the amount to add, not null
+     * @throws ArithmeticException if the amount or total exceeds the capacity of a {@code long} in minor units
+     */
+    public void add(Money money) {
+        StatsUtils.checkNotNull(money, "Money must not be null");
+        var now = clock.millis();
+        advance(now);
+        addMinorAt(money.getCurrencyUnit(), toMinor(money), now, now);
+    }
+
+    /**
+     * Adds an amount at the specified time.
+     * <p>
+     * The amount is ignored if it is later than the late tolerance or outside the window.
+     *
+     * @param money  the amount to add, not null
+     * @param timestamp  the time of the amount, not null
+     * @return true if the amount was added, false if it was ignored
+     * @throws ArithmeticException if the amount or total exceeds the capacity of a {@code long} in minor units
+     */
+    public boolean add(Money money, Instant timestamp) {
+        StatsUtils.checkNotNull(money, "Money must not be null");
+        StatsUtils.checkNotNull(timestamp, "Timestamp must not be null");
+        return addMinor(money.getCurrencyUnit(), toMinor(money), timestamp.toEpochMilli());
+    }
+
+    /**
+     * Adds an amount in minor units at the specified epoch millisecond.
+     * <p>
+     * The amount is ignored if it is later than the late tolerance or outside the window.
+     *
+     * @param currency  the currency of the amount, not null
+     * @param amountMinor  the amount in minor units
+     * @param epochMilli  the time of the amount as milliseconds from the epoch
+     * @return true if the amount was added, false if it was ignored
+     * @throws ArithmeticException if the total exceeds the capacity of a {@code long} in minor units
+     */
+    public boolean addMinor(CurrencyUnit currency, long amountMinor, long epochMilli) {
+        StatsUtils.checkNotNull(currency, "CurrencyUnit must not be null");
+        var now = clock.millis();
+        advance(now);
+        return addMinorAt(currency, amountMinor, epochMilli, now);
+    }
+
+    // adds the amount, having advanced the clock
+    private boolean addMinorAt(CurrencyUnit currency, long amountMinor, long epochMilli, long now) {
+        if (now - epochMilli > toleranceMillis) {
+            return false;
+        }
+        var bucket = Math.min(Math.floorDiv(epochMilli, bucketMillis), currentBucket);
+        if (bucket <= currentBucket - bucketCount) {
+            return false;
+        }
+        var slot = slot(currency);
+        var position = (int) Math.floorMod(bucket, (long) bucketCount);
+        var newTotal = Math.addExact(totals[slot], amountMinor);
+        var sums = buckets[slot];
+        sums[position] = Math.addExact(sums[position], amountMinor);
+        totals[slot] = newTotal;
+        return true;
+    }
+
+    // finds or creates the slot for the currency
+    private int slot(CurrencyUnit currency) {
+        var slot = slots.get(currency);
+        if (slot != null) {
+            return slot;
+        }
+        if (slotCount == currencies.length) {
+            var length = slotCount * 2;
+            currencies = Arrays.copyOf(currencies, length);
+            buckets = Arrays.copyOf(buckets, length);
+            totals = Arrays.copyOf(totals, length);
+        }
+        currencies[slotCount] = currency;
+        buckets[slotCount] = new long[bucketCount];
+        slots.put(currency, slotCount);
+        return slotCount++;
+    }
+
+    // moves the window forward, removing expired buckets from the totals
+    private void advance(long now) {
+        var bucket = Math.floorDiv(now, bucketMillis);
+        if (bucket <= currentBucket) {
+            return;
+        }
+        var steps = Math.min(bucket - currentBucket, bucketCount);
+        for (var step = 1; step <= steps; step++) {
+            // the position of the new bucket holds the bucket that has left the window
+            var position = (int) Math.floorMod(bucket - steps + step, (long) bucketCount);
+            for (var slot = 0; slot < slotCount; slot++) {
+                var sums = buckets[slot];
+                totals[slot] -= sums[position];
+                sums[position] = 0;
+            }
+        }
+        currentBucket = bucket;
+    }
+
+    private static long toMinor(Money money) {
+        var unscaled = money.getAmount().unscaledValue();
+        if (unscaled.bitLength() >= 64) {
+            throw new ArithmeticException("Amount exceeds capacity of long in minor units: " + money);
+        }
+        return unscaled.longValue();
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the total of the amounts in the window in the specified currency.
+     * <p>
+     * If no amounts have been added in the currency, zero is returned.
+     *
+     * @param currency  the currency, not null
+     * @return the total, never null
+     */
+    public Money getTotal(CurrencyUnit currency) {
+        return Money.ofMinor(currency, getTotalMinor(currency));
+    }
+
+    /**
+     * Gets the total of the amounts in the window in the specified currency in minor units.
+     * <p>
+     * If no amounts have been added in the currency, zero is returned.
+     *
+     * @param currency  the currency, not null
+     * @return the total in minor units
+     */
+    public long getTotalMinor(CurrencyUnit currency) {
+        StatsUtils.checkNotNull(currency, "CurrencyUnit must not be null");
+        advance(clock.millis());
+        var slot = slots.get(currency);
+        return slot != null ? totals[slot] : 0;
+    }
+
+    /**
+     * Gets the totals of the amounts in the window for each currency.
+     * <p>
+     * Every currency that has been added is included, even if the total is now zero.
+     *
+     * @return the totals, sorted by currency, never null
+     */
+    public Map<CurrencyUnit, Money> getTotals() {
+        advance(clock.millis());
+        var result = new TreeMap<CurrencyUnit, Money>();
+        for (var slot = 0; slot < slotCount; slot++) {
+            result.put(currencies[slot], Money.ofMinor(currencies[slot], totals[slot]));
+        }
+        return result;
+    }
+
+    //-----------------------------------------------------------------------
+    /**
+     * Gets the totals as a string.
+     *
+     * @return the string, never null
+     */
+    @Override
+    public String toString() {
+        return "MoneySlidingWindow[" + window + ", totals=" + getTotals().values() + "]";
+    }
+
+}
@@ -24,7 +24,10 @@ open module org.joda.money {
 
     // all packages are exported
     exports org.joda.money;
+    exports org.joda.money.concurrent;
     exports org.joda.money.format;
+    exports org.joda.money.fx;
+    exports org.joda.money.stats;
 
     requires transitive org.junit.jupiter.api;
     requires transitive org.junit.jupiter.engine;
@@ -0,0 +1,75 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Clock for tests that only moves when advanced.
+ * <p>
+ * A clock obtained from {@link #withZone(ZoneId)} shares the time of this clock.
+ */
+public final class ManualClock extends Clock {
+
+    /** The current instant, shared by clocks in other zones. */
+    private final AtomicReference<Instant> instant;
+    /** The zone. */
+    private final ZoneId zone;
+
+    /**
+     * Creates a clock in UTC.
+     *
+     * @param instant  the initial instant, not null
+     */
+    public ManualClock(Instant instant) {
+        this(new AtomicReference<>(instant), ZoneOffset.UTC);
+    }
+
+    private ManualClock(AtomicReference<Instant> instant, ZoneId zone) {
+        this.instant = instant;
+        this.zone = zone;
+    }
+
+    /**
+     * Moves the clock forward.
+     *
+     * @param amount  the amount to move by, not null
+     */
+    public void advance(Duration amount) {
+        instant.updateAndGet(current -> current.plus(amount));
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return new ManualClock(instant, zone);
+    }
+
+    @Override
+    public Instant instant() {
+        return instant.get();
+    }
+
+}
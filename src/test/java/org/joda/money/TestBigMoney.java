@@ -360,6 +360,13 @@ class TestBigMoney {
             .isThrownBy(() -> BigMoney.ofMinor((CurrencyUnit) null, 234));
     }
 
+    @Test
+    void test_factory_ofMinor_Currency_long_cached() {
+        assertThat(BigMoney.ofMinor(GBP, 234)).isSameAs(BigMoney.ofMinor(GBP, 234));
+        assertThat(BigMoney.ofMinor(GBP, 234)).isSameAs(Money.ofMinor(GBP, 234).toBigMoney());
+        assertThat(BigMoney.ofMinor(GBP, 5000)).isNotSameAs(BigMoney.ofMinor(GBP, 5000)).isEqualTo(BigMoney.parse("GBP 50.00"));
+    }
+
     //-----------------------------------------------------------------------
     // zero(Currency)
     //-----------------------------------------------------------------------
@@ -377,6 +384,13 @@ class TestBigMoney {
             .isThrownBy(() -> BigMoney.zero((CurrencyUnit) null));
     }
 
+    @Test
+    void test_factory_zero_Currency_cached() {
+        assertThat(BigMoney.zero(GBP)).isSameAs(BigMoney.zero(GBP));
+        assertThat(BigMoney.zero(GBP, 2)).isSameAs(BigMoney.zero(GBP, 2)).isSameAs(Money.zero(GBP).toBigMoney());
+        assertThat(BigMoney.zero(GBP, 3)).isNotSameAs(BigMoney.zero(GBP, 3));
+    }
+
     //-----------------------------------------------------------------------
     // zero(Currency, int)
     //-----------------------------------------------------------------------
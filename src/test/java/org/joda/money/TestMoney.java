@@ -30,8 +30,11 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Modifier;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.Collections;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -320,6 +323,16 @@ class TestMoney {
             .isThrownBy(() -> Money.ofMinor((CurrencyUnit) null, 234));
     }
 
+    @Test
+    void test_factory_ofMinor_Currency_long_cached() {
+        assertThat(Money.ofMinor(GBP, 234)).isSameAs(Money.ofMinor(GBP, 234));
+        assertThat(Money.ofMinor(GBP, 1023)).isSameAs(Money.ofMinor(GBP, 1023));
+        assertThat(Money.ofMinor(GBP, 1024)).isNotSameAs(Money.ofMinor(GBP, 1024)).isEqualTo(Money.parse("GBP 10.24"));
+        assertThat(Money.ofMinor(GBP, -1)).isNotSameAs(Money.ofMinor(GBP, -1)).isEqualTo(Money.parse("GBP -0.01"));
+        assertThat(Money.ofMinor(JPY, 234)).isEqualTo(Money.parse("JPY 234"));
+        assertThat(Money.ofMinor(GBP, 0)).isSameAs(Money.zero(GBP));
+    }
+
     //-----------------------------------------------------------------------
     // zero(Currency)
     //-----------------------------------------------------------------------
@@ -337,6 +350,13 @@ class TestMoney {
             .isThrownBy(() -> Money.zero((CurrencyUnit) null));
     }
 
+    @Test
+    void test_factory_zero_Currency_cached() {
+        assertThat(Money.zero(GBP)).isSameAs(Money.zero(GBP));
+        assertThat(Money.zero(JPY)).isSameAs(Money.zero(JPY)).isNotEqualTo(Money.zero(GBP));
+        assertThat(Money.zero(JPY).getAmount().scale()).isEqualTo(0);
+    }
+
     //-----------------------------------------------------------------------
     // from(BigMoneyProvider)
     //-----------------------------------------------------------------------
@@ -858,6 +878,106 @@ class TestMoney {
         }
     }
 
+    // serializes the values, using the compact format if requested
+    private static byte[] serialize(List<?> values, boolean compact) throws IOException {
+        var wrapped = new ArrayList<Object>();
+        for (var value : values) {
+            wrapped.add(value instanceof Money ? new Ser(Ser.MONEY, value, compact) : new Ser(Ser.BIG_MONEY, value, compact));
+        }
+        var baos = new ByteArrayOutputStream();
+        try (var oos = new ObjectOutputStream(baos)) {
+            oos.writeObject(wrapped);
+        }
+        return baos.toByteArray();
+    }
+
+    private static Object deserialize(byte[] bytes) throws Exception {
+        try (var ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return ois.readObject();
+        }
+    }
+
+    @Test
+    void test_serialization_originalFormatByDefault() throws Exception {
+        var list = List.of(GBP_2_34, BigMoney.parse("USD -12.345"), Money.parse("GBP 5.00"));
+        var baos = new ByteArrayOutputStream();
+        try (var oos = new ObjectOutputStream(baos)) {
+            oos.writeObject(new ArrayList<>(list));
+        }
+        assertThat(baos.toByteArray()).isEqualTo(serialize(list, false));
+        assertThat(deserialize(baos.toByteArray())).isEqualTo(list);
+    }
+
+    @Test
+    void test_serialization_compact() throws Exception {
+        var list = new ArrayList<Object>();
+        for (var i = 0; i < 100; i++) {
+            list.add(Money.ofMinor(GBP, i));
+            list.add(Money.ofMinor(USD, -i));
+            list.add(BigMoney.ofScale(EUR, i, 3));
+        }
+        list.add(Money.of(USD, new BigDecimal("123456789012345678901234567890.12")));
+        list.add(BigMoney.of(JPY, new BigDecimal("-123456789012345678901234567890.123")));
+        assertThat(deserialize(serialize(list, true))).isEqualTo(list);
+    }
+
+    @Test
+    void test_serialization_list() throws Exception {
+        var list = new ArrayList<Object>();
+        for (var i = 0; i < 100; i++) {
+            list.add(Money.ofMinor(GBP, i));
+            list.add(Money.ofMinor(USD, -i));
+            list.add(BigMoney.ofScale(EUR, i, 3));
+        }
+        list.add(Money.of(USD, new BigDecimal("123456789012345678901234567890.12")));
+        list.add(BigMoney.of(JPY, new BigDecimal("-123456789012345678901234567890.123")));
+        var baos = new ByteArrayOutputStream();
+        try (var oos = new ObjectOutputStream(baos)) {
+            oos.writeObject(list);
+            oos.writeObject(Money.parse("USD 1.50"));
+            oos.close();
+            var ois = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray()));
+            assertThat(ois.readObject()).isEqualTo(list);
+            assertThat(ois.readObject()).isEqualTo(Money.parse("USD 1.50"));
+        }
+    }
+
+    @Test
+    void test_serialization_manyCurrencyInstances() throws Exception {
+        // each instance is written separately, but all are read as the registered currency
+        var list = new ArrayList<Money>();
+        for (var i = 0; i < 300; i++) {
+            list.add(Money.of(new CurrencyUnit("GBP", (short) 826, (short) 2), BigDecimal.valueOf(i)));
+            list.add(Money.of(GBP, BigDecimal.valueOf(i)));
+        }
+        var input = (List<?>) deserialize(serialize(list, true));
+        assertThat(input).isEqualTo(list);
+        assertThat(input).allSatisfy(money -> assertThat(((Money) money).getCurrencyUnit()).isSameAs(GBP));
+    }
+
+    @Test
+    void test_serialization_originalFormat() throws Exception {
+        // list of GBP 2.34, BigMoney USD -12.345 and GBP 5.00 written in the original format
+        var bytes = Base64.getDecoder().decode(
+            "rO0ABXNyABNqYXZhLnV0aWwuQXJyYXlMaXN0eIHSHZnHYZ0DAAFJAARzaXpleHAAAAADdwQAAAADc3IAEm9yZy5qb2RhLm1vbmV5LlNl" +
+            "cnHX/huI7ZecDAAAeHB3FE0AA0dCUAM6AAIAAAACAOoAAAACeHNxAH4AAncUQgADVVNEA0gAAgAAAALPxwAAAAN4c3EAfgACdxRNAANH" +
+            "QlADOgACAAAAAgH0AAAAAnh4");
+        var ois = new ObjectInputStream(new ByteArrayInputStream(bytes));
+        assertThat(ois.readObject()).isEqualTo(List.of(GBP_2_34, BigMoney.parse("USD -12.345"), Money.parse("GBP 5.00")));
+    }
+
+    @Test
+    void test_serialization_compactIsSmaller() throws Exception {
+        var list = new ArrayList<Money>();
+        for (var i = 0; i < 100; i++) {
+            list.add(Money.ofMinor(GBP, i));
+        }
+        var original = serialize(list, false);
+        var compact = serialize(list, true);
+        assertThat(compact.length).isLessThan(original.length);
+        assertThat(deserialize(compact)).isEqualTo(list);
+    }
+
     //-----------------------------------------------------------------------
     // getCurrencyUnit()
     //-----------------------------------------------------------------------
@@ -1903,6 +2023,81 @@ class TestMoney {
         assertThat(test).hasToString("GBP -7.02");
     }
 
+    //-----------------------------------------------------------------------
+    // multipliedByFraction(long,long,RoundingMode)
+    //-----------------------------------------------------------------------
+    @Test
+    void test_multipliedByFraction_one() {
+        var test = GBP_2_34.multipliedByFraction(7, 7, RoundingMode.UNNECESSARY);
+        assertThat(test).isSameAs(GBP_2_34);
+    }
+
+    @Test
+    void test_multipliedByFraction_positive() {
+        assertThat(Money.parse("USD 100.00").multipliedByFraction(1, 3, RoundingMode.HALF_EVEN)).hasToString("USD 33.33");
+        assertThat(Money.parse("USD 100.00").multipliedByFraction(2, 3, RoundingMode.DOWN)).hasToString("USD 66.66");
+        assertThat(GBP_2_34.multipliedByFraction(1, 4, RoundingMode.HALF_EVEN)).hasToString("GBP 0.58");
+        assertThat(GBP_2_34.multipliedByFraction(1, 4, RoundingMode.HALF_UP)).hasToString("GBP 0.59");
+        assertThat(JPY_423.multipliedByFraction(1, 2, RoundingMode.HALF_EVEN)).hasToString("JPY 212");
+    }
+
+    @Test
+    void test_multipliedByFraction_negative() {
+        assertThat(GBP_2_34.multipliedByFraction(-1, 4, RoundingMode.FLOOR)).hasToString("GBP -0.59");
+        assertThat(GBP_2_34.multipliedByFraction(1, -4, RoundingMode.CEILING)).hasToString("GBP -0.58");
+        assertThat(GBP_M5_78.multipliedByFraction(-1, -3, RoundingMode.UP)).hasToString("GBP -1.93");
+        assertThat(GBP_M5_78.multipliedByFraction(0, 3, RoundingMode.UNNECESSARY)).hasToString("GBP 0.00");
+    }
+
+    @Test
+    void test_multipliedByFraction_singleRounding() {
+        // a BigDecimal rate of 1/3 must itself be rounded before multiplying
+        var rate = BigDecimal.ONE.divide(new BigDecimal(3), 10, RoundingMode.HALF_EVEN);
+        var big = Money.ofMinor(GBP, 300_000_000_000L);
+        assertThat(big.multipliedBy(rate, RoundingMode.HALF_EVEN)).hasToString("GBP 999999999.90");
+        assertThat(big.multipliedByFraction(1, 3, RoundingMode.HALF_EVEN)).hasToString("GBP 1000000000.00");
+    }
+
+    @Test
+    void test_multipliedByFraction_largeIntermediate() {
+        var test = Money.ofMinor(GBP, Long.MAX_VALUE / 2).multipliedByFraction(Long.MAX_VALUE - 1, Long.MAX_VALUE, RoundingMode.HALF_EVEN);
+        var expected = BigDecimal.valueOf(Long.MAX_VALUE / 2).multiply(BigDecimal.valueOf(Long.MAX_VALUE - 1))
+            .divide(BigDecimal.valueOf(Long.MAX_VALUE), 0, RoundingMode.HALF_EVEN);
+        assertThat(test.getAmountMinorLong()).isEqualTo(expected.longValueExact());
+    }
+
+    @Test
+    void test_multipliedByFraction_overflow() {
+        assertThat(Money.ofMinor(GBP, Long.MAX_VALUE).multipliedByFraction(3, 2, RoundingMode.HALF_EVEN).getAmount())
+            .isEqualTo(new BigDecimal("138350580552821637.10"));
+        assertThat(GBP_LONG_MAX_PLUS1.multipliedByFraction(1, 2, RoundingMode.HALF_EVEN).getAmount())
+            .isEqualTo(new BigDecimal("4611686018427387904.00"));
+        assertThat(Money.ofMinor(GBP, Long.MIN_VALUE / 2).multipliedByFraction(2, 1, RoundingMode.UNNECESSARY).getAmountMinorLong())
+            .isEqualTo(Long.MIN_VALUE);
+        assertThat(Money.ofMinor(GBP, Long.MIN_VALUE / 2).multipliedByFraction(-2, -1, RoundingMode.UNNECESSARY).getAmountMinorLong())
+            .isEqualTo(Long.MIN_VALUE);
+    }
+
+    @Test
+    void test_multipliedByFraction_invalid() {
+        assertThatExceptionOfType(ArithmeticException.class)
+            .isThrownBy(() -> GBP_2_34.multipliedByFraction(1, 0, RoundingMode.HALF_EVEN));
+        assertThatExceptionOfType(ArithmeticException.class)
+            .isThrownBy(() -> GBP_2_34.multipliedByFraction(1, 7, RoundingMode.UNNECESSARY));
+        assertThatExceptionOfType(ArithmeticException.class)
+            .isThrownBy(() -> Money.ofMinor(GBP, Long.MAX_VALUE).multipliedByFraction(1, 3, RoundingMode.UNNECESSARY));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> GBP_2_34.multipliedByFraction(1, 3, null));
+    }
+
+    @Test
+    void test_multipliedByBasisPoints() {
+        assertThat(Money.parse("USD 1234.56").multipliedByBasisPoints(25, RoundingMode.HALF_EVEN)).hasToString("USD 3.09");
+        assertThat(Money.parse("USD 1234.56").multipliedByBasisPoints(-25, RoundingMode.DOWN)).hasToString("USD -3.08");
+        assertThat(GBP_2_34.multipliedByBasisPoints(10_000, RoundingMode.UNNECESSARY)).isSameAs(GBP_2_34);
+        assertThat(JPY_423.multipliedByBasisPoints(150, RoundingMode.HALF_UP)).hasToString("JPY 6");
+    }
+
     //-----------------------------------------------------------------------
     // dividedBy(BigDecimal,RoundingMode)
     //-----------------------------------------------------------------------
@@ -2008,6 +2203,54 @@ class TestMoney {
         assertThat(test).hasToString("GBP -0.78");
     }
 
+    //-----------------------------------------------------------------------
+    // allocate()
+    //-----------------------------------------------------------------------
+    @Test
+    void test_allocate_long() {
+        assertThat(Money.parse("USD 1.00").allocate(1, 1, 1)).hasToString("[USD 0.34, USD 0.33, USD 0.33]");
+        assertThat(Money.parse("USD 0.05").allocate(3, 7)).hasToString("[USD 0.02, USD 0.03]");
+        assertThat(Money.parse("USD -1.00").allocate(1, 0, 1, 1)).hasToString("[USD -0.34, USD 0.00, USD -0.33, USD -0.33]");
+        assertThat(Money.parse("JPY 10").allocate(5)).hasToString("[JPY 10]");
+        assertThat(Money.parse("GBP 0.00").allocate(1, 2)).hasToString("[GBP 0.00, GBP 0.00]");
+    }
+
+    @Test
+    void test_allocate_long_large() {
+        var test = Money.parse("GBP 123456789012345678901234567.89").allocate(1, 1, 1);
+        assertThat(test).hasToString("[GBP 41152263004115226300411522.63, GBP 41152263004115226300411522.63, GBP 41152263004115226300411522.63]");
+        var parts = Money.parse("GBP 92233720368547758.07").allocate(Long.MAX_VALUE, 1, Long.MAX_VALUE);
+        assertThat(Money.total(parts)).isEqualTo(Money.parse("GBP 92233720368547758.07"));
+    }
+
+    @Test
+    void test_allocate_long_invalid() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> GBP_2_34.allocate(new long[0]));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> GBP_2_34.allocate(0, 0));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> GBP_2_34.allocate(1, -1));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> Money.parse("GBP 123456789012345678901234567.89").allocate(1, -1, 1));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> GBP_2_34.allocate((long[]) null));
+    }
+
+    @Test
+    void test_allocate_BigDecimal() {
+        var test = Money.parse("GBP 100.00").allocate(new BigDecimal("0.5"), new BigDecimal("0.25"), new BigDecimal("0.125"));
+        assertThat(test).hasToString("[GBP 57.14, GBP 28.57, GBP 14.29]");
+        var huge = Money.parse("GBP 1.00").allocate(new BigDecimal("1E+30"), new BigDecimal("2E+30"));
+        assertThat(huge).hasToString("[GBP 0.33, GBP 0.67]");
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> GBP_2_34.allocate(new BigDecimal("-0.5"), BigDecimal.ONE));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> GBP_2_34.allocate(new BigDecimal("1E+30"), new BigDecimal("-1E+30")));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> GBP_2_34.allocate(BigDecimal.ONE, null));
+    }
+
     //-----------------------------------------------------------------------
     // negated()
     //-----------------------------------------------------------------------
@@ -0,0 +1,180 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test MoneyArray.
+ */
+class TestMoneyArray {
+
+    private static final CurrencyUnit GBP = CurrencyUnit.of("GBP");
+    private static final CurrencyUnit USD = CurrencyUnit.of("USD");
+    private static final CurrencyUnit JPY = CurrencyUnit.of("JPY");
+    private static final Money GBP_1_23 = Money.parse("GBP 1.23");
+    private static final Money GBP_2_50 = Money.parse("GBP 2.50");
+    private static final Money GBP_M0_75 = Money.parse("GBP -0.75");
+    private static final Money USD_3_00 = Money.parse("USD 3.00");
+    private static final Money JPY_400 = Money.parse("JPY 400");
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_of() {
+        var test = MoneyArray.of(GBP_1_23, USD_3_00, JPY_400);
+        assertThat(test.size()).isEqualTo(3);
+        assertThat(test.isEmpty()).isFalse();
+        assertThat(test.get(0)).isEqualTo(GBP_1_23);
+        assertThat(test.get(1)).isEqualTo(USD_3_00);
+        assertThat(test.get(2)).isEqualTo(JPY_400);
+        assertThat(test.getCurrencyUnit(2)).isEqualTo(JPY);
+        assertThat(test.getAmountMinor(0)).isEqualTo(123);
+        assertThat(test.getAmountMinor(2)).isEqualTo(400);
+        assertThat(MoneyArray.of(List.of(GBP_1_23, USD_3_00))).hasToString("[GBP 1.23, USD 3.00]");
+    }
+
+    @Test
+    void test_add_grows() {
+        var test = new MoneyArray(0);
+        assertThat(test.isEmpty()).isTrue();
+        for (var i = 0; i < 1000; i++) {
+            test.addMinor(i % 2 == 0 ? GBP : USD, i);
+        }
+        assertThat(test.size()).isEqualTo(1000);
+        assertThat(test.get(998)).isEqualTo(Money.ofMinor(GBP, 998));
+        assertThat(test.get(999)).isEqualTo(Money.ofMinor(USD, 999));
+    }
+
+    @Test
+    void test_set() {
+        var test = MoneyArray.of(GBP_1_23, GBP_2_50);
+        test.set(1, USD_3_00);
+        assertThat(test).hasToString("[GBP 1.23, USD 3.00]");
+        assertThatExceptionOfType(IndexOutOfBoundsException.class)
+            .isThrownBy(() -> test.set(2, USD_3_00));
+    }
+
+    @Test
+    void test_get_invalid() {
+        var test = MoneyArray.of(GBP_1_23);
+        assertThatExceptionOfType(IndexOutOfBoundsException.class)
+            .isThrownBy(() -> test.get(1));
+        assertThatExceptionOfType(IndexOutOfBoundsException.class)
+            .isThrownBy(() -> test.get(-1));
+        assertThatExceptionOfType(IndexOutOfBoundsException.class)
+            .isThrownBy(() -> new MoneyArray().getAmountMinor(0));
+    }
+
+    @Test
+    void test_add_invalid() {
+        var test = new MoneyArray();
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> test.add(null));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> test.addMinor(null, 1));
+        assertThatExceptionOfType(ArithmeticException.class)
+            .isThrownBy(() -> test.add(Money.parse("GBP 123456789012345678901234567890")));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> new MoneyArray(-1));
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_total() {
+        assertThat(MoneyArray.of(GBP_1_23, GBP_2_50, GBP_M0_75).total()).isEqualTo(Money.parse("GBP 2.98"));
+        assertThatExceptionOfType(CurrencyMismatchException.class)
+            .isThrownBy(() -> MoneyArray.of(GBP_1_23, USD_3_00).total());
+        assertThatExceptionOfType(NoSuchElementException.class)
+            .isThrownBy(() -> new MoneyArray().total());
+        assertThatExceptionOfType(ArithmeticException.class)
+            .isThrownBy(() -> new MoneyArray().addMinor(GBP, Long.MAX_VALUE).addMinor(GBP, 1).total());
+    }
+
+    @Test
+    void test_total_currency() {
+        var test = MoneyArray.of(GBP_1_23, USD_3_00, GBP_2_50, JPY_400);
+        assertThat(test.total(GBP)).isEqualTo(Money.parse("GBP 3.73"));
+        assertThat(test.total(USD)).isEqualTo(USD_3_00);
+        assertThat(test.total(CurrencyUnit.EUR)).isEqualTo(Money.zero(CurrencyUnit.EUR));
+    }
+
+    @Test
+    void test_minMax() {
+        var test = MoneyArray.of(GBP_1_23, GBP_2_50, GBP_M0_75);
+        assertThat(test.min()).isEqualTo(GBP_M0_75);
+        assertThat(test.max()).isEqualTo(GBP_2_50);
+        assertThatExceptionOfType(CurrencyMismatchException.class)
+            .isThrownBy(() -> MoneyArray.of(GBP_1_23, USD_3_00).min());
+        assertThatExceptionOfType(NoSuchElementException.class)
+            .isThrownBy(() -> new MoneyArray().max());
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_plusMinus() {
+        var base = MoneyArray.of(GBP_1_23, USD_3_00, JPY_400);
+        // currency table in a different order
+        var other = MoneyArray.of(Money.parse("JPY 0"), Money.parse("USD 1.00"), Money.parse("GBP 0"));
+        other.set(0, Money.parse("GBP 1.00"));
+        other.set(2, Money.parse("JPY 100"));
+        assertThat(base.plus(other)).hasToString("[GBP 2.23, USD 4.00, JPY 500]");
+        assertThat(base.minus(other)).hasToString("[GBP 0.23, USD 2.00, JPY 300]");
+        assertThat(base).hasToString("[GBP 1.23, USD 3.00, JPY 400]");
+    }
+
+    @Test
+    void test_plusMinus_invalid() {
+        var base = MoneyArray.of(GBP_1_23, USD_3_00);
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> base.plus(MoneyArray.of(GBP_1_23)));
+        assertThatExceptionOfType(CurrencyMismatchException.class)
+            .isThrownBy(() -> base.plus(MoneyArray.of(USD_3_00, GBP_1_23)));
+        assertThatExceptionOfType(CurrencyMismatchException.class)
+            .isThrownBy(() -> base.minus(MoneyArray.of(GBP_1_23, JPY_400)));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> base.minus(null));
+        var max = new MoneyArray().addMinor(GBP, Long.MAX_VALUE);
+        assertThatExceptionOfType(ArithmeticException.class)
+            .isThrownBy(() -> max.plus(max));
+    }
+
+    @Test
+    void test_multipliedBy() {
+        var test = MoneyArray.of(GBP_1_23, USD_3_00, GBP_M0_75);
+        assertThat(test.multipliedBy(3)).hasToString("[GBP 3.69, USD 9.00, GBP -2.25]");
+        assertThat(test.multipliedBy(0).total(GBP)).isEqualTo(Money.zero(GBP));
+        assertThatExceptionOfType(ArithmeticException.class)
+            .isThrownBy(() -> test.multipliedBy(Long.MAX_VALUE));
+    }
+
+    @Test
+    void test_filter() {
+        var test = MoneyArray.of(GBP_1_23, USD_3_00, GBP_2_50, JPY_400);
+        var filtered = test.filter(GBP);
+        assertThat(filtered).hasToString("[GBP 1.23, GBP 2.50]");
+        assertThat(filtered.total()).isEqualTo(Money.parse("GBP 3.73"));
+        assertThat(test.filter(CurrencyUnit.EUR).isEmpty()).isTrue();
+        filtered.add(JPY_400);
+        assertThat(filtered).hasToString("[GBP 1.23, GBP 2.50, JPY 400]");
+    }
+
+}
@@ -0,0 +1,162 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test MoneyBag.
+ */
+class TestMoneyBag {
+
+    private static final CurrencyUnit GBP = CurrencyUnit.of("GBP");
+    private static final CurrencyUnit USD = CurrencyUnit.of("USD");
+    private static final CurrencyUnit JPY = CurrencyUnit.of("JPY");
+    private static final Money GBP_1_23 = Money.parse("GBP 1.23");
+    private static final Money GBP_2_50 = Money.parse("GBP 2.50");
+    private static final Money USD_3_00 = Money.parse("USD 3.00");
+    private static final Money JPY_400 = Money.parse("JPY 400");
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_empty() {
+        var test = MoneyBag.empty();
+        assertThat(test.isEmpty()).isTrue();
+        assertThat(test.size()).isEqualTo(0);
+        assertThat(test.getCurrencyUnits()).isEmpty();
+        assertThat(test.get(GBP)).isEqualTo(BigMoney.zero(GBP));
+        assertThat(test.contains(GBP)).isFalse();
+        assertThat(test.iterator().hasNext()).isFalse();
+        assertThat(test).hasToString("[]");
+        assertThat(MoneyBag.of()).isSameAs(test);
+    }
+
+    @Test
+    void test_of() {
+        var test = MoneyBag.of(USD_3_00, GBP_1_23, JPY_400, GBP_2_50);
+        assertThat(test.size()).isEqualTo(3);
+        assertThat(test.getCurrencyUnits()).containsExactly(GBP, JPY, USD);
+        assertThat(test.get(GBP)).isEqualTo(BigMoney.parse("GBP 3.73"));
+        assertThat(test.get(USD)).isEqualTo(USD_3_00.toBigMoney());
+        assertThat(test.contains(JPY)).isTrue();
+        assertThat(test.contains(CurrencyUnit.EUR)).isFalse();
+        assertThat(test).containsExactly(BigMoney.parse("GBP 3.73"), JPY_400.toBigMoney(), USD_3_00.toBigMoney());
+        assertThat(test).hasToString("[GBP 3.73, JPY 400, USD 3.00]");
+        assertThat(MoneyBag.of(List.of(GBP_1_23, USD_3_00))).hasToString("[GBP 1.23, USD 3.00]");
+    }
+
+    @Test
+    void test_of_invalid() {
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> MoneyBag.of((BigMoneyProvider[]) null));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> MoneyBag.of((Iterable<BigMoneyProvider>) null));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> MoneyBag.of(GBP_1_23, null));
+    }
+
+    @Test
+    void test_iterator_unmodifiable() {
+        var iterator = MoneyBag.of(GBP_1_23).iterator();
+        iterator.next();
+        assertThatExceptionOfType(UnsupportedOperationException.class)
+            .isThrownBy(() -> iterator.remove());
+        assertThatExceptionOfType(UnsupportedOperationException.class)
+            .isThrownBy(() -> MoneyBag.of(GBP_1_23).getCurrencyUnits().set(0, USD));
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_plus() {
+        var base = MoneyBag.of(GBP_1_23);
+        var test = base.plus(USD_3_00).plus(GBP_2_50).plus(BigMoney.parse("USD 0.005"));
+        assertThat(test).hasToString("[GBP 3.73, USD 3.005]");
+        assertThat(base).hasToString("[GBP 1.23]");
+    }
+
+    @Test
+    void test_minus() {
+        var test = MoneyBag.of(GBP_2_50).minus(GBP_1_23).minus(JPY_400);
+        assertThat(test).hasToString("[GBP 1.27, JPY -400]");
+        assertThat(test.minus(Money.parse("GBP 1.27"))).hasToString("[GBP 0.00, JPY -400]");
+    }
+
+    @Test
+    void test_plusMinus_bag() {
+        var bag1 = MoneyBag.of(GBP_1_23, USD_3_00);
+        var bag2 = MoneyBag.of(JPY_400, GBP_2_50);
+        assertThat(bag1.plus(bag2)).hasToString("[GBP 3.73, JPY 400, USD 3.00]");
+        assertThat(bag1.minus(bag2)).hasToString("[GBP -1.27, JPY -400, USD 3.00]");
+        assertThat(bag1.plus(MoneyBag.of(USD_3_00))).hasToString("[GBP 1.23, USD 6.00]");
+        assertThat(bag1.plus(MoneyBag.empty())).isSameAs(bag1);
+        assertThat(MoneyBag.empty().minus(bag1)).hasToString("[GBP -1.23, USD -3.00]");
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> bag1.plus((MoneyBag) null));
+    }
+
+    @Test
+    void test_plus_invalid() {
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> MoneyBag.empty().plus((BigMoneyProvider) null));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> MoneyBag.empty().get(null));
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_total() {
+        var test = MoneyBag.of(GBP_1_23, USD_3_00, JPY_400);
+        var rates = Map.of(USD, new BigDecimal("0.8"), JPY, new BigDecimal("0.005"));
+        assertThat(test.total(GBP, rates::get)).isEqualTo(BigMoney.parse("GBP 5.630"));
+        assertThat(MoneyBag.empty().total(GBP, rates::get)).isEqualTo(BigMoney.zero(GBP));
+    }
+
+    @Test
+    void test_total_invalid() {
+        var test = MoneyBag.of(GBP_1_23, USD_3_00);
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> test.total(GBP, currency -> null));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> test.total(GBP, currency -> BigDecimal.ONE.negate()));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> test.total(null, currency -> BigDecimal.ONE));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> test.total(GBP, null));
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_equalsHashCode() {
+        var a = MoneyBag.of(GBP_1_23, USD_3_00);
+        var b = MoneyBag.of(USD_3_00).plus(GBP_1_23);
+        var c = MoneyBag.of(GBP_1_23);
+        assertThat(a).isEqualTo(a);
+        assertThat(a).isEqualTo(b);
+        assertThat(a).hasSameHashCodeAs(b);
+        assertThat(a).isNotEqualTo(c);
+        assertThat(a).isNotEqualTo(MoneyBag.of(BigMoney.parse("GBP 1.230"), USD_3_00));
+        assertThat(a).isNotEqualTo("");
+        assertThat(a).isNotEqualTo(null);
+    }
+
+}
@@ -0,0 +1,189 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test MoneyBinaryCodec.
+ */
+class TestMoneyBinaryCodec {
+
+    private static final CurrencyUnit GBP = CurrencyUnit.of("GBP");
+    private static final CurrencyUnit USD = CurrencyUnit.of("USD");
+    private static final CurrencyUnit XFU = CurrencyUnit.of("XFU");
+    private static final List<BigMoney> VALUES = List.of(
+        BigMoney.parse("GBP 0"),
+        BigMoney.parse("GBP 12.34"),
+        BigMoney.parse("USD -12.34"),
+        BigMoney.parse("JPY 123456789"),
+        BigMoney.parse("EUR 0.0000001"),
+        BigMoney.of(USD, new BigDecimal(Long.MAX_VALUE + ".99")),
+        BigMoney.of(USD, BigDecimal.valueOf(Long.MIN_VALUE)),
+        BigMoney.of(USD, BigDecimal.valueOf(Long.MAX_VALUE)),
+        BigMoney.of(USD, new BigDecimal("-123456789012345678901234567890.12")),
+        BigMoney.of(USD, BigDecimal.valueOf(1, 127)),
+        BigMoney.of(USD, BigDecimal.valueOf(-1, 300)),
+        BigMoney.of(XFU, new BigDecimal("7.5")));
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_roundTrip_ByteBuffer() {
+        var buffer = ByteBuffer.allocate(1024);
+        for (BigMoney value : VALUES) {
+            MoneyBinaryCodec.encode(value, buffer);
+        }
+        buffer.flip();
+        for (BigMoney value : VALUES) {
+            assertThat(MoneyBinaryCodec.decodeBigMoney(buffer)).isEqualTo(value);
+        }
+        assertThat(buffer.hasRemaining()).isFalse();
+    }
+
+    @Test
+    void test_roundTrip_DataOutput() throws IOException {
+        var baos = new ByteArrayOutputStream();
+        var out = new DataOutputStream(baos);
+        for (BigMoney value : VALUES) {
+            MoneyBinaryCodec.encode(value, out);
+        }
+        var in = new DataInputStream(new ByteArrayInputStream(baos.toByteArray()));
+        for (BigMoney value : VALUES) {
+            assertThat(MoneyBinaryCodec.decodeBigMoney(in)).isEqualTo(value);
+        }
+        assertThat(in.read()).isEqualTo(-1);
+    }
+
+    @Test
+    void test_encodedLength() {
+        for (BigMoney value : VALUES) {
+            var buffer = ByteBuffer.allocate(1024);
+            MoneyBinaryCodec.encode(value, buffer);
+            assertThat(MoneyBinaryCodec.encodedLength(value)).as(value.toString()).isEqualTo(buffer.position());
+        }
+    }
+
+    @Test
+    void test_encodedLength_typical() {
+        assertThat(MoneyBinaryCodec.encodedLength(Money.parse("GBP 12.34"))).isEqualTo(5);
+        assertThat(MoneyBinaryCodec.encodedLength(Money.parse("USD 0.50"))).isEqualTo(4);
+        assertThat(MoneyBinaryCodec.encodedLength(Money.parse("EUR 9999.99"))).isEqualTo(6);
+        assertThat(MoneyBinaryCodec.encodedLength(BigMoney.parse("XFU 1"))).isEqualTo(6);
+    }
+
+    @Test
+    void test_encode_format() {
+        var buffer = ByteBuffer.allocate(16);
+        MoneyBinaryCodec.encode(Money.parse("GBP -1.50"), buffer);
+        // GBP is 826, so 827 as varint, then scale 2, then zigzag -150 = 299 as varint
+        assertThat(buffer.flip()).isEqualTo(ByteBuffer.wrap(new byte[] {(byte) 0xBB, 0x06, 0x02, (byte) 0xAB, 0x02}));
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_decode_holder() {
+        var buffer = ByteBuffer.allocate(64);
+        MoneyBinaryCodec.encode(Money.parse("GBP 12.34"), buffer);
+        MoneyBinaryCodec.encode(BigMoney.of(USD, new BigDecimal("123456789012345678901234567890.1")), buffer);
+        buffer.flip();
+        var holder = new MoneyBinaryCodec.Holder();
+        assertThat(holder.getCurrencyUnit()).isNull();
+        assertThat(holder).hasToString("Holder[]");
+        assertThatExceptionOfType(IllegalStateException.class)
+            .isThrownBy(() -> holder.toBigMoney());
+
+        MoneyBinaryCodec.decode(buffer, holder);
+        assertThat(holder.getCurrencyUnit()).isEqualTo(GBP);
+        assertThat(holder.isUnscaledAmountLong()).isTrue();
+        assertThat(holder.getUnscaledAmount()).isEqualTo(1234);
+        assertThat(holder.getScale()).isEqualTo(2);
+        assertThat(holder.getAmount()).isEqualTo(new BigDecimal("12.34"));
+        assertThat(holder.toMoney()).isEqualTo(Money.parse("GBP 12.34"));
+        assertThat(holder).hasToString("GBP 12.34");
+
+        MoneyBinaryCodec.decode(buffer, holder);
+        assertThat(holder.getCurrencyUnit()).isEqualTo(USD);
+        assertThat(holder.isUnscaledAmountLong()).isFalse();
+        assertThatExceptionOfType(ArithmeticException.class)
+            .isThrownBy(() -> holder.getUnscaledAmount());
+        assertThat(holder.getScale()).isEqualTo(1);
+        assertThat(holder.getAmount()).isEqualTo(new BigDecimal("123456789012345678901234567890.1"));
+    }
+
+    @Test
+    void test_decodeMoney() throws IOException {
+        var buffer = ByteBuffer.allocate(64);
+        MoneyBinaryCodec.encode(BigMoney.parse("GBP 12.3"), buffer);
+        MoneyBinaryCodec.encode(BigMoney.parse("GBP 12.345"), buffer);
+        buffer.flip();
+        assertThat(MoneyBinaryCodec.decodeMoney(buffer)).isEqualTo(Money.parse("GBP 12.30"));
+        assertThatExceptionOfType(ArithmeticException.class)
+            .isThrownBy(() -> MoneyBinaryCodec.decodeMoney(buffer));
+
+        var baos = new ByteArrayOutputStream();
+        MoneyBinaryCodec.encode(Money.parse("JPY 12"), new DataOutputStream(baos));
+        var in = new DataInputStream(new ByteArrayInputStream(baos.toByteArray()));
+        assertThat(MoneyBinaryCodec.decodeMoney(in)).isEqualTo(Money.parse("JPY 12"));
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_decode_invalid() {
+        assertThatExceptionOfType(BufferUnderflowException.class)
+            .isThrownBy(() -> MoneyBinaryCodec.decodeBigMoney(ByteBuffer.wrap(new byte[] {(byte) 0xBB, 0x06})));
+        assertThatExceptionOfType(IllegalCurrencyException.class)
+            .isThrownBy(() -> MoneyBinaryCodec.decodeBigMoney(ByteBuffer.wrap(new byte[] {(byte) 0xEA, 0x07, 0x00, 0x00})));
+        assertThatExceptionOfType(IllegalCurrencyException.class)
+            .isThrownBy(() -> MoneyBinaryCodec.decodeBigMoney(ByteBuffer.wrap(new byte[] {0x00, 'A', 'B', 'C', 0x00, 0x00})));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> MoneyBinaryCodec.decodeBigMoney(ByteBuffer.wrap(new byte[] {
+                (byte) 0xBB, 0x06, 0x00,
+                (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80,
+                (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x01})));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> MoneyBinaryCodec.decodeBigMoney(ByteBuffer.wrap(new byte[] {(byte) 0xBB, 0x06, (byte) 0x80, 0x05, 0x01})));
+        assertThatExceptionOfType(EOFException.class)
+            .isThrownBy(() -> MoneyBinaryCodec.decodeBigMoney(new DataInputStream(new ByteArrayInputStream(new byte[] {(byte) 0xBB}))));
+    }
+
+    @Test
+    void test_nulls() {
+        var buffer = ByteBuffer.allocate(16);
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> MoneyBinaryCodec.encode(null, buffer));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> MoneyBinaryCodec.encode(Money.parse("GBP 1"), (ByteBuffer) null));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> MoneyBinaryCodec.decode(buffer, null));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> MoneyBinaryCodec.decode((ByteBuffer) null, new MoneyBinaryCodec.Holder()));
+    }
+
+}
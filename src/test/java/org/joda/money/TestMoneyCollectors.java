@@ -0,0 +1,138 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.math.BigDecimal;
+import java.util.stream.Collector.Characteristics;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test MoneyCollectors.
+ */
+class TestMoneyCollectors {
+
+    private static final CurrencyUnit GBP = CurrencyUnit.of("GBP");
+    private static final CurrencyUnit USD = CurrencyUnit.of("USD");
+    private static final CurrencyUnit JPY = CurrencyUnit.of("JPY");
+
+    private static Stream<Money> mixed(int size) {
+        return IntStream.range(0, size).mapToObj(i -> switch (i % 3) {
+            case 0 -> Money.ofMinor(GBP, i);
+            case 1 -> Money.ofMinor(USD, -i);
+            default -> Money.ofMinor(JPY, 2);
+        });
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_summing() {
+        var test = Stream.of(Money.parse("GBP 1.23"), Money.parse("GBP 2.50"), Money.parse("GBP -0.75"))
+            .collect(MoneyCollectors.summing(GBP));
+        assertThat(test).isEqualTo(Money.parse("GBP 2.98"));
+        assertThat(Stream.<Money>empty().collect(MoneyCollectors.summing(GBP))).isEqualTo(Money.zero(GBP));
+    }
+
+    @Test
+    void test_summing_parallel() {
+        var test = IntStream.range(0, 100_000).parallel()
+            .mapToObj(i -> Money.ofMinor(GBP, i))
+            .collect(MoneyCollectors.summing(GBP));
+        assertThat(test).isEqualTo(Money.ofMinor(GBP, 4_999_950_000L));
+    }
+
+    @Test
+    void test_summing_overflowLong() {
+        var test = IntStream.range(0, 1000).parallel()
+            .mapToObj(i -> Money.ofMinor(GBP, Long.MAX_VALUE))
+            .collect(MoneyCollectors.summing(GBP));
+        assertThat(test.getAmount()).isEqualTo(BigDecimal.valueOf(Long.MAX_VALUE, 2).multiply(BigDecimal.valueOf(1000)));
+    }
+
+    @Test
+    void test_summing_invalid() {
+        assertThatExceptionOfType(CurrencyMismatchException.class)
+            .isThrownBy(() -> Stream.of(Money.parse("GBP 1.23"), Money.parse("USD 2.50")).collect(MoneyCollectors.summing(GBP)));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> MoneyCollectors.summing(null));
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_summingByCurrency() {
+        var test = Stream.of(Money.parse("USD 1.23"), Money.parse("GBP 2.50"), Money.parse("USD 0.77"))
+            .collect(MoneyCollectors.summingByCurrency());
+        assertThat(test).hasToString("{GBP=GBP 2.50, USD=USD 2.00}");
+        assertThat(MoneyCollectors.summingByCurrency().characteristics())
+            .contains(Characteristics.CONCURRENT, Characteristics.UNORDERED);
+    }
+
+    @Test
+    void test_summingByCurrency_parallel() {
+        var test = mixed(300_000).parallel().collect(MoneyCollectors.summingByCurrency());
+        var expected = mixed(300_000).collect(MoneyCollectors.summingByCurrency());
+        assertThat(test).isEqualTo(expected);
+        assertThat(test.get(JPY)).isEqualTo(Money.ofMinor(JPY, 200_000));
+        assertThat(test.get(GBP)).isEqualTo(Money.total(GBP, () -> mixed(300_000).filter(m -> m.getCurrencyUnit().equals(GBP)).iterator()));
+    }
+
+    @Test
+    void test_summingByCurrency_overflowLong() {
+        var test = IntStream.range(0, 1000).parallel()
+            .mapToObj(i -> i % 2 == 0 ? Money.ofMinor(GBP, Long.MAX_VALUE) : Money.ofMinor(USD, Long.MIN_VALUE))
+            .collect(MoneyCollectors.summingByCurrency());
+        assertThat(test.get(GBP).getAmount()).isEqualTo(BigDecimal.valueOf(Long.MAX_VALUE, 2).multiply(BigDecimal.valueOf(500)));
+        assertThat(test.get(USD).getAmount()).isEqualTo(BigDecimal.valueOf(Long.MIN_VALUE, 2).multiply(BigDecimal.valueOf(500)));
+    }
+
+    @Test
+    void test_summingByCurrency_big() {
+        var test = Stream.of(Money.parse("GBP 123456789012345678901234567890"), Money.parse("GBP 1"))
+            .collect(MoneyCollectors.summingByCurrency());
+        assertThat(test.get(GBP)).isEqualTo(Money.parse("GBP 123456789012345678901234567891"));
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_summarizing() {
+        var test = IntStream.range(-500, 1000).parallel()
+            .mapToObj(i -> Money.ofMinor(GBP, i))
+            .collect(MoneyCollectors.summarizing(GBP));
+        assertThat(test.getCount()).isEqualTo(1500);
+        assertThat(test.getSum()).isEqualTo(Money.ofMinor(GBP, 374_250));
+        assertThat(test.getMin()).isEqualTo(Money.ofMinor(GBP, -500));
+        assertThat(test.getMax()).isEqualTo(Money.ofMinor(GBP, 999));
+        assertThatExceptionOfType(CurrencyMismatchException.class)
+            .isThrownBy(() -> Stream.of(Money.parse("USD 2.50")).collect(MoneyCollectors.summarizing(GBP)));
+    }
+
+    @Test
+    void test_summarizingByCurrency() {
+        var test = mixed(30_000).parallel().collect(MoneyCollectors.summarizingByCurrency());
+        assertThat(test).hasSize(3);
+        assertThat(test.get(JPY).getCount()).isEqualTo(10_000);
+        assertThat(test.get(JPY).getSum()).isEqualTo(Money.ofMinor(JPY, 20_000));
+        assertThat(test.get(USD).getMin()).isEqualTo(Money.ofMinor(USD, -29_998));
+        assertThat(test.get(USD).getMax()).isEqualTo(Money.ofMinor(USD, -1));
+        assertThat(test.get(GBP).getSum()).isEqualTo(mixed(30_000).collect(MoneyCollectors.summingByCurrency()).get(GBP));
+    }
+
+}
@@ -0,0 +1,269 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Random;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test MoneyColumns.
+ */
+class TestMoneyColumns {
+
+    private static final CurrencyUnit GBP = CurrencyUnit.of("GBP");
+    private static final CurrencyUnit USD = CurrencyUnit.of("USD");
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_total() {
+        assertThat(MoneyColumns.total(GBP, new long[0])).isEqualTo(Money.zero(GBP));
+        assertThat(MoneyColumns.total(GBP, new long[] {123})).isEqualTo(Money.parse("GBP 1.23"));
+        var random = new Random(1);
+        for (var length = 0; length < 40; length++) {
+            var amounts = random.longs(length, -1_000_000, 1_000_000).toArray();
+            assertThat(MoneyColumns.total(GBP, amounts)).isEqualTo(Money.ofMinor(GBP, LongStream.of(amounts).sum()));
+        }
+    }
+
+    @Test
+    void test_total_intermediateOverflow() {
+        // the lanes overflow, but the true total fits
+        var amounts = new long[] {Long.MAX_VALUE, 0, 0, 0, 1, 0, 0, 0, -10};
+        assertThat(MoneyColumns.total(GBP, amounts)).isEqualTo(Money.ofMinor(GBP, Long.MAX_VALUE - 9));
+    }
+
+    @Test
+    void test_total_overflow() {
+        assertThatExceptionOfType(ArithmeticException.class)
+            .isThrownBy(() -> MoneyColumns.total(GBP, new long[] {Long.MAX_VALUE, 1}));
+        assertThatExceptionOfType(ArithmeticException.class)
+            .isThrownBy(() -> MoneyColumns.total(GBP, new long[] {Long.MIN_VALUE, 0, 0, 0, -1}));
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_plusMinus() {
+        var a = new long[] {1, 2, 3, -4, 5};
+        var b = new long[] {10, 20, 30, 40, -50};
+        var result = new long[5];
+        MoneyColumns.plus(a, b, result);
+        assertThat(result).containsExactly(11, 22, 33, 36, -45);
+        MoneyColumns.minus(a, b, result);
+        assertThat(result).containsExactly(-9, -18, -27, -44, 55);
+        MoneyColumns.plus(a, a, a);
+        assertThat(a).containsExactly(2, 4, 6, -8, 10);
+    }
+
+    @Test
+    void test_plusMinus_invalid() {
+        var result = new long[2];
+        assertThatExceptionOfType(ArithmeticException.class)
+            .isThrownBy(() -> MoneyColumns.plus(new long[] {0, Long.MAX_VALUE}, new long[] {0, 1}, result));
+        assertThatExceptionOfType(ArithmeticException.class)
+            .isThrownBy(() -> MoneyColumns.plus(new long[] {Long.MIN_VALUE, 0}, new long[] {-1, 0}, result));
+        assertThatExceptionOfType(ArithmeticException.class)
+            .isThrownBy(() -> MoneyColumns.minus(new long[] {Long.MIN_VALUE, 0}, new long[] {1, 0}, result));
+        assertThatExceptionOfType(ArithmeticException.class)
+            .isThrownBy(() -> MoneyColumns.minus(new long[] {0, Long.MAX_VALUE}, new long[] {0, -1}, result));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> MoneyColumns.plus(new long[1], new long[2], result));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> MoneyColumns.minus(new long[2], new long[2], new long[3]));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> MoneyColumns.plus(null, new long[2], result));
+    }
+
+    @Test
+    void test_multipliedBy() {
+        var result = new long[4];
+        MoneyColumns.multipliedBy(new long[] {1, -2, 0, 1_000_000}, 3, result);
+        assertThat(result).containsExactly(3, -6, 0, 3_000_000);
+        MoneyColumns.multipliedBy(new long[] {Long.MIN_VALUE, 0, 0, 0}, 1, result);
+        assertThat(result[0]).isEqualTo(Long.MIN_VALUE);
+        assertThatExceptionOfType(ArithmeticException.class)
+            .isThrownBy(() -> MoneyColumns.multipliedBy(new long[] {1, Long.MAX_VALUE / 2 + 1, 0, 0}, 2, result));
+        assertThatExceptionOfType(ArithmeticException.class)
+            .isThrownBy(() -> MoneyColumns.multipliedBy(new long[] {Long.MIN_VALUE, 0, 0, 0}, -1, result));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> MoneyColumns.multipliedBy(new long[3], 2, result));
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_compare() {
+        var amounts = new long[] {100, 250, -50, 251, 250};
+        var mask = new boolean[5];
+        assertThat(MoneyColumns.isGreaterThan(GBP, amounts, Money.parse("GBP 2.50"), mask)).isEqualTo(1);
+        assertThat(mask).containsExactly(false, false, false, true, false);
+        assertThat(MoneyColumns.isLessThan(GBP, amounts, Money.parse("GBP 2.50"), mask)).isEqualTo(2);
+        assertThat(mask).containsExactly(true, false, true, false, false);
+    }
+
+    @Test
+    void test_compare_invalid() {
+        var amounts = new long[2];
+        assertThatExceptionOfType(CurrencyMismatchException.class)
+            .isThrownBy(() -> MoneyColumns.isGreaterThan(GBP, amounts, Money.parse("USD 1"), new boolean[2]));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> MoneyColumns.isLessThan(USD, amounts, Money.parse("USD 1"), new boolean[3]));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> MoneyColumns.isLessThan(USD, amounts, null, new boolean[2]));
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_allocate() {
+        var result = new long[3];
+        MoneyColumns.allocate(100, new long[] {1, 1, 1}, result);
+        assertThat(result).containsExactly(34, 33, 33);
+        MoneyColumns.allocate(-100, new long[] {1, 1, 1}, result);
+        assertThat(result).containsExactly(-34, -33, -33);
+        MoneyColumns.allocate(100, new long[] {1, 0, 2}, result);
+        assertThat(result).containsExactly(33, 0, 67);
+        MoneyColumns.allocate(7, new long[] {2, 3, 2}, result);
+        assertThat(result).containsExactly(2, 3, 2);
+        MoneyColumns.allocate(8, new long[] {2, 3, 2}, result);
+        assertThat(result).containsExactly(2, 4, 2);
+        MoneyColumns.allocate(9, new long[] {2, 3, 2}, result);
+        assertThat(result).containsExactly(3, 4, 2);
+        MoneyColumns.allocate(Long.MIN_VALUE, new long[] {1, 1, 1}, result);
+        assertThat(result).containsExactly(-3074457345618258603L, -3074457345618258603L, -3074457345618258602L);
+        MoneyColumns.allocate(Long.MAX_VALUE, new long[] {Long.MAX_VALUE / 2, 1, Long.MAX_VALUE / 2}, result);
+        assertThat(result[0] + result[1] + result[2]).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void test_allocate_matchesSlowPath() {
+        var random = new Random(1);
+        for (var i = 0; i < 10_000; i++) {
+            var size = 1 + random.nextInt(12);
+            var ratios = new long[size];
+            var ratiosBig = new BigInteger[size];
+            for (var j = 0; j < size; j++) {
+                ratios[j] = random.nextInt(4) == 0 ? 0 : random.nextInt(1000);
+                ratiosBig[j] = BigInteger.valueOf(ratios[j]);
+            }
+            ratios[0]++;
+            ratiosBig[0] = BigInteger.valueOf(ratios[0]);
+            var amount = random.nextBoolean() ? random.nextInt(20_001) - 10_000L : random.nextLong() >> 12;
+            var result = new long[size];
+            MoneyColumns.allocate(amount, ratios, result);
+            var expected = MoneyColumns.allocate(BigInteger.valueOf(amount), ratiosBig);
+            var total = 0L;
+            for (var j = 0; j < size; j++) {
+                assertThat(result[j]).isEqualTo(expected[j].longValueExact());
+                total += result[j];
+            }
+            assertThat(total).isEqualTo(amount);
+        }
+    }
+
+    @Test
+    void test_allocate_invalid() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> MoneyColumns.allocate(100, new long[] {1, 1}, new long[3]));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> MoneyColumns.allocate(100, new long[0], new long[0]));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> MoneyColumns.allocate(100, new long[] {0, 0}, new long[2]));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> MoneyColumns.allocate(100, new long[] {2, -1}, new long[2]));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> MoneyColumns.allocate(100, null, new long[2]));
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_multipliedByFraction_matchesBigDecimal() {
+        var random = new Random(1);
+        for (var i = 0; i < 20_000; i++) {
+            // vary the size of the inputs, including values needing the full 128 bits
+            var amount = random.nextLong() >> random.nextInt(64);
+            var numerator = random.nextLong() >> random.nextInt(64);
+            var denominator = random.nextLong() >> random.nextInt(64);
+            if (denominator == 0) {
+                continue;
+            }
+            for (var roundingMode : RoundingMode.values()) {
+                if (roundingMode == RoundingMode.UNNECESSARY) {
+                    continue;
+                }
+                var expected = new BigDecimal(BigInteger.valueOf(amount).multiply(BigInteger.valueOf(numerator)))
+                    .divide(BigDecimal.valueOf(denominator), 0, roundingMode)
+                    .toBigInteger();
+                if (expected.bitLength() < 64 || expected.equals(BigInteger.valueOf(Long.MIN_VALUE))) {
+                    assertThat(MoneyColumns.multipliedByFraction(amount, numerator, denominator, roundingMode))
+                        .isEqualTo(expected.longValue());
+                } else {
+                    assertThatExceptionOfType(ArithmeticException.class)
+                        .isThrownBy(() -> MoneyColumns.multipliedByFraction(amount, numerator, denominator, roundingMode));
+                }
+            }
+        }
+    }
+
+    @Test
+    void test_multipliedByFraction_limits() {
+        assertThat(MoneyColumns.multipliedByFraction(Long.MIN_VALUE, 1, 1, RoundingMode.UNNECESSARY)).isEqualTo(Long.MIN_VALUE);
+        assertThat(MoneyColumns.multipliedByFraction(Long.MIN_VALUE / 2, 2, 1, RoundingMode.UNNECESSARY)).isEqualTo(Long.MIN_VALUE);
+        assertThat(MoneyColumns.multipliedByFraction(Long.MAX_VALUE, 3, 3, RoundingMode.UNNECESSARY)).isEqualTo(Long.MAX_VALUE);
+        assertThatExceptionOfType(ArithmeticException.class)
+            .isThrownBy(() -> MoneyColumns.multipliedByFraction(Long.MIN_VALUE, -1, 1, RoundingMode.UNNECESSARY));
+        assertThatExceptionOfType(ArithmeticException.class)
+            .isThrownBy(() -> MoneyColumns.multipliedByFraction(Long.MAX_VALUE, 2, 1, RoundingMode.HALF_EVEN));
+    }
+
+    @Test
+    void test_multipliedByFraction_invalid() {
+        assertThatExceptionOfType(ArithmeticException.class)
+            .isThrownBy(() -> MoneyColumns.multipliedByFraction(100, 1, 0, RoundingMode.HALF_EVEN));
+        assertThatExceptionOfType(ArithmeticException.class)
+            .isThrownBy(() -> MoneyColumns.multipliedByFraction(100, 1, 3, RoundingMode.UNNECESSARY));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> MoneyColumns.multipliedByFraction(100, 1, 3, null));
+    }
+
+    @Test
+    void test_divideUnsigned() {
+        var random = new Random(1);
+        var two64 = BigInteger.ONE.shiftLeft(64);
+        for (var i = 0; i < 10_000; i++) {
+            // include powers of ten, as used by currency conversion
+            var divisor = i % 2 == 0 ? BigInteger.TEN.pow(random.nextInt(19)).longValue() : random.nextLong() >>> random.nextInt(64);
+            if (divisor == 0) {
+                continue;
+            }
+            var high = Long.remainderUnsigned(random.nextLong(), divisor);
+            var low = random.nextLong();
+            var dividend = toUnsigned(high).multiply(two64).add(toUnsigned(low));
+            var expected = dividend.divide(toUnsigned(divisor));
+            assertThat(toUnsigned(MoneyColumns.divideUnsigned(high, low, divisor))).isEqualTo(expected);
+        }
+    }
+
+    private static BigInteger toUnsigned(long value) {
+        return new BigInteger(Long.toUnsignedString(value));
+    }
+
+}
@@ -0,0 +1,147 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test MoneyExpression.
+ */
+class TestMoneyExpression {
+
+    private static final Money GBP_10_00 = Money.parse("GBP 10.00");
+    private static final Money GBP_1_99 = Money.parse("GBP 1.99");
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_pricingChain() {
+        var expr = MoneyExpression.start()
+            .multipliedBy(3)
+            .multipliedBy(new BigDecimal("0.85"))
+            .plus(GBP_1_99)
+            .multipliedBy(new BigDecimal("1.175"));
+        assertThat(expr.getStepCount()).isEqualTo(3);
+        // 10.00 * 3 * 0.85 = 25.50, + 1.99 = 27.49, * 1.175 = 32.30075
+        assertThat(expr.evaluate(GBP_10_00, RoundingMode.HALF_EVEN)).isEqualTo(Money.parse("GBP 32.30"));
+        assertThat(expr.evaluate(GBP_10_00, RoundingMode.UP)).isEqualTo(Money.parse("GBP 32.31"));
+        assertThat(expr.evaluate(GBP_10_00, 5, RoundingMode.UNNECESSARY)).isEqualTo(BigMoney.parse("GBP 32.30075"));
+        assertThat(expr).hasToString("MoneyExpression[input * 2.55 + GBP 1.99 * 1.175]");
+    }
+
+    @Test
+    void test_singleRounding() {
+        // rounding at each step gives 3.33 * 3 = 9.99
+        var stepwise = GBP_10_00.dividedBy(3, RoundingMode.HALF_EVEN).multipliedBy(3);
+        assertThat(stepwise).isEqualTo(Money.parse("GBP 9.99"));
+        var expr = GBP_10_00.toExpression().dividedBy(3).multipliedBy(3);
+        assertThat(expr.getStepCount()).isEqualTo(1);
+        assertThat(expr.evaluate(RoundingMode.UNNECESSARY)).isEqualTo(GBP_10_00);
+        assertThat(expr).hasToString("MoneyExpression[GBP 10.00 * 3 / 3]");
+    }
+
+    @Test
+    void test_explicitRounding() {
+        var expr = MoneyExpression.start().dividedBy(3).rounded(RoundingMode.HALF_EVEN).multipliedBy(3);
+        assertThat(expr.evaluate(GBP_10_00, RoundingMode.HALF_EVEN)).isEqualTo(Money.parse("GBP 9.99"));
+        var expr2 = MoneyExpression.start().dividedBy(3).rounded(0, RoundingMode.DOWN).multipliedBy(3);
+        assertThat(expr2.evaluate(GBP_10_00, RoundingMode.HALF_EVEN)).isEqualTo(Money.parse("GBP 9.00"));
+        assertThat(expr2).hasToString("MoneyExpression[input * 1 / 3 round(0, DOWN) * 3]");
+        assertThat(expr.evaluate(Money.parse("JPY 100"), RoundingMode.HALF_EVEN)).isEqualTo(Money.parse("JPY 99"));
+    }
+
+    @Test
+    void test_divisionAfterAddition() {
+        var expr = MoneyExpression.start().dividedBy(3).plus(new BigDecimal("1")).dividedBy(7).minus(new BigDecimal("0.5"));
+        // (10 / 3 + 1) / 7 - 0.5 = 13 / 21 - 0.5 = 0.119047...
+        assertThat(expr.evaluate(GBP_10_00, 6, RoundingMode.HALF_UP)).isEqualTo(BigMoney.parse("GBP 0.119048"));
+    }
+
+    @Test
+    void test_plusMinus() {
+        var expr = MoneyExpression.start().plus(GBP_1_99).plus(Money.parse("GBP 0.01")).minus(Money.parse("GBP 3.00")).negated();
+        assertThat(expr.getStepCount()).isEqualTo(2);
+        assertThat(expr.evaluate(GBP_10_00, RoundingMode.UNNECESSARY)).isEqualTo(Money.parse("GBP -9.00"));
+        var mixed = MoneyExpression.start().plus(GBP_1_99).plus(BigDecimal.ONE);
+        assertThat(mixed.getStepCount()).isEqualTo(2);
+        assertThat(mixed.evaluate(GBP_10_00, RoundingMode.UNNECESSARY)).isEqualTo(Money.parse("GBP 12.99"));
+    }
+
+    @Test
+    void test_currencyMismatch() {
+        var expr = MoneyExpression.start().plus(GBP_1_99);
+        assertThatExceptionOfType(CurrencyMismatchException.class)
+            .isThrownBy(() -> expr.evaluate(Money.parse("USD 1.00"), RoundingMode.HALF_EVEN));
+        assertThat(MoneyExpression.start().plus(BigDecimal.ONE).evaluate(Money.parse("USD 1.00"), RoundingMode.HALF_EVEN))
+            .isEqualTo(Money.parse("USD 2.00"));
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_evaluateAll() {
+        var expr = MoneyExpression.start().multipliedBy(new BigDecimal("1.2")).plus(BigDecimal.ONE);
+        var results = expr.evaluateAll(List.of(GBP_10_00, Money.parse("USD 0.05"), BigMoney.parse("JPY 7")), RoundingMode.HALF_EVEN);
+        assertThat(results).containsExactly(Money.parse("GBP 13.00"), Money.parse("USD 1.06"), Money.parse("JPY 9"));
+        assertThatExceptionOfType(UnsupportedOperationException.class)
+            .isThrownBy(() -> results.add(GBP_10_00));
+    }
+
+    @Test
+    void test_bound() {
+        var expr = BigMoney.parse("GBP 1.005").toExpression().multipliedBy(2);
+        assertThat(expr.evaluate(RoundingMode.UNNECESSARY)).isEqualTo(Money.parse("GBP 2.01"));
+        assertThat(expr.evaluate(GBP_10_00, RoundingMode.UNNECESSARY)).isEqualTo(Money.parse("GBP 20.00"));
+        assertThat(MoneyExpression.of(GBP_1_99).evaluate(RoundingMode.UNNECESSARY)).isEqualTo(GBP_1_99);
+        assertThatExceptionOfType(IllegalStateException.class)
+            .isThrownBy(() -> MoneyExpression.start().evaluate(RoundingMode.HALF_EVEN));
+    }
+
+    @Test
+    void test_immutable() {
+        var base = MoneyExpression.start().multipliedBy(2);
+        var derived = base.multipliedBy(3);
+        assertThat(base.evaluate(GBP_10_00, RoundingMode.UNNECESSARY)).isEqualTo(Money.parse("GBP 20.00"));
+        assertThat(derived.evaluate(GBP_10_00, RoundingMode.UNNECESSARY)).isEqualTo(Money.parse("GBP 60.00"));
+    }
+
+    @Test
+    void test_invalid() {
+        var expr = MoneyExpression.start();
+        assertThatExceptionOfType(ArithmeticException.class)
+            .isThrownBy(() -> expr.dividedBy(0));
+        assertThatExceptionOfType(ArithmeticException.class)
+            .isThrownBy(() -> expr.dividedBy(3).evaluate(GBP_10_00, RoundingMode.UNNECESSARY));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> expr.rounded(-1, RoundingMode.HALF_EVEN));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> expr.evaluate(GBP_10_00, -1, RoundingMode.HALF_EVEN));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> expr.multipliedBy(null));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> expr.plus((BigMoneyProvider) null));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> expr.evaluate(null, RoundingMode.HALF_EVEN));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> expr.evaluate(GBP_10_00, null));
+    }
+
+}
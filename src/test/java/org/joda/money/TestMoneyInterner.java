@@ -0,0 +1,130 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.util.ArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test MoneyInterner.
+ */
+class TestMoneyInterner {
+
+    private static final CurrencyUnit GBP = CurrencyUnit.of("GBP");
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_capacity() {
+        assertThat(new MoneyInterner(1).getCapacity()).isEqualTo(4);
+        assertThat(new MoneyInterner(4).getCapacity()).isEqualTo(4);
+        assertThat(new MoneyInterner(5).getCapacity()).isEqualTo(8);
+        assertThat(new MoneyInterner(1000).getCapacity()).isEqualTo(1024);
+        assertThat(new MoneyInterner(1000)).hasToString("MoneyInterner[capacity=1024]");
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> new MoneyInterner(0));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> new MoneyInterner((1 << 30) + 1));
+    }
+
+    @Test
+    void test_intern_money() {
+        var test = new MoneyInterner(1024);
+        var first = Money.parse("GBP 12.99");
+        var second = Money.parse("GBP 12.99");
+        assertThat(second).isNotSameAs(first);
+        assertThat(test.intern(first)).isSameAs(first);
+        assertThat(test.intern(second)).isSameAs(first);
+        assertThat(test.intern(Money.parse("GBP 13.99"))).isNotSameAs(first);
+        assertThat(test.intern(Money.parse("USD 12.99"))).isNotSameAs(first);
+    }
+
+    @Test
+    void test_intern_bigMoney() {
+        var test = new MoneyInterner(1024);
+        var first = BigMoney.parse("GBP 12.990");
+        assertThat(test.intern(first)).isSameAs(first);
+        assertThat(test.intern(BigMoney.parse("GBP 12.990"))).isSameAs(first);
+        assertThat(test.intern(BigMoney.parse("GBP 12.99"))).isNotSameAs(first).isEqualTo(BigMoney.parse("GBP 12.99"));
+        // Money and BigMoney are never equal, so do not interfere
+        var money = Money.parse("GBP 12.99");
+        assertThat(test.intern(money)).isSameAs(money);
+    }
+
+    @Test
+    void test_intern_bounded() {
+        var test = new MoneyInterner(64);
+        var retained = 0;
+        var values = new ArrayList<Money>();
+        for (var i = 0; i < 10_000; i++) {
+            values.add(test.intern(Money.ofMinor(GBP, 100_000 + i)));
+        }
+        for (var value : values) {
+            retained += test.intern(Money.of(GBP, value.getAmount())) == value ? 1 : 0;
+        }
+        assertThat(retained).isLessThanOrEqualTo(64);
+    }
+
+    @Test
+    void test_clear() {
+        var test = new MoneyInterner(16);
+        var first = Money.parse("GBP 12.99");
+        test.intern(first);
+        test.clear();
+        var second = Money.parse("GBP 12.99");
+        assertThat(test.intern(second)).isSameAs(second);
+    }
+
+    @Test
+    void test_concurrent() throws Exception {
+        var test = new MoneyInterner(4096);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            var futures = new ArrayList<Future<?>>();
+            for (var t = 0; t < 4; t++) {
+                futures.add(executor.submit(() -> {
+                    for (var i = 0; i < 20_000; i++) {
+                        var value = Money.ofMinor(GBP, 10_000 + i % 500);
+                        assertThat(test.intern(value)).isEqualTo(value);
+                    }
+                }));
+            }
+            for (var future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        var canonical = test.intern(Money.ofMinor(GBP, 10_123));
+        assertThat(test.intern(Money.ofMinor(GBP, 10_123))).isSameAs(canonical);
+    }
+
+    @Test
+    void test_intern_null() {
+        var test = new MoneyInterner(16);
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> test.intern((Money) null));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> test.intern((BigMoney) null));
+    }
+
+}
@@ -0,0 +1,205 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.text.ParsePosition;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/**
+ * Test MoneyJsonCodec.
+ */
+class TestMoneyJsonCodec {
+
+    private static final CurrencyUnit GBP = CurrencyUnit.of("GBP");
+    private static final CurrencyUnit USD = CurrencyUnit.of("USD");
+    private static final MoneyJsonCodec STRING = MoneyJsonCodec.of();
+    private static final MoneyJsonCodec NUMBER = MoneyJsonCodec.of().withAmountAsNumber(true);
+
+    public static Object[][] data_amounts() {
+        return new Object[][] {
+            {"USD 12.34", "12.34"},
+            {"USD -12.34", "-12.34"},
+            {"USD 0.05", "0.05"},
+            {"USD -0.05", "-0.05"},
+            {"USD 0.00", "0.00"},
+            {"JPY 0", "0"},
+            {"JPY 1200", "1200"},
+            {"GBP 123456789012345678.9", "123456789012345678.9"},
+            {"GBP 1234567890123456789", "1234567890123456789"},
+            {"GBP -123456789012345678901234567890.123", "-123456789012345678901234567890.123"},
+            {"GBP 0.0000000000000000000000000000000000000000001", "0.0000000000000000000000000000000000000000001"},
+        };
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_of() {
+        assertThat(STRING.isAmountAsNumber()).isFalse();
+        assertThat(NUMBER.isAmountAsNumber()).isTrue();
+        assertThat(NUMBER.withAmountAsNumber(false)).isSameAs(STRING);
+    }
+
+    @ParameterizedTest
+    @MethodSource("data_amounts")
+    void test_toJson(String money, String amount) {
+        var bigMoney = BigMoney.parse(money);
+        var code = bigMoney.getCurrencyUnit().getCode();
+        assertThat(STRING.toJson(bigMoney)).isEqualTo("{\"currency\":\"" + code + "\",\"amount\":\"" + amount + "\"}");
+        assertThat(NUMBER.toJson(bigMoney)).isEqualTo("{\"currency\":\"" + code + "\",\"amount\":" + amount + "}");
+    }
+
+    @ParameterizedTest
+    @MethodSource("data_amounts")
+    void test_roundTrip(String money, String amount) throws IOException {
+        var bigMoney = BigMoney.parse(money);
+        for (MoneyJsonCodec codec : new MoneyJsonCodec[] {STRING, NUMBER}) {
+            var json = codec.toJson(bigMoney);
+            assertThat(codec.readBigMoney(json)).isEqualTo(bigMoney);
+            assertThat(codec.readBigMoney(new StringReader(json))).isEqualTo(bigMoney);
+            assertThat(codec.readBigMoney(ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8)))).isEqualTo(bigMoney);
+        }
+    }
+
+    @Test
+    void test_write_targets() throws IOException {
+        var money = Money.parse("GBP 1.50");
+        var expected = "{\"currency\":\"GBP\",\"amount\":\"1.50\"}";
+        var writer = new StringWriter();
+        STRING.write(money, writer);
+        assertThat(writer.toString()).isEqualTo(expected);
+        var charBuffer = CharBuffer.allocate(64);
+        STRING.write(money, charBuffer);
+        assertThat(charBuffer.flip().toString()).isEqualTo(expected);
+        var byteBuffer = ByteBuffer.allocate(64);
+        STRING.write(money, byteBuffer);
+        assertThat(new String(byteBuffer.array(), 0, byteBuffer.position(), StandardCharsets.US_ASCII)).isEqualTo(expected);
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_read_lenient() {
+        assertThat(STRING.readBigMoney(" {\n \"amount\" : 12.5 ,\t\"currency\" : \"USD\" } "))
+            .isEqualTo(BigMoney.of(USD, new BigDecimal("12.5")));
+        assertThat(NUMBER.readMoney("{\"currency\":\"GBP\",\"amount\":\"12.5\"}"))
+            .isEqualTo(Money.parse("GBP 12.50"));
+        assertThat(STRING.readBigMoney("{\"currency\":\"GBP\",\"amount\":1.25e2}"))
+            .isEqualTo(BigMoney.parse("GBP 125"));
+        assertThat(STRING.readBigMoney("{\"currency\":\"GBP\",\"amount\":125E-2}"))
+            .isEqualTo(BigMoney.parse("GBP 1.25"));
+        assertThat(STRING.readBigMoney("{\"currency\":\"GBP\",\"amount\":-0}"))
+            .isEqualTo(BigMoney.parse("GBP 0"));
+    }
+
+    @Test
+    void test_read_sequence() throws IOException {
+        var json = "{\"currency\":\"GBP\",\"amount\":1} {\"currency\":\"USD\",\"amount\":\"2.00\"}";
+        var reader = new StringReader(json);
+        assertThat(STRING.readMoney(reader)).isEqualTo(Money.parse("GBP 1.00"));
+        assertThat(STRING.readMoney(reader)).isEqualTo(Money.parse("USD 2.00"));
+        assertThat(reader.read()).isEqualTo(-1);
+
+        var pos = new ParsePosition(0);
+        assertThat(STRING.readBigMoney(json, pos)).isEqualTo(BigMoney.parse("GBP 1"));
+        assertThat(pos.getIndex()).isEqualTo(29);
+        assertThat(STRING.readBigMoney(json, pos)).isEqualTo(BigMoney.parse("USD 2.00"));
+        assertThat(pos.getIndex()).isEqualTo(json.length());
+
+        var buffer = ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8));
+        assertThat(STRING.readMoney(buffer)).isEqualTo(Money.parse("GBP 1.00"));
+        assertThat(buffer.position()).isEqualTo(29);
+        assertThat(STRING.readMoney(buffer)).isEqualTo(Money.parse("USD 2.00"));
+        assertThat(buffer.hasRemaining()).isFalse();
+    }
+
+    @Test
+    void test_read_parsePosition_error() {
+        var pos = new ParsePosition(0);
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> STRING.readBigMoney("{\"currency\":\"GBP\",\"value\":1}", pos));
+        assertThat(pos.getIndex()).isEqualTo(0);
+        assertThat(pos.getErrorIndex()).isEqualTo(25);
+    }
+
+    public static Object[][] data_invalid() {
+        return new Object[][] {
+            {""},
+            {"[]"},
+            {"{}"},
+            {"{\"currency\":\"GBP\"}"},
+            {"{\"amount\":1}"},
+            {"{\"currency\":\"GBP\",\"amount\":1,\"amount\":2}"},
+            {"{\"currency\":\"GBP\",\"currency\":\"GBP\",\"amount\":2}"},
+            {"{\"currency\":\"GBP\",\"amount\":1,\"other\":2}"},
+            {"{\"currency\":\"GBP\",\"amount\":1"},
+            {"{\"currency\":\"GBP\",\"amount\":1}x"},
+            {"{\"currency\":\"GBP\",\"amount\":\"1\"x}"},
+            {"{\"currency\":\"GBP\",\"amount\":\"\"}"},
+            {"{\"currency\":\"GBP\",\"amount\":-}"},
+            {"{\"currency\":\"GBP\",\"amount\":1.}"},
+            {"{\"currency\":\"GBP\",\"amount\":1e}"},
+            {"{\"currency\":\"GBP\",\"amount\":1e9999}"},
+            {"{\"currency\":\"GBP\",\"amount\":abc}"},
+            {"{\"curr\\u0065ncy\":\"GBP\",\"amount\":1}"},
+            {"{\"currency\":GBP,\"amount\":1}"},
+            {"{\"currency\":\"GBPX\",\"amount\":1}"},
+        };
+    }
+
+    @ParameterizedTest
+    @MethodSource("data_invalid")
+    void test_read_invalid(String json) {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> STRING.readBigMoney(json));
+    }
+
+    @Test
+    void test_read_unknownCurrency() {
+        assertThatExceptionOfType(IllegalCurrencyException.class)
+            .isThrownBy(() -> STRING.readBigMoney("{\"currency\":\"ABC\",\"amount\":1}"));
+        assertThatExceptionOfType(IllegalCurrencyException.class)
+            .isThrownBy(() -> STRING.readBigMoney("{\"currency\":\"gbp\",\"amount\":1}"));
+    }
+
+    @Test
+    void test_readMoney_scaleTooLarge() {
+        assertThatExceptionOfType(ArithmeticException.class)
+            .isThrownBy(() -> STRING.readMoney("{\"currency\":\"GBP\",\"amount\":1.234}"));
+    }
+
+    @Test
+    void test_nulls() {
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> STRING.toJson(null));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> STRING.write(Money.of(GBP, BigDecimal.ONE), (Appendable) null));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> STRING.readBigMoney((CharSequence) null));
+    }
+
+}
@@ -0,0 +1,165 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test MoneyMathContext.
+ */
+class TestMoneyMathContext {
+
+    private static final CurrencyUnit EUR = CurrencyUnit.EUR;
+    private static final BigMoney USD_1_13 = BigMoney.parse("USD 1.13");
+    private static final MoneyMathContext SCALE_4 = MoneyMathContext.ofScale(4, RoundingMode.HALF_EVEN);
+    private static final MoneyMathContext PRECISION_5 = MoneyMathContext.ofPrecision(5, RoundingMode.HALF_EVEN);
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_factories() {
+        assertThat(SCALE_4.isScaleLimited()).isTrue();
+        assertThat(SCALE_4.getMaxScale()).isEqualTo(4);
+        assertThat(SCALE_4.getMaxPrecision()).isEqualTo(0);
+        assertThat(SCALE_4.getRoundingMode()).isEqualTo(RoundingMode.HALF_EVEN);
+        assertThat(SCALE_4).hasToString("MoneyMathContext[scale=4, HALF_EVEN]");
+        assertThat(PRECISION_5.isScaleLimited()).isFalse();
+        assertThat(PRECISION_5.getMaxScale()).isEqualTo(-1);
+        assertThat(PRECISION_5.getMaxPrecision()).isEqualTo(5);
+        assertThat(PRECISION_5).hasToString("MoneyMathContext[precision=5, HALF_EVEN]");
+    }
+
+    @Test
+    void test_factories_invalid() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> MoneyMathContext.ofScale(-1, RoundingMode.HALF_EVEN));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> MoneyMathContext.ofPrecision(0, RoundingMode.HALF_EVEN));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> MoneyMathContext.ofScale(2, null));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> MoneyMathContext.ofPrecision(2, null));
+    }
+
+    @Test
+    void test_equalsHashCode() {
+        var same = MoneyMathContext.ofScale(4, RoundingMode.HALF_EVEN);
+        assertThat(SCALE_4).isEqualTo(same).hasSameHashCodeAs(same);
+        assertThat(SCALE_4).isNotEqualTo(MoneyMathContext.ofScale(4, RoundingMode.HALF_UP));
+        assertThat(SCALE_4).isNotEqualTo(MoneyMathContext.ofScale(5, RoundingMode.HALF_EVEN));
+        assertThat(SCALE_4).isNotEqualTo(MoneyMathContext.ofPrecision(4, RoundingMode.HALF_EVEN));
+        assertThat(PRECISION_5).isEqualTo(MoneyMathContext.ofPrecision(5, RoundingMode.HALF_EVEN));
+        assertThat(SCALE_4).isNotEqualTo("");
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_multipliedBy_scale() {
+        assertThat(USD_1_13.multipliedBy(new BigDecimal("1.0025"), SCALE_4)).isEqualTo(BigMoney.parse("USD 1.1328"));
+        assertThat(USD_1_13.multipliedBy(new BigDecimal("2.5"), SCALE_4)).isEqualTo(BigMoney.parse("USD 2.825"));
+        assertThat(USD_1_13.multipliedBy(BigDecimal.ONE, SCALE_4)).isEqualTo(USD_1_13);
+        assertThat(BigMoney.parse("USD 1.123456").multipliedBy(BigDecimal.ONE, SCALE_4)).isEqualTo(BigMoney.parse("USD 1.1235"));
+    }
+
+    @Test
+    void test_multipliedBy_precision() {
+        assertThat(USD_1_13.multipliedBy(new BigDecimal("1.0025"), PRECISION_5)).isEqualTo(BigMoney.parse("USD 1.1328"));
+        assertThat(BigMoney.parse("USD 123456.78").multipliedBy(new BigDecimal("1.5"), PRECISION_5))
+            .isEqualTo(BigMoney.parse("USD 185185"));
+        assertThat(BigMoney.parse("USD 99999.96").multipliedBy(BigDecimal.ONE, PRECISION_5))
+            .isEqualTo(BigMoney.parse("USD 100000"));
+        assertThat(BigMoney.parse("USD 0.000123456").multipliedBy(BigDecimal.ONE, PRECISION_5))
+            .isEqualTo(BigMoney.parse("USD 0.00012346"));
+    }
+
+    @Test
+    void test_interestAccrual_bounded() {
+        var daily = new BigDecimal("1.000123287671232876");
+        var context = MoneyMathContext.ofScale(10, RoundingMode.HALF_EVEN);
+        var bounded = BigMoney.parse("GBP 1000000.00");
+        var unbounded = bounded;
+        for (var i = 0; i < 365; i++) {
+            bounded = bounded.multipliedBy(daily, context);
+            assertThat(bounded.getScale()).isLessThanOrEqualTo(10);
+            if (i < 20) {
+                unbounded = unbounded.multipliedBy(daily);
+            }
+        }
+        assertThat(unbounded.getScale()).isEqualTo(2 + 20 * 18);
+        var exact = new BigDecimal("1000000.00").multiply(daily.pow(365));
+        assertThat(bounded.getAmount().subtract(exact).abs()).isLessThan(new BigDecimal("0.000001"));
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_dividedBy_scale() {
+        assertThat(USD_1_13.dividedBy(new BigDecimal("3"), SCALE_4)).isEqualTo(BigMoney.parse("USD 0.3767"));
+        assertThat(USD_1_13.dividedBy(new BigDecimal("2"), SCALE_4)).isEqualTo(BigMoney.parse("USD 0.565"));
+        assertThat(BigMoney.parse("USD 10.00").dividedBy(new BigDecimal("2"), SCALE_4)).isEqualTo(BigMoney.parse("USD 5.00"));
+        assertThat(BigMoney.parse("USD 10.123456").dividedBy(new BigDecimal("1"), SCALE_4)).isEqualTo(BigMoney.parse("USD 10.1235"));
+        assertThat(USD_1_13.dividedBy(BigDecimal.ONE, SCALE_4)).isSameAs(USD_1_13);
+        assertThat(BigMoney.parse("JPY 100").dividedBy(new BigDecimal("3"), MoneyMathContext.ofScale(0, RoundingMode.DOWN)))
+            .isEqualTo(BigMoney.parse("JPY 33"));
+    }
+
+    @Test
+    void test_dividedBy_precision() {
+        assertThat(USD_1_13.dividedBy(new BigDecimal("3"), PRECISION_5)).isEqualTo(BigMoney.parse("USD 0.37667"));
+        assertThat(BigMoney.parse("USD 10.00").dividedBy(new BigDecimal("2"), PRECISION_5)).isEqualTo(BigMoney.parse("USD 5.00"));
+        assertThat(BigMoney.parse("USD 1000000").dividedBy(new BigDecimal("3"), PRECISION_5)).isEqualTo(BigMoney.parse("USD 333333"));
+        assertThat(BigMoney.parse("USD 199999.9").dividedBy(new BigDecimal("2"), PRECISION_5)).isEqualTo(BigMoney.parse("USD 100000"));
+    }
+
+    @Test
+    void test_dividedBy_invalid() {
+        assertThatExceptionOfType(ArithmeticException.class)
+            .isThrownBy(() -> USD_1_13.dividedBy(BigDecimal.ZERO, SCALE_4));
+        assertThatExceptionOfType(ArithmeticException.class)
+            .isThrownBy(() -> USD_1_13.dividedBy(new BigDecimal("3"), MoneyMathContext.ofScale(4, RoundingMode.UNNECESSARY)));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> USD_1_13.dividedBy(null, SCALE_4));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> USD_1_13.dividedBy(BigDecimal.TEN, (MoneyMathContext) null));
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_convertedTo() {
+        var rate = new BigDecimal("0.9187654321");
+        assertThat(USD_1_13.convertedTo(EUR, rate, SCALE_4)).isEqualTo(BigMoney.parse("EUR 1.0382"));
+        assertThat(USD_1_13.convertedTo(EUR, rate, PRECISION_5)).isEqualTo(BigMoney.parse("EUR 1.0382"));
+        assertThat(USD_1_13.convertedTo(EUR, new BigDecimal("2"), SCALE_4)).isEqualTo(BigMoney.parse("EUR 2.26"));
+        assertThat(USD_1_13.convertedTo(USD_1_13.getCurrencyUnit(), BigDecimal.ONE, SCALE_4)).isSameAs(USD_1_13);
+    }
+
+    @Test
+    void test_convertedTo_invalid() {
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> USD_1_13.convertedTo(EUR, new BigDecimal("-1"), SCALE_4));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> USD_1_13.convertedTo(USD_1_13.getCurrencyUnit(), BigDecimal.TEN, SCALE_4));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> USD_1_13.convertedTo(EUR, BigDecimal.TEN, null));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> USD_1_13.multipliedBy(BigDecimal.TEN, (MoneyMathContext) null));
+    }
+
+}
@@ -0,0 +1,173 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test MoneyStatistics.
+ */
+class TestMoneyStatistics {
+
+    private static final CurrencyUnit GBP = CurrencyUnit.of("GBP");
+    private static final CurrencyUnit USD = CurrencyUnit.of("USD");
+    private static final Money GBP_BIG = Money.parse("GBP 123456789012345678901234567890");
+    private static final Money GBP_M_BIG = GBP_BIG.negated();
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_empty() {
+        var test = new MoneyStatistics(GBP);
+        assertThat(test.getCurrencyUnit()).isEqualTo(GBP);
+        assertThat(test.getCount()).isEqualTo(0);
+        assertThat(test.getSum()).isEqualTo(Money.zero(GBP));
+        assertThatExceptionOfType(NoSuchElementException.class)
+            .isThrownBy(() -> test.getMin());
+        assertThatExceptionOfType(NoSuchElementException.class)
+            .isThrownBy(() -> test.getMax());
+        assertThatExceptionOfType(NoSuchElementException.class)
+            .isThrownBy(() -> test.getAverage(RoundingMode.HALF_UP));
+        assertThat(test.getSumBigMoney()).isEqualTo(BigMoney.parse("GBP 0.00"));
+        assertThat(test).hasToString("MoneyStatistics[GBP, count=0]");
+    }
+
+    @Test
+    void test_accept() {
+        var test = new MoneyStatistics(GBP);
+        test.accept(Money.parse("GBP 1.23"));
+        test.accept(Money.parse("GBP -2.50"));
+        test.accept(Money.parse("GBP 0.75"));
+        assertThat(test.getCount()).isEqualTo(3);
+        assertThat(test.getSum()).isEqualTo(Money.parse("GBP -0.52"));
+        assertThat(test.getMin()).isEqualTo(Money.parse("GBP -2.50"));
+        assertThat(test.getMax()).isEqualTo(Money.parse("GBP 1.23"));
+        assertThat(test).hasToString("MoneyStatistics[GBP, count=3, sum=GBP -0.52, min=GBP -2.50, max=GBP 1.23, average=GBP -0.17]");
+    }
+
+    @Test
+    void test_acceptMinor() {
+        var test = new MoneyStatistics(GBP);
+        test.acceptMinor(100);
+        test.acceptMinor(-300);
+        test.accept(Money.parse("GBP 4.00"));
+        assertThat(test.getCount()).isEqualTo(3);
+        assertThat(test.getSum()).isEqualTo(Money.parse("GBP 2.00"));
+        assertThat(test.getMin()).isEqualTo(Money.parse("GBP -3.00"));
+        assertThat(test.getMax()).isEqualTo(Money.parse("GBP 4.00"));
+    }
+
+    @Test
+    void test_average() {
+        var test = new MoneyStatistics(GBP);
+        test.acceptMinor(100);
+        test.acceptMinor(100);
+        test.acceptMinor(101);
+        assertThat(test.getAverage(RoundingMode.HALF_UP)).isEqualTo(Money.parse("GBP 1.00"));
+        assertThat(test.getAverage(RoundingMode.UP)).isEqualTo(Money.parse("GBP 1.01"));
+        assertThat(test.getAverageBigMoney(5, RoundingMode.HALF_UP)).isEqualTo(BigMoney.parse("GBP 1.00333"));
+        assertThat(test.getAverageBigMoney(-1, RoundingMode.HALF_UP)).isEqualTo(BigMoney.of(GBP, BigDecimal.ZERO));
+        assertThat(test.getSumBigMoney()).isEqualTo(BigMoney.parse("GBP 3.01"));
+        assertThatExceptionOfType(ArithmeticException.class)
+            .isThrownBy(() -> test.getAverage(RoundingMode.UNNECESSARY));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> test.getAverage(null));
+    }
+
+    @Test
+    void test_average_overflowLong() {
+        var test = new MoneyStatistics(GBP);
+        test.acceptMinor(Long.MAX_VALUE);
+        test.acceptMinor(Long.MAX_VALUE);
+        test.acceptMinor(Long.MAX_VALUE - 3);
+        assertThat(test.getAverage(RoundingMode.DOWN)).isEqualTo(Money.ofMinor(GBP, Long.MAX_VALUE - 1));
+        assertThat(test.getSumBigMoney().getAmount()).isEqualTo(BigDecimal.valueOf(Long.MAX_VALUE, 2).multiply(BigDecimal.valueOf(3)).subtract(new BigDecimal("0.03")));
+    }
+
+    @Test
+    void test_accept_invalid() {
+        var test = new MoneyStatistics(GBP);
+        assertThatExceptionOfType(CurrencyMismatchException.class)
+            .isThrownBy(() -> test.accept(Money.parse("USD 1.00")));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> test.accept(null));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> new MoneyStatistics(null));
+        assertThat(test.getCount()).isEqualTo(0);
+    }
+
+    @Test
+    void test_sum_overflowLong() {
+        var test = new MoneyStatistics(GBP);
+        test.accept(Money.ofMinor(GBP, Long.MAX_VALUE));
+        test.accept(Money.ofMinor(GBP, Long.MAX_VALUE));
+        test.accept(Money.ofMinor(GBP, -5));
+        assertThat(test.getSum()).isEqualTo(Money.ofMinor(GBP, Long.MAX_VALUE).plus(Money.ofMinor(GBP, Long.MAX_VALUE - 5)));
+        assertThat(test.getMin()).isEqualTo(Money.ofMinor(GBP, -5));
+        assertThat(test.getMax()).isEqualTo(Money.ofMinor(GBP, Long.MAX_VALUE));
+    }
+
+    @Test
+    void test_big() {
+        var test = new MoneyStatistics(GBP);
+        test.accept(GBP_BIG);
+        assertThat(test.getMin()).isEqualTo(GBP_BIG);
+        assertThat(test.getMax()).isEqualTo(GBP_BIG);
+        test.accept(Money.parse("GBP 1.00"));
+        assertThat(test.getMin()).isEqualTo(Money.parse("GBP 1.00"));
+        assertThat(test.getMax()).isEqualTo(GBP_BIG);
+        test.accept(GBP_M_BIG);
+        assertThat(test.getMin()).isEqualTo(GBP_M_BIG);
+        assertThat(test.getMax()).isEqualTo(GBP_BIG);
+        assertThat(test.getSum()).isEqualTo(Money.parse("GBP 1.00"));
+        assertThat(test.getCount()).isEqualTo(3);
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_combine() {
+        var test1 = new MoneyStatistics(GBP);
+        test1.accept(Money.parse("GBP 1.23"));
+        test1.accept(GBP_M_BIG);
+        var test2 = new MoneyStatistics(GBP);
+        test2.accept(Money.parse("GBP 5.00"));
+        test2.accept(GBP_BIG);
+        assertThat(test1.combine(test2)).isSameAs(test1);
+        assertThat(test1.getCount()).isEqualTo(4);
+        assertThat(test1.getSum()).isEqualTo(Money.parse("GBP 6.23"));
+        assertThat(test1.getMin()).isEqualTo(GBP_M_BIG);
+        assertThat(test1.getMax()).isEqualTo(GBP_BIG);
+        test1.combine(new MoneyStatistics(GBP));
+        assertThat(test1.getCount()).isEqualTo(4);
+        assertThat(test1.getMax()).isEqualTo(GBP_BIG);
+    }
+
+    @Test
+    void test_combine_invalid() {
+        var test = new MoneyStatistics(GBP);
+        assertThatExceptionOfType(CurrencyMismatchException.class)
+            .isThrownBy(() -> test.combine(new MoneyStatistics(USD)));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> test.combine(null));
+    }
+
+}
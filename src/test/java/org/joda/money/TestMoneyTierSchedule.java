@@ -0,0 +1,167 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test MoneyTierSchedule.
+ */
+class TestMoneyTierSchedule {
+
+    private static final CurrencyUnit GBP = CurrencyUnit.of("GBP");
+    private static final CurrencyUnit USD = CurrencyUnit.of("USD");
+    private static final CurrencyUnit JPY = CurrencyUnit.of("JPY");
+
+    private static final MoneyTierSchedule<String> SCHEDULE = MoneyTierSchedule.<String>builder()
+        .addTier(Money.parse("GBP 1000.00"), "Silver", 50)
+        .addTier(Money.parse("GBP 0.00"), "Bronze", 100)
+        .addTier(Money.parse("GBP 10000.00"), "Gold", 25)
+        .addTier(Money.parse("USD 500.00"), "Premium")
+        .build();
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_accessors() {
+        assertThat(SCHEDULE.getCurrencyUnits()).containsExactlyInAnyOrder(GBP, USD);
+        assertThat(SCHEDULE.getTierCount(GBP)).isEqualTo(3);
+        assertThat(SCHEDULE.getTierCount(USD)).isEqualTo(1);
+        assertThat(SCHEDULE.getTierCount(JPY)).isEqualTo(0);
+        assertThat(SCHEDULE.getLowerBound(GBP, 1)).isEqualTo(Money.parse("GBP 1000.00"));
+        assertThat(SCHEDULE.getTier(GBP, 2)).isEqualTo("Gold");
+        assertThatExceptionOfType(IndexOutOfBoundsException.class)
+            .isThrownBy(() -> SCHEDULE.getTier(GBP, 3));
+        assertThatExceptionOfType(IndexOutOfBoundsException.class)
+            .isThrownBy(() -> SCHEDULE.getLowerBound(JPY, 0));
+        assertThat(SCHEDULE).hasToString("MoneyTierSchedule[GBP: 0.00 1000.00 10000.00, USD: 500.00]");
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_findTier() {
+        assertThat(SCHEDULE.findTier(Money.parse("GBP -0.01"))).isNull();
+        assertThat(SCHEDULE.findTier(Money.parse("GBP 0.00"))).isEqualTo("Bronze");
+        assertThat(SCHEDULE.findTier(Money.parse("GBP 999.99"))).isEqualTo("Bronze");
+        assertThat(SCHEDULE.findTier(Money.parse("GBP 1000.00"))).isEqualTo("Silver");
+        assertThat(SCHEDULE.findTier(Money.parse("GBP 9999.99"))).isEqualTo("Silver");
+        assertThat(SCHEDULE.findTier(Money.parse("GBP 10000.00"))).isEqualTo("Gold");
+        assertThat(SCHEDULE.findTier(Money.parse("USD 499.99"))).isNull();
+        assertThat(SCHEDULE.findTier(Money.parse("USD 500.00"))).isEqualTo("Premium");
+        assertThat(SCHEDULE.findTier(Money.parse("JPY 1000"))).isNull();
+    }
+
+    @Test
+    void test_findTier_minor() {
+        assertThat(SCHEDULE.findTierIndex(GBP, -1)).isEqualTo(-1);
+        assertThat(SCHEDULE.findTierIndex(GBP, 0)).isEqualTo(0);
+        assertThat(SCHEDULE.findTierIndex(GBP, 100_000)).isEqualTo(1);
+        assertThat(SCHEDULE.findTierIndex(GBP, Long.MAX_VALUE)).isEqualTo(2);
+        assertThat(SCHEDULE.findTierIndex(JPY, 0)).isEqualTo(-1);
+        assertThat(SCHEDULE.findTier(GBP, 99_999)).isEqualTo("Bronze");
+        assertThat(SCHEDULE.findTier(GBP, Long.MIN_VALUE)).isNull();
+        assertThat(SCHEDULE.findTier(JPY, 0)).isNull();
+    }
+
+    @Test
+    void test_findTier_large() {
+        var huge = Money.of(GBP, new BigDecimal("1E+20"));
+        assertThat(SCHEDULE.findTier(huge)).isEqualTo("Gold");
+        assertThat(SCHEDULE.findTier(huge.negated())).isNull();
+    }
+
+    @Test
+    void test_findTier_matchesLinearScan() {
+        var bounds = new Money[] {Money.parse("GBP 0.00"), Money.parse("GBP 1000.00"), Money.parse("GBP 10000.00")};
+        var names = new String[] {"Bronze", "Silver", "Gold"};
+        var random = new Random(1);
+        for (var i = 0; i < 10_000; i++) {
+            var amount = Money.ofMinor(GBP, random.nextLong(-10_000, 2_000_000));
+            String expected = null;
+            for (var j = 0; j < bounds.length; j++) {
+                if (amount.isGreaterThanOrEqual(bounds[j])) {
+                    expected = names[j];
+                }
+            }
+            assertThat(SCHEDULE.findTier(amount)).isEqualTo(expected);
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_calculateMarginalFee() {
+        // 1% on the first 1000, 0.5% up to 10000, 0.25% above
+        assertThat(SCHEDULE.calculateMarginalFee(Money.parse("GBP 1500.00"), RoundingMode.HALF_EVEN))
+            .isEqualTo(Money.parse("GBP 12.50"));
+        assertThat(SCHEDULE.calculateMarginalFee(Money.parse("GBP 20000.00"), RoundingMode.HALF_EVEN))
+            .isEqualTo(Money.parse("GBP 80.00"));
+        assertThat(SCHEDULE.calculateMarginalFee(Money.parse("GBP 1000.00"), RoundingMode.HALF_EVEN))
+            .isEqualTo(Money.parse("GBP 10.00"));
+        assertThat(SCHEDULE.calculateMarginalFee(Money.parse("GBP -5.00"), RoundingMode.HALF_EVEN))
+            .isEqualTo(Money.parse("GBP 0.00"));
+        assertThat(SCHEDULE.calculateMarginalFee(Money.parse("USD 600.00"), RoundingMode.HALF_EVEN))
+            .isEqualTo(Money.parse("USD 0.00"));
+        assertThat(SCHEDULE.calculateMarginalFee(Money.parse("JPY 600"), RoundingMode.HALF_EVEN))
+            .isEqualTo(Money.parse("JPY 0"));
+    }
+
+    @Test
+    void test_calculateMarginalFee_singleRounding() {
+        // 1% of 1000.00 is 10.00, and 0.5% of 0.51 is 0.00255, giving 10.00255
+        assertThat(SCHEDULE.calculateMarginalFee(Money.parse("GBP 1000.51"), RoundingMode.HALF_EVEN))
+            .isEqualTo(Money.parse("GBP 10.00"));
+        assertThat(SCHEDULE.calculateMarginalFeeMinor(GBP, 100_051, RoundingMode.DOWN)).isEqualTo(1000);
+        assertThat(SCHEDULE.calculateMarginalFeeMinor(GBP, 100_051, RoundingMode.UP)).isEqualTo(1001);
+        assertThat(SCHEDULE.calculateMarginalFeeMinor(JPY, 100_051, RoundingMode.UP)).isEqualTo(0);
+        assertThatExceptionOfType(ArithmeticException.class)
+            .isThrownBy(() -> SCHEDULE.calculateMarginalFeeMinor(GBP, 100_051, RoundingMode.UNNECESSARY));
+    }
+
+    @Test
+    void test_calculateMarginalFee_large() {
+        var amountMinor = Long.MAX_VALUE;
+        var expected = new BigDecimal(amountMinor).subtract(new BigDecimal(1_000_000)).multiply(new BigDecimal(25))
+            .add(new BigDecimal(900_000 * 50 + 100_000 * 100))
+            .divide(new BigDecimal(10_000), 0, RoundingMode.HALF_EVEN);
+        assertThat(SCHEDULE.calculateMarginalFeeMinor(GBP, amountMinor, RoundingMode.HALF_EVEN))
+            .isEqualTo(expected.longValueExact());
+        var huge = Money.of(GBP, new BigDecimal("1E+20"));
+        assertThat(SCHEDULE.calculateMarginalFee(huge, RoundingMode.HALF_EVEN))
+            .isEqualTo(Money.parse("GBP 250000000000000030.00"));
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_builder_invalid() {
+        var builder = MoneyTierSchedule.<String>builder().addTier(Money.parse("GBP 1.00"), "A");
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> builder.addTier(Money.parse("GBP 1.00"), "B"));
+        assertThatExceptionOfType(ArithmeticException.class)
+            .isThrownBy(() -> builder.addTier(Money.of(GBP, new BigDecimal("1E+20")), "B"));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> builder.addTier(null, "B"));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> builder.addTier(Money.parse("GBP 2.00"), null));
+        assertThat(MoneyTierSchedule.builder().build().getCurrencyUnits()).isEmpty();
+    }
+
+}
@@ -0,0 +1,138 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test parallel totals.
+ */
+class TestParallelTotal {
+
+    private static final CurrencyUnit GBP = CurrencyUnit.of("GBP");
+    private static final CurrencyUnit USD = CurrencyUnit.of("USD");
+
+    private static List<Money> monies(int size) {
+        var list = new ArrayList<Money>(size);
+        for (var i = 0; i < size; i++) {
+            list.add(Money.ofMinor(GBP, (i * 7919L) % 100_000 - 50_000));
+        }
+        return list;
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_Money_totalParallel() {
+        var list = monies(100_000);
+        assertThat(Money.totalParallel(GBP, list)).isEqualTo(Money.total(GBP, list));
+    }
+
+    @Test
+    void test_Money_totalParallel_pool() {
+        var list = monies(50_000);
+        var pool = new ForkJoinPool(3);
+        try {
+            assertThat(Money.totalParallel(GBP, list, pool)).isEqualTo(Money.total(GBP, list));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void test_Money_totalParallel_empty() {
+        assertThat(Money.totalParallel(GBP, List.of())).isEqualTo(Money.zero(GBP));
+    }
+
+    @Test
+    void test_Money_totalParallel_overflowLong() {
+        var list = new ArrayList<Money>();
+        for (var i = 0; i < 10_000; i++) {
+            list.add(Money.ofMinor(GBP, Long.MAX_VALUE));
+        }
+        var expected = Money.of(GBP, BigDecimal.valueOf(Long.MAX_VALUE, 2).multiply(BigDecimal.valueOf(10_000)));
+        assertThat(Money.totalParallel(GBP, list)).isEqualTo(expected);
+        assertThat(Money.total(GBP, list)).isEqualTo(expected);
+    }
+
+    @Test
+    void test_Money_totalParallel_currencyMismatch() {
+        var list = monies(20_000);
+        list.set(15_000, Money.of(USD, 1));
+        assertThatExceptionOfType(CurrencyMismatchException.class)
+            .isThrownBy(() -> Money.totalParallel(GBP, list))
+            .satisfies(ex -> {
+                assertThat(ex.getFirstCurrency()).isEqualTo(GBP);
+                assertThat(ex.getSecondCurrency()).isEqualTo(USD);
+            });
+        assertThatExceptionOfType(CurrencyMismatchException.class)
+            .isThrownBy(() -> Money.totalParallel(USD, monies(3)));
+    }
+
+    @Test
+    void test_Money_totalParallel_nulls() {
+        var list = monies(20_000);
+        list.set(10_000, null);
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> Money.totalParallel(GBP, list));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> Money.totalParallel(null, List.of()));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> Money.totalParallel(GBP, null));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> Money.totalParallel(GBP, List.of(), null));
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_BigMoney_totalParallel_scale() {
+        var list = new ArrayList<BigMoneyProvider>();
+        for (var i = 0; i < 20_000; i++) {
+            list.add(i % 3 == 0 ? BigMoney.parse("GBP 1.2345") : Money.parse("GBP 2.10"));
+        }
+        list.add(BigMoney.parse("GBP 12345678901234567890.5"));
+        var expected = BigMoney.total(GBP, list);
+        assertThat(BigMoney.totalParallel(GBP, list)).isEqualTo(expected);
+        assertThat(BigMoney.totalParallel(GBP, list).getScale()).isEqualTo(4);
+    }
+
+    @Test
+    void test_BigMoney_totalParallel_small() {
+        var list = Arrays.asList(BigMoney.parse("GBP 1"), BigMoney.parse("GBP 2"));
+        assertThat(BigMoney.totalParallel(GBP, list)).isEqualTo(BigMoney.parse("GBP 3"));
+        assertThat(BigMoney.totalParallel(GBP, List.of())).isEqualTo(BigMoney.total(GBP, List.of()));
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_MoneyUtils_parallelTotal_ignoresNulls() {
+        var list = new ArrayList<BigMoneyProvider>(monies(20_000));
+        var expected = BigMoney.total(GBP, list);
+        list.add(0, null);
+        list.add(12_345, null);
+        assertThat(MoneyUtils.parallelTotal(GBP, list)).isEqualTo(expected);
+        assertThat(MoneyUtils.parallelTotal(GBP, Arrays.asList(null, null))).isEqualTo(BigMoney.zero(GBP));
+    }
+
+}
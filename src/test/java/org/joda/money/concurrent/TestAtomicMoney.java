@@ -0,0 +1,177 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money.concurrent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.joda.money.CurrencyMismatchException;
+import org.joda.money.CurrencyUnit;
+import org.joda.money.Money;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test AtomicMoney.
+ */
+class TestAtomicMoney {
+
+    private static final CurrencyUnit GBP = CurrencyUnit.of("GBP");
+    private static final Money GBP_0_00 = Money.parse("GBP 0.00");
+    private static final Money GBP_1_23 = Money.parse("GBP 1.23");
+    private static final Money GBP_2_50 = Money.parse("GBP 2.50");
+    private static final Money USD_1_00 = Money.parse("USD 1.00");
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_constructor() {
+        var test = new AtomicMoney(GBP);
+        assertThat(test.getCurrencyUnit()).isEqualTo(GBP);
+        assertThat(test.get()).isEqualTo(GBP_0_00);
+        assertThat(test.getMinor()).isEqualTo(0);
+        var test2 = new AtomicMoney(GBP_1_23);
+        assertThat(test2.get()).isEqualTo(GBP_1_23);
+        assertThat(test2).hasToString("GBP 1.23");
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> new AtomicMoney((CurrencyUnit) null));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> new AtomicMoney((Money) null));
+        assertThatExceptionOfType(ArithmeticException.class)
+            .isThrownBy(() -> new AtomicMoney(Money.parse("GBP 123456789012345678901234567890")));
+    }
+
+    @Test
+    void test_set() {
+        var test = new AtomicMoney(GBP);
+        test.set(GBP_1_23);
+        assertThat(test.get()).isEqualTo(GBP_1_23);
+        test.setMinor(250);
+        assertThat(test.get()).isEqualTo(GBP_2_50);
+        assertThat(test.getAndSet(GBP_1_23)).isEqualTo(GBP_2_50);
+        assertThat(test.get()).isEqualTo(GBP_1_23);
+        assertThatExceptionOfType(CurrencyMismatchException.class)
+            .isThrownBy(() -> test.set(USD_1_00));
+        assertThat(test.get()).isEqualTo(GBP_1_23);
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_add() {
+        var test = new AtomicMoney(GBP);
+        assertThat(test.getAndAdd(GBP_1_23)).isEqualTo(GBP_0_00);
+        assertThat(test.addAndGet(GBP_1_23)).isEqualTo(Money.parse("GBP 2.46"));
+        assertThat(test.getAndAddMinor(-46)).isEqualTo(246);
+        assertThat(test.addAndGetMinor(50)).isEqualTo(250);
+        assertThat(test.get()).isEqualTo(GBP_2_50);
+    }
+
+    @Test
+    void test_add_invalid() {
+        var test = new AtomicMoney(Money.ofMinor(GBP, Long.MAX_VALUE));
+        assertThatExceptionOfType(ArithmeticException.class)
+            .isThrownBy(() -> test.addAndGetMinor(1));
+        assertThatExceptionOfType(ArithmeticException.class)
+            .isThrownBy(() -> test.getAndAdd(GBP_1_23));
+        assertThatExceptionOfType(CurrencyMismatchException.class)
+            .isThrownBy(() -> test.addAndGet(USD_1_00));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> test.addAndGet(null));
+        assertThat(test.getMinor()).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void test_compareAndSet() {
+        var test = new AtomicMoney(GBP_1_23);
+        assertThat(test.compareAndSet(GBP_2_50, GBP_0_00)).isFalse();
+        assertThat(test.compareAndSet(GBP_1_23, GBP_2_50)).isTrue();
+        assertThat(test.get()).isEqualTo(GBP_2_50);
+        assertThat(test.compareAndSetMinor(123, 0)).isFalse();
+        assertThat(test.compareAndSetMinor(250, 0)).isTrue();
+        assertThat(test.get()).isEqualTo(GBP_0_00);
+        assertThatExceptionOfType(CurrencyMismatchException.class)
+            .isThrownBy(() -> test.compareAndSet(GBP_0_00, USD_1_00));
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_tryDebit() {
+        var test = new AtomicMoney(GBP_2_50);
+        assertThat(test.tryDebit(GBP_1_23, GBP_0_00)).isTrue();
+        assertThat(test.get()).isEqualTo(Money.parse("GBP 1.27"));
+        assertThat(test.tryDebit(GBP_1_23, GBP_0_00)).isTrue();
+        assertThat(test.get()).isEqualTo(Money.parse("GBP 0.04"));
+        assertThat(test.tryDebit(GBP_1_23, GBP_0_00)).isFalse();
+        assertThat(test.get()).isEqualTo(Money.parse("GBP 0.04"));
+        assertThat(test.tryDebit(GBP_1_23, Money.parse("GBP -5.00"))).isTrue();
+        assertThat(test.get()).isEqualTo(Money.parse("GBP -1.19"));
+        assertThat(test.tryDebitMinor(0, -119)).isTrue();
+        assertThat(test.tryDebitMinor(1, -119)).isFalse();
+    }
+
+    @Test
+    void test_tryDebit_extremes() {
+        var test = new AtomicMoney(Money.ofMinor(GBP, Long.MIN_VALUE + 5));
+        assertThat(test.tryDebitMinor(10, Long.MIN_VALUE)).isFalse();
+        assertThat(test.tryDebitMinor(5, Long.MIN_VALUE)).isTrue();
+        assertThat(test.getMinor()).isEqualTo(Long.MIN_VALUE);
+        test.setMinor(Long.MAX_VALUE);
+        assertThat(test.tryDebitMinor(Long.MAX_VALUE, Long.MIN_VALUE)).isTrue();
+        assertThat(test.getMinor()).isEqualTo(0);
+    }
+
+    @Test
+    void test_tryDebit_invalid() {
+        var test = new AtomicMoney(GBP_2_50);
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> test.tryDebit(GBP_1_23.negated(), GBP_0_00));
+        assertThatExceptionOfType(CurrencyMismatchException.class)
+            .isThrownBy(() -> test.tryDebit(USD_1_00, GBP_0_00));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> test.tryDebit(GBP_1_23, null));
+        assertThat(test.get()).isEqualTo(GBP_2_50);
+    }
+
+    @Test
+    void test_tryDebit_concurrent() throws Exception {
+        var test = new AtomicMoney(Money.parse("GBP 1000.00"));
+        var successes = new AtomicInteger();
+        var executor = Executors.newFixedThreadPool(8);
+        try {
+            var futures = new ArrayList<Future<?>>();
+            for (var t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (var i = 0; i < 10_000; i++) {
+                        if (test.tryDebitMinor(3, 0)) {
+                            successes.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (var future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(successes.get()).isEqualTo(33_333);
+        assertThat(test.getMinor()).isEqualTo(1);
+    }
+
+}
@@ -0,0 +1,147 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money.concurrent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.joda.money.CurrencyMismatchException;
+import org.joda.money.CurrencyUnit;
+import org.joda.money.Money;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test MoneyAdder.
+ */
+class TestMoneyAdder {
+
+    private static final CurrencyUnit GBP = CurrencyUnit.of("GBP");
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_singleThread() {
+        var test = new MoneyAdder(GBP);
+        assertThat(test.getCurrencyUnit()).isEqualTo(GBP);
+        assertThat(test.sum()).isEqualTo(Money.zero(GBP));
+        test.add(Money.parse("GBP 1.23"));
+        test.addMinor(-300);
+        test.increment();
+        test.increment();
+        test.decrement();
+        assertThat(test.sum()).isEqualTo(Money.parse("GBP -1.76"));
+        assertThat(test).hasToString("GBP -1.76");
+    }
+
+    @Test
+    void test_add_invalid() {
+        var test = new MoneyAdder(GBP);
+        assertThatExceptionOfType(CurrencyMismatchException.class)
+            .isThrownBy(() -> test.add(Money.parse("USD 1.00")));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> test.add(null));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> new MoneyAdder(null));
+    }
+
+    @Test
+    void test_overflowLong() {
+        var test = new MoneyAdder(GBP);
+        test.addMinor(Long.MAX_VALUE);
+        test.addMinor(Long.MAX_VALUE);
+        test.addMinor(3);
+        test.add(Money.parse("GBP 123456789012345678901234567890"));
+        var expected = BigDecimal.valueOf(Long.MAX_VALUE, 2).multiply(BigDecimal.valueOf(2))
+            .add(new BigDecimal("123456789012345678901234567890.03"));
+        assertThat(test.sum().getAmount()).isEqualTo(expected);
+    }
+
+    @Test
+    void test_reset() {
+        var test = new MoneyAdder(GBP);
+        test.addMinor(123);
+        test.add(Money.parse("GBP 123456789012345678901234567890"));
+        assertThat(test.sumThenReset()).isEqualTo(Money.parse("GBP 123456789012345678901234567891.23"));
+        assertThat(test.sum()).isEqualTo(Money.zero(GBP));
+        test.addMinor(5);
+        test.reset();
+        assertThat(test.sum()).isEqualTo(Money.zero(GBP));
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_concurrent() throws Exception {
+        var test = new MoneyAdder(GBP);
+        var threads = 16;
+        var perThread = 100_000;
+        var start = new CountDownLatch(1);
+        var executor = Executors.newFixedThreadPool(threads);
+        try {
+            var futures = new ArrayList<Future<?>>();
+            for (var t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (var i = 0; i < perThread; i++) {
+                        if (i % 2 == 0) {
+                            test.addMinor(3);
+                        } else {
+                            test.add(Money.ofMinor(GBP, -1));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (var future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(test.sum()).isEqualTo(Money.ofMinor(GBP, (long) threads * perThread));
+    }
+
+    @Test
+    void test_concurrent_overflowLong() throws Exception {
+        var test = new MoneyAdder(GBP);
+        var threads = 8;
+        var executor = Executors.newFixedThreadPool(threads);
+        try {
+            var futures = new ArrayList<Future<?>>();
+            for (var t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (var i = 0; i < 100; i++) {
+                        test.addMinor(Long.MAX_VALUE / 4);
+                    }
+                }));
+            }
+            for (var future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        var expected = BigDecimal.valueOf(Long.MAX_VALUE / 4, 2).multiply(BigDecimal.valueOf(threads * 100));
+        assertThat(test.sum().getAmount()).isEqualTo(expected);
+        assertThat(test.sumThenReset().getAmount()).isEqualTo(expected);
+    }
+
+}
@@ -841,6 +841,125 @@ class TestMoneyFormatterBuilder {
         assertThat(f.parseBigMoney("GBP (234.56)")).isEqualTo(GBP_MINUS_234_56.toBigMoney());
     }
 
+    //-----------------------------------------------------------------------
+    @Test
+    void test_appendAlternatives() {
+        var codeFirst = new MoneyFormatterBuilder()
+            .appendCurrencyCode()
+            .appendLiteral(" ")
+            .appendAmount()
+            .toFormatter();
+        var codeLast = new MoneyFormatterBuilder()
+            .appendAmount()
+            .appendLiteral(" ")
+            .appendCurrencyCode()
+            .toFormatter();
+        var accounting = new MoneyFormatterBuilder()
+            .appendLiteral("(")
+            .appendCurrencyCode()
+            .appendLiteral(" ")
+            .appendAmount(MoneyAmountStyle.ASCII_DECIMAL_POINT_GROUP3_COMMA.withAbsValue(true))
+            .appendLiteral(")")
+            .toFormatter();
+        var f = new MoneyFormatterBuilder().appendAlternatives(codeFirst, codeLast, accounting).toFormatter();
+        assertThat(f).hasToString("Alternatives(${code}' '${amount},${amount}' '${code},'('${code}' '${amount}')')");
+        assertThat(f.isPrinter()).isTrue();
+        assertThat(f.isParser()).isTrue();
+        assertThat(f.print(GBP_234_56)).isEqualTo("GBP 234.56");
+        assertThat(f.parseMoney("GBP 234.56")).isEqualTo(GBP_234_56);
+        assertThat(f.parseMoney("234.56 GBP")).isEqualTo(GBP_234_56);
+        assertThat(f.parseMoney("-234.56 GBP")).isEqualTo(GBP_MINUS_234_56);
+        assertThat(f.parseMoney("(GBP 234.56)")).isEqualTo(GBP_234_56);
+        var context = f.parse("X", 0);
+        assertThat(context.getIndex()).isEqualTo(0);
+        assertThat(context.getErrorIndex()).isEqualTo(0);
+        context = f.parse("", 0);
+        assertThat(context.isError()).isTrue();
+    }
+
+    @Test
+    void test_appendAlternatives_longestMatch() {
+        var shorter = new MoneyFormatterBuilder()
+            .appendCurrencyCode()
+            .toFormatter();
+        var longer = new MoneyFormatterBuilder()
+            .appendCurrencyCode()
+            .appendLiteral(" ")
+            .appendAmount()
+            .toFormatter();
+        var f = new MoneyFormatterBuilder().appendAlternatives(shorter, longer).toFormatter();
+        assertThat(f.parseMoney("GBP 2.34")).isEqualTo(GBP_2_34);
+        var context = f.parse("GBP", 0);
+        assertThat(context.getIndex()).isEqualTo(3);
+        assertThat(context.getCurrency()).isEqualTo(GBP);
+        assertThat(context.getAmount()).isNull();
+    }
+
+    @Test
+    void test_appendAlternatives_localizedAndCustom() {
+        MoneyParser custom = context -> {
+            context.setCurrency(JPY);
+            context.setAmount(JPY_2345.getAmount());
+        };
+        var localized = new MoneyFormatterBuilder()
+            .appendAmountLocalized()
+            .appendLiteral(" ")
+            .appendCurrencyCode()
+            .toFormatter();
+        var other = new MoneyFormatterBuilder()
+            .append(null, custom)
+            .toFormatter();
+        var f = new MoneyFormatterBuilder().appendAlternatives(localized, other).toFormatter();
+        assertThat(f.isPrinter()).isTrue();
+        assertThat(f.isParser()).isTrue();
+        assertThat(f.parseMoney("2,345.67 GBP")).isEqualTo(GBP_2345_67);
+        assertThat(f.parseMoney("")).isEqualTo(JPY_2345);
+        assertThat(f.parse("\u20ac", 0).isError()).isFalse();
+    }
+
+    @Test
+    void test_appendAlternatives_nonAscii() {
+        var euro = new MoneyFormatterBuilder()
+            .appendLiteral("\u20ac")
+            .appendAmount()
+            .toFormatter();
+        var dollar = new MoneyFormatterBuilder()
+            .appendLiteral("$")
+            .appendAmount()
+            .toFormatter();
+        var f = new MoneyFormatterBuilder()
+            .appendAlternatives(euro, dollar)
+            .appendLiteral(" ")
+            .appendCurrencyCode()
+            .toFormatter();
+        assertThat(f.parseMoney("\u20ac2.34 GBP")).isEqualTo(GBP_2_34);
+        assertThat(f.parseMoney("$2.34 GBP")).isEqualTo(GBP_2_34);
+        assertThat(f.parse("\u00a32.34 GBP", 0).isError()).isTrue();
+    }
+
+    @Test
+    void test_appendAlternatives_cannotPrintOrParse() {
+        var printOnly = new MoneyFormatterBuilder().appendCurrencySymbolLocalized().toFormatter();
+        MoneyParser parser = context -> context.setCurrency(GBP);
+        var parseOnly = new MoneyFormatterBuilder().append(null, parser).toFormatter();
+        var test1 = new MoneyFormatterBuilder().appendAlternatives(printOnly, parseOnly).toFormatter();
+        assertThat(test1.isPrinter()).isTrue();
+        assertThat(test1.isParser()).isFalse();
+        var test2 = new MoneyFormatterBuilder().appendAlternatives(parseOnly, printOnly).toFormatter();
+        assertThat(test2.isPrinter()).isFalse();
+        assertThat(test2.isParser()).isFalse();
+    }
+
+    @Test
+    void test_appendAlternatives_invalid() {
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> iBuilder.appendAlternatives((MoneyFormatter[]) null));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> iBuilder.appendAlternatives((MoneyFormatter) null));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> iBuilder.appendAlternatives());
+    }
+
     //-----------------------------------------------------------------------
     @Test
     void test_toFormatter_defaultLocale() {
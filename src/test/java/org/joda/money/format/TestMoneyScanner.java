@@ -0,0 +1,253 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money.format;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatExceptionOfType;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+
+import org.joda.money.BigMoney;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test MoneyScanner.
+ */
+class TestMoneyScanner {
+
+    private static final MoneyFormatter CODE_FIRST = new MoneyFormatterBuilder()
+        .appendCurrencyCode()
+        .appendLiteral(" ")
+        .appendAmount()
+        .toFormatter(Locale.UK);
+    private static final MoneyFormatter CODE_LAST = new MoneyFormatterBuilder()
+        .appendAmount()
+        .appendLiteral(" ")
+        .appendCurrencyCode()
+        .toFormatter(Locale.UK);
+    private static final MoneyFormatter SYMBOL = new MoneyFormatterBuilder()
+        .appendLiteral("$")
+        .appendAmount()
+        .toFormatter(Locale.US);
+    private static final MoneyFormatter SYMBOL_USD = new MoneyFormatterBuilder()
+        .appendLiteral("$")
+        .appendAmount()
+        .appendCurrencyCode()
+        .toFormatter(Locale.US);
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_scan_CharSequence() {
+        var test = MoneyScanner.of(CODE_FIRST);
+        var text = "Invoice total GBP 1,234.56 due, of which GBP 20.00 is VAT. Ref ABC 12.";
+        assertThat(test.scan(text)).containsExactly(
+            new MoneyScanner.Match(14, 26, BigMoney.parse("GBP 1234.56")),
+            new MoneyScanner.Match(41, 50, BigMoney.parse("GBP 20.00")));
+    }
+
+    @Test
+    void test_scan_CharSequence_multipleFormatters() {
+        var test = MoneyScanner.of(CODE_FIRST, CODE_LAST);
+        var text = "Paid 12.50 EUR then USD 3 and finally 7 JPY.";
+        assertThat(test.scan(text).map(MoneyScanner.Match::getMoney)).containsExactly(
+            BigMoney.parse("EUR 12.50"),
+            BigMoney.parse("USD 3"),
+            BigMoney.parse("JPY 7"));
+    }
+
+    @Test
+    void test_scan_CharSequence_nonOverlapping() {
+        var test = MoneyScanner.of(CODE_FIRST, CODE_LAST);
+        var text = "GBP 12 EUR";
+        assertThat(test.scan(text)).containsExactly(
+            new MoneyScanner.Match(0, 6, BigMoney.parse("GBP 12")));
+    }
+
+    @Test
+    void test_scan_CharSequence_noMatch() {
+        var test = MoneyScanner.of(CODE_FIRST);
+        assertThat(test.scan("")).isEmpty();
+        assertThat(test.scan("nothing to see here, GBP or 12")).isEmpty();
+    }
+
+    @Test
+    void test_find() {
+        var test = MoneyScanner.of(CODE_FIRST);
+        var text = "GBP 1 and GBP 2";
+        assertThat(test.find(text, 0)).isEqualTo(new MoneyScanner.Match(0, 5, BigMoney.parse("GBP 1")));
+        assertThat(test.find(text, 1)).isEqualTo(new MoneyScanner.Match(10, 15, BigMoney.parse("GBP 2")));
+        assertThat(test.find(text, 15)).isNull();
+        assertThatExceptionOfType(IndexOutOfBoundsException.class)
+            .isThrownBy(() -> test.find(text, 16));
+        assertThatExceptionOfType(IndexOutOfBoundsException.class)
+            .isThrownBy(() -> test.find(text, -1));
+    }
+
+    @Test
+    void test_find_incompleteIgnored() {
+        var test = MoneyScanner.of(SYMBOL, SYMBOL_USD);
+        assertThat(test.find("costs $12 each", 0)).isNull();
+        assertThat(test.find("costs $12USD each", 0))
+            .isEqualTo(new MoneyScanner.Match(6, 12, BigMoney.parse("USD 12")));
+    }
+
+    @Test
+    void test_scan_notWithinNumber() {
+        var test = MoneyScanner.of(CODE_LAST);
+        assertThat(test.scan("1,234x 567 GBP, 12 XYZ 8.5 USD")).containsExactly(
+            new MoneyScanner.Match(7, 14, BigMoney.parse("GBP 567")),
+            new MoneyScanner.Match(23, 30, BigMoney.parse("USD 8.5")));
+        assertThat(test.find("1,234x", 2)).isNull();
+    }
+
+    @Test
+    void test_scan_numericCodeWithinDigits() {
+        var numericCode = new MoneyFormatterBuilder()
+            .appendCurrencyNumeric3Code()
+            .appendLiteral(" ")
+            .appendAmount()
+            .toFormatter(Locale.UK);
+        assertThat(MoneyScanner.of(numericCode).scan("1826 12.34")).containsExactly(
+            new MoneyScanner.Match(1, 10, BigMoney.parse("GBP 12.34")));
+        assertThat(MoneyScanner.of(CODE_LAST, numericCode).scan("1826 12.34")).containsExactly(
+            new MoneyScanner.Match(1, 10, BigMoney.parse("GBP 12.34")));
+    }
+
+    @Test
+    void test_scan_linear() {
+        var test = MoneyScanner.of(CODE_FIRST, CODE_LAST);
+        var texts = new String[] {
+            "12 x ".repeat(10_000),
+            "1".repeat(5_000) + " x",
+            ("1".repeat(500) + " x ").repeat(20),
+        };
+        for (var text : texts) {
+            var counting = new CountingCharSequence(text);
+            assertThat(test.scan(counting).count()).isZero();
+            // each character is read a small, fixed number of times
+            assertThat(counting.reads).isLessThan(8L * text.length());
+        }
+    }
+
+    /**
+     * Text that counts the characters read from it.
+     */
+    private static final class CountingCharSequence implements CharSequence {
+        private final String text;
+        private long reads;
+
+        CountingCharSequence(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public int length() {
+            return text.length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            reads++;
+            return text.charAt(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            reads += end - start;
+            return text.subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            reads += text.length();
+            return text;
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_scan_Reader() {
+        var test = MoneyScanner.of(CODE_FIRST, CODE_LAST);
+        var text = "Paid 12.50 EUR then USD 3 and finally 7 JPY.";
+        assertThat(test.scan(new StringReader(text))).containsExactlyElementsOf(test.scan(text).toList());
+    }
+
+    @Test
+    void test_scan_Reader_large() {
+        var test = MoneyScanner.of(CODE_FIRST);
+        var buf = new StringBuilder();
+        for (var i = 0; i < 5000; i++) {
+            buf.append("line ").append(i).append(" costs GBP ").append(i).append(".99\n");
+        }
+        var text = buf.toString();
+        var expected = test.scan(text).toList();
+        assertThat(expected).hasSize(5000);
+        assertThat(test.scan(new StringReader(text))).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void test_scan_Reader_ioException() {
+        var test = MoneyScanner.of(CODE_FIRST);
+        var reader = new Reader() {
+            @Override
+            public int read(char[] cbuf, int off, int len) throws IOException {
+                throw new IOException("Bad");
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        assertThatExceptionOfType(UncheckedIOException.class)
+            .isThrownBy(() -> test.scan(reader).toList());
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_of_invalid() {
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> MoneyScanner.of((MoneyFormatter[]) null));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> MoneyScanner.of((MoneyFormatter) null));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> MoneyScanner.of());
+        var printOnly = new MoneyFormatterBuilder().appendCurrencySymbolLocalized().toFormatter();
+        assertThatExceptionOfType(UnsupportedOperationException.class)
+            .isThrownBy(() -> MoneyScanner.of(printOnly));
+    }
+
+    @Test
+    void test_match() {
+        var test = new MoneyScanner.Match(2, 8, BigMoney.parse("GBP 1.23"));
+        assertThat(test.getStartIndex()).isEqualTo(2);
+        assertThat(test.getEndIndex()).isEqualTo(8);
+        assertThat(test.getMoney()).isEqualTo(BigMoney.parse("GBP 1.23"));
+        assertThat(test)
+            .isEqualTo(test)
+            .isEqualTo(new MoneyScanner.Match(2, 8, BigMoney.parse("GBP 1.23")))
+            .isNotEqualTo(new MoneyScanner.Match(3, 8, BigMoney.parse("GBP 1.23")))
+            .isNotEqualTo(new MoneyScanner.Match(2, 9, BigMoney.parse("GBP 1.23")))
+            .isNotEqualTo(new MoneyScanner.Match(2, 8, BigMoney.parse("GBP 1.24")))
+            .isNotEqualTo("")
+            .hasSameHashCodeAs(new MoneyScanner.Match(2, 8, BigMoney.parse("GBP 1.23")))
+            .hasToString("GBP 1.23@[2,8)");
+    }
+
+}
@@ -0,0 +1,182 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money.fx;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.joda.money.CurrencyUnit;
+import org.joda.money.Money;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/**
+ * Test BatchConverter.
+ */
+class TestBatchConverter {
+
+    private static final CurrencyUnit GBP = CurrencyUnit.of("GBP");
+    private static final CurrencyUnit USD = CurrencyUnit.of("USD");
+    private static final CurrencyUnit EUR = CurrencyUnit.of("EUR");
+    private static final CurrencyUnit JPY = CurrencyUnit.of("JPY");
+    private static final CurrencyUnit BHD = CurrencyUnit.of("BHD");
+    private static final CurrencyUnit CHF = CurrencyUnit.of("CHF");
+    private static final ExchangeRateTable TABLE = ExchangeRateTable.builder()
+        .addRate(EUR, USD, new BigDecimal("1.0843"))
+        .addRate(GBP, USD, new BigDecimal("1.2671"))
+        .addRate(USD, JPY, new BigDecimal("151.37"))
+        .addRate(USD, BHD, new BigDecimal("0.376"))
+        .addRate(EUR, GBP, new BigDecimal("0.85571"))
+        .build();
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_convertMinor_single() {
+        var test = BatchConverter.of(TABLE, EUR, RoundingMode.HALF_EVEN);
+        assertThat(test.getTargetCurrency()).isEqualTo(EUR);
+        assertThat(test.getRoundingMode()).isEqualTo(RoundingMode.HALF_EVEN);
+        assertThat(test.convertMinor(EUR, 12345)).isEqualTo(12345);
+        assertThat(test.convertMinor(GBP, 100)).isEqualTo(117);
+        assertThat(test.convertMinor(USD, -100_000)).isEqualTo(-92225);
+        assertThat(test).hasToString("BatchConverter[EUR, HALF_EVEN]");
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = RoundingMode.class, names = "UNNECESSARY", mode = EnumSource.Mode.EXCLUDE)
+    void test_convertMinor_matchesTable(RoundingMode roundingMode) {
+        var random = new Random(roundingMode.ordinal());
+        var currencies = new CurrencyUnit[] {GBP, USD, EUR, JPY, BHD};
+        for (var target : currencies) {
+            var test = BatchConverter.of(TABLE, target, roundingMode);
+            for (var i = 0; i < 2000; i++) {
+                var source = currencies[random.nextInt(currencies.length)];
+                var amount = switch (i % 3) {
+                    case 0 -> random.nextInt(2001) - 1000L;
+                    case 1 -> random.nextLong() >> 20;
+                    default -> random.nextLong() >> 40;
+                };
+                var money = Money.ofMinor(source, amount);
+                var expected = TABLE.convert(money, target, roundingMode).getAmountMinorLong();
+                assertThat(test.convertMinor(source, amount)).as(money + " to " + target).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void test_convertMinor_derivedRate() {
+        var test = BatchConverter.of(TABLE, GBP, RoundingMode.HALF_UP);
+        var rate = TABLE.getRate(JPY, GBP);
+        var expected = new BigDecimal(123_456_789).multiply(rate).movePointRight(2).setScale(0, RoundingMode.HALF_UP);
+        assertThat(test.convertMinor(JPY, 123_456_789)).isEqualTo(expected.longValueExact());
+    }
+
+    @Test
+    void test_convertMinor_extremes() {
+        var table = ExchangeRateTable.builder().addRate(GBP, USD, BigDecimal.ONE).build();
+        var test = BatchConverter.of(table, USD, RoundingMode.HALF_EVEN);
+        assertThat(test.convertMinor(GBP, Long.MAX_VALUE)).isEqualTo(Long.MAX_VALUE);
+        assertThat(test.convertMinor(GBP, Long.MIN_VALUE)).isEqualTo(Long.MIN_VALUE);
+        var halve = BatchConverter.of(ExchangeRateTable.builder().addRate(GBP, USD, new BigDecimal("0.5")).build(), USD, RoundingMode.HALF_EVEN);
+        assertThat(halve.convertMinor(GBP, Long.MIN_VALUE)).isEqualTo(Long.MIN_VALUE / 2);
+        assertThat(halve.convertMinor(GBP, Long.MAX_VALUE)).isEqualTo(Long.MAX_VALUE / 2 + 1);
+        assertThat(halve.convertMinor(GBP, -3)).isEqualTo(-2);
+        assertThat(halve.convertMinor(GBP, -5)).isEqualTo(-2);
+        var dbl = BatchConverter.of(ExchangeRateTable.builder().addRate(GBP, USD, new BigDecimal("2")).build(), USD, RoundingMode.HALF_EVEN);
+        assertThatExceptionOfType(ArithmeticException.class)
+            .isThrownBy(() -> dbl.convertMinor(GBP, Long.MAX_VALUE / 2 + 1));
+        assertThatExceptionOfType(ArithmeticException.class)
+            .isThrownBy(() -> dbl.convertMinor(GBP, Long.MIN_VALUE));
+        assertThat(dbl.convertMinor(GBP, Long.MIN_VALUE / 2)).isEqualTo(Long.MIN_VALUE);
+    }
+
+    @Test
+    void test_convertMinor_unnecessary() {
+        var test = BatchConverter.of(TABLE, USD, RoundingMode.UNNECESSARY);
+        assertThat(test.convertMinor(GBP, 10000)).isEqualTo(12671);
+        assertThatExceptionOfType(ArithmeticException.class)
+            .isThrownBy(() -> test.convertMinor(GBP, 1));
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_convertMinor_bulk() {
+        var random = new Random(1);
+        var size = 50_000;
+        var sources = new CurrencyUnit[] {GBP, USD, EUR, JPY, BHD};
+        var currencies = new CurrencyUnit[size];
+        var amounts = new long[size];
+        for (var i = 0; i < size; i++) {
+            currencies[i] = sources[random.nextInt(sources.length)];
+            amounts[i] = random.nextLong() >> 24;
+        }
+        var test = BatchConverter.of(TABLE, EUR, RoundingMode.HALF_EVEN);
+        var results = test.convertMinor(currencies, amounts);
+        var expectedTotal = 0L;
+        for (var i = 0; i < size; i++) {
+            assertThat(results[i]).isEqualTo(test.convertMinor(currencies[i], amounts[i]));
+            expectedTotal += results[i];
+        }
+        assertThat(test.total(currencies, amounts, new ForkJoinPool(3))).isEqualTo(Money.ofMinor(EUR, expectedTotal));
+        var monies = new ArrayList<Money>();
+        for (var i = 0; i < size; i++) {
+            monies.add(Money.ofMinor(currencies[i], amounts[i]));
+        }
+        assertThat(test.total(monies)).isEqualTo(Money.ofMinor(EUR, expectedTotal));
+    }
+
+    @Test
+    void test_total_small() {
+        var test = BatchConverter.of(TABLE, USD, RoundingMode.HALF_EVEN);
+        var total = test.total(List.of(Money.parse("GBP 100.00"), Money.parse("USD 1.50"), Money.parse("JPY 15137")));
+        assertThat(total).isEqualTo(Money.parse("USD 228.21"));
+        assertThat(test.total(List.of())).isEqualTo(Money.zero(USD));
+    }
+
+    @Test
+    void test_total_overflow() {
+        var test = BatchConverter.of(TABLE, USD, RoundingMode.HALF_EVEN);
+        assertThatExceptionOfType(ArithmeticException.class)
+            .isThrownBy(() -> test.total(new CurrencyUnit[] {USD, USD}, new long[] {Long.MAX_VALUE, 1}));
+    }
+
+    @Test
+    void test_invalid() {
+        var test = BatchConverter.of(TABLE, USD, RoundingMode.HALF_EVEN);
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> test.convertMinor(CHF, 1));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> test.convertMinor(new CurrencyUnit[] {GBP, CHF}, new long[] {1, 2}));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> test.convertMinor(new CurrencyUnit[] {GBP}, new long[] {1, 2}));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> test.convertMinor(new CurrencyUnit[] {GBP, null}, new long[] {1, 2}));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> test.total((List<Money>) null));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> BatchConverter.of(null, USD, RoundingMode.HALF_EVEN));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> BatchConverter.of(TABLE, USD, null));
+    }
+
+}
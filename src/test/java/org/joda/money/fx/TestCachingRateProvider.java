@@ -0,0 +1,234 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money.fx;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.joda.money.CurrencyUnit;
+import org.joda.money.ManualClock;
+import org.joda.money.Money;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test CachingRateProvider.
+ */
+class TestCachingRateProvider {
+
+    private static final CurrencyUnit GBP = CurrencyUnit.of("GBP");
+    private static final CurrencyUnit USD = CurrencyUnit.of("USD");
+    private static final Instant START = Instant.parse("2024-06-01T12:00:00Z");
+
+    /**
+     * Provider returning an increasing rate, optionally waiting or failing.
+     */
+    private static final class StubProvider implements ExchangeRateProvider {
+        private final AtomicInteger attempts = new AtomicInteger();
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile CountDownLatch gate;
+        private volatile boolean fail;
+
+        @Override
+        public ExchangeRateTable getRates() throws Exception {
+            attempts.incrementAndGet();
+            var latch = gate;
+            if (latch != null && !latch.await(10, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Gate not opened");
+            }
+            if (fail) {
+                throw new IOException("Source unavailable");
+            }
+            var rate = new BigDecimal("1.2").add(new BigDecimal(calls.incrementAndGet()).movePointLeft(2));
+            return ExchangeRateTable.builder().addRate(GBP, USD, rate).build();
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        var end = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("Timed out").isLessThan(end);
+            Thread.sleep(1);
+        }
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_firstLoad() {
+        var clock = new ManualClock(START);
+        var source = new StubProvider();
+        var test = new CachingRateProvider(source, Duration.ofMinutes(1), clock);
+        assertThat(test.isLoaded()).isFalse();
+        assertThat(test.getRefreshCount()).isEqualTo(0);
+        assertThatExceptionOfType(IllegalStateException.class)
+            .isThrownBy(() -> test.getAge());
+        assertThat(test.getRate(GBP, USD)).isEqualTo(new BigDecimal("1.21"));
+        assertThat(test.isLoaded()).isTrue();
+        assertThat(test.getRefreshCount()).isEqualTo(1);
+        assertThat(test.getAge()).isEqualTo(Duration.ZERO);
+        clock.advance(Duration.ofSeconds(59));
+        assertThat(test.getAge()).isEqualTo(Duration.ofSeconds(59));
+        assertThat(test.convert(Money.parse("GBP 10.00"), USD, RoundingMode.HALF_EVEN)).isEqualTo(Money.parse("USD 12.10"));
+        assertThat(source.calls.get()).isEqualTo(1);
+        assertThat(test.getLastRefreshLatency().isNegative()).isFalse();
+        assertThat(test).hasToString("CachingRateProvider[maxAge=PT1M, refreshes=1, failures=0]");
+    }
+
+    @Test
+    void test_firstLoad_failure() {
+        var source = new StubProvider();
+        source.fail = true;
+        var test = new CachingRateProvider(source, Duration.ofMinutes(1));
+        assertThatExceptionOfType(IllegalStateException.class)
+            .isThrownBy(() -> test.getRates())
+            .withCauseInstanceOf(IOException.class);
+        assertThat(test.getFailureCount()).isEqualTo(1);
+        assertThat(test.getLastFailure()).isInstanceOf(IOException.class);
+        source.fail = false;
+        assertThat(test.getRate(GBP, USD)).isEqualTo(new BigDecimal("1.21"));
+    }
+
+    @Test
+    void test_staleWhileRevalidate() throws Exception {
+        var clock = new ManualClock(START);
+        var source = new StubProvider();
+        var test = new CachingRateProvider(source, Duration.ofMinutes(1), clock);
+        test.getRates();
+        clock.advance(Duration.ofSeconds(60));
+        var gate = new CountDownLatch(1);
+        source.gate = gate;
+        // the stale rates are returned while the refresh is blocked
+        assertThat(test.getRate(GBP, USD)).isEqualTo(new BigDecimal("1.21"));
+        assertThat(test.getRate(GBP, USD)).isEqualTo(new BigDecimal("1.21"));
+        assertThat(test.getAge()).isEqualTo(Duration.ofSeconds(60));
+        gate.countDown();
+        await(() -> test.getRefreshCount() == 2);
+        assertThat(test.getRate(GBP, USD)).isEqualTo(new BigDecimal("1.22"));
+        assertThat(test.getAge()).isEqualTo(Duration.ZERO);
+        // only one refresh was started
+        assertThat(source.calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void test_backgroundFailure() throws Exception {
+        var clock = new ManualClock(START);
+        var source = new StubProvider();
+        var test = new CachingRateProvider(source, Duration.ofMinutes(1), clock);
+        test.getRates();
+        clock.advance(Duration.ofSeconds(120));
+        source.fail = true;
+        assertThat(test.getRate(GBP, USD)).isEqualTo(new BigDecimal("1.21"));
+        await(() -> test.getFailureCount() == 1);
+        assertThat(test.getLastFailure()).isInstanceOf(IOException.class);
+        source.fail = false;
+        // no refresh is started within the retry delay
+        for (var i = 0; i < 100; i++) {
+            assertThat(test.getRate(GBP, USD)).isEqualTo(new BigDecimal("1.21"));
+        }
+        clock.advance(Duration.ofSeconds(9));
+        assertThat(test.getRate(GBP, USD)).isEqualTo(new BigDecimal("1.21"));
+        assertThat(source.attempts.get()).isEqualTo(2);
+        clock.advance(Duration.ofSeconds(1));
+        await(() -> {
+            test.getRates();
+            return test.getRefreshCount() == 2;
+        });
+        assertThat(test.getRate(GBP, USD)).isEqualTo(new BigDecimal("1.22"));
+        assertThat(test.getFailureCount()).isEqualTo(1);
+        assertThat(source.attempts.get()).isEqualTo(3);
+    }
+
+    @Test
+    void test_refresh_slowerOlderRefreshNotPublished() throws Exception {
+        var clock = new ManualClock(START);
+        var source = new StubProvider();
+        var test = new CachingRateProvider(source, Duration.ofMinutes(1), clock);
+        test.getRates();
+        clock.advance(Duration.ofSeconds(60));
+        var gate = new CountDownLatch(1);
+        source.gate = gate;
+        test.getRates();
+        await(() -> source.attempts.get() == 2);
+        // a manual refresh starts later, but completes first
+        source.gate = null;
+        clock.advance(Duration.ofSeconds(5));
+        test.refresh();
+        assertThat(test.getRate(GBP, USD)).isEqualTo(new BigDecimal("1.22"));
+        gate.countDown();
+        await(() -> test.getRefreshCount() == 3);
+        assertThat(source.calls.get()).isEqualTo(3);
+        assertThat(test.getRate(GBP, USD)).isEqualTo(new BigDecimal("1.22"));
+        assertThat(test.getAge()).isEqualTo(Duration.ZERO);
+    }
+
+    @Test
+    void test_refresh() throws Exception {
+        var source = new StubProvider();
+        var test = new CachingRateProvider(source, Duration.ofHours(1));
+        test.refresh();
+        test.refresh();
+        assertThat(test.getRate(GBP, USD)).isEqualTo(new BigDecimal("1.22"));
+        source.fail = true;
+        assertThatExceptionOfType(IOException.class)
+            .isThrownBy(() -> test.refresh());
+        assertThat(test.getRate(GBP, USD)).isEqualTo(new BigDecimal("1.22"));
+        assertThat(test.getRefreshCount()).isEqualTo(2);
+        assertThat(test.getFailureCount()).isEqualTo(1);
+    }
+
+    @Test
+    void test_nullTable() {
+        var test = new CachingRateProvider(() -> null, Duration.ofHours(1));
+        assertThatExceptionOfType(IllegalStateException.class)
+            .isThrownBy(() -> test.getRates());
+    }
+
+    @Test
+    void test_of() throws Exception {
+        var table = ExchangeRateTable.builder().addRate(GBP, USD, BigDecimal.ONE).build();
+        assertThat(ExchangeRateProvider.of(table).getRates()).isSameAs(table);
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> ExchangeRateProvider.of(null));
+    }
+
+    @Test
+    void test_constructor_invalid() {
+        var source = new StubProvider();
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> new CachingRateProvider(source, Duration.ZERO));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> new CachingRateProvider(null, Duration.ofMinutes(1)));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> new CachingRateProvider(source, null));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> new CachingRateProvider(source, Duration.ofMinutes(1), Duration.ofSeconds(-1), Clock.systemUTC()));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> new CachingRateProvider(source, Duration.ofMinutes(1), null));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> new CachingRateProvider(source, Duration.ofMinutes(1), null, Clock.systemUTC()));
+    }
+
+}
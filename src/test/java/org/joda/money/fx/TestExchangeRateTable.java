@@ -0,0 +1,147 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money.fx;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import org.joda.money.BigMoney;
+import org.joda.money.CurrencyUnit;
+import org.joda.money.Money;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test ExchangeRateTable.
+ */
+class TestExchangeRateTable {
+
+    private static final CurrencyUnit GBP = CurrencyUnit.of("GBP");
+    private static final CurrencyUnit USD = CurrencyUnit.of("USD");
+    private static final CurrencyUnit EUR = CurrencyUnit.of("EUR");
+    private static final CurrencyUnit JPY = CurrencyUnit.of("JPY");
+    private static final CurrencyUnit CHF = CurrencyUnit.of("CHF");
+
+    private static ExchangeRateTable table() {
+        return ExchangeRateTable.builder()
+            .addRate(GBP, USD, new BigDecimal("1.25"))
+            .addRate(EUR, USD, new BigDecimal("1.08"))
+            .addRate(USD, JPY, new BigDecimal("150"))
+            .build();
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_getRate() {
+        var test = table();
+        assertThat(test.getCurrencyUnits()).containsExactly(EUR, GBP, JPY, USD);
+        assertThat(test.getRate(GBP, USD)).isEqualTo(new BigDecimal("1.25"));
+        assertThat(test.getRate(USD, GBP)).isEqualTo(new BigDecimal("0.8"));
+        assertThat(test.getRate(GBP, GBP)).isEqualTo(BigDecimal.ONE);
+        assertThat(test.getRate(GBP, JPY)).isEqualTo(new BigDecimal("187.50"));
+        assertThat(test.getRate(JPY, GBP).setScale(12, RoundingMode.HALF_UP)).isEqualTo(new BigDecimal("0.005333333333"));
+        assertThat(test.getRate(GBP, EUR).setScale(12, RoundingMode.HALF_UP)).isEqualTo(new BigDecimal("1.157407407407"));
+        assertThat(test).hasToString("ExchangeRateTable[EUR, GBP, JPY, USD]");
+    }
+
+    @Test
+    void test_getRate_directQuotePreferred() {
+        var test = ExchangeRateTable.builder()
+            .addRate(GBP, USD, new BigDecimal("1.25"))
+            .addRate(USD, GBP, new BigDecimal("0.79"))
+            .addRate(GBP, EUR, new BigDecimal("1.16"))
+            .addRate(EUR, USD, new BigDecimal("1.08"))
+            .build();
+        assertThat(test.getRate(GBP, USD)).isEqualTo(new BigDecimal("1.25"));
+        assertThat(test.getRate(USD, GBP)).isEqualTo(new BigDecimal("0.79"));
+        assertThat(test.getRate(GBP, EUR)).isEqualTo(new BigDecimal("1.16"));
+    }
+
+    @Test
+    void test_getRate_noRate() {
+        var test = ExchangeRateTable.builder()
+            .addRate(GBP, USD, new BigDecimal("1.25"))
+            .addRate(EUR, CHF, new BigDecimal("0.95"))
+            .build();
+        assertThat(test.isConvertible(GBP, USD)).isTrue();
+        assertThat(test.isConvertible(EUR, EUR)).isTrue();
+        assertThat(test.isConvertible(GBP, CHF)).isFalse();
+        assertThat(test.isConvertible(GBP, JPY)).isFalse();
+        assertThat(test.isConvertible(JPY, JPY)).isFalse();
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> test.getRate(GBP, CHF));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> test.getRate(JPY, GBP));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> test.getRate(null, GBP));
+    }
+
+    @Test
+    void test_empty() {
+        var test = ExchangeRateTable.builder().build();
+        assertThat(test.getCurrencyUnits()).isEmpty();
+        assertThat(test.isConvertible(GBP, USD)).isFalse();
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_convert() {
+        var test = table();
+        assertThat(test.convert(Money.parse("GBP 10.00"), USD)).isEqualTo(BigMoney.parse("USD 12.5000"));
+        assertThat(test.convert(Money.parse("GBP 10.01"), USD, RoundingMode.HALF_EVEN)).isEqualTo(Money.parse("USD 12.51"));
+        assertThat(test.convert(Money.parse("GBP 10.01"), USD, RoundingMode.UP)).isEqualTo(Money.parse("USD 12.52"));
+        assertThat(test.convert(Money.parse("GBP 1.23"), JPY, RoundingMode.HALF_UP)).isEqualTo(Money.parse("JPY 231"));
+        assertThat(test.convert(Money.parse("JPY 1000"), GBP, RoundingMode.HALF_UP)).isEqualTo(Money.parse("GBP 5.33"));
+        assertThat(test.convert(BigMoney.parse("GBP 1.234"), GBP)).isEqualTo(BigMoney.parse("GBP 1.234"));
+        assertThat(test.convert(BigMoney.parse("GBP 1.235"), GBP, RoundingMode.HALF_UP)).isEqualTo(Money.parse("GBP 1.24"));
+    }
+
+    @Test
+    void test_convert_invalid() {
+        var test = table();
+        assertThatExceptionOfType(ArithmeticException.class)
+            .isThrownBy(() -> test.convert(Money.parse("GBP 10.01"), USD, RoundingMode.UNNECESSARY));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> test.convert(Money.parse("CHF 1.00"), USD, RoundingMode.HALF_UP));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> test.convert(null, USD, RoundingMode.HALF_UP));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> test.convert(Money.parse("GBP 1.00"), null, RoundingMode.HALF_UP));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> test.convert(Money.parse("GBP 1.00"), USD, null));
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_builder_invalid() {
+        var builder = ExchangeRateTable.builder();
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> builder.addRate(GBP, GBP, BigDecimal.ONE));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> builder.addRate(GBP, USD, BigDecimal.ZERO));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> builder.addRate(GBP, USD, new BigDecimal("-1.25")));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> builder.addRate(null, USD, BigDecimal.ONE));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> builder.addRate(GBP, null, BigDecimal.ONE));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> builder.addRate(GBP, USD, null));
+    }
+
+}
@@ -0,0 +1,202 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money.fx;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import org.joda.money.CurrencyUnit;
+import org.joda.money.Money;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test HistoricalRateStore.
+ */
+class TestHistoricalRateStore {
+
+    private static final CurrencyUnit GBP = CurrencyUnit.of("GBP");
+    private static final CurrencyUnit USD = CurrencyUnit.of("USD");
+    private static final CurrencyUnit EUR = CurrencyUnit.of("EUR");
+    private static final CurrencyUnit JPY = CurrencyUnit.of("JPY");
+    private static final LocalDate MON = LocalDate.of(2024, 6, 3);
+    private static final LocalDate TUE = MON.plusDays(1);
+    private static final LocalDate WED = MON.plusDays(2);
+    private static final LocalDate THU = MON.plusDays(3);
+    private static final LocalDate FRI = MON.plusDays(4);
+    private static final String CSV = """
+        date,base,counter,rate
+        2024-06-03,GBP,USD,1.2763
+        2024-06-05,GBP,USD,1.2790
+
+        2024-06-07,GBP,USD,1.2720
+        2024-06-03,USD,JPY,154.5
+        2024-06-07,USD,JPY,156.75
+        """;
+
+    private static HistoricalRateStore store() throws IOException {
+        return HistoricalRateStore.builder().addCsv(new StringReader(CSV)).build();
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_getRate_fallback() throws IOException {
+        var test = store();
+        assertThat(test.getPairCount()).isEqualTo(2);
+        assertThat(test.getRate(GBP, USD, MON, RateFallback.EXACT)).isEqualTo(new BigDecimal("1.2763"));
+        assertThat(test.getRate(GBP, USD, WED, RateFallback.EXACT)).isEqualTo(new BigDecimal("1.2790"));
+        assertThat(test.getRate(GBP, USD, TUE, RateFallback.PREVIOUS)).isEqualTo(new BigDecimal("1.2763"));
+        assertThat(test.getRate(GBP, USD, TUE, RateFallback.NEXT)).isEqualTo(new BigDecimal("1.2790"));
+        assertThat(test.getRate(GBP, USD, TUE, RateFallback.NEAREST)).isEqualTo(new BigDecimal("1.2763"));
+        assertThat(test.getRate(GBP, USD, THU, RateFallback.NEAREST)).isEqualTo(new BigDecimal("1.2790"));
+        assertThat(test.getRate(GBP, USD, THU.plusDays(2), RateFallback.PREVIOUS)).isEqualTo(new BigDecimal("1.2720"));
+        assertThat(test.getRate(GBP, USD, MON.minusDays(1), RateFallback.NEXT)).isEqualTo(new BigDecimal("1.2763"));
+        assertThat(test.getRate(GBP, USD, MON.minusDays(1), RateFallback.NEAREST)).isEqualTo(new BigDecimal("1.2763"));
+        assertThat(test.getRate(GBP, USD, FRI.plusDays(10), RateFallback.NEAREST)).isEqualTo(new BigDecimal("1.2720"));
+        assertThat(test.getRate(USD, JPY, WED, RateFallback.PREVIOUS)).isEqualTo(new BigDecimal("154.50"));
+        assertThat(test.getRate(GBP, GBP, WED, RateFallback.EXACT)).isEqualTo(BigDecimal.ONE);
+    }
+
+    @Test
+    void test_getRate_inverse() throws IOException {
+        var test = store();
+        assertThat(test.getRate(USD, GBP, MON, RateFallback.EXACT).setScale(10, RoundingMode.HALF_UP))
+            .isEqualTo(new BigDecimal("0.7835148476"));
+    }
+
+    @Test
+    void test_getRate_notFound() throws IOException {
+        var test = store();
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> test.getRate(GBP, USD, TUE, RateFallback.EXACT));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> test.getRate(GBP, USD, MON.minusDays(1), RateFallback.PREVIOUS));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> test.getRate(GBP, USD, FRI.plusDays(1), RateFallback.NEXT));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> test.getRate(GBP, EUR, MON, RateFallback.NEAREST));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> test.getRate(GBP, USD, MON, null));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> test.getRate(GBP, USD, null, RateFallback.EXACT));
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_convert() throws IOException {
+        var test = store();
+        assertThat(test.convert(Money.parse("GBP 100.00"), USD, TUE, RateFallback.PREVIOUS, RoundingMode.HALF_EVEN))
+            .isEqualTo(Money.parse("USD 127.63"));
+        assertThat(test.convert(Money.parse("USD 10.00"), JPY, FRI, RateFallback.EXACT, RoundingMode.HALF_EVEN))
+            .isEqualTo(Money.parse("JPY 1568"));
+    }
+
+    @Test
+    void test_toTable() throws IOException {
+        var test = store().toTable(WED, RateFallback.PREVIOUS);
+        assertThat(test.getCurrencyUnits()).containsExactly(GBP, JPY, USD);
+        assertThat(test.getRate(GBP, JPY)).isEqualTo(new BigDecimal("197.605500"));
+        var exact = store().toTable(WED, RateFallback.EXACT);
+        assertThat(exact.getCurrencyUnits()).containsExactly(GBP, USD);
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_builder() {
+        var test = HistoricalRateStore.builder()
+            .addRate(GBP, USD, MON, new BigDecimal("1.25"))
+            .addRate(GBP, USD, MON, new BigDecimal("1.26"))
+            .addRate(GBP, USD, TUE, new BigDecimal("1E+1"))
+            .build();
+        assertThat(test.getRate(GBP, USD, MON, RateFallback.EXACT)).isEqualTo(new BigDecimal("1.26"));
+        assertThat(test.getRate(GBP, USD, TUE, RateFallback.EXACT)).isEqualTo(new BigDecimal("10.00"));
+        assertThat(test).hasToString("HistoricalRateStore[1 pairs]");
+    }
+
+    @Test
+    void test_builder_invalid() {
+        var builder = HistoricalRateStore.builder();
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> builder.addRate(GBP, GBP, MON, BigDecimal.ONE));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> builder.addRate(GBP, USD, MON, BigDecimal.ZERO));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> builder.addRate(GBP, USD, null, BigDecimal.ONE));
+        builder.addRate(GBP, USD, MON, new BigDecimal("1E+10")).addRate(GBP, USD, TUE, new BigDecimal("0.0000000001"));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> builder.build());
+    }
+
+    @Test
+    void test_addCsv_invalid() {
+        var builder = HistoricalRateStore.builder();
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> builder.addCsv(new StringReader("2024-06-03,GBP,USD")))
+            .withMessageContaining("line 1");
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> builder.addCsv(new StringReader("2024-06-03,GBP,USD,1\n2024-13-03,GBP,USD,1")))
+            .withMessageContaining("line 2");
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> builder.addCsv(new StringReader("2024-06-03,GBP,ZZZ,1")));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> builder.addCsv(new StringReader("2024-06-03,GBP,USD,x")));
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_writeTo_load(@TempDir Path dir) throws IOException {
+        var file = dir.resolve("rates.bin");
+        var builder = HistoricalRateStore.builder().addCsv(new StringReader(CSV));
+        var day = MON.minusYears(10);
+        for (var i = 0; i < 3650; i++) {
+            builder.addRate(EUR, USD, day.plusDays(i), new BigDecimal(i).movePointLeft(4).add(BigDecimal.ONE));
+        }
+        var original = builder.build();
+        original.writeTo(file);
+        var test = HistoricalRateStore.load(file);
+        assertThat(test.getPairCount()).isEqualTo(3);
+        assertThat(test.getRate(GBP, USD, THU, RateFallback.NEAREST)).isEqualTo(new BigDecimal("1.2790"));
+        assertThat(test.getRate(USD, JPY, FRI, RateFallback.EXACT)).isEqualTo(new BigDecimal("156.75"));
+        assertThat(test.getRate(EUR, USD, day.plusDays(1234), RateFallback.EXACT)).isEqualTo(new BigDecimal("1.1234"));
+        assertThat(test.getRate(EUR, USD, MON, RateFallback.PREVIOUS)).isEqualTo(new BigDecimal("1.3649"));
+        // a loaded store can be written again
+        var file2 = dir.resolve("rates2.bin");
+        test.writeTo(file2);
+        assertThat(Files.readAllBytes(file2)).isEqualTo(Files.readAllBytes(file));
+    }
+
+    @Test
+    void test_load_invalid(@TempDir Path dir) throws IOException {
+        var file = dir.resolve("bad.bin");
+        Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+        assertThatExceptionOfType(IOException.class)
+            .isThrownBy(() -> HistoricalRateStore.load(file));
+        Files.write(file, new byte[0]);
+        assertThatExceptionOfType(IOException.class)
+            .isThrownBy(() -> HistoricalRateStore.load(file));
+        assertThatExceptionOfType(IOException.class)
+            .isThrownBy(() -> HistoricalRateStore.load(dir.resolve("missing.bin")));
+    }
+
+}
@@ -0,0 +1,242 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money.stats;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+import org.joda.money.BigMoney;
+import org.joda.money.CurrencyMismatchException;
+import org.joda.money.CurrencyUnit;
+import org.joda.money.IllegalCurrencyException;
+import org.joda.money.Money;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+/**
+ * Test MoneyQuantileSketch.
+ */
+class TestMoneyQuantileSketch {
+
+    private static final CurrencyUnit GBP = CurrencyUnit.of("GBP");
+    private static final CurrencyUnit USD = CurrencyUnit.of("USD");
+
+    private static MoneyQuantileSketch uniform(int from, int to) {
+        var sketch = new MoneyQuantileSketch(GBP);
+        for (var i = from; i <= to; i++) {
+            sketch.addMinor(i);
+        }
+        return sketch;
+    }
+
+    private static void assertQuantile(MoneyQuantileSketch sketch, double quantile, double expectedMinor) {
+        var actual = sketch.getQuantile(quantile).getAmountMinorLong();
+        var tolerance = Math.abs(expectedMinor) * sketch.getRelativeAccuracy() + 1;
+        assertThat((double) actual).isCloseTo(expectedMinor, within(tolerance));
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_empty() {
+        var test = new MoneyQuantileSketch(GBP);
+        assertThat(test.getCurrencyUnit()).isEqualTo(GBP);
+        assertThat(test.getRelativeAccuracy()).isEqualTo(0.01);
+        assertThat(test.getMaxBins()).isEqualTo(2048);
+        assertThat(test.getCount()).isEqualTo(0);
+        assertThat(test.isEmpty()).isTrue();
+        assertThatExceptionOfType(NoSuchElementException.class)
+            .isThrownBy(() -> test.getQuantile(0.5));
+        assertThatExceptionOfType(NoSuchElementException.class)
+            .isThrownBy(() -> test.getMin());
+        assertThat(test).hasToString("MoneyQuantileSketch[GBP, count=0, relativeAccuracy=0.01]");
+    }
+
+    @Test
+    void test_constructor_invalid() {
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> new MoneyQuantileSketch(null));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> new MoneyQuantileSketch(GBP, 0d, 100));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> new MoneyQuantileSketch(GBP, 1d, 100));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> new MoneyQuantileSketch(GBP, Double.NaN, 100));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> new MoneyQuantileSketch(GBP, 0.01, 15));
+    }
+
+    //-----------------------------------------------------------------------
+    public static Object[][] data_quantiles() {
+        return new Object[][] {
+            {0d},
+            {0.01},
+            {0.25},
+            {0.5},
+            {0.9},
+            {0.95},
+            {0.99},
+            {1d},
+        };
+    }
+
+    @ParameterizedTest
+    @MethodSource("data_quantiles")
+    void test_quantile_uniform(double quantile) {
+        var test = uniform(1, 100_000);
+        assertThat(test.getCount()).isEqualTo(100_000);
+        assertQuantile(test, quantile, 1 + quantile * 99_999);
+    }
+
+    @ParameterizedTest
+    @MethodSource("data_quantiles")
+    void test_quantile_mixedSigns(double quantile) {
+        var test = uniform(-50_000, 50_000);
+        assertQuantile(test, quantile, -50_000 + quantile * 100_000);
+    }
+
+    @Test
+    void test_quantile_minMax() {
+        var test = new MoneyQuantileSketch(GBP);
+        test.add(Money.parse("GBP 12.34"));
+        test.add(Money.parse("GBP -3.21"));
+        test.add(Money.parse("GBP 0.00"));
+        assertThat(test.getMin()).isEqualTo(Money.parse("GBP -3.21"));
+        assertThat(test.getMax()).isEqualTo(Money.parse("GBP 12.34"));
+        assertThat(test.getQuantile(0.5)).isEqualTo(Money.parse("GBP 0.00"));
+    }
+
+    @Test
+    void test_quantile_invalid() {
+        var test = uniform(1, 10);
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> test.getQuantile(-0.1));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> test.getQuantile(1.1));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> test.getQuantile(Double.NaN));
+    }
+
+    @Test
+    void test_add_bigMoney() {
+        var test = new MoneyQuantileSketch(GBP);
+        test.add(BigMoney.parse("GBP 1.234"));
+        test.add(BigMoney.parse("GBP 0.001"));
+        assertThat(test.getMax()).isEqualTo(Money.parse("GBP 1.23"));
+        assertThat(test.getMin()).isEqualTo(Money.parse("GBP 0.00"));
+        assertThatExceptionOfType(CurrencyMismatchException.class)
+            .isThrownBy(() -> test.add(Money.parse("USD 1.00")));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> test.add(null));
+        assertThat(test.getCount()).isEqualTo(2);
+    }
+
+    @Test
+    void test_maxBins_collapsesLowest() {
+        var test = new MoneyQuantileSketch(GBP, 0.01, 100);
+        for (var i = 0; i < 1000; i++) {
+            test.addMinor(1L << (i % 40));
+        }
+        assertThat(test.getCount()).isEqualTo(1000);
+        // high quantiles remain accurate
+        assertQuantile(test, 1d, 1L << 39);
+        assertQuantile(test, 0.99, 1L << 39);
+        // low quantiles are collapsed into the lowest bin kept
+        assertThat(test.getQuantile(0.01).getAmountMinorLong()).isGreaterThan(1L << 20);
+        assertThat(test.toByteArray().length).isLessThan(400);
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_merge() {
+        var test1 = uniform(1, 50_000);
+        var test2 = uniform(50_001, 100_000);
+        test2.addMinor(0);
+        test2.addMinor(-5);
+        assertThat(test1.merge(test2)).isSameAs(test1);
+        assertThat(test1.getCount()).isEqualTo(100_002);
+        assertThat(test2.getCount()).isEqualTo(50_002);
+        assertThat(test1.getMin()).isEqualTo(Money.ofMinor(GBP, -5));
+        assertThat(test1.getMax()).isEqualTo(Money.ofMinor(GBP, 100_000));
+        assertQuantile(test1, 0.5, 50_000);
+        assertQuantile(test1, 0.95, 95_000);
+        test1.merge(new MoneyQuantileSketch(GBP));
+        assertThat(test1.getCount()).isEqualTo(100_002);
+    }
+
+    @Test
+    void test_merge_invalid() {
+        var test = new MoneyQuantileSketch(GBP);
+        assertThatExceptionOfType(CurrencyMismatchException.class)
+            .isThrownBy(() -> test.merge(new MoneyQuantileSketch(USD)));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> test.merge(new MoneyQuantileSketch(GBP, 0.02, 2048)));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> test.merge(null));
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_byteArray_roundTrip() {
+        var test = uniform(-1000, 100_000);
+        test.addMinor(0);
+        var bytes = test.toByteArray();
+        assertThat(bytes.length).isLessThan(2000);
+        var read = MoneyQuantileSketch.fromByteArray(bytes);
+        assertThat(read.getCurrencyUnit()).isEqualTo(GBP);
+        assertThat(read.getRelativeAccuracy()).isEqualTo(0.01);
+        assertThat(read.getMaxBins()).isEqualTo(2048);
+        assertThat(read.getCount()).isEqualTo(test.getCount());
+        for (var quantile : new double[] {0, 0.001, 0.01, 0.1, 0.5, 0.9, 0.99, 1}) {
+            assertThat(read.getQuantile(quantile)).isEqualTo(test.getQuantile(quantile));
+        }
+        assertThat(read.toByteArray()).isEqualTo(bytes);
+    }
+
+    @Test
+    void test_byteArray_empty() {
+        var test = new MoneyQuantileSketch(USD, 0.05, 64);
+        var read = MoneyQuantileSketch.fromByteArray(test.toByteArray());
+        assertThat(read.isEmpty()).isTrue();
+        assertThat(read.getCurrencyUnit()).isEqualTo(USD);
+        assertThat(read.getRelativeAccuracy()).isEqualTo(0.05);
+        assertThat(read.getMaxBins()).isEqualTo(64);
+    }
+
+    @Test
+    void test_byteArray_invalid() {
+        var bytes = uniform(1, 100).toByteArray();
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> MoneyQuantileSketch.fromByteArray(new byte[0]));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> MoneyQuantileSketch.fromByteArray(new byte[] {2}));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> MoneyQuantileSketch.fromByteArray(Arrays.copyOf(bytes, bytes.length - 1)));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> MoneyQuantileSketch.fromByteArray(Arrays.copyOf(bytes, bytes.length + 1)));
+        var badCurrency = bytes.clone();
+        badCurrency[1] = 'Q';
+        assertThatExceptionOfType(IllegalCurrencyException.class)
+            .isThrownBy(() -> MoneyQuantileSketch.fromByteArray(badCurrency));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> MoneyQuantileSketch.fromByteArray(null));
+    }
+
+}
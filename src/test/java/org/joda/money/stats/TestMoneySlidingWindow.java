@@ -0,0 +1,154 @@
+/*
+ *  Copyright 2009-present, Stephen Colebourne
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.joda.money.stats;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.joda.money.CurrencyUnit;
+import org.joda.money.ManualClock;
+import org.joda.money.Money;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test MoneySlidingWindow.
+ */
+class TestMoneySlidingWindow {
+
+    private static final CurrencyUnit GBP = CurrencyUnit.of("GBP");
+    private static final CurrencyUnit USD = CurrencyUnit.of("USD");
+    private static final Instant START = Instant.parse("2024-06-01T12:00:00Z");
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_slides() {
+        var clock = new ManualClock(START);
+        var test = new MoneySlidingWindow(Duration.ofSeconds(60), 60, Duration.ofSeconds(5), clock);
+        assertThat(test.getWindow()).isEqualTo(Duration.ofSeconds(60));
+        assertThat(test.getBucketCount()).isEqualTo(60);
+        assertThat(test.getTotal(GBP)).isEqualTo(Money.zero(GBP));
+        test.add(Money.parse("GBP 1.23"));
+        clock.advance(Duration.ofMillis(30_000));
+        test.add(Money.parse("GBP 2.00"));
+        test.add(Money.parse("USD 5.00"));
+        assertThat(test.getTotal(GBP)).isEqualTo(Money.parse("GBP 3.23"));
+        assertThat(test.getTotal(USD)).isEqualTo(Money.parse("USD 5.00"));
+        assertThat(test.getTotalMinor(GBP)).isEqualTo(323);
+        clock.advance(Duration.ofMillis(29_999));
+        assertThat(test.getTotal(GBP)).isEqualTo(Money.parse("GBP 3.23"));
+        clock.advance(Duration.ofMillis(1));
+        assertThat(test.getTotal(GBP)).isEqualTo(Money.parse("GBP 2.00"));
+        clock.advance(Duration.ofMillis(30_000));
+        assertThat(test.getTotal(GBP)).isEqualTo(Money.zero(GBP));
+        assertThat(test.getTotals()).hasToString("{GBP=GBP 0.00, USD=USD 0.00}");
+    }
+
+    @Test
+    void test_longGap() {
+        var clock = new ManualClock(START);
+        var test = new MoneySlidingWindow(Duration.ofSeconds(10), 10, Duration.ZERO, clock);
+        test.add(Money.parse("GBP 1.00"));
+        clock.advance(Duration.ofDays(3));
+        assertThat(test.getTotal(GBP)).isEqualTo(Money.zero(GBP));
+        test.add(Money.parse("GBP 2.00"));
+        assertThat(test.getTotal(GBP)).isEqualTo(Money.parse("GBP 2.00"));
+    }
+
+    @Test
+    void test_outOfOrder() {
+        var clock = new ManualClock(START);
+        var test = new MoneySlidingWindow(Duration.ofSeconds(60), 12, Duration.ofSeconds(10), clock);
+        clock.advance(Duration.ofMillis(20_000));
+        assertThat(test.add(Money.parse("GBP 1.00"), START.plusSeconds(15))).isTrue();
+        assertThat(test.add(Money.parse("GBP 2.00"), START.plusSeconds(9))).isFalse();
+        assertThat(test.add(Money.parse("GBP 4.00"), START.plusSeconds(30))).isTrue();
+        assertThat(test.addMinor(GBP, 800, START.plusSeconds(10).toEpochMilli())).isTrue();
+        assertThat(test.getTotal(GBP)).isEqualTo(Money.parse("GBP 13.00"));
+        // the late amounts expire according to their own timestamps
+        clock.advance(Duration.ofMillis(50_000));
+        assertThat(test.getTotal(GBP)).isEqualTo(Money.parse("GBP 5.00"));
+        clock.advance(Duration.ofMillis(5_000));
+        assertThat(test.getTotal(GBP)).isEqualTo(Money.parse("GBP 4.00"));
+        clock.advance(Duration.ofMillis(5_000));
+        assertThat(test.getTotal(GBP)).isEqualTo(Money.zero(GBP));
+    }
+
+    @Test
+    void test_outOfOrder_beyondWindow() {
+        var clock = new ManualClock(START);
+        var test = new MoneySlidingWindow(Duration.ofSeconds(10), 10, Duration.ofSeconds(60), clock);
+        clock.advance(Duration.ofMillis(30_000));
+        assertThat(test.add(Money.parse("GBP 1.00"), START.plusSeconds(5))).isFalse();
+        assertThat(test.add(Money.parse("GBP 1.00"), START.plusSeconds(21))).isTrue();
+        assertThat(test.getTotal(GBP)).isEqualTo(Money.parse("GBP 1.00"));
+    }
+
+    @Test
+    void test_defaultConstructor() {
+        var test = new MoneySlidingWindow(Duration.ofMinutes(1), 6);
+        test.add(Money.parse("GBP 1.00"));
+        assertThat(test.getTotal(GBP)).isEqualTo(Money.parse("GBP 1.00"));
+        assertThat(test).hasToString("MoneySlidingWindow[PT1M, totals=[GBP 1.00]]");
+    }
+
+    @Test
+    void test_manyCurrencies() {
+        var clock = new ManualClock(START);
+        var test = new MoneySlidingWindow(Duration.ofSeconds(1), 1, Duration.ZERO, clock);
+        var currencies = CurrencyUnit.registeredCurrencies();
+        for (var currency : currencies) {
+            test.add(Money.ofMinor(currency, 7));
+        }
+        assertThat(test.getTotals()).hasSize(currencies.size());
+        assertThat(test.getTotal(CurrencyUnit.JPY)).isEqualTo(Money.ofMinor(CurrencyUnit.JPY, 7));
+    }
+
+    //-----------------------------------------------------------------------
+    @Test
+    void test_overflow() {
+        var clock = new ManualClock(START);
+        var test = new MoneySlidingWindow(Duration.ofSeconds(10), 10, Duration.ZERO, clock);
+        test.add(Money.ofMinor(GBP, Long.MAX_VALUE));
+        assertThatExceptionOfType(ArithmeticException.class)
+            .isThrownBy(() -> test.add(Money.ofMinor(GBP, 1)));
+        assertThatExceptionOfType(ArithmeticException.class)
+            .isThrownBy(() -> test.add(Money.parse("GBP 123456789012345678901234567890")));
+        assertThat(test.getTotalMinor(GBP)).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void test_constructor_invalid() {
+        var clock = new ManualClock(START);
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> new MoneySlidingWindow(Duration.ZERO, 1));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> new MoneySlidingWindow(Duration.ofSeconds(1), 0));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> new MoneySlidingWindow(Duration.ofSeconds(1), 7));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> new MoneySlidingWindow(Duration.ofNanos(1_500_000), 1));
+        assertThatExceptionOfType(IllegalArgumentException.class)
+            .isThrownBy(() -> new MoneySlidingWindow(Duration.ofSeconds(1), 1, Duration.ofSeconds(-1), clock));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> new MoneySlidingWindow(Duration.ofSeconds(1), 1, Duration.ZERO, null));
+        assertThatExceptionOfType(NullPointerException.class)
+            .isThrownBy(() -> new MoneySlidingWindow(null, 1));
+    }
+
+}